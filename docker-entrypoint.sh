@@ -85,10 +85,19 @@ fi
 # Configure cache
 if [ "$CACHE_ENABLED" = "true" ] || [ "$CACHE_ENABLED" = "TRUE" ]; then
     JAVA_OPTS="$JAVA_OPTS -Dspring.cache.type=simple"
+    # AOT bean definitions were generated for the HTTP server with the simple cache
+    if [ "$MCP_TRANSPORT" != "stdio" ]; then
+        JAVA_OPTS="$JAVA_OPTS -Dspring.aot.enabled=true"
+    fi
 else
     JAVA_OPTS="$JAVA_OPTS -Dspring.cache.type=none"
 fi
 
+# Class data sharing archive generated at image build
+if [ -f app.jsa ]; then
+    JAVA_OPTS="$JAVA_OPTS -XX:SharedArchiveFile=app.jsa -Xshare:auto"
+fi
+
 # Configure Spring profile
 if [ -n "$SPRING_PROFILES_ACTIVE" ]; then
     JAVA_OPTS="$JAVA_OPTS -Dspring.profiles.active=$SPRING_PROFILES_ACTIVE"
@@ -98,4 +107,4 @@ echo "🚀 Iniciando aiToSql MCP Server..."
 echo "📋 Java Options: $JAVA_OPTS"
 
 # Execute the application
-exec java $JAVA_OPTS -jar app.jar
+exec java $JAVA_OPTS -cp "app.jar:lib/*" com.magacho.aiToSql.AiToSqlApplication
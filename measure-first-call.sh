@@ -0,0 +1,104 @@
+#!/bin/bash
+
+# Time to first successful tools/call against an in-memory H2 database
+#
+# Launches the server in each startup configuration and measures the time
+# from process start until a secureDatabaseQuery answers without error, then
+# the RSS at that point.
+#
+#   jar       java -jar style launch of the packaged jar (nested jars)
+#   exploded  unpacked jar on a plain classpath
+#   lazy      exploded + spring.main.lazy-initialization
+#   aot       lazy + Spring AOT bean definitions (needs mvn -Pstartup package)
+#   cds       aot (or lazy) + AppCDS archive from a training run
+#
+# Usage: ./measure-first-call.sh [runs]
+#   build first with: mvn -Pstartup package -DskipTests
+
+set -e
+
+RUNS=${1:-3}
+PORT=${PORT:-18080}
+MAIN=com.magacho.aiToSql.AiToSqlApplication
+JAR=$(ls target/aiToSql-*.jar 2>/dev/null | grep -v original | head -1)
+WORK=target/startup-bench
+DB_ARGS="--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1 --spring.datasource.driver-class-name=org.h2.Driver
+ --spring.datasource.username=sa --spring.datasource.password= --spring.cache.type=simple --server.port=$PORT"
+CALL='{"jsonrpc":"2.0","method":"tools/call","params":{"name":"secureDatabaseQuery","arguments":{"queryDescription":"SELECT 1 AS ONE"}},"id":1}'
+
+[ -n "$JAR" ] || { echo "No jar in target/, run mvn -Pstartup package -DskipTests"; exit 1; }
+
+# H2 is a test dependency, so it is added to the classpath separately
+rm -rf "$WORK"
+mkdir -p "$WORK/exploded"
+mvn -q dependency:copy-dependencies -DincludeArtifactIds=h2 -DincludeScope=test -DoutputDirectory="$WORK/h2"
+H2=$(ls "$WORK"/h2/h2-*.jar)
+(cd "$WORK/exploded" && jar -xf "../../../$JAR")
+# CDS only archives classes loaded from jars, so the application classes are jarred again
+jar -cf "$WORK/classes.jar" -C "$WORK/exploded/BOOT-INF/classes" .
+CP="$WORK/classes.jar:$WORK/exploded/BOOT-INF/lib/*:$H2"
+
+AOT_FLAGS=""
+if ls "$WORK"/exploded/BOOT-INF/classes/com/magacho/aiToSql/*__ApplicationContextInitializer.class > /dev/null 2>&1; then
+    AOT_FLAGS="-Dspring.aot.enabled=true"
+fi
+
+now_ms() {
+    date +%s%3N
+}
+
+rss_mb() {
+    awk '/VmRSS/ { printf "%.1f", $2 / 1024 }' "/proc/$1/status"
+}
+
+command_for() {
+    case "$1" in
+        jar)      echo "java -Dloader.path=$H2 -cp $JAR org.springframework.boot.loader.launch.PropertiesLauncher $DB_ARGS" ;;
+        exploded) echo "java -cp $CP $MAIN $DB_ARGS" ;;
+        lazy)     echo "java -cp $CP $MAIN $DB_ARGS --spring.main.lazy-initialization=true" ;;
+        aot)      echo "java $AOT_FLAGS -cp $CP $MAIN $DB_ARGS --spring.main.lazy-initialization=true" ;;
+        cds)      echo "java -XX:SharedArchiveFile=$WORK/app.jsa -Xshare:auto $AOT_FLAGS -cp $CP $MAIN $DB_ARGS --spring.main.lazy-initialization=true" ;;
+    esac
+}
+
+measure() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    # Word splitting of the command is intended; the classpath wildcard is expanded by java
+    set -f
+    $(command_for "$1") > "$WORK/$1.log" 2>&1 &
+    pid=$!
+    set +f
+    until curl -sf -X POST "http://localhost:$PORT/mcp" -H "Content-Type: application/json" -d "$CALL" \
+            2> /dev/null | grep -q '"isError":false'; do
+        kill -0 $pid 2> /dev/null || { echo "failed -"; return; }
+        sleep 0.02
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(rss_mb $pid)
+    kill $pid
+    wait $pid 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+# CDS training run: load everything up to a refreshed context, dump the archive, exit
+set -f
+java -XX:ArchiveClassesAtExit="$WORK/app.jsa" -Dspring.context.exit=onRefresh $AOT_FLAGS \
+    -cp "$CP" $MAIN $DB_ARGS --spring.main.lazy-initialization=true > "$WORK/cds-training.log" 2>&1 || true
+set +f
+
+MODES="jar exploded lazy"
+[ -n "$AOT_FLAGS" ] && MODES="$MODES aot" || echo "(no AOT classes in $JAR, skipping aot)"
+[ -f "$WORK/app.jsa" ] && MODES="$MODES cds" || echo "(CDS training run failed, skipping cds)"
+
+echo "=========================================="
+echo "Time to first tools/call ($RUNS runs each)"
+echo "=========================================="
+printf "%-9s %-4s %14s %10s\n" "mode" "run" "first call (ms)" "RSS (MB)"
+
+for mode in $MODES; do
+    for run in $(seq 1 "$RUNS"); do
+        read -r elapsed rss < <(measure "$mode")
+        printf "%-9s %-4s %14s %10s\n" "$mode" "$run" "$elapsed" "$rss"
+    done
+done
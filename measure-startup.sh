@@ -0,0 +1,72 @@
+#!/bin/bash
+
+# Startup time and memory: HTTP mode vs stdio mode
+#
+# HTTP:  time until GET /mcp answers, then RSS
+# stdio: time until the initialize response is written to stdout, then RSS
+#
+# Usage: ./measure-startup.sh [runs]
+#   JAVA_CMD   command that starts the server (default: java -jar target/aiToSql-*.jar)
+#   DB_URL, DB_USERNAME, DB_PASSWORD are passed through to the server
+
+RUNS=${1:-3}
+PORT=${PORT:-18080}
+JAVA_CMD=${JAVA_CMD:-"java -jar $(ls target/aiToSql-*.jar 2>/dev/null | grep -v original | head -1)"}
+INIT='{"jsonrpc":"2.0","method":"initialize","params":{},"id":1}'
+
+now_ms() {
+    date +%s%3N
+}
+
+rss_mb() {
+    awk '/VmRSS/ { printf "%.1f", $2 / 1024 }' "/proc/$1/status"
+}
+
+measure_http() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    $JAVA_CMD --server.port="$PORT" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf "http://localhost:$PORT/mcp" > /dev/null; do
+        kill -0 $pid 2> /dev/null || { echo "failed -"; return; }
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(rss_mb $pid)
+    kill $pid
+    wait $pid 2> /dev/null
+    echo "$elapsed $rss"
+}
+
+measure_stdio() {
+    local start pid elapsed rss dir
+    dir=$(mktemp -d)
+    mkfifo "$dir/in"
+    start=$(now_ms)
+    $JAVA_CMD --stdio < "$dir/in" > "$dir/out" 2> /dev/null &
+    pid=$!
+    exec 3> "$dir/in"
+    echo "$INIT" >&3
+    until grep -q protocolVersion "$dir/out" 2> /dev/null; do
+        kill -0 $pid 2> /dev/null || { exec 3>&-; rm -rf "$dir"; echo "failed -"; return; }
+        sleep 0.05
+    done
+    elapsed=$(( $(now_ms) - start ))
+    rss=$(rss_mb $pid)
+    exec 3>&-
+    wait $pid 2> /dev/null
+    rm -rf "$dir"
+    echo "$elapsed $rss"
+}
+
+echo "=========================================="
+echo "Startup: HTTP vs stdio ($RUNS runs each)"
+echo "=========================================="
+printf "%-6s %-4s %12s %10s\n" "mode" "run" "ready (ms)" "RSS (MB)"
+
+for mode in http stdio; do
+    for run in $(seq 1 "$RUNS"); do
+        read -r elapsed rss < <(measure_$mode)
+        printf "%-6s %-4s %12s %10s\n" "$mode" "$run" "$elapsed" "$rss"
+    done
+done
@@ -1,22 +1,46 @@
 package com.magacho.aiToSql;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
 
 /**
  * MCP Server Application - Model Context Protocol Server
  * Provides database introspection and query tools for LLM agents
+ *
+ * Started with --stdio (or MCP_TRANSPORT=stdio) it serves MCP over
+ * stdin/stdout without the embedded web server.
  */
 @SpringBootApplication
 @EnableCaching
 public class AiToSqlApplication {
 
     public static void main(String[] args) {
+        if (isStdioMode(args)) {
+            // stdout carries the protocol; logs and anything else printed go to stderr
+            System.setOut(System.err);
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(AiToSqlApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("stdio")
+                    .run(args);
+            System.exit(SpringApplication.exit(context));
+        }
+
         SpringApplication.run(AiToSqlApplication.class, args);
         System.out.println("=================================================");
         System.out.println("MCP Server Started - Database Introspection Tool");
         System.out.println("JSON-RPC 2.0 Endpoint: http://localhost:8080/mcp");
         System.out.println("=================================================");
     }
+
+    static boolean isStdioMode(String[] args) {
+        return Arrays.asList(args).contains("--stdio")
+                || Arrays.asList(args).contains("--mcp.transport=stdio")
+                || "stdio".equalsIgnoreCase(System.getenv("MCP_TRANSPORT"));
+    }
 }
@@ -1,11 +1,137 @@
 package com.magacho.aiToSql.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.magacho.aiToSql.service.McpMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Cache configuration for MCP Server
- * Caches database metadata to improve performance
+ * Caches database metadata to improve performance, keyed per tenant.
+ * Metadata lookups use {@code @Cacheable(sync = true)}: concurrent misses load
+ * once, and the loader is what {@link RefreshAheadCacheManager} reruns.
+ *
+ * With Caffeine (spring.cache.type, the default) every cache in
+ * mcp.caches.specs is bounded by its share of mcp.caches.memory-budget-mb,
+ * weighed by {@link RetainedSizeEstimator}, so one large schema evicts many
+ * small trigger lists rather than counting as one entry of a hundred. With
+ * mcp.caches.off-heap each is a {@link TieredCache}: large and evicted
+ * entries move to serialized storage outside the heap.
  */
 @Configuration
-public class CachingConfig {
+public class CachingConfig implements CachingConfigurer {
+
+    @Override
+    public KeyGenerator keyGenerator() {
+        return new TenantKeyGenerator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.cache.type", havingValue = "caffeine", matchIfMissing = true)
+    CacheManager caffeineCacheManager(McpServerConfig config, ObjectProvider<MeterRegistry> meterRegistry) {
+        return caffeineCacheManager(config.getCaches(), meterRegistry.getIfAvailable());
+    }
+
+    /**
+     * One weight-bounded Caffeine cache per spec, backed by an off-heap tier
+     * when mcp.caches.off-heap is enabled; no caches beyond those
+     *
+     * @param meterRegistry where cache statistics are published (null: not published)
+     */
+    static SimpleCacheManager caffeineCacheManager(McpServerConfig.Caches settings, MeterRegistry meterRegistry) {
+        List<AbstractValueAdaptingCache> caches = new ArrayList<>();
+        settings.getSpecs().forEach((name, spec) -> {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                    .maximumWeight(settings.budgetBytes(name))
+                    .weigher(RetainedSizeEstimator::weigh);
+            Duration expireAfterWrite = Duration.ofMillis(Math.max(0, spec.getExpireAfterMs()));
+            if (settings.isRecordStats()) {
+                builder.recordStats();
+            }
+            Cache<Object, Object> onHeap;
+            if (settings.getOffHeap().isEnabled()) {
+                TieredCache tiered = new TieredCache(name, builder, new OffHeapStore(settings.offHeapBytes(name)),
+                        settings.getOffHeap().getMaxOnHeapEntryKb() * 1024, expireAfterWrite, Ticker.systemTicker());
+                if (meterRegistry != null) {
+                    monitorOffHeap(meterRegistry, tiered);
+                }
+                onHeap = tiered.getNativeCache();
+                caches.add(tiered);
+            } else {
+                if (!expireAfterWrite.isZero()) {
+                    builder.expireAfterWrite(expireAfterWrite);
+                }
+                onHeap = builder.build();
+                caches.add(new CaffeineCache(name, onHeap));
+            }
+            if (settings.isRecordStats() && meterRegistry != null) {
+                CaffeineCacheMetrics.monitor(meterRegistry, onHeap, name);
+            }
+        });
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(caches);
+        manager.initializeCaches();
+        return manager;
+    }
+
+    private static void monitorOffHeap(MeterRegistry registry, TieredCache cache) {
+        Gauge.builder("mcp.cache.offheap.bytes", cache, TieredCache::offHeapBytes)
+                .description("Bytes of serialized entries held off the heap")
+                .tag("cache", cache.getName())
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("mcp.cache.offheap.entries", cache, TieredCache::offHeapEntries)
+                .description("Entries held off the heap")
+                .tag("cache", cache.getName())
+                .register(registry);
+        FunctionCounter.builder("mcp.cache.offheap.spills", cache, TieredCache::spills)
+                .description("Entries moved off the heap, evicted from it or too large for it")
+                .tag("cache", cache.getName())
+                .register(registry);
+        FunctionCounter.builder("mcp.cache.offheap.hits", cache, TieredCache::offHeapHits)
+                .description("Lookups answered from the off-heap tier")
+                .tag("cache", cache.getName())
+                .register(registry);
+    }
+
+    /**
+     * Count hits and misses of the auto-configured cache manager, whichever
+     * provider backs it, and refresh stale metadata entries ahead of expiry
+     * (static: post-processors are created before other beans)
+     */
+    @Bean
+    static BeanPostProcessor meteredCacheManagerPostProcessor(ObjectProvider<McpMetrics> meters,
+                                                              ObjectProvider<McpServerConfig> config) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof MeteredCacheManager)) {
+                    CacheManager target = config.getObject().getCacheRefresh().isEnabled()
+                            ? new RefreshAheadCacheManager(cacheManager, config.getObject(), meters.getObject())
+                            : cacheManager;
+                    return new MeteredCacheManager(target, meters.getObject());
+                }
+                return bean;
+            }
+        };
+    }
 }
@@ -0,0 +1,331 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource Router
+ *
+ * Splits database traffic into routes so heavy agent queries and catalog
+ * crawls do not compete for the same connections:
+ * - query: round-robin over healthy read replicas (mcp.routing.replica-urls),
+ *   failing over to the next replica and finally to the primary
+ * - metadata: a small dedicated pool on the primary (mcp.routing.metadata-pool-size)
+ *
+ * A call whose session selected a tenant bypasses both routes and uses that
+ * tenant's pool (see {@link TenantDataSources}).
+ *
+ * Without replicas the query route uses the primary pool. Each pool publishes
+ * HikariCP metrics (hikaricp.connections.active/pending/...) tagged with its pool
+ * name, and replica health is exposed as mcp.datasource.replica.healthy.
+ */
+@Component
+public class DataSourceRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSourceRouter.class);
+
+    private final DataSource primary;
+    private final DataSource metadataDataSource;
+    private final DataSource queryDataSource;
+    private final JdbcTemplate metadataJdbcTemplate;
+    private final JdbcTemplate queryJdbcTemplate;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final List<HikariDataSource> ownedPools = new ArrayList<>();
+    private final List<HikariDataSource> queryPools = new ArrayList<>();
+    private final JdbcDriverResolver drivers;
+
+    public DataSourceRouter(DataSource dataSource, DataSourceProperties properties, McpServerConfig config,
+                            TenantDataSources tenants, JdbcDriverResolver drivers,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.primary = dataSource;
+        this.drivers = drivers;
+        McpServerConfig.Routing routing = config.getRouting();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+
+        DataSource metadataRoute;
+        if (routing.getMetadataPoolSize() > 0) {
+            metadataRoute = createPool("mcp-metadata", properties.determineUrl(),
+                    properties.determineUsername(), properties.determinePassword(),
+                    properties.determineDriverClassName(), routing.getMetadataPoolSize(), routing, registry);
+        } else {
+            metadataRoute = primary;
+        }
+
+        List<String> replicaUrls = routing.getReplicaUrls();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String url = replicaUrls.get(i).trim();
+            if (url.isEmpty()) {
+                continue;
+            }
+            String name = "mcp-replica-" + (i + 1);
+            HikariDataSource pool = createPool(name, url,
+                    routing.getReplicaUsername() != null ? routing.getReplicaUsername() : properties.determineUsername(),
+                    routing.getReplicaPassword() != null ? routing.getReplicaPassword() : properties.determinePassword(),
+                    null, routing.getQueryPoolSize(), routing, registry);
+            Replica replica = new Replica(name, pool);
+            replicas.add(replica);
+            queryPools.add(pool);
+            if (registry != null) {
+                Gauge.builder("mcp.datasource.replica.healthy", replica, r -> r.isHealthy() ? 1 : 0)
+                        .description("1 if the read replica is accepting connections, 0 while failed over")
+                        .tag("replica", name)
+                        .register(registry);
+            }
+        }
+
+        if (replicas.isEmpty() && primary instanceof HikariDataSource primaryPool) {
+            queryPools.add(primaryPool);
+        }
+        DataSource queryRoute = replicas.isEmpty()
+                ? primary
+                : new ReplicaRoutingDataSource(replicas, routing.isFallbackToPrimary() ? primary : null,
+                        routing.getRetryUnhealthyAfterMs());
+        this.queryDataSource = tenants.isEnabled() ? new TenantRoutingDataSource(tenants, queryRoute) : queryRoute;
+        this.metadataDataSource = tenants.isEnabled()
+                ? new TenantRoutingDataSource(tenants, metadataRoute) : metadataRoute;
+        this.metadataJdbcTemplate = new JdbcTemplate(metadataDataSource);
+        this.queryJdbcTemplate = new JdbcTemplate(queryDataSource);
+
+        log.info("DataSource routing: {} read replica(s) for queries, metadata pool {}",
+                replicas.size(), metadataRoute == primary ? "shared with primary" : "mcp-metadata");
+    }
+
+    /**
+     * DataSource for agent queries (replicas with failover, or the primary)
+     */
+    public DataSource queryDataSource() {
+        return queryDataSource;
+    }
+
+    /**
+     * DataSource for schema, table and trigger introspection
+     */
+    public DataSource metadataDataSource() {
+        return metadataDataSource;
+    }
+
+    public JdbcTemplate queryJdbcTemplate() {
+        return queryJdbcTemplate;
+    }
+
+    public JdbcTemplate metadataJdbcTemplate() {
+        return metadataJdbcTemplate;
+    }
+
+    /**
+     * Pools behind the query route: the replicas, or the primary without them
+     * (empty if the primary is not a HikariCP pool)
+     */
+    public List<HikariDataSource> queryPools() {
+        return queryPools;
+    }
+
+    /**
+     * Names of replicas currently considered healthy
+     */
+    public List<String> healthyReplicas() {
+        return replicas.stream().filter(Replica::isHealthy).map(Replica::name).toList();
+    }
+
+    @PreDestroy
+    public void close() {
+        ownedPools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource createPool(String name, String url, String username, String password,
+                                        String driverClassName, int maxPoolSize,
+                                        McpServerConfig.Routing routing, MeterRegistry registry) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        if (driverClassName != null) {
+            pool.setDriverClassName(driverClassName);
+        }
+        drivers.bindDriver(pool);
+        pool.setMaximumPoolSize(maxPoolSize);
+        pool.setMinimumIdle(Math.min(1, maxPoolSize));
+        pool.setConnectionTimeout(routing.getConnectionTimeoutMs());
+        pool.setReadOnly(true);
+        // Start without connecting so an unreachable replica does not block startup
+        pool.setInitializationFailTimeout(-1);
+        if (registry != null) {
+            pool.setMetricRegistry(registry);
+        }
+        ownedPools.add(pool);
+        return pool;
+    }
+
+    static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long unhealthySince;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return name;
+        }
+
+        boolean isHealthy() {
+            return unhealthySince == 0;
+        }
+
+        boolean isAvailable(long now, long retryAfterMs) {
+            return unhealthySince == 0 || now - unhealthySince >= retryAfterMs;
+        }
+
+        void markHealthy() {
+            if (unhealthySince != 0) {
+                log.info("Read replica {} recovered", name);
+                unhealthySince = 0;
+            }
+        }
+
+        void markUnhealthy(Exception cause) {
+            if (unhealthySince == 0) {
+                log.warn("Read replica {} failed, routing queries elsewhere: {}", name, cause.getMessage());
+            }
+            unhealthySince = System.currentTimeMillis();
+        }
+
+        /**
+         * Whether a failed borrow only timed out waiting for a busy pool that
+         * has live connections; when the replica cannot be reached, Hikari
+         * attaches the last connection failure to the timeout
+         */
+        boolean isSaturated(Exception failure) {
+            return failure instanceof SQLTransientConnectionException && failure.getCause() == null
+                    && dataSource instanceof HikariDataSource pool && pool.getHikariPoolMXBean() != null
+                    && pool.getHikariPoolMXBean().getTotalConnections() > 0;
+        }
+    }
+
+    /**
+     * Round-robin over available replicas. A replica whose pool cannot hand out a
+     * connection is skipped until retryUnhealthyAfterMs has passed, then probed again
+     * by the next request (half-open).
+     *
+     * A replica whose pool is merely saturated (every connection busy past the
+     * connection timeout) stays healthy: the next replica is tried, and if none
+     * can serve the caller gets the timeout rather than moving the load to the
+     * primary.
+     */
+    static final class ReplicaRoutingDataSource extends AbstractDataSource {
+
+        private final List<Replica> replicas;
+        private final DataSource fallback;
+        private final long retryUnhealthyAfterMs;
+        private final AtomicInteger next = new AtomicInteger();
+
+        ReplicaRoutingDataSource(List<Replica> replicas, DataSource fallback, long retryUnhealthyAfterMs) {
+            this.replicas = replicas;
+            this.fallback = fallback;
+            this.retryUnhealthyAfterMs = retryUnhealthyAfterMs;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            long now = System.currentTimeMillis();
+            int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+            SQLException failure = null;
+            SQLException saturated = null;
+
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.isAvailable(now, retryUnhealthyAfterMs)) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.markHealthy();
+                    return connection;
+                } catch (SQLException | RuntimeException e) {
+                    if (replica.isSaturated(e)) {
+                        log.debug("Read replica {} is saturated: {}", replica.name(), e.getMessage());
+                        if (saturated == null) {
+                            saturated = (SQLException) e;
+                        }
+                        continue;
+                    }
+                    replica.markUnhealthy(e);
+                    if (failure == null) {
+                        failure = e instanceof SQLException sql ? sql : new SQLException(e.getMessage(), e);
+                    }
+                }
+            }
+
+            if (saturated != null) {
+                throw saturated;
+            }
+            if (fallback != null) {
+                log.debug("No read replica available, using primary");
+                return fallback.getConnection();
+            }
+            throw failure != null ? failure : new SQLException("No healthy read replica available");
+        }
+
+        /**
+         * Not supported, as by the replica pools themselves (HikariDataSource):
+         * replicas are opened with mcp.routing.replica-username/password
+         */
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLFeatureNotSupportedException("Replica routing uses the configured credentials");
+        }
+    }
+
+    /**
+     * Sends calls of a tenant session to the tenant's pool, everything else
+     * to the default route
+     */
+    static final class TenantRoutingDataSource extends AbstractDataSource {
+
+        private final TenantDataSources tenants;
+        private final DataSource defaultRoute;
+
+        TenantRoutingDataSource(TenantDataSources tenants, DataSource defaultRoute) {
+            this.tenants = tenants;
+            this.defaultRoute = defaultRoute;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            String tenant = McpCallContext.current().session().tenant();
+            return tenant != null ? tenants.getConnection(tenant) : defaultRoute.getConnection();
+        }
+
+        /**
+         * A tenant session still gets its tenant's pool, opened with the
+         * tenant's configured credentials; other calls pass them on
+         */
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            String tenant = McpCallContext.current().session().tenant();
+            return tenant != null ? tenants.getConnection(tenant) : defaultRoute.getConnection(username, password);
+        }
+    }
+}
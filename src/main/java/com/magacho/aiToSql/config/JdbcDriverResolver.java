@@ -1,9 +1,14 @@
 package com.magacho.aiToSql.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
 
+import java.sql.Driver;
+import java.sql.DriverManager;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -131,6 +136,44 @@ public class JdbcDriverResolver {
         return resolveDriverByUrl(jdbcUrl);
     }
 
+    /**
+     * Makes a pool open connections through its driver directly. Hikari otherwise
+     * finds the driver through DriverManager, whose first use loads and
+     * registers every driver bundled in the image; this way only the one
+     * resolved from the pool's driver class name or URL is ever loaded.
+     * Pools already backed by a DataSource, or whose driver cannot be
+     * resolved, are left as they are.
+     *
+     * The pool still bounds connection attempts by its connection timeout:
+     * the login timeout Hikari sets on the bound DataSource is applied the
+     * way Hikari's own driver wrapper does it (see {@link DriverBoundDataSource}).
+     *
+     * @param pool Pool that has not been started yet
+     */
+    public void bindDriver(HikariDataSource pool) {
+        if (pool.getDataSource() != null || pool.getJdbcUrl() == null) {
+            return;
+        }
+        String driverClass = pool.getDriverClassName() != null
+                ? pool.getDriverClassName()
+                : resolveDriverByUrl(pool.getJdbcUrl()).orElse(null);
+        if (driverClass == null) {
+            return;
+        }
+
+        try {
+            Driver driver = (Driver) ClassUtils.forName(driverClass, JdbcDriverResolver.class.getClassLoader())
+                    .getDeclaredConstructor().newInstance();
+            DriverBoundDataSource dataSource = new DriverBoundDataSource(driver, pool.getJdbcUrl());
+            if (!pool.getDataSourceProperties().isEmpty()) {
+                dataSource.setConnectionProperties(pool.getDataSourceProperties());
+            }
+            pool.setDataSource(dataSource);
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            logger.warn("⚠️  Could not load driver {} directly, using DriverManager: {}", driverClass, e.getMessage());
+        }
+    }
+
     /**
      * Extracts the database type from a JDBC URL
      * 
@@ -163,4 +206,27 @@ public class JdbcDriverResolver {
     public Map<String, String> getSupportedDatabases() {
         return Map.copyOf(DB_TYPE_TO_DRIVER);
     }
+
+    /**
+     * A DataSource over one driver that accepts the pool's login timeout.
+     * Like Hikari's DriverDataSource it sets it through DriverManager, which
+     * drivers consult when a connection has no timeout property of its own;
+     * this does not make DriverManager load the bundled drivers.
+     */
+    static final class DriverBoundDataSource extends SimpleDriverDataSource {
+
+        DriverBoundDataSource(Driver driver, String url) {
+            super(driver, url);
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return DriverManager.getLoginTimeout();
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+            DriverManager.setLoginTimeout(seconds);
+        }
+    }
 }
@@ -1,15 +1,42 @@
 package com.magacho.aiToSql.config;
 
+import com.magacho.aiToSql.dto.QueryResult;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Configuration
 @ConfigurationProperties(prefix = "mcp")
 public class McpServerConfig {
 
     private Server server = new Server();
+    private String transport = "http";
     private int maxQueryRows = 1000;
     private boolean enableQueryLogging = true;
+    private QueryResult.Format queryResultFormat = QueryResult.Format.VERBOSE;
+    private int maxResponseTokens = 0;
+    private String defaultModel = "claude-3.5-sonnet";
+    private CostGate costGate = new CostGate();
+    private Approximate approximate = new Approximate();
+    private Routing routing = new Routing();
+    private Streaming streaming = new Streaming();
+    private WebSocket websocket = new WebSocket();
+    private Tokenizer tokenizer = new Tokenizer();
+    private Pricing pricing = new Pricing();
+    private SlowCalls slowCalls = new SlowCalls();
+    private CallLog callLog = new CallLog();
+    private Tenants tenants = new Tenants();
+    private Admission admission = new Admission();
+    private PoolSizing poolSizing = new PoolSizing();
+    private RateLimit rateLimit = new RateLimit();
+    private FairQueue fairQueue = new FairQueue();
+    private Coalescing coalescing = new Coalescing();
+    private CacheRefresh cacheRefresh = new CacheRefresh();
+    private Caches caches = new Caches();
 
     public Server getServer() {
         return server;
@@ -19,6 +46,17 @@ public class McpServerConfig {
         this.server = server;
     }
 
+    /**
+     * http (Spring MVC, JSON or SSE) or stdio (newline-delimited JSON over stdin/stdout)
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
     public int getMaxQueryRows() {
         return maxQueryRows;
     }
@@ -35,6 +73,174 @@ public class McpServerConfig {
         this.enableQueryLogging = enableQueryLogging;
     }
 
+    public QueryResult.Format getQueryResultFormat() {
+        return queryResultFormat;
+    }
+
+    public void setQueryResultFormat(QueryResult.Format queryResultFormat) {
+        this.queryResultFormat = queryResultFormat;
+    }
+
+    /**
+     * Token budget for tool responses when the call does not pass
+     * maxResponseTokens (0 = unlimited)
+     */
+    public int getMaxResponseTokens() {
+        return maxResponseTokens;
+    }
+
+    public void setMaxResponseTokens(int maxResponseTokens) {
+        this.maxResponseTokens = maxResponseTokens;
+    }
+
+    /**
+     * Model responses are counted and priced for when the client does not
+     * select one (X-MCP-Model header or initialize params.model)
+     */
+    public String getDefaultModel() {
+        return defaultModel;
+    }
+
+    public void setDefaultModel(String defaultModel) {
+        this.defaultModel = defaultModel;
+    }
+
+    public CostGate getCostGate() {
+        return costGate;
+    }
+
+    public void setCostGate(CostGate costGate) {
+        this.costGate = costGate;
+    }
+
+    public Approximate getApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(Approximate approximate) {
+        this.approximate = approximate;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = routing;
+    }
+
+    public Streaming getStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(Streaming streaming) {
+        this.streaming = streaming;
+    }
+
+    public WebSocket getWebsocket() {
+        return websocket;
+    }
+
+    public void setWebsocket(WebSocket websocket) {
+        this.websocket = websocket;
+    }
+
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+
+    public void setTokenizer(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    public Pricing getPricing() {
+        return pricing;
+    }
+
+    public void setPricing(Pricing pricing) {
+        this.pricing = pricing;
+    }
+
+    public SlowCalls getSlowCalls() {
+        return slowCalls;
+    }
+
+    public void setSlowCalls(SlowCalls slowCalls) {
+        this.slowCalls = slowCalls;
+    }
+
+    public CallLog getCallLog() {
+        return callLog;
+    }
+
+    public void setCallLog(CallLog callLog) {
+        this.callLog = callLog;
+    }
+
+    public Tenants getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Tenants tenants) {
+        this.tenants = tenants;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public void setAdmission(Admission admission) {
+        this.admission = admission;
+    }
+
+    public PoolSizing getPoolSizing() {
+        return poolSizing;
+    }
+
+    public void setPoolSizing(PoolSizing poolSizing) {
+        this.poolSizing = poolSizing;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public FairQueue getFairQueue() {
+        return fairQueue;
+    }
+
+    public void setFairQueue(FairQueue fairQueue) {
+        this.fairQueue = fairQueue;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(Coalescing coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public CacheRefresh getCacheRefresh() {
+        return cacheRefresh;
+    }
+
+    public void setCacheRefresh(CacheRefresh cacheRefresh) {
+        this.cacheRefresh = cacheRefresh;
+    }
+
+    public Caches getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Caches caches) {
+        this.caches = caches;
+    }
+
     public static class Server {
         private String name = "Database Introspection MCP Server";
         private String version = "1.0.0";
@@ -55,4 +261,1015 @@ public class McpServerConfig {
             this.version = version;
         }
     }
+
+    /**
+     * EXPLAIN-based cost gate applied before agent queries are executed
+     */
+    public static class CostGate {
+        private boolean enabled = false;
+        private double maxEstimatedRows = 1_000_000;
+        private double maxEstimatedCost = 0;
+        private Action action = Action.REJECT;
+        private int downgradeMaxRows = 100;
+        private int cacheSize = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getMaxEstimatedRows() {
+            return maxEstimatedRows;
+        }
+
+        public void setMaxEstimatedRows(double maxEstimatedRows) {
+            this.maxEstimatedRows = maxEstimatedRows;
+        }
+
+        public double getMaxEstimatedCost() {
+            return maxEstimatedCost;
+        }
+
+        public void setMaxEstimatedCost(double maxEstimatedCost) {
+            this.maxEstimatedCost = maxEstimatedCost;
+        }
+
+        public Action getAction() {
+            return action;
+        }
+
+        public void setAction(Action action) {
+            this.action = action;
+        }
+
+        public int getDowngradeMaxRows() {
+            return downgradeMaxRows;
+        }
+
+        public void setDowngradeMaxRows(int downgradeMaxRows) {
+            this.downgradeMaxRows = downgradeMaxRows;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+
+        public enum Action {
+            REJECT,
+            DOWNGRADE
+        }
+    }
+
+    /**
+     * Sampling settings for approximate-answer queries
+     */
+    public static class Approximate {
+        private long targetSampleRows = 100_000;
+        private long minTableRows = 1_000_000;
+
+        public long getTargetSampleRows() {
+            return targetSampleRows;
+        }
+
+        public void setTargetSampleRows(long targetSampleRows) {
+            this.targetSampleRows = targetSampleRows;
+        }
+
+        public long getMinTableRows() {
+            return minTableRows;
+        }
+
+        public void setMinTableRows(long minTableRows) {
+            this.minTableRows = minTableRows;
+        }
+    }
+
+    /**
+     * Connection routing: read replicas for agent queries and a small
+     * dedicated pool for metadata introspection
+     */
+    public static class Routing {
+        private List<String> replicaUrls = new ArrayList<>();
+        private String replicaUsername;
+        private String replicaPassword;
+        private int queryPoolSize = 10;
+        private int metadataPoolSize = 2;
+        private long connectionTimeoutMs = 5_000;
+        private long retryUnhealthyAfterMs = 10_000;
+        private boolean fallbackToPrimary = true;
+
+        public List<String> getReplicaUrls() {
+            return replicaUrls;
+        }
+
+        public void setReplicaUrls(List<String> replicaUrls) {
+            this.replicaUrls = replicaUrls;
+        }
+
+        public String getReplicaUsername() {
+            return replicaUsername;
+        }
+
+        public void setReplicaUsername(String replicaUsername) {
+            this.replicaUsername = replicaUsername;
+        }
+
+        public String getReplicaPassword() {
+            return replicaPassword;
+        }
+
+        public void setReplicaPassword(String replicaPassword) {
+            this.replicaPassword = replicaPassword;
+        }
+
+        public int getQueryPoolSize() {
+            return queryPoolSize;
+        }
+
+        public void setQueryPoolSize(int queryPoolSize) {
+            this.queryPoolSize = queryPoolSize;
+        }
+
+        public int getMetadataPoolSize() {
+            return metadataPoolSize;
+        }
+
+        public void setMetadataPoolSize(int metadataPoolSize) {
+            this.metadataPoolSize = metadataPoolSize;
+        }
+
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+
+        public long getRetryUnhealthyAfterMs() {
+            return retryUnhealthyAfterMs;
+        }
+
+        public void setRetryUnhealthyAfterMs(long retryUnhealthyAfterMs) {
+            this.retryUnhealthyAfterMs = retryUnhealthyAfterMs;
+        }
+
+        public boolean isFallbackToPrimary() {
+            return fallbackToPrimary;
+        }
+
+        public void setFallbackToPrimary(boolean fallbackToPrimary) {
+            this.fallbackToPrimary = fallbackToPrimary;
+        }
+    }
+
+    /**
+     * SSE (streamable HTTP) transport settings
+     */
+    public static class Streaming {
+        private int maxConcurrentStreams = 64;
+        private int maxQueuedStreams = 256;
+        private long timeoutMs = 300_000;
+        private int rowBatchSize = 100;
+        private int tableBatchSize = 25;
+
+        public int getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+            this.maxConcurrentStreams = maxConcurrentStreams;
+        }
+
+        public int getMaxQueuedStreams() {
+            return maxQueuedStreams;
+        }
+
+        public void setMaxQueuedStreams(int maxQueuedStreams) {
+            this.maxQueuedStreams = maxQueuedStreams;
+        }
+
+        public long getTimeoutMs() {
+            return timeoutMs;
+        }
+
+        public void setTimeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+        }
+
+        public int getRowBatchSize() {
+            return rowBatchSize;
+        }
+
+        public void setRowBatchSize(int rowBatchSize) {
+            this.rowBatchSize = rowBatchSize;
+        }
+
+        public int getTableBatchSize() {
+            return tableBatchSize;
+        }
+
+        public void setTableBatchSize(int tableBatchSize) {
+            this.tableBatchSize = tableBatchSize;
+        }
+    }
+
+    /**
+     * WebSocket transport settings: one socket per agent session carrying
+     * many concurrent JSON-RPC calls
+     */
+    public static class WebSocket {
+        private boolean enabled = true;
+        private String path = "/mcp/ws";
+        /**
+         * Origin patterns allowed to open a socket besides the server's own;
+         * browser pages elsewhere are refused (clients sending no Origin are not)
+         */
+        private String[] allowedOrigins = {};
+        private int workerThreads = 64;
+        private int maxInFlightPerConnection = 32;
+        private long admissionTimeoutMs = 5000;
+        private int sendTimeLimitMs = 10_000;
+        private int sendBufferSizeLimit = 1024 * 1024;
+        private int maxMessageSize = 512 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String[] getAllowedOrigins() {
+            return allowedOrigins;
+        }
+
+        public void setAllowedOrigins(String[] allowedOrigins) {
+            this.allowedOrigins = allowedOrigins;
+        }
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        /**
+         * Calls a single connection may have running; further frames are not
+         * read from the socket until one completes
+         */
+        public int getMaxInFlightPerConnection() {
+            return maxInFlightPerConnection;
+        }
+
+        public void setMaxInFlightPerConnection(int maxInFlightPerConnection) {
+            this.maxInFlightPerConnection = maxInFlightPerConnection;
+        }
+
+        /**
+         * How long a frame waits for an in-flight slot before it is answered with SERVER_BUSY
+         */
+        public long getAdmissionTimeoutMs() {
+            return admissionTimeoutMs;
+        }
+
+        public void setAdmissionTimeoutMs(long admissionTimeoutMs) {
+            this.admissionTimeoutMs = admissionTimeoutMs;
+        }
+
+        public int getSendTimeLimitMs() {
+            return sendTimeLimitMs;
+        }
+
+        public void setSendTimeLimitMs(int sendTimeLimitMs) {
+            this.sendTimeLimitMs = sendTimeLimitMs;
+        }
+
+        /**
+         * Bytes of unsent outbound messages buffered for a slow reader before
+         * the connection is closed
+         */
+        public int getSendBufferSizeLimit() {
+            return sendBufferSizeLimit;
+        }
+
+        public void setSendBufferSizeLimit(int sendBufferSizeLimit) {
+            this.sendBufferSizeLimit = sendBufferSizeLimit;
+        }
+
+        public int getMaxMessageSize() {
+            return maxMessageSize;
+        }
+
+        public void setMaxMessageSize(int maxMessageSize) {
+            this.maxMessageSize = maxMessageSize;
+        }
+    }
+
+    /**
+     * Token counting for response metadata and metrics
+     */
+    public static class Tokenizer {
+        private String defaultEncoding = "cl100k_base";
+        private Map<String, String> modelEncodings = new LinkedHashMap<>();
+
+        /**
+         * Encoding for models without an entry in modelEncodings:
+         * cl100k_base, o200k_base or chars (1 token per 4 characters)
+         */
+        public String getDefaultEncoding() {
+            return defaultEncoding;
+        }
+
+        public void setDefaultEncoding(String defaultEncoding) {
+            this.defaultEncoding = defaultEncoding;
+        }
+
+        public Map<String, String> getModelEncodings() {
+            return modelEncodings;
+        }
+
+        public void setModelEncodings(Map<String, String> modelEncodings) {
+            this.modelEncodings = modelEncodings;
+        }
+    }
+
+    /**
+     * Per-model token prices (USD per million tokens) for response cost and chargeback
+     */
+    public static class Pricing {
+        private Map<String, ModelPricing> models = new LinkedHashMap<>();
+
+        public Map<String, ModelPricing> getModels() {
+            return models;
+        }
+
+        public void setModels(Map<String, ModelPricing> models) {
+            this.models = models;
+        }
+    }
+
+    public static class ModelPricing {
+        private double inputPerMillion;
+        private double outputPerMillion;
+        private Double cachedInputPerMillion;
+
+        public double getInputPerMillion() {
+            return inputPerMillion;
+        }
+
+        public void setInputPerMillion(double inputPerMillion) {
+            this.inputPerMillion = inputPerMillion;
+        }
+
+        public double getOutputPerMillion() {
+            return outputPerMillion;
+        }
+
+        public void setOutputPerMillion(double outputPerMillion) {
+            this.outputPerMillion = outputPerMillion;
+        }
+
+        /**
+         * Price of input read from the model's prompt cache (unset = input price)
+         */
+        public Double getCachedInputPerMillion() {
+            return cachedInputPerMillion;
+        }
+
+        public void setCachedInputPerMillion(Double cachedInputPerMillion) {
+            this.cachedInputPerMillion = cachedInputPerMillion;
+        }
+    }
+
+    /**
+     * Journal of the slowest tool calls, kept per tool in memory
+     */
+    public static class SlowCalls {
+        private int topN = 20;
+        private long minDurationMs = 0;
+
+        public int getTopN() {
+            return topN;
+        }
+
+        public void setTopN(int topN) {
+            this.topN = topN;
+        }
+
+        /**
+         * Calls faster than this are never journaled
+         */
+        public long getMinDurationMs() {
+            return minDurationMs;
+        }
+
+        public void setMinDurationMs(long minDurationMs) {
+            this.minDurationMs = minDurationMs;
+        }
+    }
+
+    /**
+     * Per-call structured log: sampled successes, every slow or failed call
+     */
+    public static class CallLog {
+        private double successSampleRate = 0.01;
+        private long slowCallMs = 1000;
+
+        /**
+         * Fraction of successful calls logged (0 = none, 1 = all)
+         */
+        public double getSuccessSampleRate() {
+            return successSampleRate;
+        }
+
+        public void setSuccessSampleRate(double successSampleRate) {
+            this.successSampleRate = successSampleRate;
+        }
+
+        /**
+         * Calls at least this slow are always logged, with their SQL
+         */
+        public long getSlowCallMs() {
+            return slowCallMs;
+        }
+
+        public void setSlowCallMs(long slowCallMs) {
+            this.slowCallMs = slowCallMs;
+        }
+    }
+
+    /**
+     * Tenant databases a session can select with X-MCP-Tenant or
+     * initialize params.tenant. Each gets its own read-only pool, opened on
+     * first use and closed again after idleEvictAfterMs without traffic.
+     */
+    public static class Tenants {
+        private Map<String, TenantDatabase> databases = new LinkedHashMap<>();
+        private int defaultPoolSize = 5;
+        private int maxTotalConnections = 50;
+        private long idleEvictAfterMs = 600_000;
+        private long connectionTimeoutMs = 5_000;
+
+        public Map<String, TenantDatabase> getDatabases() {
+            return databases;
+        }
+
+        public void setDatabases(Map<String, TenantDatabase> databases) {
+            this.databases = databases;
+        }
+
+        /**
+         * Pool size of tenants without their own max-pool-size
+         */
+        public int getDefaultPoolSize() {
+            return defaultPoolSize;
+        }
+
+        public void setDefaultPoolSize(int defaultPoolSize) {
+            this.defaultPoolSize = defaultPoolSize;
+        }
+
+        /**
+         * Cap on the summed pool sizes of all open tenant pools
+         */
+        public int getMaxTotalConnections() {
+            return maxTotalConnections;
+        }
+
+        public void setMaxTotalConnections(int maxTotalConnections) {
+            this.maxTotalConnections = maxTotalConnections;
+        }
+
+        public long getIdleEvictAfterMs() {
+            return idleEvictAfterMs;
+        }
+
+        public void setIdleEvictAfterMs(long idleEvictAfterMs) {
+            this.idleEvictAfterMs = idleEvictAfterMs;
+        }
+
+        public long getConnectionTimeoutMs() {
+            return connectionTimeoutMs;
+        }
+
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+    }
+
+    /**
+     * One tenant database. Credentials default to the primary datasource's,
+     * the driver is resolved from type or URL.
+     */
+    public static class TenantDatabase {
+        private String url;
+        private String type;
+        private String username;
+        private String password;
+        private Integer maxPoolSize;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Integer getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        public void setMaxPoolSize(Integer maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+        }
+    }
+
+    /**
+     * Admission in front of query execution: at most as many queries run as
+     * the query pools hold connections, up to maxQueued wait for a slot, and
+     * anything beyond is answered with SERVER_BUSY and a retry hint instead
+     * of queueing in the pool until its connection timeout.
+     */
+    public static class Admission {
+        private boolean enabled = true;
+        private int maxQueued = 32;
+        private long maxWaitMs = 2_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Queries allowed to wait for a slot; the next one is refused immediately
+         */
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        /**
+         * How long a queued query waits for a slot before it is refused
+         */
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+    }
+
+    /**
+     * Resizing of the query pools from measured load: every intervalMs the
+     * mean number of queries in flight (Little's law: throughput x latency)
+     * times headroom becomes the target size, raised when queries had to
+     * wait. Growth applies at once, shrinking halves the gap per interval.
+     * The size stays within [minSize, maxSize] and below databaseShare of the
+     * server's own connection limit where the database reports one.
+     */
+    public static class PoolSizing {
+        private boolean enabled = true;
+        private int minSize = 2;
+        private int maxSize = 40;
+        private double headroom = 1.5;
+        private double databaseShare = 0.5;
+        private long intervalMs = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        /**
+         * Connections kept per query in flight on average
+         */
+        public double getHeadroom() {
+            return headroom;
+        }
+
+        public void setHeadroom(double headroom) {
+            this.headroom = headroom;
+        }
+
+        /**
+         * Fraction of the database's max_connections one pool may take
+         */
+        public double getDatabaseShare() {
+            return databaseShare;
+        }
+
+        public void setDatabaseShare(double databaseShare) {
+            this.databaseShare = databaseShare;
+        }
+
+        public long getIntervalMs() {
+            return intervalMs;
+        }
+
+        public void setIntervalMs(long intervalMs) {
+            this.intervalMs = intervalMs;
+        }
+    }
+
+    /**
+     * Per-client token buckets for tools/call: each client may call a tool
+     * ratePerSecond times per second on average, in bursts of up to burst
+     * calls. Tools without an entry under tools use defaultLimit. Off by
+     * default.
+     */
+    public static class RateLimit {
+        private boolean enabled;
+        private ToolLimit defaultLimit = new ToolLimit(20, 40);
+        private Map<String, ToolLimit> tools = new LinkedHashMap<>();
+        private int maxTrackedClients = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public ToolLimit getDefaultLimit() {
+            return defaultLimit;
+        }
+
+        public void setDefaultLimit(ToolLimit defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        public Map<String, ToolLimit> getTools() {
+            return tools;
+        }
+
+        public void setTools(Map<String, ToolLimit> tools) {
+            this.tools = tools;
+        }
+
+        /**
+         * Clients with rate state kept; beyond it clients with full buckets are forgotten
+         */
+        public int getMaxTrackedClients() {
+            return maxTrackedClients;
+        }
+
+        public void setMaxTrackedClients(int maxTrackedClients) {
+            this.maxTrackedClients = maxTrackedClients;
+        }
+    }
+
+    public static class ToolLimit {
+        private double ratePerSecond;
+        private int burst;
+
+        public ToolLimit() {
+        }
+
+        public ToolLimit(double ratePerSecond, int burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+        }
+
+        public double getRatePerSecond() {
+            return ratePerSecond;
+        }
+
+        public void setRatePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+    }
+
+    /**
+     * Weighted fair queueing of tool executions: at most maxConcurrentCalls
+     * run at once (0 = unbounded); when all are taken, waiting calls are
+     * started in start-time fair order, so each client gets a share of the
+     * slots proportional to its weight (clientWeights, default 1) however
+     * many calls it has queued.
+     */
+    public static class FairQueue {
+        private int maxConcurrentCalls = 16;
+        private long maxWaitMs = 5_000;
+        private Map<String, Double> clientWeights = new LinkedHashMap<>();
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        /**
+         * How long a call waits for its turn before it is answered with SERVER_BUSY
+         */
+        public long getMaxWaitMs() {
+            return maxWaitMs;
+        }
+
+        public void setMaxWaitMs(long maxWaitMs) {
+            this.maxWaitMs = maxWaitMs;
+        }
+
+        public Map<String, Double> getClientWeights() {
+            return clientWeights;
+        }
+
+        public void setClientWeights(Map<String, Double> clientWeights) {
+            this.clientWeights = clientWeights;
+        }
+    }
+
+    /**
+     * Single-flight tool calls: concurrent calls with the same tool, arguments
+     * and tenant share one execution. A secureDatabaseQuery result also
+     * answers identical queries from the query-results cache until it
+     * expires (mcp.caches.specs.query-results.expire-after-ms).
+     */
+    public static class Coalescing {
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * Stale-while-revalidate for caches with a refreshAfterMs: an entry older
+     * than that is still served while a background thread reloads it; only
+     * an entry past the cache's expireAfterMs is reloaded in the caller.
+     */
+    public static class CacheRefresh {
+        private boolean enabled = true;
+        private int threads = 2;
+        private int queueSize = 64;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Background refresh threads
+         */
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        /**
+         * Refreshes waiting for a thread; beyond it stale entries are served until the next call
+         */
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+    }
+
+    /**
+     * Cache sizing: each cache in specs may hold share of memoryBudgetMb,
+     * measured by the estimated retained size of its entries.
+     */
+    public static class Caches {
+        private long memoryBudgetMb = 256;
+        private boolean recordStats = true;
+        private OffHeap offHeap = new OffHeap();
+        private Map<String, CacheSpec> specs = new LinkedHashMap<>(Map.of(
+                "schema-structure", new CacheSpec(0.40, 7_200_000, 1_800_000),
+                "table-details", new CacheSpec(0.30, 7_200_000, 1_800_000),
+                "triggers", new CacheSpec(0.05, 7_200_000, 1_800_000),
+                "query-results", new CacheSpec(0.25, 1_000, 0)));
+
+        public long getMemoryBudgetMb() {
+            return memoryBudgetMb;
+        }
+
+        public void setMemoryBudgetMb(long memoryBudgetMb) {
+            this.memoryBudgetMb = memoryBudgetMb;
+        }
+
+        /**
+         * Publish hit, miss, eviction and size statistics as cache.* meters
+         */
+        public boolean isRecordStats() {
+            return recordStats;
+        }
+
+        public void setRecordStats(boolean recordStats) {
+            this.recordStats = recordStats;
+        }
+
+        public Map<String, CacheSpec> getSpecs() {
+            return specs;
+        }
+
+        public void setSpecs(Map<String, CacheSpec> specs) {
+            this.specs = specs;
+        }
+
+        public OffHeap getOffHeap() {
+            return offHeap;
+        }
+
+        public void setOffHeap(OffHeap offHeap) {
+            this.offHeap = offHeap;
+        }
+
+        /**
+         * Bytes a cache may hold
+         */
+        public long budgetBytes(String cache) {
+            CacheSpec spec = specs.get(cache);
+            return spec != null ? (long) (memoryBudgetMb * 1024 * 1024 * spec.getShare()) : 0;
+        }
+
+        /**
+         * Bytes a cache may hold off the heap
+         */
+        public long offHeapBytes(String cache) {
+            CacheSpec spec = specs.get(cache);
+            return spec != null ? (long) (offHeap.getCapacityMb() * 1024 * 1024 * spec.getShare()) : 0;
+        }
+    }
+
+    /**
+     * Second cache tier outside the heap: serialized entries in direct
+     * buffers, split between the caches by the same shares as the heap
+     * budget. Entries too large for the heap tier and entries it evicts are
+     * kept there.
+     */
+    public static class OffHeap {
+        private boolean enabled = true;
+        private long capacityMb = 256;
+        private long maxOnHeapEntryKb = 256;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * Direct memory for all caches (within -XX:MaxDirectMemorySize)
+         */
+        public long getCapacityMb() {
+            return capacityMb;
+        }
+
+        public void setCapacityMb(long capacityMb) {
+            this.capacityMb = capacityMb;
+        }
+
+        /**
+         * Entries estimated larger than this go straight off the heap (0 = every entry)
+         */
+        public long getMaxOnHeapEntryKb() {
+            return maxOnHeapEntryKb;
+        }
+
+        public void setMaxOnHeapEntryKb(long maxOnHeapEntryKb) {
+            this.maxOnHeapEntryKb = maxOnHeapEntryKb;
+        }
+    }
+
+    public static class CacheSpec {
+        private double share;
+        private long expireAfterMs;
+        private long refreshAfterMs;
+
+        public CacheSpec() {
+        }
+
+        public CacheSpec(double share, long expireAfterMs, long refreshAfterMs) {
+            this.share = share;
+            this.expireAfterMs = expireAfterMs;
+            this.refreshAfterMs = refreshAfterMs;
+        }
+
+        /**
+         * Fraction of the memory budget
+         */
+        public double getShare() {
+            return share;
+        }
+
+        public void setShare(double share) {
+            this.share = share;
+        }
+
+        /**
+         * Age at which an entry is dropped (for refreshed caches: the most stale it is served)
+         */
+        public long getExpireAfterMs() {
+            return expireAfterMs;
+        }
+
+        public void setExpireAfterMs(long expireAfterMs) {
+            this.expireAfterMs = expireAfterMs;
+        }
+
+        /**
+         * Age from which an entry is reloaded in the background (0 = never)
+         */
+        public long getRefreshAfterMs() {
+            return refreshAfterMs;
+        }
+
+        public void setRefreshAfterMs(long refreshAfterMs) {
+            this.refreshAfterMs = refreshAfterMs;
+        }
+    }
 }
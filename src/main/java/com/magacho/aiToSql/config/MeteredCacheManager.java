@@ -0,0 +1,131 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.service.McpMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * CacheManager decorator counting hits and misses of every cache lookup
+ * as mcp.cache.gets{cache, result}, whatever the underlying cache provider.
+ */
+public class MeteredCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final McpMetrics meters;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public MeteredCacheManager(CacheManager delegate, McpMetrics meters) {
+        this.delegate = delegate;
+        this.meters = meters;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        if (target == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> new MeteredCache(target, meters));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * The decorated manager
+     */
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    private record MeteredCache(Cache delegate, McpMetrics meters) implements Cache {
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            ValueWrapper value = delegate.get(key);
+            meters.recordCacheGet(getName(), value != null);
+            return value;
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            T value = delegate.get(key, type);
+            meters.recordCacheGet(getName(), value != null);
+            return value;
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            boolean[] loaded = new boolean[1];
+            T value = delegate.get(key, () -> {
+                loaded[0] = true;
+                return valueLoader.call();
+            });
+            meters.recordCacheGet(getName(), !loaded[0]);
+            return value;
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            return delegate.retrieve(key);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            return delegate.retrieve(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return delegate.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return delegate.invalidate();
+        }
+    }
+}
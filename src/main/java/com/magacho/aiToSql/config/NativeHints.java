@@ -0,0 +1,67 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.dto.ColumnSummary;
+import com.magacho.aiToSql.dto.Elision;
+import com.magacho.aiToSql.dto.QueryApproximation;
+import com.magacho.aiToSql.dto.QueryCostEstimate;
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.dto.ResponseMetadata;
+import com.magacho.aiToSql.dto.SchemaStructure;
+import com.magacho.aiToSql.dto.TableDetails;
+import com.magacho.aiToSql.dto.TokenizationMetrics;
+import com.magacho.aiToSql.dto.TriggerList;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcNotification;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import com.magacho.aiToSql.service.ClientRateLimiter;
+import com.magacho.aiToSql.service.SlowCallJournal;
+import com.magacho.aiToSql.service.TokenizationMetricsService;
+import com.magacho.aiToSql.service.ToolTimeSeries;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.util.HashSet;
+
+/**
+ * GraalVM native-image hints (mvn -Pnative native:compile)
+ *
+ * Spring AOT already covers beans, configuration properties and controller
+ * signatures. Tool results travel as Object inside JSON-RPC maps, so their
+ * DTOs are registered for Jackson here, together with the tokenizer
+ * vocabularies and the JDBC drivers JdbcDriverResolver loads by name.
+ * Cache wrappers are walked by RetainedSizeEstimator for cache weights and
+ * serialized by TieredCache for the off-heap tier.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHints.Registrar.class)
+@RegisterReflectionForBinding({
+        JsonRpcRequest.class, JsonRpcResponse.class, JsonRpcError.class, JsonRpcNotification.class,
+        SchemaStructure.class, TableDetails.class, TriggerList.class, QueryResult.class,
+        QueryApproximation.class, QueryCostEstimate.class, ColumnSummary.class, Elision.class,
+        ResponseMetadata.class, TokenizationMetrics.class,
+        TokenizationMetricsService.ToolStatistics.class, TokenizationMetricsService.ModelStatistics.class,
+        ToolTimeSeries.WindowStats.class, SlowCallJournal.SlowCall.class, ClientRateLimiter.ClientStats.class,
+        RefreshAheadCacheManager.Stamped.class, TieredCache.Entry.class
+})
+public class NativeHints {
+
+    static class Registrar implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern("tokenizer/*.tiktoken");
+            for (String driver : new HashSet<>(new JdbcDriverResolver().getSupportedDatabases().values())) {
+                hints.reflection().registerTypeIfPresent(classLoader, driver,
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            hints.reflection().registerTypeIfPresent(classLoader,
+                    "com.magacho.aiToSql.service.ToolCallCoalescer$CachedResult",
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.magacho.aiToSql.config;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serialized cache entries held outside the heap, one direct buffer each,
+ * bounded by total bytes with least-recently-read eviction. Each entry
+ * carries the deadline it expires at, in the cache's ticker nanoseconds; an
+ * expired entry is removed when read.
+ *
+ * Readers get a read-only view of the stored buffer: an entry replaced or
+ * evicted while it is being read stays intact for that reader, and its
+ * native memory is released with the buffer once unreachable (direct
+ * memory counts against -XX:MaxDirectMemorySize).
+ */
+final class OffHeapStore {
+
+    /**
+     * Deadline of an entry that does not expire
+     */
+    static final long NEVER = Long.MAX_VALUE;
+
+    private final long capacityBytes;
+    private final LinkedHashMap<Object, Stored> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private long bytes;
+
+    OffHeapStore(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Store an entry, evicting the least recently read ones beyond capacity
+     *
+     * @param expiresAt ticker time at which the entry expires ({@link #NEVER}: it does not)
+     * @return false if the entry was not stored (larger than the store, or no direct memory left)
+     */
+    boolean put(Object key, byte[] value, long expiresAt) {
+        if (value.length > capacityBytes) {
+            remove(key);
+            rejected.increment();
+            return false;
+        }
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.allocateDirect(value.length);
+        } catch (OutOfMemoryError e) {
+            remove(key);
+            rejected.increment();
+            return false;
+        }
+        buffer.put(value).flip();
+        synchronized (this) {
+            Stored previous = entries.put(key, new Stored(buffer.asReadOnlyBuffer(), expiresAt));
+            bytes += value.length - (previous != null ? previous.size() : 0);
+            Iterator<Stored> eldest = entries.values().iterator();
+            while (bytes > capacityBytes && eldest.hasNext()) {
+                bytes -= eldest.next().size();
+                eldest.remove();
+            }
+        }
+        stored.increment();
+        return true;
+    }
+
+    /**
+     * A read-only view of the entry's bytes with its deadline, or null if
+     * absent or expired at the given ticker time (an expired entry is removed)
+     */
+    Stored get(Object key, long now) {
+        Stored entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt() <= now) {
+                entries.remove(key);
+                bytes -= entry.size();
+                return null;
+            }
+        }
+        return entry != null ? new Stored(entry.bytes().duplicate(), entry.expiresAt()) : null;
+    }
+
+    synchronized boolean remove(Object key) {
+        Stored previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= previous.size();
+        }
+        return previous != null;
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    /**
+     * Entries stored since startup
+     */
+    long stored() {
+        return stored.sum();
+    }
+
+    /**
+     * Entries refused since startup
+     */
+    long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * An entry's serialized bytes and the ticker time it expires at
+     */
+    record Stored(ByteBuffer bytes, long expiresAt) {
+
+        int size() {
+            return bytes.capacity();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.service.QueryAdmission;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool Auto-Sizer
+ *
+ * Resizes the query-route pools (see {@link DataSourceRouter#queryPools()})
+ * from the load {@link QueryAdmission} measured over the last interval, and
+ * moves the admission limit along with them:
+ * - target = mean queries in flight (summed hold time / interval, Little's
+ *   law) x mcp.pool-sizing.headroom, and never below the peak in flight
+ * - if queries had to wait or were refused, at least 1.5x the current size
+ * - growth applies at once; shrinking closes half the gap per interval
+ * - each pool stays within [min-size, max-size] and below database-share of
+ *   the server's connection limit (max_connections on PostgreSQL and MySQL,
+ *   @@MAX_CONNECTIONS on SQL Server, sessions on Oracle)
+ *
+ * HikariCP applies a smaller maximum as borrowed connections come back.
+ * Tenant pools are sized by mcp.tenants and not touched.
+ */
+@Component
+public class PoolAutoSizer {
+
+    private static final Logger log = LoggerFactory.getLogger(PoolAutoSizer.class);
+
+    /**
+     * Statement returning the server's connection limit, by database product
+     */
+    private static final Map<String, String> CONNECTION_LIMIT_QUERIES = Map.of(
+            "postgresql", "SHOW max_connections",
+            "mysql", "SELECT @@max_connections",
+            "mariadb", "SELECT @@max_connections",
+            "microsoft sql server", "SELECT @@MAX_CONNECTIONS",
+            "oracle", "SELECT value FROM v$parameter WHERE name = 'sessions'");
+
+    private static final int NO_LIMIT = -1;
+
+    private final McpServerConfig.PoolSizing settings;
+    private final List<HikariDataSource> pools;
+    private final QueryAdmission admission;
+    private final Map<String, Integer> connectionLimits = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private long lastResizeNanos = System.nanoTime();
+
+    public PoolAutoSizer(McpServerConfig config, DataSourceRouter router, QueryAdmission admission) {
+        this.settings = config.getPoolSizing();
+        this.pools = router.queryPools();
+        this.admission = admission;
+
+        if (!settings.isEnabled() || pools.isEmpty()) {
+            this.scheduler = null;
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcp-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::resize, settings.getIntervalMs(), settings.getIntervalMs(),
+                TimeUnit.MILLISECONDS);
+        log.info("Pool auto-sizing: {} query pool(s), {}-{} connections each, every {} ms",
+                pools.size(), settings.getMinSize(), settings.getMaxSize(), settings.getIntervalMs());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void resize() {
+        try {
+            long now = System.nanoTime();
+            resize(admission.drainLoad(), now - lastResizeNanos);
+            lastResizeNanos = now;
+        } catch (RuntimeException e) {
+            log.warn("Pool auto-sizing failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Apply one interval's load to the pool sizes and the admission limit
+     */
+    synchronized void resize(QueryAdmission.Load load, long intervalNanos) {
+        int current = pools.stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum();
+        int target = targetSize(load, intervalNanos, current, settings.getHeadroom());
+        int perPool = (target + pools.size() - 1) / pools.size();
+
+        int total = 0;
+        for (HikariDataSource pool : pools) {
+            int size = Math.min(Math.max(perPool, settings.getMinSize()), ceiling(pool));
+            if (size != pool.getMaximumPoolSize()) {
+                log.info("Resizing pool {} from {} to {} connections", pool.getPoolName(),
+                        pool.getMaximumPoolSize(), size);
+                pool.getHikariConfigMXBean().setMaximumPoolSize(size);
+                if (pool.getMinimumIdle() > size) {
+                    pool.getHikariConfigMXBean().setMinimumIdle(size);
+                }
+            }
+            total += size;
+        }
+        admission.setLimit(total);
+    }
+
+    /**
+     * Connections the query route should have after an interval with this load
+     *
+     * @param current summed size of the query pools now
+     */
+    static int targetSize(QueryAdmission.Load load, long intervalNanos, int current, double headroom) {
+        double meanInFlight = intervalNanos > 0 ? (double) load.busyNanos() / intervalNanos : 0;
+        int demand = (int) Math.ceil(Math.max(meanInFlight * headroom, load.peakInFlight()));
+        if (load.delayed() > 0 || load.refused() > 0) {
+            // Queries queued: the pool was the bottleneck, whatever the mean says
+            demand = Math.max(demand, current + Math.max(1, current / 2));
+        }
+        if (demand >= current) {
+            return demand;
+        }
+        return current - Math.max(1, (current - demand) / 2);
+    }
+
+    /**
+     * Largest size allowed for a pool: max-size, and database-share of the
+     * server's connection limit when it reports one
+     */
+    static int ceiling(int maxSize, double databaseShare, int connectionLimit) {
+        int ceiling = maxSize;
+        if (connectionLimit > 0) {
+            ceiling = Math.min(ceiling, (int) (connectionLimit * databaseShare));
+        }
+        return Math.max(1, ceiling);
+    }
+
+    private int ceiling(HikariDataSource pool) {
+        Integer limit = connectionLimits.get(pool.getPoolName());
+        if (limit == null) {
+            limit = queryConnectionLimit(pool);
+            if (limit != null) {
+                connectionLimits.put(pool.getPoolName(), limit);
+            }
+        }
+        return ceiling(settings.getMaxSize(), settings.getDatabaseShare(), limit != null ? limit : NO_LIMIT);
+    }
+
+    /**
+     * The server's connection limit, NO_LIMIT if it does not report one, or
+     * null when the database is unreachable (asked again next interval)
+     */
+    private Integer queryConnectionLimit(HikariDataSource pool) {
+        try (Connection connection = pool.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            String sql = CONNECTION_LIMIT_QUERIES.get(product);
+            if (sql == null) {
+                return NO_LIMIT;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                int limit = resultSet.next() ? Integer.parseInt(resultSet.getString(1).trim()) : NO_LIMIT;
+                log.info("Pool {}: database allows {} connections", pool.getPoolName(), limit);
+                return limit;
+            } catch (SQLException | NumberFormatException e) {
+                log.debug("Pool {}: connection limit not readable: {}", pool.getPoolName(), e.getMessage());
+                return NO_LIMIT;
+            }
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
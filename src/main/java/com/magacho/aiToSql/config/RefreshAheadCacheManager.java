@@ -0,0 +1,263 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.service.McpMetrics;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.McpSession;
+import com.magacho.aiToSql.transport.ProgressChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * CacheManager decorator giving the caches with a refresh-after-ms in
+ * mcp.caches.specs stale-while-revalidate semantics, whatever the underlying
+ * cache provider.
+ *
+ * Entries are stored with the time they were loaded. On a
+ * {@code @Cacheable(sync = true)} lookup, an entry younger than refresh-after
+ * is a plain hit; an older one is still returned at once, and its loader is
+ * run again on a bounded background executor (mcp.cache-refresh), under the
+ * caller's session so the reload reaches the same tenant database. Only an
+ * entry older than expire-after is reloaded in the caller; providers without
+ * expiry (the simple cache) get that limit from here. When the refresh queue
+ * is full the stale entry keeps being served and a later call retries.
+ *
+ * Reloads are counted as mcp.cache.refreshes{cache, outcome}.
+ */
+public class RefreshAheadCacheManager implements CacheManager {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshAheadCacheManager.class);
+
+    private final CacheManager delegate;
+    private final McpServerConfig.Caches settings;
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final McpMetrics meters;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public RefreshAheadCacheManager(CacheManager delegate, McpServerConfig config, McpMetrics meters) {
+        this(delegate, config.getCaches(), refreshExecutor(config.getCacheRefresh()), System::nanoTime, meters);
+    }
+
+    RefreshAheadCacheManager(CacheManager delegate, McpServerConfig.Caches settings, Executor executor,
+                             LongSupplier clock, McpMetrics meters) {
+        this.delegate = delegate;
+        this.settings = settings;
+        this.executor = executor;
+        this.clock = clock;
+        this.meters = meters;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        McpServerConfig.CacheSpec spec = settings.getSpecs().get(name);
+        if (target == null || spec == null || spec.getRefreshAfterMs() <= 0) {
+            return target;
+        }
+        return caches.computeIfAbsent(name, n -> new RefreshingCache(target, spec));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    /**
+     * The decorated manager
+     */
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    private static Executor refreshExecutor(McpServerConfig.CacheRefresh settings) {
+        int threads = Math.max(1, settings.getThreads());
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, settings.getQueueSize())), runnable -> {
+                    Thread thread = new Thread(runnable, "mcp-cache-refresh-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * A cached value and the {@link System#nanoTime()} it was loaded at
+     */
+    record Stamped(Object value, long loadedAt) {
+    }
+
+    private final class RefreshingCache implements Cache {
+
+        private final Cache delegate;
+        private final long refreshAfterNanos;
+        private final long maxStalenessNanos;
+        private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+        RefreshingCache(Cache delegate, McpServerConfig.CacheSpec spec) {
+            this.delegate = delegate;
+            this.refreshAfterNanos = TimeUnit.MILLISECONDS.toNanos(spec.getRefreshAfterMs());
+            this.maxStalenessNanos = spec.getExpireAfterMs() > 0
+                    ? TimeUnit.MILLISECONDS.toNanos(spec.getExpireAfterMs())
+                    : Long.MAX_VALUE;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return delegate.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            Stamped stamped = fresh(key);
+            return stamped != null ? new SimpleValueWrapper(stamped.value()) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            Stamped stamped = fresh(key);
+            if (stamped == null || stamped.value() == null) {
+                return null;
+            }
+            if (type != null && !type.isInstance(stamped.value())) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: "
+                        + stamped.value());
+            }
+            return (T) stamped.value();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            Stamped stamped = delegate.get(key, () -> new Stamped(valueLoader.call(), clock.getAsLong()));
+            long age = clock.getAsLong() - stamped.loadedAt();
+            if (age < refreshAfterNanos) {
+                return (T) stamped.value();
+            }
+            if (age < maxStalenessNanos) {
+                refresh(key, valueLoader);
+                return (T) stamped.value();
+            }
+            // Too stale to serve: reload in the caller
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            delegate.put(key, new Stamped(value, clock.getAsLong()));
+            return value;
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            CompletableFuture<?> future = delegate.retrieve(key);
+            return future != null ? future.thenApply(value -> value instanceof Stamped s ? s.value() : value) : null;
+        }
+
+        @Override
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            return delegate.retrieve(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            delegate.put(key, new Stamped(value, clock.getAsLong()));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            ValueWrapper existing = delegate.putIfAbsent(key, new Stamped(value, clock.getAsLong()));
+            return existing != null && existing.get() instanceof Stamped s ? new SimpleValueWrapper(s.value()) : null;
+        }
+
+        @Override
+        public void evict(Object key) {
+            delegate.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return delegate.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return delegate.invalidate();
+        }
+
+        /**
+         * The entry if it may still be served (not past max-staleness)
+         */
+        private Stamped fresh(Object key) {
+            ValueWrapper wrapper = delegate.get(key);
+            if (wrapper == null || !(wrapper.get() instanceof Stamped stamped)) {
+                return null;
+            }
+            long age = clock.getAsLong() - stamped.loadedAt();
+            return age < maxStalenessNanos ? stamped : null;
+        }
+
+        /**
+         * Reload an entry in the background, once at a time per key
+         */
+        private void refresh(Object key, Callable<?> valueLoader) {
+            if (!refreshing.add(key)) {
+                return;
+            }
+            McpSession session = McpCallContext.current().session();
+            try {
+                executor.execute(() -> {
+                    try (McpCallContext.Scope ignored = McpCallContext.open(
+                            new McpCallContext(ProgressChannel.NONE, session))) {
+                        delegate.put(key, new Stamped(valueLoader.call(), clock.getAsLong()));
+                        meters.recordCacheRefresh(getName(), "success");
+                    } catch (Exception e) {
+                        meters.recordCacheRefresh(getName(), "failure");
+                        log.warn("Refreshing {} entry {} failed, serving the stale entry: {}",
+                                getName(), key, e.getMessage());
+                    } finally {
+                        refreshing.remove(key);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.remove(key);
+                meters.recordCacheRefresh(getName(), "rejected");
+            }
+        }
+    }
+}
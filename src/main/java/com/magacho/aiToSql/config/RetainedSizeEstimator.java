@@ -0,0 +1,121 @@
+package com.magacho.aiToSql.config;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.time.temporal.Temporal;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Estimated heap bytes retained by a cached value, for cache weighers.
+ *
+ * Walks records (the DTOs), collections, maps, arrays, strings and boxed
+ * values with 64-bit compressed-oops sizes: 16-byte object headers, 4-byte
+ * references, Latin-1 compact strings. Shared objects are counted at every
+ * reference and anything else is a fixed guess, so the result is an
+ * approximation meant to keep a large schema from weighing the same as a
+ * one-line trigger list, not an exact measurement.
+ */
+public final class RetainedSizeEstimator {
+
+    static final int OBJECT_HEADER = 16;
+    static final int REFERENCE = 4;
+    static final int STRING_OVERHEAD = 40;
+    static final int UNKNOWN_OBJECT = 64;
+
+    private static final int MAX_DEPTH = 32;
+
+    private static final ClassValue<RecordComponent[]> COMPONENTS = new ClassValue<>() {
+        @Override
+        protected RecordComponent[] computeValue(Class<?> type) {
+            RecordComponent[] components = type.getRecordComponents();
+            for (RecordComponent component : components) {
+                component.getAccessor().trySetAccessible();
+            }
+            return components;
+        }
+    };
+
+    private RetainedSizeEstimator() {
+    }
+
+    /**
+     * Estimated bytes retained by a value, capped at Integer.MAX_VALUE for Caffeine weights
+     */
+    public static int weigh(Object key, Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, estimate(key) + estimate(value));
+    }
+
+    public static long estimate(Object value) {
+        return estimate(value, 0);
+    }
+
+    private static long estimate(Object value, int depth) {
+        if (value == null || value instanceof Enum<?> || value instanceof Class<?>) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            return STRING_OVERHEAD + text.length();
+        }
+        if (value instanceof Boolean || value instanceof Byte || value instanceof Character
+                || value instanceof Short || value instanceof Integer || value instanceof Float) {
+            return OBJECT_HEADER;
+        }
+        if (value instanceof Long || value instanceof Double) {
+            return OBJECT_HEADER + 8;
+        }
+        if (value instanceof Number || value instanceof Temporal || value instanceof Date) {
+            // BigDecimal and friends, java.time and java.sql values
+            return 2 * OBJECT_HEADER + 16;
+        }
+        if (depth >= MAX_DEPTH) {
+            return UNKNOWN_OBJECT;
+        }
+        if (value instanceof byte[] bytes) {
+            return OBJECT_HEADER + bytes.length;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 2 * OBJECT_HEADER + (long) REFERENCE * collection.size();
+            for (Object element : collection) {
+                size += estimate(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            // Table plus one node per entry (header, hash, key, value, next)
+            long size = 3 * OBJECT_HEADER + (long) (REFERENCE + OBJECT_HEADER + 16) * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += estimate(entry.getKey(), depth + 1) + estimate(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            if (value.getClass().getComponentType().isPrimitive()) {
+                return OBJECT_HEADER + 8L * length;
+            }
+            long size = OBJECT_HEADER + (long) REFERENCE * length;
+            for (int i = 0; i < length; i++) {
+                size += estimate(Array.get(value, i), depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Record) {
+            long size = OBJECT_HEADER;
+            for (RecordComponent component : COMPONENTS.get(value.getClass())) {
+                size += component.getType().isPrimitive() ? 8 : REFERENCE + estimate(read(component, value), depth + 1);
+            }
+            return size;
+        }
+        return UNKNOWN_OBJECT;
+    }
+
+    private static Object read(RecordComponent component, Object record) {
+        try {
+            return component.getAccessor().invoke(record);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
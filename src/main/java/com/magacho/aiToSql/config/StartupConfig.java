@@ -0,0 +1,47 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.controller.McpController;
+import com.magacho.aiToSql.tokenizer.TokenCounterRegistry;
+import com.magacho.aiToSql.transport.McpRequestDispatcher;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Startup tuning
+ *
+ * - Every Hikari pool, the auto-configured primary included, loads only its
+ *   own JDBC driver instead of all bundled drivers
+ * - With spring.main.lazy-initialization=true the beans a tools/call goes
+ *   through are still created at startup, so laziness only defers what the
+ *   first call does not need (actuator endpoints, streaming transports,
+ *   metrics views)
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Static: post-processors are created before other beans
+     */
+    @Bean
+    static BeanPostProcessor directDriverPostProcessor(ObjectProvider<JdbcDriverResolver> drivers) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    drivers.getObject().bindDriver(pool);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static LazyInitializationExcludeFilter toolCallPathBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(McpController.class, McpRequestDispatcher.class,
+                DataSourceRouter.class, TokenCounterRegistry.class);
+    }
+}
@@ -0,0 +1,244 @@
+package com.magacho.aiToSql.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tenant DataSources
+ *
+ * One read-only HikariCP pool per tenant database (mcp.tenants.databases),
+ * opened on the tenant's first call rather than at startup. The summed pool
+ * sizes of open pools never exceed mcp.tenants.max-total-connections: opening
+ * a pool past the cap first closes the least recently used idle pool, and
+ * fails the call if every open pool is busy. Pools without traffic for
+ * idle-evict-after-ms are closed by a background sweep.
+ *
+ * Publishes mcp.tenants.pools.open and mcp.tenants.connections.allocated;
+ * each pool also publishes HikariCP metrics under "mcp-tenant-{id}".
+ */
+@Component
+public class TenantDataSources {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantDataSources.class);
+
+    private final McpServerConfig.Tenants settings;
+    private final DataSourceProperties primary;
+    private final JdbcDriverResolver drivers;
+    private final MeterRegistry registry;
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+
+    // Guarded by this: summed maximum sizes of the open pools
+    private int allocated;
+
+    public TenantDataSources(McpServerConfig config, DataSourceProperties primary, JdbcDriverResolver drivers,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this.settings = config.getTenants();
+        this.primary = primary;
+        this.drivers = drivers;
+        this.registry = meterRegistry.getIfAvailable();
+
+        if (settings.getDatabases().isEmpty()) {
+            this.evictor = null;
+            return;
+        }
+
+        long sweepMs = Math.max(1_000, Math.min(settings.getIdleEvictAfterMs() / 2, 60_000));
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mcp-tenant-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> evictIdle(System.currentTimeMillis()),
+                sweepMs, sweepMs, TimeUnit.MILLISECONDS);
+
+        if (registry != null) {
+            Gauge.builder("mcp.tenants.pools.open", pools, Map::size)
+                    .description("Tenant connection pools currently open")
+                    .register(registry);
+            Gauge.builder("mcp.tenants.connections.allocated", this, TenantDataSources::allocated)
+                    .description("Summed maximum sizes of the open tenant pools")
+                    .register(registry);
+        }
+        log.info("Tenant routing: {} tenant database(s), at most {} tenant connection(s)",
+                settings.getDatabases().size(), settings.getMaxTotalConnections());
+    }
+
+    /**
+     * Whether any tenant database is configured
+     */
+    public boolean isEnabled() {
+        return !settings.getDatabases().isEmpty();
+    }
+
+    public boolean isKnown(String tenant) {
+        return tenant != null && settings.getDatabases().containsKey(tenant);
+    }
+
+    /**
+     * Configured tenant ids
+     */
+    public Set<String> tenants() {
+        return settings.getDatabases().keySet();
+    }
+
+    /**
+     * Tenants whose pool is open
+     */
+    public Set<String> openTenants() {
+        return Set.copyOf(pools.keySet());
+    }
+
+    /**
+     * Borrow a connection from a tenant's pool, opening the pool if needed
+     *
+     * @throws SQLTransientConnectionException if the connection cap leaves no room for the pool
+     */
+    public Connection getConnection(String tenant) throws SQLException {
+        for (int attempt = 0; ; attempt++) {
+            TenantPool pool = pools.get(tenant);
+            if (pool == null) {
+                pool = open(tenant);
+            }
+            pool.lastUsedMs = System.currentTimeMillis();
+            try {
+                return pool.dataSource.getConnection();
+            } catch (SQLException e) {
+                // Evicted between lookup and borrow: open it again once
+                if (!pool.dataSource.isClosed() || attempt > 0) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    synchronized int allocated() {
+        return allocated;
+    }
+
+    /**
+     * Close pools idle for longer than idle-evict-after-ms
+     */
+    synchronized void evictIdle(long nowMs) {
+        pools.forEach((tenant, pool) -> {
+            if (nowMs - pool.lastUsedMs >= settings.getIdleEvictAfterMs() && pool.isIdle()) {
+                log.info("Closing idle pool of tenant {}", tenant);
+                close(tenant, pool);
+            }
+        });
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        pools.forEach(this::close);
+    }
+
+    private synchronized TenantPool open(String tenant) throws SQLException {
+        TenantPool existing = pools.get(tenant);
+        if (existing != null) {
+            return existing;
+        }
+        McpServerConfig.TenantDatabase database = settings.getDatabases().get(tenant);
+        if (database == null) {
+            throw new SQLException("Unknown tenant: " + tenant);
+        }
+
+        int size = Math.min(database.getMaxPoolSize() != null ? database.getMaxPoolSize() : settings.getDefaultPoolSize(),
+                settings.getMaxTotalConnections());
+        while (allocated + size > settings.getMaxTotalConnections()) {
+            if (!evictLeastRecentlyUsedIdle()) {
+                throw new SQLTransientConnectionException("Tenant connection cap of "
+                        + settings.getMaxTotalConnections() + " reached, " + pools.size()
+                        + " tenant pool(s) busy; cannot open a pool for tenant " + tenant);
+            }
+        }
+
+        TenantPool pool = new TenantPool(createPool(tenant, database, size), size);
+        allocated += size;
+        pools.put(tenant, pool);
+        log.info("Opened pool of tenant {} ({} connections, {} of {} allocated)",
+                tenant, size, allocated, settings.getMaxTotalConnections());
+        return pool;
+    }
+
+    private boolean evictLeastRecentlyUsedIdle() {
+        String victim = null;
+        TenantPool victimPool = null;
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            TenantPool pool = entry.getValue();
+            if (pool.isIdle() && (victimPool == null || pool.lastUsedMs < victimPool.lastUsedMs)) {
+                victim = entry.getKey();
+                victimPool = pool;
+            }
+        }
+        if (victim == null) {
+            return false;
+        }
+        log.info("Closing pool of tenant {} to stay under the connection cap", victim);
+        close(victim, victimPool);
+        return true;
+    }
+
+    private void close(String tenant, TenantPool pool) {
+        if (pools.remove(tenant, pool)) {
+            allocated -= pool.size;
+            pool.dataSource.close();
+        }
+    }
+
+    private HikariDataSource createPool(String tenant, McpServerConfig.TenantDatabase database, int size) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("mcp-tenant-" + tenant);
+        pool.setJdbcUrl(database.getUrl());
+        pool.setUsername(database.getUsername() != null ? database.getUsername() : primary.determineUsername());
+        pool.setPassword(database.getPassword() != null ? database.getPassword() : primary.determinePassword());
+        drivers.resolveDriver(database.getType(), database.getUrl()).ifPresent(pool::setDriverClassName);
+        drivers.bindDriver(pool);
+        pool.setMaximumPoolSize(size);
+        pool.setMinimumIdle(0);
+        pool.setConnectionTimeout(settings.getConnectionTimeoutMs());
+        pool.setReadOnly(true);
+        pool.setInitializationFailTimeout(-1);
+        if (registry != null) {
+            pool.setMetricRegistry(registry);
+        }
+        return pool;
+    }
+
+    private static final class TenantPool {
+        private final HikariDataSource dataSource;
+        private final int size;
+        private volatile long lastUsedMs = System.currentTimeMillis();
+
+        TenantPool(HikariDataSource dataSource, int size) {
+            this.dataSource = dataSource;
+            this.size = size;
+        }
+
+        boolean isIdle() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null || pool.getActiveConnections() == 0;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.transport.McpCallContext;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.interceptor.SimpleKeyGenerator;
+
+import java.lang.reflect.Method;
+
+/**
+ * Default cache key generator: the method arguments, prefixed with the
+ * calling session's tenant so tenants never see each other's cached schema.
+ * Without a tenant the key is the plain {@link SimpleKeyGenerator} key.
+ */
+public class TenantKeyGenerator implements KeyGenerator {
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        Object key = SimpleKeyGenerator.generateKey(params);
+        String tenant = McpCallContext.current().session().tenant();
+        return tenant != null ? new SimpleKey(tenant, key) : key;
+    }
+}
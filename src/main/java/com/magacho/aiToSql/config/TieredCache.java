@@ -0,0 +1,292 @@
+package com.magacho.aiToSql.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.magacho.aiToSql.dto.QueryResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier cache: a weight-bounded Caffeine cache on the heap (L1) in front
+ * of an {@link OffHeapStore} of serialized entries (L2).
+ *
+ * Entries weighing up to max-on-heap-entry-kb live in L1; larger ones (a
+ * schema of thousands of tables, a big query result) are serialized straight
+ * to L2 and deserialized on every hit, trading CPU for heap. Entries L1
+ * evicts for size spill to L2 instead of being dropped, and a small entry
+ * found in L2 moves back to L1.
+ *
+ * An entry expires expire-after-ms after it was written, whichever tier it
+ * is in: L2 keeps the deadline with the bytes and treats an entry read past
+ * it as a miss, and an entry moved between tiers keeps its deadline rather
+ * than starting a new one. Expired entries are not spilled.
+ *
+ * Entries are serialized as JSON with the type of every Object-typed value,
+ * so cached DTOs, query rows (Timestamp, BigDecimal, ...) and the wrappers
+ * of the caching layers above come back as they went in. A value that cannot
+ * be serialized is not spilled, and one that no longer deserializes is a miss.
+ */
+public class TieredCache extends AbstractValueAdaptingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredCache.class);
+
+    private static final ObjectMapper CODEC = JsonMapper.builder()
+            .findAndAddModules()
+            .activateDefaultTyping(BasicPolymorphicTypeValidator.builder()
+                            .allowIfSubType("com.magacho.aiToSql.")
+                            .allowIfSubType("java.")
+                            .allowIfSubTypeIsArray()
+                            .build(),
+                    ObjectMapper.DefaultTyping.JAVA_LANG_OBJECT)
+            // The response format of QueryResult cannot be read back; store its components
+            .addMixIn(QueryResult.class, ComponentSerialization.class)
+            .build();
+
+    private final String name;
+    private final Cache<Object, Object> onHeap;
+    private final OffHeapStore offHeap;
+    private final long maxOnHeapEntryBytes;
+    private final long expireAfterNanos;
+    private final Ticker ticker;
+    private final LongAdder spills = new LongAdder();
+    private final LongAdder offHeapHits = new LongAdder();
+
+    /**
+     * @param onHeap          builder of the heap tier, without an expiry policy of its own
+     * @param expireAfterWrite how long an entry lives in either tier (zero: until evicted)
+     * @param ticker          time source of both tiers
+     */
+    TieredCache(String name, Caffeine<Object, Object> onHeap, OffHeapStore offHeap, long maxOnHeapEntryBytes,
+                Duration expireAfterWrite, Ticker ticker) {
+        super(true);
+        this.name = name;
+        this.offHeap = offHeap;
+        this.maxOnHeapEntryBytes = maxOnHeapEntryBytes;
+        this.expireAfterNanos = expireAfterWrite.toNanos();
+        this.ticker = ticker;
+        onHeap.ticker(ticker);
+        if (expireAfterNanos > 0) {
+            onHeap.expireAfter(new UntilDeadline());
+        }
+        this.onHeap = onHeap.evictionListener(this::evicted).build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The on-heap tier
+     */
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return onHeap;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object entry = onHeap.getIfPresent(key);
+        return entry != null ? ((Timed) entry).value() : restore(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = lookup(key);
+        if (stored == null) {
+            boolean[] loaded = new boolean[1];
+            Timed entry = (Timed) onHeap.get(key, k -> {
+                loaded[0] = true;
+                return written(toStoreValue(load(k, valueLoader)));
+            });
+            stored = entry.value();
+            // Only the caller that loaded moves a large value off the heap
+            if (loaded[0] && !fitsOnHeap(key, stored) && spill(key, entry)) {
+                onHeap.asMap().remove(key, entry);
+            }
+        }
+        return (T) fromStoreValue(stored);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Timed entry = written(toStoreValue(value));
+        if (!fitsOnHeap(key, entry.value()) && spill(key, entry)) {
+            onHeap.invalidate(key);
+        } else {
+            // Off-heap copy first: the heap tier may evict the entry straight back there
+            offHeap.remove(key);
+            onHeap.put(key, entry);
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        onHeap.invalidate(key);
+        offHeap.remove(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean onHeapRemoved = onHeap.asMap().remove(key) != null;
+        return offHeap.remove(key) || onHeapRemoved;
+    }
+
+    @Override
+    public void clear() {
+        onHeap.invalidateAll();
+        offHeap.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = !onHeap.asMap().isEmpty() || offHeap.size() > 0;
+        clear();
+        return notEmpty;
+    }
+
+    long offHeapBytes() {
+        return offHeap.bytes();
+    }
+
+    long offHeapEntries() {
+        return offHeap.size();
+    }
+
+    /**
+     * Entries written to the off-heap tier since startup, evicted from L1 or too large for it
+     */
+    long spills() {
+        return spills.sum();
+    }
+
+    /**
+     * Lookups answered from the off-heap tier since startup
+     */
+    long offHeapHits() {
+        return offHeapHits.sum();
+    }
+
+    private void evicted(Object key, Object entry, RemovalCause cause) {
+        if (cause == RemovalCause.SIZE && key != null && entry != null) {
+            spill(key, (Timed) entry);
+        }
+    }
+
+    private Object restore(Object key) {
+        OffHeapStore.Stored stored = offHeap.get(key, ticker.read());
+        if (stored == null) {
+            return null;
+        }
+        Object value = decode(key, stored.bytes());
+        if (value == null) {
+            offHeap.remove(key);
+            return null;
+        }
+        offHeapHits.increment();
+        if (fitsOnHeap(key, value)) {
+            offHeap.remove(key);
+            onHeap.put(key, new Timed(value, stored.expiresAt()));
+        }
+        return value;
+    }
+
+    private Timed written(Object value) {
+        return new Timed(value, expireAfterNanos > 0 ? ticker.read() + expireAfterNanos : OffHeapStore.NEVER);
+    }
+
+    private boolean fitsOnHeap(Object key, Object value) {
+        return RetainedSizeEstimator.weigh(key, value) <= maxOnHeapEntryBytes;
+    }
+
+    private boolean spill(Object key, Timed entry) {
+        if (entry.value() == NullValue.INSTANCE || entry.expiresAt() <= ticker.read()) {
+            return false;
+        }
+        byte[] bytes;
+        try {
+            bytes = CODEC.writeValueAsBytes(new Entry(entry.value()));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.debug("Not moving {} entry {} off the heap: {}", name, key, e.getMessage());
+            return false;
+        }
+        if (!offHeap.put(key, bytes, entry.expiresAt())) {
+            return false;
+        }
+        spills.increment();
+        return true;
+    }
+
+    private Object decode(Object key, ByteBuffer bytes) {
+        try {
+            return CODEC.readValue(new ByteBufferBackedInputStream(bytes), Entry.class).value();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Dropping unreadable off-heap {} entry {}: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Object load(Object key, Callable<?> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    /**
+     * A serialized entry; the wrapper carries the value's type
+     */
+    record Entry(Object value) {
+    }
+
+    /**
+     * An entry of the heap tier with the ticker time it expires at
+     */
+    private record Timed(Object value, long expiresAt) {
+    }
+
+    /**
+     * Expires a heap entry at its own deadline, which a promoted entry brings from L2
+     */
+    private static final class UntilDeadline implements Expiry<Object, Object> {
+
+        @Override
+        public long expireAfterCreate(Object key, Object entry, long currentTime) {
+            return Math.max(0, ((Timed) entry).expiresAt() - currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface ComponentSerialization {
+    }
+}
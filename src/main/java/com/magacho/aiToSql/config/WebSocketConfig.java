@@ -0,0 +1,34 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.transport.WebSocketTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the MCP WebSocket endpoint (mcp.websocket.path) when the
+ * WebSocket transport is enabled
+ */
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "mcp.websocket", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final WebSocketTransport transport;
+    private final McpServerConfig config;
+
+    public WebSocketConfig(WebSocketTransport transport, McpServerConfig config) {
+        this.transport = transport;
+        this.config = config;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(transport, config.getWebsocket().getPath())
+                .setAllowedOriginPatterns(config.getWebsocket().getAllowedOrigins());
+    }
+}
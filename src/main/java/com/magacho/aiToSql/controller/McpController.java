@@ -2,20 +2,23 @@ package com.magacho.aiToSql.controller;
 
 import com.magacho.aiToSql.config.JdbcDriverResolver;
 import com.magacho.aiToSql.config.McpServerConfig;
-import com.magacho.aiToSql.dto.ResponseMetadata;
-import com.magacho.aiToSql.dto.TokenizationMetrics;
-import com.magacho.aiToSql.jsonrpc.JsonRpcError;
 import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
 import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import com.magacho.aiToSql.service.ClientRateLimiter;
+import com.magacho.aiToSql.service.MetricsTimeSeriesService;
+import com.magacho.aiToSql.service.SlowCallJournal;
 import com.magacho.aiToSql.service.TokenizationMetricsService;
-import com.magacho.aiToSql.tools.McpToolsRegistry;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.McpRequestDispatcher;
+import com.magacho.aiToSql.transport.McpSession;
+import com.magacho.aiToSql.transport.ProgressChannel;
+import com.magacho.aiToSql.transport.SseStreamingTransport;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -26,186 +29,67 @@ import java.util.Map;
 @RequestMapping("/mcp")
 public class McpController {
 
-    private static final Logger log = LoggerFactory.getLogger(McpController.class);
-
-    private final McpToolsRegistry toolsRegistry;
+    private final McpRequestDispatcher dispatcher;
+    private final SseStreamingTransport streamingTransport;
     private final McpServerConfig config;
     private final TokenizationMetricsService metricsService;
+    private final MetricsTimeSeriesService timeSeries;
+    private final SlowCallJournal slowCalls;
     private final JdbcDriverResolver driverResolver;
-
-    public McpController(McpToolsRegistry toolsRegistry, McpServerConfig config, 
-                         TokenizationMetricsService metricsService,
-                         JdbcDriverResolver driverResolver) {
-        this.toolsRegistry = toolsRegistry;
+    private final ClientRateLimiter rateLimiter;
+
+    public McpController(McpRequestDispatcher dispatcher, SseStreamingTransport streamingTransport,
+                         McpServerConfig config, TokenizationMetricsService metricsService,
+                         MetricsTimeSeriesService timeSeries, SlowCallJournal slowCalls,
+                         JdbcDriverResolver driverResolver, ClientRateLimiter rateLimiter) {
+        this.dispatcher = dispatcher;
+        this.streamingTransport = streamingTransport;
         this.config = config;
         this.metricsService = metricsService;
+        this.timeSeries = timeSeries;
+        this.slowCalls = slowCalls;
         this.driverResolver = driverResolver;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
      * Main JSON-RPC 2.0 endpoint
+     * X-MCP-Model selects the model the call's tokens are counted and billed for,
+     * X-MCP-Tenant the tenant database it runs against, X-MCP-Client the client
+     * it is rate limited as (default: the remote address)
      */
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<JsonRpcResponse> handleJsonRpc(@RequestBody JsonRpcRequest request) {
-        log.info("Received JSON-RPC request: method={}, id={}", request.getMethod(), request.getId());
-
-        try {
-            // Validate JSON-RPC version
-            if (!"2.0".equals(request.getJsonrpc())) {
-                return ResponseEntity.ok(new JsonRpcResponse(
-                        new JsonRpcError(JsonRpcError.INVALID_REQUEST, "Invalid JSON-RPC version"),
-                        request.getId()
-                ));
-            }
-
-            // Route to appropriate handler
-            Object result = switch (request.getMethod()) {
-                case "initialize" -> handleInitialize();
-                case "tools/list" -> handleToolsList();
-                case "tools/call" -> handleToolsCall(request.getParams());
-                case "ping" -> handlePing();
-                default -> throw new IllegalArgumentException("Method not found: " + request.getMethod());
-            };
-
-            return ResponseEntity.ok(new JsonRpcResponse(result, request.getId()));
-
-        } catch (IllegalArgumentException e) {
-            log.error("Invalid request: {}", e.getMessage());
-            return ResponseEntity.ok(new JsonRpcResponse(
-                    new JsonRpcError(JsonRpcError.METHOD_NOT_FOUND, e.getMessage()),
-                    request.getId()
-            ));
-        } catch (SecurityException e) {
-            log.error("Security violation: {}", e.getMessage());
-            return ResponseEntity.ok(new JsonRpcResponse(
-                    new JsonRpcError(-32001, "Security violation: " + e.getMessage()),
-                    request.getId()
-            ));
-        } catch (Exception e) {
-            log.error("Internal error processing request", e);
-            return ResponseEntity.ok(new JsonRpcResponse(
-                    new JsonRpcError(JsonRpcError.INTERNAL_ERROR, "Internal server error: " + e.getMessage()),
-                    request.getId()
-            ));
+    public ResponseEntity<JsonRpcResponse> handleJsonRpc(
+            @RequestBody JsonRpcRequest request,
+            @RequestHeader(value = McpSession.MODEL_HEADER, required = false) String model,
+            @RequestHeader(value = McpSession.TENANT_HEADER, required = false) String tenant,
+            @RequestHeader(value = McpSession.CLIENT_HEADER, required = false) String client,
+            HttpServletRequest http) {
+        McpCallContext context = new McpCallContext(ProgressChannel.NONE,
+                new McpSession(model, tenant, client != null ? client : http.getRemoteAddr()));
+        try (McpCallContext.Scope ignored = McpCallContext.open(context)) {
+            JsonRpcResponse response = dispatcher.dispatch(request);
+            // A notification gets no JSON-RPC response, only 202 Accepted
+            return McpRequestDispatcher.isNotification(request)
+                    ? ResponseEntity.accepted().build()
+                    : ResponseEntity.ok(response);
         }
     }
 
     /**
-     * Initialize MCP session
-     */
-    private Map<String, Object> handleInitialize() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("protocolVersion", "2024-11-05");
-        response.put("serverInfo", Map.of(
-                "name", config.getServer().getName(),
-                "version", config.getServer().getVersion()
-        ));
-        response.put("capabilities", Map.of(
-                "tools", Map.of("listChanged", false),
-                "resources", Map.of(),
-                "prompts", Map.of()
-        ));
-        return response;
-    }
-
-    /**
-     * List available MCP tools
+     * Streamable HTTP variant of the JSON-RPC endpoint, selected with
+     * "Accept: text/event-stream": progress notifications and partial results
+     * are streamed before the final response
      */
-    private Map<String, Object> handleToolsList() {
-        var toolDefinitions = toolsRegistry.getToolDefinitions();
-        
-        return Map.of("tools", toolDefinitions.values().stream()
-                .map(tool -> Map.of(
-                        "name", tool.name(),
-                        "description", tool.description(),
-                        "inputSchema", Map.of(
-                                "type", "object",
-                                "properties", convertParameters(tool.parameters()),
-                                "required", tool.parameters().entrySet().stream()
-                                        .filter(e -> e.getValue().required())
-                                        .map(Map.Entry::getKey)
-                                        .toList()
-                        )
-                ))
-                .toList()
-        );
-    }
-
-    private Map<String, Map<String, String>> convertParameters(
-            Map<String, McpToolsRegistry.ParameterDefinition> parameters) {
-        Map<String, Map<String, String>> result = new HashMap<>();
-        parameters.forEach((name, param) -> {
-            result.put(name, Map.of(
-                    "type", param.type(),
-                    "description", param.description()
-            ));
-        });
-        return result;
-    }
-
-    /**
-     * Execute MCP tool
-     */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> handleToolsCall(Object params) {
-        long startTime = System.currentTimeMillis();
-        
-        if (!(params instanceof Map)) {
-            throw new IllegalArgumentException("Invalid params format");
-        }
-
-        Map<String, Object> paramsMap = (Map<String, Object>) params;
-        String toolName = (String) paramsMap.get("name");
-        Map<String, Object> arguments = (Map<String, Object>) paramsMap.getOrDefault("arguments", Map.of());
-
-        if (toolName == null || toolName.isBlank()) {
-            throw new IllegalArgumentException("Tool name is required");
-        }
-
-        Object result = toolsRegistry.executeTool(toolName, arguments);
-        
-        long executionTime = System.currentTimeMillis() - startTime;
-        
-        // Create metadata with token estimation and performance info
-        ResponseMetadata metadata = ResponseMetadata.create(result, executionTime, false);
-        
-        String textResult = convertResultToText(result);
-        
-        // Record tokenization metrics
-        TokenizationMetrics tokenMetrics = TokenizationMetrics.fromContent(
-                textResult, executionTime, false);
-        metricsService.recordMetrics(toolName, tokenMetrics);
-        
-        log.info("Tool '{}' executed: {}", toolName, tokenMetrics);
-
-        return Map.of(
-                "content", java.util.List.of(Map.of(
-                        "type", "text",
-                        "text", textResult
-                )),
-                "isError", false,
-                "meta", metadata
-        );
-    }
-
-    /**
-     * Health check endpoint
-     */
-    private Map<String, String> handlePing() {
-        return Map.of("status", "ok", "server", config.getServer().getName());
-    }
-
-    /**
-     * Convert result object to text representation for LLM
-     */
-    private String convertResultToText(Object result) {
-        try {
-            return new com.fasterxml.jackson.databind.ObjectMapper()
-                    .writerWithDefaultPrettyPrinter()
-                    .writeValueAsString(result);
-        } catch (Exception e) {
-            return result.toString();
-        }
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter handleJsonRpcStream(
+            @RequestBody JsonRpcRequest request,
+            @RequestHeader(value = McpSession.MODEL_HEADER, required = false) String model,
+            @RequestHeader(value = McpSession.TENANT_HEADER, required = false) String tenant,
+            @RequestHeader(value = McpSession.CLIENT_HEADER, required = false) String client,
+            HttpServletRequest http) {
+        return streamingTransport.stream(request,
+                new McpSession(model, tenant, client != null ? client : http.getRemoteAddr()));
     }
 
     /**
@@ -223,7 +107,7 @@ public class McpController {
     }
     
     /**
-     * Get tokenization metrics for all tools
+     * Get tokenization metrics for all tools, and cost per billed model
      */
     @GetMapping(path = "/metrics", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, Object>> getMetrics() {
@@ -231,10 +115,12 @@ public class McpController {
         
         // Calculate totals
         long totalCalls = stats.values().stream().mapToLong(s -> s.totalCalls()).sum();
-        double totalCost = stats.values().stream().mapToDouble(s -> s.totalCostUSD()).sum();
+        // Rounded so float sums like 0.0012240000000000003 serialize as plain doubles
+        double totalCost = Math.round(stats.values().stream().mapToDouble(s -> s.totalCostUSD()).sum() * 1e8) / 1e8;
         
         return ResponseEntity.ok(Map.of(
                 "tools", stats,
+                "models", metricsService.getModelStatistics(),
                 "summary", Map.of(
                         "totalCalls", totalCalls,
                         "totalCostUSD", totalCost,
@@ -243,12 +129,43 @@ public class McpController {
         ));
     }
     
+    /**
+     * Get 1m/5m/1h call rates, token throughput, latency percentiles and cost burn per tool
+     */
+    @GetMapping(path = "/metrics/timeseries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getTimeSeriesMetrics() {
+        return ResponseEntity.ok(Map.of(
+                "tools", timeSeries.getAllWindowStats(),
+                "all", timeSeries.getWindowStats(MetricsTimeSeriesService.ALL_TOOLS)
+        ));
+    }
+    
+    /**
+     * Get the slowest calls of each tool, slowest first, with normalized SQL,
+     * phase timings, rows and response size
+     */
+    @GetMapping(path = "/metrics/slow-calls", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getSlowCalls() {
+        return ResponseEntity.ok(Map.of("tools", slowCalls.snapshot()));
+    }
+    
+    /**
+     * Get tool calls and rate-limit throttles per client, busiest first
+     */
+    @GetMapping(path = "/metrics/clients", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> getClientMetrics() {
+        return ResponseEntity.ok(Map.of("clients", rateLimiter.snapshot()));
+    }
+    
     /**
      * Reset all metrics
      */
     @PostMapping(path = "/metrics/reset", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Map<String, String>> resetMetrics() {
         metricsService.resetMetrics();
+        timeSeries.reset();
+        slowCalls.reset();
+        rateLimiter.reset();
         return ResponseEntity.ok(Map.of("status", "Metrics reset successfully"));
     }
     
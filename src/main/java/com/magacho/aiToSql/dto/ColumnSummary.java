@@ -0,0 +1,26 @@
+package com.magacho.aiToSql.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Streaming statistics of one result column, computed over the scanned rows
+ * when a result is truncated so the agent still sees the shape of the data.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ColumnSummary(
+        String column,
+        long count,
+        long nullCount,
+        Object min,
+        Object max,
+        long distinctEstimate,
+        List<ValueCount> topValues
+) {
+    public record ValueCount(
+            Object value,
+            long count
+    ) {
+    }
+}
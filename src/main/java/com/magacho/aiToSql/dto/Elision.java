@@ -0,0 +1,32 @@
+package com.magacho.aiToSql.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * What was left out of a tool response to keep it within maxResponseTokens.
+ *
+ * @param maxResponseTokens Token budget the response was shaped to
+ * @param detail Detail level kept, e.g. NAMES_ONLY or NO_DEFAULTS
+ * @param omitted Fields dropped from the response, e.g. columns.defaultValue or indexes
+ * @param returned Items returned (tables, columns, triggers or rows)
+ * @param total Items available
+ * @param nextOffset Offset to request the next page from, when the tool paginates
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record Elision(
+        Integer maxResponseTokens,
+        String detail,
+        List<String> omitted,
+        Integer returned,
+        Integer total,
+        Integer nextOffset
+) {
+    public static final String NAMES_ONLY = "NAMES_ONLY";
+    public static final String NO_DEFAULTS = "NO_DEFAULTS";
+    public static final String NO_INDEXES = "NO_INDEXES";
+    public static final String COLUMNS_ONLY = "COLUMNS_ONLY";
+    public static final String NO_STATEMENTS = "NO_STATEMENTS";
+    public static final String ROWS_SUMMARIZED = "ROWS_SUMMARIZED";
+}
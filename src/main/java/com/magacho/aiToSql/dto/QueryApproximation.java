@@ -0,0 +1,33 @@
+package com.magacho.aiToSql.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Describes how an approximate (sampled) query was answered.
+ *
+ * @param applied Whether sampling was actually used (false = exact answer, see note)
+ * @param method Sampling technique, e.g. postgresql_tablesample_system or random_subquery
+ * @param samplingRate Fraction of rows sampled (0..1]
+ * @param estimatedTableRows Planner row estimate of the sampled table
+ * @param expectedSampleRows samplingRate x estimatedTableRows
+ * @param relativeErrorBound95 95% relative error bound of a scaled COUNT over the whole table
+ * @param scaledAggregates Aggregates multiplied by 1/samplingRate in the rewritten query
+ * @param note Caveats for interpreting the result
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueryApproximation(
+        boolean applied,
+        String method,
+        Double samplingRate,
+        Long estimatedTableRows,
+        Long expectedSampleRows,
+        Double relativeErrorBound95,
+        List<String> scaledAggregates,
+        String note
+) {
+    public static QueryApproximation notApplied(String reason) {
+        return new QueryApproximation(false, "exact", null, null, null, null, null, reason);
+    }
+}
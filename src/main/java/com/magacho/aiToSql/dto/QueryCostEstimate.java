@@ -0,0 +1,35 @@
+package com.magacho.aiToSql.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Planner estimate for a query, obtained from a dialect-specific EXPLAIN
+ * before the query is executed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueryCostEstimate(
+        Double estimatedRows,
+        Double estimatedCost,
+        String method,
+        boolean cached,
+        String gateAction
+) {
+
+    public static final String ALLOWED = "ALLOWED";
+    public static final String DOWNGRADED = "DOWNGRADED";
+    public static final String REJECTED = "REJECTED";
+
+    /**
+     * Copy of this estimate as served from the plan cache
+     */
+    public QueryCostEstimate asCached() {
+        return new QueryCostEstimate(estimatedRows, estimatedCost, method, true, gateAction);
+    }
+
+    /**
+     * Copy of this estimate with the decision taken by the cost gate
+     */
+    public QueryCostEstimate withGateAction(String action) {
+        return new QueryCostEstimate(estimatedRows, estimatedCost, method, cached, action);
+    }
+}
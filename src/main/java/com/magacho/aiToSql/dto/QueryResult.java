@@ -1,13 +1,153 @@
 package com.magacho.aiToSql.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Result of a secure query.
+ * Column metadata is stored once (from ResultSetMetaData) and each row is a plain
+ * Object[] aligned with {@link #columns()}, avoiding a map per row.
+ * Serialized by {@link QueryResultSerializer} in either verbose (one JSON object
+ * per row, the historical format) or compact (array per row) form.
+ * When rows were cut by the row limit or the token budget, {@link #truncation()}
+ * says why and may carry per-column statistics of everything that was scanned.
+ * Sampled (approximate) answers describe their sampling in {@link #approximation()}.
+ */
+@JsonSerialize(using = QueryResultSerializer.class)
 public record QueryResult(
         String query,
         int rowCount,
         int maxRowsReached,
-        List<String> columnNames,
-        List<Map<String, Object>> data
+        List<Column> columns,
+        List<Object[]> rows,
+        Format format,
+        Truncation truncation,
+        QueryCostEstimate costEstimate,
+        QueryApproximation approximation
 ) {
+
+    public QueryResult(String query, int rowCount, int maxRowsReached, List<Column> columns,
+                       List<Object[]> rows, Format format, Truncation truncation,
+                       QueryCostEstimate costEstimate) {
+        this(query, rowCount, maxRowsReached, columns, rows, format, truncation, costEstimate, null);
+    }
+
+    public QueryResult(String query, int rowCount, int maxRowsReached, List<Column> columns,
+                       List<Object[]> rows, Format format, QueryCostEstimate costEstimate) {
+        this(query, rowCount, maxRowsReached, columns, rows, format, null, costEstimate, null);
+    }
+
+    public QueryResult(String query, int rowCount, int maxRowsReached,
+                       List<String> columnNames, List<Map<String, Object>> data) {
+        this(query, rowCount, maxRowsReached, columnNames, data, null);
+    }
+
+    public QueryResult(String query, int rowCount, int maxRowsReached,
+                       List<String> columnNames, List<Map<String, Object>> data,
+                       QueryCostEstimate costEstimate) {
+        this(query, rowCount, maxRowsReached, Column.untyped(columnNames),
+                toRows(columnNames, data), Format.VERBOSE,
+                rowCount >= maxRowsReached ? new Truncation(Truncation.MAX_ROWS, rowCount, null, null) : null,
+                costEstimate, null);
+    }
+
+    /**
+     * Whether rows were left out of this result
+     */
+    public boolean truncated() {
+        return truncation != null;
+    }
+
+    /**
+     * Column names in result order
+     */
+    public List<String> columnNames() {
+        return columns.stream().map(Column::name).toList();
+    }
+
+    /**
+     * Rows as column-name maps. Materializes a map per row; prefer {@link #rows()}.
+     */
+    public List<Map<String, Object>> data() {
+        List<Map<String, Object>> data = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                map.put(columns.get(i).name(), row[i]);
+            }
+            data.add(map);
+        }
+        return data;
+    }
+
+    private static List<Object[]> toRows(List<String> columnNames, List<Map<String, Object>> data) {
+        List<Object[]> rows = new ArrayList<>(data.size());
+        for (Map<String, Object> map : data) {
+            Object[] row = new Object[columnNames.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = map.get(columnNames.get(i));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Result column metadata
+     */
+    public record Column(
+            String name,
+            String typeName,
+            int jdbcType
+    ) {
+        static List<Column> untyped(List<String> names) {
+            return names.stream().map(name -> new Column(name, null, Types.JAVA_OBJECT)).toList();
+        }
+    }
+
+    /**
+     * Why and where a result was truncated
+     *
+     * @param reason MAX_ROWS or TOKEN_BUDGET
+     * @param scannedRows Rows read from the database (returned or summarized)
+     * @param maxTokens Token budget requested by the caller, if any
+     * @param columnSummaries Statistics over all scanned rows (token budget truncation only)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Truncation(
+            String reason,
+            int scannedRows,
+            Integer maxTokens,
+            List<ColumnSummary> columnSummaries
+    ) {
+        public static final String MAX_ROWS = "MAX_ROWS";
+        public static final String TOKEN_BUDGET = "TOKEN_BUDGET";
+    }
+
+    /**
+     * Output format for rows
+     */
+    public enum Format {
+        /** One JSON object per row keyed by column name */
+        VERBOSE,
+        /** Column list once, then one JSON array per row */
+        COMPACT;
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("format must be 'verbose' or 'compact'");
+            }
+        }
+    }
 }
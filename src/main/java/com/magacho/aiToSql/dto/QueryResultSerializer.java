@@ -0,0 +1,111 @@
+package com.magacho.aiToSql.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Streams a {@link QueryResult} straight from its Object[] rows.
+ *
+ * Verbose: {"query", "rowCount", "maxRowsReached", "columnNames", "data": [{...}]}
+ * Compact: {"query", "rowCount", "maxRowsReached", "format", "columns": [{name, type}], "rows": [[...]]}
+ * Truncated results additionally carry "truncated": true and a "truncation" object;
+ * approximate results carry an "approximation" object.
+ */
+public class QueryResultSerializer extends StdSerializer<QueryResult> {
+
+    public QueryResultSerializer() {
+        super(QueryResult.class);
+    }
+
+    @Override
+    public void serialize(QueryResult result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("query", result.query());
+        gen.writeNumberField("rowCount", result.rowCount());
+        gen.writeNumberField("maxRowsReached", result.maxRowsReached());
+        if (result.truncated()) {
+            gen.writeBooleanField("truncated", true);
+        }
+
+        if (result.format() == QueryResult.Format.COMPACT) {
+            writeCompact(result, gen, provider);
+        } else {
+            writeVerbose(result, gen, provider);
+        }
+
+        if (result.truncated()) {
+            provider.defaultSerializeField("truncation", result.truncation(), gen);
+        }
+        if (result.approximation() != null) {
+            provider.defaultSerializeField("approximation", result.approximation(), gen);
+        }
+
+        gen.writeEndObject();
+    }
+
+    private void writeVerbose(QueryResult result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        List<QueryResult.Column> columns = result.columns();
+
+        gen.writeArrayFieldStart("columnNames");
+        for (QueryResult.Column column : columns) {
+            gen.writeString(column.name());
+        }
+        gen.writeEndArray();
+
+        gen.writeArrayFieldStart("data");
+        for (Object[] row : result.rows()) {
+            gen.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                gen.writeFieldName(columns.get(i).name());
+                writeValue(row[i], gen, provider);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeCompact(QueryResult result, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStringField("format", "compact");
+
+        gen.writeArrayFieldStart("columns");
+        for (QueryResult.Column column : result.columns()) {
+            gen.writeStartObject();
+            gen.writeStringField("name", column.name());
+            if (column.typeName() != null) {
+                gen.writeStringField("type", column.typeName());
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+
+        gen.writeArrayFieldStart("rows");
+        for (Object[] row : result.rows()) {
+            gen.writeStartArray();
+            for (Object value : row) {
+                writeValue(value, gen, provider);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeValue(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else if (value instanceof String text) {
+            gen.writeString(text);
+        } else if (value instanceof Integer number) {
+            gen.writeNumber(number);
+        } else if (value instanceof Long number) {
+            gen.writeNumber(number);
+        } else if (value instanceof Boolean bool) {
+            gen.writeBoolean(bool);
+        } else {
+            provider.defaultSerializeValue(value, gen);
+        }
+    }
+}
@@ -1,19 +1,37 @@
 package com.magacho.aiToSql.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.magacho.aiToSql.pricing.ModelPrice;
+import com.magacho.aiToSql.tokenizer.CharacterRatioTokenCounter;
+import com.magacho.aiToSql.tokenizer.TokenCounter;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Response metadata for MCP tool calls
- * Provides token estimation, performance metrics, and data information
+ * Provides token estimation, performance metrics, data information, and what
+ * was elided to fit a maxResponseTokens budget
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public record ResponseMetadata(
         TokenInfo tokens,
         PerformanceInfo performance,
         CostInfo cost,
-        DataInfo data
+        DataInfo data,
+        QueryCostEstimate queryCost,
+        Elision elided
 ) {
 
+    public ResponseMetadata(TokenInfo tokens, PerformanceInfo performance, CostInfo cost, DataInfo data,
+                            QueryCostEstimate queryCost) {
+        this(tokens, performance, cost, data, queryCost, null);
+    }
+
+    public ResponseMetadata(TokenInfo tokens, PerformanceInfo performance, CostInfo cost, DataInfo data) {
+        this(tokens, performance, cost, data, null, null);
+    }
+
     /**
      * Token estimation information
      */
@@ -27,30 +45,57 @@ public record ResponseMetadata(
 
     /**
      * Performance metrics
+     * phasesNs: nanoseconds per phase of the call (connectionAcquire, metadata,
+     * explain, queryExecution, rowFetch, serialization, tokenization), in
+     * call-path order; phases the call skipped, e.g. on a cache hit, are absent
      */
     public record PerformanceInfo(
             long executionTimeMs,
-            boolean cachedResult
-    ) {}
+            boolean cachedResult,
+            @JsonInclude(JsonInclude.Include.NON_NULL) Map<String, Long> phasesNs
+    ) {
+        public PerformanceInfo(long executionTimeMs, boolean cachedResult) {
+            this(executionTimeMs, cachedResult, null);
+        }
+    }
 
     /**
-     * Cost estimation (based on Claude 3.5 Sonnet pricing)
+     * Cost estimation for the model the client bills against
+     * (cachedInputUSD: the same tokens read from the model's prompt cache)
      */
     public record CostInfo(
             double estimatedUSD,
             String model,
-            String note
-    ) {}
+            String note,
+            @JsonInclude(JsonInclude.Include.NON_NULL) Double cachedInputUSD
+    ) {
+        public CostInfo(double estimatedUSD, String model, String note) {
+            this(estimatedUSD, model, note, null);
+        }
+    }
 
     /**
      * Data information (for query results)
      */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public record DataInfo(
             Integer rowCount,
             Integer columnCount,
             Boolean truncated,
-            Integer maxRowsLimit
-    ) {}
+            Integer maxRowsLimit,
+            String truncationReason,
+            Integer scannedRows,
+            Boolean approximate
+    ) {
+        public DataInfo(Integer rowCount, Integer columnCount, Boolean truncated, Integer maxRowsLimit) {
+            this(rowCount, columnCount, truncated, maxRowsLimit, null, null, null);
+        }
+
+        public DataInfo(Integer rowCount, Integer columnCount, Boolean truncated, Integer maxRowsLimit,
+                        String truncationReason, Integer scannedRows) {
+            this(rowCount, columnCount, truncated, maxRowsLimit, truncationReason, scannedRows, null);
+        }
+    }
 
     /**
      * Estimate tokens based on character count
@@ -60,43 +105,63 @@ public record ResponseMetadata(
      * @return TokenInfo with estimation
      */
     public static TokenInfo estimateTokens(String text) {
-        if (text == null || text.isEmpty()) {
-            return new TokenInfo(0, 0, 0, "character_count_div_4", "Actual tokens may vary by LLM tokenizer");
-        }
-        
-        // Heuristic: 1 token ≈ 4 characters
-        // This is ~95% accurate for English text and code
-        int estimated = (int) Math.ceil(text.length() / 4.0);
+        return estimateTokens(text, CharacterRatioTokenCounter.INSTANCE);
+    }
+
+    /**
+     * Count tokens with the given counter
+     * 
+     * @param text The text to count tokens for
+     * @param counter Counter for the target model's tokenizer
+     * @return TokenInfo with the count and the method used
+     */
+    public static TokenInfo estimateTokens(String text, TokenCounter counter) {
+        int count = text == null ? 0 : counter.count(text);
+        String warning = counter.exact()
+                ? "Exact for " + counter.method().replaceFirst("^bpe_", "") + "; other tokenizers may differ"
+                : "Actual tokens may vary by LLM tokenizer";
         
         // For MCP context: input tokens ~0, output tokens ~estimated
         int inputTokens = 0;  // Tool calls typically have minimal input
-        int outputTokens = estimated;
+        int outputTokens = count;
         
         return new TokenInfo(
-                estimated,
+                count,
                 inputTokens,
                 outputTokens,
-                "character_count_div_4",
-                "Actual tokens may vary by LLM tokenizer"
+                counter.method(),
+                warning
         );
     }
 
     /**
      * Calculate cost based on token count
-     * Uses Claude 3.5 Sonnet pricing as reference
+     * Uses the reference model's prices (see {@link ModelPrice#REFERENCE})
      */
     public static CostInfo calculateCost(TokenInfo tokens) {
-        // Claude 3.5 Sonnet pricing (as of 2024):
-        // Input: $3.00 per million tokens
-        // Output: $15.00 per million tokens
-        double inputCost = (tokens.inputTokens() / 1_000_000.0) * 3.00;
-        double outputCost = (tokens.outputTokens() / 1_000_000.0) * 15.00;
-        double totalCost = inputCost + outputCost;
+        return calculateCost(tokens, ModelPrice.REFERENCE, null);
+    }
+
+    /**
+     * Calculate cost of a call's tokens for a model
+     * The tool's output is read by the model (input price); its input was
+     * written by the model (output price)
+     * 
+     * @param tokens Token count of the call
+     * @param price Prices of the model billed
+     * @param note Extra note appended to the cost basis, or null
+     * @return CostInfo for the model
+     */
+    public static CostInfo calculateCost(TokenInfo tokens, ModelPrice price, String note) {
+        String basis = CharacterRatioTokenCounter.METHOD.equals(tokens.approximationMethod())
+                ? "Estimated based on character count heuristic"
+                : "Based on " + tokens.approximationMethod() + " token count";
         
         return new CostInfo(
-                totalCost,
-                "claude-3.5-sonnet",
-                "Estimated based on character count heuristic"
+                price.cost(tokens.outputTokens(), tokens.inputTokens()),
+                price.model(),
+                note != null ? basis + "; " + note : basis,
+                price.cachedCost(tokens.outputTokens(), tokens.inputTokens())
         );
     }
 
@@ -108,25 +173,50 @@ public record ResponseMetadata(
      */
     public static DataInfo extractDataInfo(Object result) {
         if (result instanceof QueryResult queryResult) {
-            boolean truncated = queryResult.data() != null && 
-                              queryResult.rowCount() >= 1000; // Default max rows
-            
             Integer columnCount = null;
-            if (queryResult.columnNames() != null) {
-                columnCount = queryResult.columnNames().size();
+            if (queryResult.columns() != null) {
+                columnCount = queryResult.columns().size();
             }
+
+            QueryResult.Truncation truncation = queryResult.truncation();
             
             return new DataInfo(
                     queryResult.rowCount(),
                     columnCount,
-                    truncated,
-                    1000
+                    queryResult.truncated(),
+                    queryResult.maxRowsReached(),
+                    truncation != null ? truncation.reason() : null,
+                    truncation != null ? truncation.scannedRows() : null,
+                    queryResult.approximation() != null && queryResult.approximation().applied() ? true : null
             );
         }
         
         return null;
     }
 
+    /**
+     * Extract what was left out of a result to fit its token budget
+     * 
+     * @param result The tool execution result
+     * @return Elision or null if the result is complete
+     */
+    public static Elision extractElision(Object result) {
+        if (result instanceof SchemaStructure schema) {
+            return schema.elision();
+        } else if (result instanceof TableDetails details) {
+            return details.elision();
+        } else if (result instanceof TriggerList triggers) {
+            return triggers.elision();
+        } else if (result instanceof QueryResult queryResult && queryResult.truncation() != null
+                && QueryResult.Truncation.TOKEN_BUDGET.equals(queryResult.truncation().reason())) {
+            QueryResult.Truncation truncation = queryResult.truncation();
+            return new Elision(truncation.maxTokens(), Elision.ROWS_SUMMARIZED,
+                    truncation.columnSummaries() != null ? List.of("rows") : List.of("rows", "truncation.columnSummaries"),
+                    queryResult.rowCount(), truncation.scannedRows(), null);
+        }
+        return null;
+    }
+
     /**
      * Create a complete ResponseMetadata from result and execution time
      * 
@@ -139,12 +229,58 @@ public record ResponseMetadata(
         // Convert result to text for token estimation
         String textResult = convertToText(result);
         
-        TokenInfo tokenInfo = estimateTokens(textResult);
-        CostInfo costInfo = calculateCost(tokenInfo);
-        PerformanceInfo perfInfo = new PerformanceInfo(executionTimeMs, cachedResult);
+        return create(result, estimateTokens(textResult), executionTimeMs, cachedResult);
+    }
+
+    /**
+     * Create a complete ResponseMetadata from result, its token count and execution time
+     * 
+     * @param result The tool execution result
+     * @param tokenInfo Token count of the serialized result
+     * @param executionTimeMs Execution time in milliseconds
+     * @param cachedResult Whether the result was cached
+     * @return Complete ResponseMetadata
+     */
+    public static ResponseMetadata create(Object result, TokenInfo tokenInfo, long executionTimeMs,
+                                          boolean cachedResult) {
+        return create(result, tokenInfo, calculateCost(tokenInfo), executionTimeMs, cachedResult);
+    }
+
+    /**
+     * Create a complete ResponseMetadata from result, its token count and cost, and execution time
+     * 
+     * @param result The tool execution result
+     * @param tokenInfo Token count of the serialized result
+     * @param costInfo Cost of those tokens for the client's model
+     * @param executionTimeMs Execution time in milliseconds
+     * @param cachedResult Whether the result was cached
+     * @return Complete ResponseMetadata
+     */
+    public static ResponseMetadata create(Object result, TokenInfo tokenInfo, CostInfo costInfo,
+                                          long executionTimeMs, boolean cachedResult) {
+        return create(result, tokenInfo, costInfo, executionTimeMs, cachedResult, null);
+    }
+
+    /**
+     * Create a complete ResponseMetadata with the call's per-phase timings
+     * 
+     * @param result The tool execution result
+     * @param tokenInfo Token count of the serialized result
+     * @param costInfo Cost of those tokens for the client's model
+     * @param executionTimeMs Execution time in milliseconds
+     * @param cachedResult Whether the result was cached
+     * @param phasesNs Nanoseconds per call phase, or null
+     * @return Complete ResponseMetadata
+     */
+    public static ResponseMetadata create(Object result, TokenInfo tokenInfo, CostInfo costInfo,
+                                          long executionTimeMs, boolean cachedResult, Map<String, Long> phasesNs) {
+        PerformanceInfo perfInfo = new PerformanceInfo(executionTimeMs, cachedResult, phasesNs);
         DataInfo dataInfo = extractDataInfo(result);
+        QueryCostEstimate queryCost = result instanceof QueryResult queryResult
+                ? queryResult.costEstimate()
+                : null;
         
-        return new ResponseMetadata(tokenInfo, perfInfo, costInfo, dataInfo);
+        return new ResponseMetadata(tokenInfo, perfInfo, costInfo, dataInfo, queryCost, extractElision(result));
     }
 
     /**
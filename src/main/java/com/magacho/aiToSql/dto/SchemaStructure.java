@@ -1,17 +1,41 @@
 package com.magacho.aiToSql.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+/**
+ * Database schema: tables with their columns.
+ * Shaped to a token budget, tables may carry only column names and the list
+ * may be one page of the schema; {@link #elision()} then says so.
+ */
 public record SchemaStructure(
         String databaseName,
         String databaseType,
-        List<TableInfo> tables
+        List<TableInfo> tables,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Elision elision
 ) {
+    public SchemaStructure(String databaseName, String databaseType, List<TableInfo> tables) {
+        this(databaseName, databaseType, tables, null);
+    }
+
     public record TableInfo(
             String tableName,
             String tableType,
-            List<ColumnInfo> columns
+            @JsonInclude(JsonInclude.Include.NON_NULL) List<ColumnInfo> columns,
+            @JsonInclude(JsonInclude.Include.NON_NULL) List<String> columnNames
     ) {
+        public TableInfo(String tableName, String tableType, List<ColumnInfo> columns) {
+            this(tableName, tableType, columns, null);
+        }
+
+        /**
+         * Same table with column names only
+         */
+        public TableInfo namesOnly() {
+            return new TableInfo(tableName, tableType, null,
+                    columns != null ? columns.stream().map(ColumnInfo::columnName).toList() : columnNames);
+        }
     }
 
     public record ColumnInfo(
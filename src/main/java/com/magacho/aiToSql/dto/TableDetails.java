@@ -1,15 +1,30 @@
 package com.magacho.aiToSql.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+/**
+ * Detailed table information.
+ * Shaped to a token budget, column defaults, indexes, constraints, foreign
+ * keys and finally trailing columns are left out in that order; {@link #elision()}
+ * says which.
+ */
 public record TableDetails(
         String tableName,
         String tableType,
         List<ColumnDetail> columns,
-        List<IndexInfo> indexes,
-        List<ForeignKeyInfo> foreignKeys,
-        List<ConstraintInfo> constraints
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<IndexInfo> indexes,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<ForeignKeyInfo> foreignKeys,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<ConstraintInfo> constraints,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Elision elision
 ) {
+    public TableDetails(String tableName, String tableType, List<ColumnDetail> columns,
+                        List<IndexInfo> indexes, List<ForeignKeyInfo> foreignKeys,
+                        List<ConstraintInfo> constraints) {
+        this(tableName, tableType, columns, indexes, foreignKeys, constraints, null);
+    }
+
     public record ColumnDetail(
             String columnName,
             String dataType,
@@ -20,6 +35,13 @@ public record TableDetails(
             boolean isPrimaryKey,
             boolean isAutoIncrement
     ) {
+        /**
+         * Same column without its default expression
+         */
+        public ColumnDetail withoutDefault() {
+            return defaultValue == null ? this : new ColumnDetail(columnName, dataType, columnSize,
+                    decimalDigits, nullable, null, isPrimaryKey, isAutoIncrement);
+        }
     }
 
     public record IndexInfo(
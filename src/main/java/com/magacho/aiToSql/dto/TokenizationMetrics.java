@@ -1,8 +1,11 @@
 package com.magacho.aiToSql.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.magacho.aiToSql.pricing.ModelPrice;
+import com.magacho.aiToSql.tokenizer.CharacterRatioTokenCounter;
 
 import java.time.Instant;
+import java.util.Map;
 
 /**
  * Métricas de desempenho e tokenização para respostas MCP.
@@ -18,14 +21,23 @@ public record TokenizationMetrics(
         @JsonProperty("estimatedTokenCount")
         int estimatedTokenCount,
         
+        @JsonProperty("model")
+        String model,
+        
         @JsonProperty("estimatedCostUSD")
         double estimatedCostUSD,
         
+        @JsonProperty("cachedInputCostUSD")
+        double cachedInputCostUSD,
+        
         @JsonProperty("cacheHit")
         boolean cacheHit,
         
         @JsonProperty("timestamp")
-        Instant timestamp
+        Instant timestamp,
+        
+        @JsonProperty("phasesNs")
+        Map<String, Long> phasesNs
 ) {
     /**
      * Cria métricas com cálculos automáticos baseados no conteúdo.
@@ -36,38 +48,76 @@ public record TokenizationMetrics(
      * @return Métricas calculadas
      */
     public static TokenizationMetrics fromContent(String content, long executionTimeMs, boolean cacheHit) {
-        int charCount = content.length();
-        
-        // Estimativa: 1 token ≈ 4 caracteres para português
-        int estimatedTokens = charCount / 4;
-        
-        // Custo estimado usando GPT-4 pricing
-        // Input: $0.03 / 1K tokens
-        // Output: $0.06 / 1K tokens (assumindo 20% de output)
-        double inputCost = (estimatedTokens * 0.03) / 1000.0;
-        double outputCost = ((estimatedTokens * 0.2) * 0.06) / 1000.0;
-        double totalCost = inputCost + outputCost;
-        
+        // Estimativa: 1 token ≈ 4 caracteres (arredondado para cima, como em ResponseMetadata)
+        return fromContent(content, CharacterRatioTokenCounter.INSTANCE.count(content), executionTimeMs, cacheHit);
+    }
+
+    /**
+     * Cria métricas a partir de uma contagem de tokens já feita (ex.: BPE exato).
+     * 
+     * @param content Conteúdo da resposta
+     * @param tokenCount Tokens do conteúdo
+     * @param executionTimeMs Tempo de execução em milissegundos
+     * @param cacheHit Se foi cache hit
+     * @return Métricas calculadas
+     */
+    public static TokenizationMetrics fromContent(String content, int tokenCount, long executionTimeMs,
+                                                  boolean cacheHit) {
+        // Sem registro de preços: usa os preços do modelo de referência
+        ModelPrice price = ModelPrice.REFERENCE;
+        return fromContent(content, tokenCount,
+                new ResponseMetadata.CostInfo(price.cost(tokenCount, 0), price.model(), null,
+                        price.cachedCost(tokenCount, 0)),
+                executionTimeMs, cacheHit);
+    }
+
+    /**
+     * Cria métricas com o custo já calculado para a resposta (o mesmo de ResponseMetadata).
+     * 
+     * @param content Conteúdo da resposta
+     * @param tokenCount Tokens do conteúdo
+     * @param cost Custo da chamada no modelo do cliente
+     * @param executionTimeMs Tempo de execução em milissegundos
+     * @param cacheHit Se foi cache hit
+     * @return Métricas calculadas
+     */
+    public static TokenizationMetrics fromContent(String content, int tokenCount, ResponseMetadata.CostInfo cost,
+                                                  long executionTimeMs, boolean cacheHit) {
         return new TokenizationMetrics(
                 executionTimeMs,
-                charCount,
-                estimatedTokens,
-                totalCost,
+                content.length(),
+                tokenCount,
+                cost.model(),
+                cost.estimatedUSD(),
+                cost.cachedInputUSD() != null ? cost.cachedInputUSD() : cost.estimatedUSD(),
                 cacheHit,
-                Instant.now()
+                Instant.now(),
+                Map.of()
         );
     }
     
+    /**
+     * Mesmas métricas com o tempo gasto em cada fase da chamada (nanossegundos).
+     * 
+     * @param phasesNs Nanossegundos por fase (connectionAcquire, queryExecution, ...)
+     * @return Métricas com as fases
+     */
+    public TokenizationMetrics withPhases(Map<String, Long> phasesNs) {
+        return new TokenizationMetrics(executionTimeMs, characterCount, estimatedTokenCount, model,
+                estimatedCostUSD, cachedInputCostUSD, cacheHit, timestamp, Map.copyOf(phasesNs));
+    }
+    
     /**
      * Retorna uma representação legível das métricas.
      */
     @Override
     public String toString() {
         return String.format(
-                "TokenizationMetrics[time=%dms, chars=%d, tokens≈%d, cost≈$%.6f, cache=%s]",
+                "TokenizationMetrics[time=%dms, chars=%d, tokens≈%d, model=%s, cost≈$%.6f, cache=%s]",
                 executionTimeMs,
                 characterCount,
                 estimatedTokenCount,
+                model,
                 estimatedCostUSD,
                 cacheHit ? "HIT" : "MISS"
         );
@@ -1,16 +1,34 @@
 package com.magacho.aiToSql.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+/**
+ * Triggers of a table.
+ * Shaped to a token budget, trigger bodies are left out first and then
+ * trailing triggers; {@link #elision()} says which.
+ */
 public record TriggerList(
         String tableName,
-        List<TriggerInfo> triggers
+        List<TriggerInfo> triggers,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Elision elision
 ) {
+    public TriggerList(String tableName, List<TriggerInfo> triggers) {
+        this(tableName, triggers, null);
+    }
+
     public record TriggerInfo(
             String triggerName,
             String event,
             String timing,
             String statement
     ) {
+        /**
+         * Same trigger without its body
+         */
+        public TriggerInfo withoutStatement() {
+            return statement == null ? this : new TriggerInfo(triggerName, event, timing, null);
+        }
     }
 }
@@ -0,0 +1,29 @@
+package com.magacho.aiToSql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event for one database phase of a tool call (pool wait,
+ * metadata I/O, EXPLAIN, execution, row fetch). Committed when the phase
+ * ends; it shares the thread of the enclosing {@link ToolExecutionEvent}.
+ */
+@Name("com.magacho.aiToSql.JdbcPhase")
+@Label("MCP JDBC Phase")
+@Category({"MCP", "JDBC"})
+@Description("Database phase of an MCP tool call")
+@StackTrace(false)
+public class JdbcPhaseEvent extends Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long elapsed;
+}
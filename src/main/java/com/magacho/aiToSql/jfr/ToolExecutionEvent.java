@@ -0,0 +1,41 @@
+package com.magacho.aiToSql.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one MCP tool call, from arguments to
+ * serialized response. Free when no recording is running.
+ */
+@Name("com.magacho.aiToSql.ToolExecution")
+@Label("MCP Tool Execution")
+@Category({"MCP", "Tools"})
+@Description("One MCP tool call")
+@StackTrace(false)
+public class ToolExecutionEvent extends Event {
+
+    @Label("Tool")
+    public String tool;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Normalized SQL")
+    @Description("Query shape with literals replaced by ?")
+    public String sql;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Response Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Tokens")
+    public int tokens;
+}
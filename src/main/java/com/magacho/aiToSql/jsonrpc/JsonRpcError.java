@@ -55,4 +55,9 @@ public class JsonRpcError {
     public static final int METHOD_NOT_FOUND = -32601;
     public static final int INVALID_PARAMS = -32602;
     public static final int INTERNAL_ERROR = -32603;
+
+    // Server-defined error codes (-32000 to -32099)
+    public static final int QUERY_COST_EXCEEDED = -32002;
+    public static final int SERVER_BUSY = -32003;
+    public static final int RATE_LIMITED = -32004;
 }
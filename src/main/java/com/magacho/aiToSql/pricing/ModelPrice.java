@@ -0,0 +1,41 @@
+package com.magacho.aiToSql.pricing;
+
+/**
+ * Token prices of one model, in USD per million tokens.
+ *
+ * A tool response is read by the calling model, so its tokens are billed at
+ * the model's input price (or the cached-input price when the host serves it
+ * from its prompt cache); tool arguments were written by the model and are
+ * billed at its output price.
+ */
+public record ModelPrice(
+        String model,
+        double inputPerMillion,
+        double outputPerMillion,
+        double cachedInputPerMillion
+) {
+    /**
+     * Prices used when no registry is configured (Claude 3.5 Sonnet, 2024)
+     */
+    public static final ModelPrice REFERENCE = new ModelPrice("claude-3.5-sonnet", 3.00, 15.00, 0.30);
+
+    public ModelPrice {
+        if (inputPerMillion < 0 || outputPerMillion < 0 || cachedInputPerMillion < 0) {
+            throw new IllegalArgumentException("Negative price configured for model " + model);
+        }
+    }
+
+    /**
+     * USD for a call whose response the model reads and whose arguments it wrote
+     */
+    public double cost(int readTokens, int writtenTokens) {
+        return (readTokens * inputPerMillion + writtenTokens * outputPerMillion) / 1_000_000.0;
+    }
+
+    /**
+     * Same as {@link #cost} with the response read from the prompt cache
+     */
+    public double cachedCost(int readTokens, int writtenTokens) {
+        return (readTokens * cachedInputPerMillion + writtenTokens * outputPerMillion) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.magacho.aiToSql.pricing;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.ResponseMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Model prices loaded from mcp.pricing.models.
+ *
+ * Clients select the model they bill against; a model without a configured
+ * price is billed as mcp.default-model, so metrics stay keyed by the models
+ * operators configured rather than whatever names clients send.
+ */
+@Component
+public class PricingRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingRegistry.class);
+
+    private final String defaultModel;
+    private final Map<String, ModelPrice> prices;
+
+    public PricingRegistry(McpServerConfig config) {
+        this.defaultModel = config.getDefaultModel();
+
+        Map<String, ModelPrice> configured = new LinkedHashMap<>();
+        config.getPricing().getModels().forEach((model, pricing) -> configured.put(model, new ModelPrice(
+                model,
+                pricing.getInputPerMillion(),
+                pricing.getOutputPerMillion(),
+                pricing.getCachedInputPerMillion() != null
+                        ? pricing.getCachedInputPerMillion()
+                        : pricing.getInputPerMillion())));
+
+        if (!configured.containsKey(defaultModel)) {
+            if (ModelPrice.REFERENCE.model().equals(defaultModel)) {
+                configured.put(defaultModel, ModelPrice.REFERENCE);
+            } else {
+                log.warn("No price configured for default model {}; its calls are reported at no cost", defaultModel);
+                configured.put(defaultModel, new ModelPrice(defaultModel, 0, 0, 0));
+            }
+        }
+        this.prices = Collections.unmodifiableMap(configured);
+    }
+
+    /**
+     * Model a call is billed against: the requested one when priced, else the default
+     */
+    public String resolveModel(String requested) {
+        return requested != null && prices.containsKey(requested) ? requested : defaultModel;
+    }
+
+    /**
+     * Prices of a model (the default model's when it has none)
+     */
+    public ModelPrice forModel(String model) {
+        return prices.get(resolveModel(model));
+    }
+
+    /**
+     * Cost of one call's tokens for the model the client selected
+     *
+     * @param requestedModel Model selected by the client, or null for the default
+     * @param tokens Token count of the call
+     * @return Cost priced for the resolved model
+     */
+    public ResponseMetadata.CostInfo cost(String requestedModel, ResponseMetadata.TokenInfo tokens) {
+        String note = requestedModel != null && !prices.containsKey(requestedModel)
+                ? "No price configured for " + requestedModel + ", billed as " + defaultModel
+                : null;
+        return ResponseMetadata.calculateCost(tokens, forModel(requestedModel), note);
+    }
+
+    /**
+     * Models with a price, in configuration order
+     */
+    public Set<String> models() {
+        return prices.keySet();
+    }
+}
@@ -0,0 +1,192 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Client Rate Limiter
+ *
+ * One token bucket per client and tool (mcp.rate-limit): a call the bucket
+ * has no token for is refused with {@link RateLimitExceededException} and the
+ * time until it will. Buckets are kept as a single theoretical arrival time
+ * (GCRA) updated by compare-and-set, and call counts are LongAdders, so an
+ * admitted call costs a map lookup and one CAS.
+ *
+ * Calls and throttles per client are reported by {@link #snapshot()} and as
+ * mcp.client.calls, tagged with the client's name when it is listed in
+ * mcp.fair-queue.client-weights and "other" otherwise. Past
+ * mcp.rate-limit.max-tracked-clients, clients whose buckets have refilled
+ * are forgotten.
+ */
+@Component
+public class ClientRateLimiter {
+
+    /**
+     * mcp.client.calls tag of clients without a configured weight
+     */
+    public static final String OTHER_CLIENTS = "other";
+
+    private final McpServerConfig.RateLimit settings;
+    private final Set<String> namedClients;
+    private final McpMetrics meters;
+    private final Map<String, ClientState> clients = new ConcurrentHashMap<>();
+
+    public ClientRateLimiter(McpServerConfig config, McpMetrics meters) {
+        this.settings = config.getRateLimit();
+        this.namedClients = Set.copyOf(config.getFairQueue().getClientWeights().keySet());
+        this.meters = meters;
+    }
+
+    /**
+     * Take one call of a tool from the client's bucket
+     *
+     * @throws RateLimitExceededException if the bucket is empty
+     */
+    public void acquire(String client, String tool) {
+        long now = System.nanoTime();
+        ClientState state = state(client, now);
+        long waitNanos = settings.isEnabled() ? state.bucket(tool, this::limitFor, now).tryAcquire(now) : 0;
+        if (waitNanos == 0) {
+            state.calls.increment();
+            meters.recordClientCall(state.tag, true);
+            return;
+        }
+
+        state.throttled.increment();
+        meters.recordClientCall(state.tag, false);
+        long retryAfterMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos + 999_999));
+        McpServerConfig.ToolLimit limit = limitFor(tool);
+        throw new RateLimitExceededException("Rate limit exceeded: " + tool + " allows "
+                + limit.getRatePerSecond() + " calls/s (burst " + limit.getBurst() + ") per client. Retry after "
+                + retryAfterMs + " ms.", retryAfterMs);
+    }
+
+    /**
+     * Calls and throttles per tracked client, busiest first
+     */
+    public Map<String, ClientStats> snapshot() {
+        long now = System.nanoTime();
+        Map<String, ClientStats> stats = new LinkedHashMap<>();
+        clients.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, ClientState> e) -> e.getValue().calls.sum())
+                        .reversed())
+                .forEach(e -> stats.put(e.getKey(), e.getValue().stats(now)));
+        return stats;
+    }
+
+    public void reset() {
+        long now = System.nanoTime();
+        clients.values().forEach(state -> state.reset(now));
+    }
+
+    int trackedClients() {
+        return clients.size();
+    }
+
+    private ClientState state(String client, long now) {
+        ClientState state = clients.get(client);
+        if (state != null) {
+            return state;
+        }
+        if (clients.size() >= settings.getMaxTrackedClients()) {
+            clients.values().removeIf(idle -> idle.isRested(now));
+        }
+        return clients.computeIfAbsent(client,
+                c -> new ClientState(namedClients.contains(c) ? c : OTHER_CLIENTS, now));
+    }
+
+    private McpServerConfig.ToolLimit limitFor(String tool) {
+        return settings.getTools().getOrDefault(tool, settings.getDefaultLimit());
+    }
+
+    /**
+     * @param calls calls admitted
+     * @param throttled calls refused by the rate limit
+     * @param callsPerSecond admitted calls per second since the client was first seen (or the last reset)
+     */
+    public record ClientStats(long calls, long throttled, double callsPerSecond) {
+    }
+
+    private static final class ClientState {
+        private final String tag;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private volatile long sinceNanos;
+
+        ClientState(String tag, long now) {
+            this.tag = tag;
+            this.sinceNanos = now;
+        }
+
+        TokenBucket bucket(String tool, Function<String, McpServerConfig.ToolLimit> limits, long now) {
+            TokenBucket bucket = buckets.get(tool);
+            return bucket != null ? bucket : buckets.computeIfAbsent(tool,
+                    t -> new TokenBucket(limits.apply(t), now));
+        }
+
+        boolean isRested(long now) {
+            return buckets.values().stream().allMatch(bucket -> bucket.isFull(now));
+        }
+
+        ClientStats stats(long now) {
+            long total = calls.sum();
+            double seconds = Math.max(1e-3, (now - sinceNanos) / 1e9);
+            return new ClientStats(total, throttled.sum(), Math.round(total / seconds * 100) / 100.0);
+        }
+
+        void reset(long now) {
+            calls.reset();
+            throttled.reset();
+            sinceNanos = now;
+        }
+    }
+
+    /**
+     * Token bucket as a generic cell rate algorithm: the state is the time
+     * the bucket would be full again; a call moves it one interval later,
+     * unless that is more than burst intervals ahead of now.
+     */
+    static final class TokenBucket {
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final AtomicLong fullAt;
+
+        TokenBucket(McpServerConfig.ToolLimit limit, long now) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(limit.getRatePerSecond(), 1e-6));
+            this.toleranceNanos = intervalNanos * Math.max(1, limit.getBurst());
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 if a token was taken, else nanoseconds until one is available
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = (current - now > 0 ? current : now) + intervalNanos;
+                long ahead = next - now;
+                if (ahead > toleranceNanos) {
+                    return ahead - toleranceNanos;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        boolean isFull(long now) {
+            return fullAt.get() - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.ColumnSummary;
+import com.magacho.aiToSql.dto.QueryResult;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single-pass, bounded-memory statistics over result rows:
+ * count, null count, min/max, distinct estimate (HyperLogLog) and top-k
+ * frequent values (Space-Saving). Memory per column is constant.
+ */
+class ColumnStatisticsCollector {
+
+    private static final int TOP_K = 5;
+    private static final int TOP_K_CAPACITY = 32;
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final List<QueryResult.Column> columns;
+    private final ColumnState[] states;
+
+    ColumnStatisticsCollector(List<QueryResult.Column> columns) {
+        this.columns = columns;
+        this.states = new ColumnState[columns.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new ColumnState();
+        }
+    }
+
+    void accept(Object[] row) {
+        for (int i = 0; i < states.length; i++) {
+            states[i].accept(row[i]);
+        }
+    }
+
+    List<ColumnSummary> summaries() {
+        List<ColumnSummary> summaries = new ArrayList<>(states.length);
+        for (int i = 0; i < states.length; i++) {
+            summaries.add(states[i].toSummary(columns.get(i).name()));
+        }
+        return summaries;
+    }
+
+    private static final class ColumnState {
+        private long count;
+        private long nullCount;
+        private Object min;
+        private Object max;
+        private final HyperLogLog distinct = new HyperLogLog();
+        private final Map<Object, long[]> counters = new HashMap<>();
+
+        void accept(Object value) {
+            if (value == null) {
+                nullCount++;
+                return;
+            }
+            count++;
+            distinct.add(value);
+            updateMinMax(value);
+            updateTopK(value);
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void updateMinMax(Object value) {
+            if (!(value instanceof Comparable comparable)) {
+                return;
+            }
+            if (min == null) {
+                min = value;
+                max = value;
+                return;
+            }
+            if (min.getClass() != value.getClass()) {
+                return;
+            }
+            if (comparable.compareTo(min) < 0) {
+                min = value;
+            } else if (comparable.compareTo(max) > 0) {
+                max = value;
+            }
+        }
+
+        /**
+         * Space-Saving: with a full table, the least frequent counter is replaced
+         * and inherits its count, which bounds the over-estimation error.
+         */
+        private void updateTopK(Object value) {
+            if (value instanceof byte[]) {
+                return;
+            }
+            long[] counter = counters.get(value);
+            if (counter != null) {
+                counter[0]++;
+                return;
+            }
+            if (counters.size() < TOP_K_CAPACITY) {
+                counters.put(value, new long[]{1});
+                return;
+            }
+
+            Object minKey = null;
+            long[] minCounter = null;
+            for (Map.Entry<Object, long[]> entry : counters.entrySet()) {
+                if (minCounter == null || entry.getValue()[0] < minCounter[0]) {
+                    minKey = entry.getKey();
+                    minCounter = entry.getValue();
+                }
+            }
+            counters.remove(minKey);
+            minCounter[0]++;
+            counters.put(value, minCounter);
+        }
+
+        ColumnSummary toSummary(String column) {
+            List<ColumnSummary.ValueCount> topValues = counters.entrySet().stream()
+                    .filter(entry -> entry.getValue()[0] > 1)
+                    .sorted(Comparator.comparingLong((Map.Entry<Object, long[]> entry) -> entry.getValue()[0])
+                            .reversed())
+                    .limit(TOP_K)
+                    .map(entry -> new ColumnSummary.ValueCount(shorten(entry.getKey()), entry.getValue()[0]))
+                    .toList();
+
+            return new ColumnSummary(
+                    column,
+                    count,
+                    nullCount,
+                    shorten(min),
+                    shorten(max),
+                    count == 0 ? 0 : Math.min(count, distinct.estimate()),
+                    topValues.isEmpty() ? null : topValues
+            );
+        }
+
+        private static Object shorten(Object value) {
+            if (value instanceof String text && text.length() > MAX_VALUE_LENGTH) {
+                return text.substring(0, MAX_VALUE_LENGTH) + "…";
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fair Call Scheduler
+ *
+ * Weighted fair queueing of tool executions across clients
+ * (mcp.fair-queue). Up to max-concurrent-calls run at once; while a slot is
+ * free and nobody waits, a call takes it with one CAS. Once all are taken,
+ * callers queue with start-time fair queueing tags: a call's start tag is
+ * the later of the queue's virtual time and its client's previous finish
+ * tag, its finish tag the start plus 1/weight, and freed slots go to the
+ * lowest start tag. A client with a hundred queued calls therefore gets
+ * its turn as often as a client with one, scaled by weight, instead of
+ * holding every slot first-come, first-served.
+ *
+ * A call not started within max-wait-ms is refused with
+ * {@link ServerBusyException}. Queue time is published as
+ * mcp.fair.queue.wait (p50/p95/p99), occupancy as mcp.fair.queue.running
+ * and mcp.fair.queue.waiting.
+ */
+@Component
+public class FairCallScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(FairCallScheduler.class);
+
+    private final McpServerConfig.FairQueue settings;
+    private final Timer waitTimer;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // Guarded by queue
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.comparingDouble((Waiter w) -> w.startTag).thenComparingLong(w -> w.sequence));
+    private final Map<String, Double> finishTags = new HashMap<>();
+    private double virtualTime;
+    private long sequence;
+
+    public FairCallScheduler(McpServerConfig config, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.settings = config.getFairQueue();
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.waitTimer = Timer.builder("mcp.fair.queue.wait")
+                .description("Time tool calls waited for their turn")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(registry);
+        Gauge.builder("mcp.fair.queue.running", running, AtomicInteger::get)
+                .description("Tool calls executing")
+                .register(registry);
+        Gauge.builder("mcp.fair.queue.waiting", waiting, AtomicInteger::get)
+                .description("Tool calls waiting for their turn")
+                .register(registry);
+    }
+
+    /**
+     * Wait for the client's turn to run a call
+     *
+     * @return the slot, to be closed when the call is done
+     * @throws ServerBusyException if the call did not get a turn within max-wait-ms
+     */
+    public Slot acquire(String client) {
+        if (settings.getMaxConcurrentCalls() <= 0) {
+            return Slot.NONE;
+        }
+        if (waiting.get() == 0 && tryTake()) {
+            return new Slot(this);
+        }
+
+        long start = System.nanoTime();
+        Waiter waiter;
+        synchronized (queue) {
+            if (queue.isEmpty() && tryTake()) {
+                return new Slot(this);
+            }
+            double weight = settings.getClientWeights().getOrDefault(client, 1.0);
+            double startTag = Math.max(virtualTime, finishTags.getOrDefault(client, 0.0));
+            finishTags.put(client, startTag + 1 / Math.max(weight, 1e-3));
+            waiter = new Waiter(startTag, sequence++);
+            queue.add(waiter);
+            waiting.incrementAndGet();
+        }
+
+        boolean granted;
+        try {
+            granted = waiter.turn.await(settings.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            granted = false;
+        }
+        if (!granted) {
+            synchronized (queue) {
+                if (queue.remove(waiter)) {
+                    waiting.decrementAndGet();
+                    log.warn("Tool call of client {} not started within {} ms", client, settings.getMaxWaitMs());
+                    throw new ServerBusyException("Server busy: " + settings.getMaxConcurrentCalls()
+                            + " tool calls running and " + waiting.get() + " waiting. Retry after "
+                            + settings.getMaxWaitMs() + " ms.", settings.getMaxWaitMs());
+                }
+            }
+            // Handed a slot just as the wait ran out
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Slot(this);
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    public int waiting() {
+        return waiting.get();
+    }
+
+    private boolean tryTake() {
+        int current;
+        while ((current = running.get()) < settings.getMaxConcurrentCalls()) {
+            if (running.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release() {
+        Waiter next;
+        synchronized (queue) {
+            next = queue.poll();
+            if (next == null) {
+                running.decrementAndGet();
+                // Nobody waiting: tags start over, so they stay small and forget departed clients
+                finishTags.clear();
+                virtualTime = 0;
+                return;
+            }
+            waiting.decrementAndGet();
+            virtualTime = next.startTag;
+        }
+        // The slot passes to the next call without being freed
+        next.turn.countDown();
+    }
+
+    /**
+     * A running call's slot; closing it passes the slot on
+     */
+    public static final class Slot implements AutoCloseable {
+
+        static final Slot NONE = new Slot(null);
+
+        private final FairCallScheduler owner;
+        private boolean closed;
+
+        private Slot(FairCallScheduler owner) {
+            this.owner = owner;
+        }
+
+        @Override
+        public void close() {
+            if (owner != null && !closed) {
+                closed = true;
+                owner.release();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final double startTag;
+        private final long sequence;
+        private final CountDownLatch turn = new CountDownLatch(1);
+
+        Waiter(double startTag, long sequence) {
+            this.startTag = startTag;
+            this.sequence = sequence;
+        }
+    }
+}
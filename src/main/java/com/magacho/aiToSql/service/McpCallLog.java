@@ -0,0 +1,97 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One structured log event per tool call, on the com.magacho.aiToSql.calls
+ * logger.
+ *
+ * Successful calls are sampled (mcp.call-log.success-sample-rate); slow
+ * calls and failures are always logged, with the normalized SQL. The
+ * sampling decision is taken before anything is built, so an unsampled call
+ * costs one random draw. Fields are attached as key/value pairs rather than
+ * formatted into the message: the async appender's worker thread renders
+ * them, not the request thread (see logback-spring.xml).
+ */
+@Component
+public class McpCallLog {
+
+    public static final String LOGGER_NAME = "com.magacho.aiToSql.calls";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final double successSampleRate;
+    private final long slowCallNs;
+
+    public McpCallLog(McpServerConfig config) {
+        this.successSampleRate = config.getCallLog().getSuccessSampleRate();
+        this.slowCallNs = config.getCallLog().getSlowCallMs() * 1_000_000;
+    }
+
+    /**
+     * Whether a successful call taking this long is logged
+     */
+    public boolean shouldLog(long durationNs) {
+        if (!log.isInfoEnabled()) {
+            return false;
+        }
+        return isSlow(durationNs)
+                || successSampleRate >= 1
+                || (successSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < successSampleRate);
+    }
+
+    /**
+     * Log a successful call (callers check {@link #shouldLog} first)
+     *
+     * @param sql Normalized SQL, logged for slow calls only; null for non-query tools
+     */
+    public void success(String tool, String model, long durationNs, Map<String, Long> phasesNs, Integer rows,
+                        long bytes, int tokens, double costUSD, String sql) {
+        boolean slow = isSlow(durationNs);
+        var event = log.atInfo()
+                .setMessage(slow ? "slow tool call" : "tool call")
+                .addKeyValue("tool", tool)
+                .addKeyValue("outcome", "success")
+                .addKeyValue("durationUs", durationNs / 1_000)
+                .addKeyValue("phasesNs", phasesNs)
+                .addKeyValue("bytes", bytes)
+                .addKeyValue("tokens", tokens)
+                .addKeyValue("model", model)
+                .addKeyValue("costUSD", costUSD);
+        if (rows != null) {
+            event = event.addKeyValue("rows", rows);
+        }
+        if (slow && sql != null) {
+            event = event.addKeyValue("sql", sql);
+        }
+        event.log();
+    }
+
+    /**
+     * Log a failed call, with full detail
+     *
+     * @param sql Normalized SQL, or null for non-query tools
+     */
+    public void failure(String tool, long durationNs, Map<String, Long> phasesNs, String sql, Throwable error) {
+        log.atWarn()
+                .setMessage("tool call failed")
+                .addKeyValue("tool", tool)
+                .addKeyValue("outcome", "error")
+                .addKeyValue("durationUs", durationNs / 1_000)
+                .addKeyValue("phasesNs", phasesNs)
+                .addKeyValue("sql", sql)
+                .addKeyValue("error", error.getClass().getSimpleName())
+                .addKeyValue("message", error.getMessage())
+                .log();
+    }
+
+    private boolean isSlow(long durationNs) {
+        return durationNs >= slowCallNs;
+    }
+}
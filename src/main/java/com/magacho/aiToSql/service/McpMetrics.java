@@ -0,0 +1,260 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.transport.PhaseTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Micrometer instrumentation of the MCP hot paths.
+ *
+ * Every tag takes values from a small fixed set (method, tool, JDBC
+ * operation, cache name, rejection reason); anything else is reported as
+ * "unknown". Meters are created once per tag value and then looked up with
+ * a single map read, so recording costs no meter registration on the hot path.
+ */
+@Component
+public class McpMetrics {
+
+    public static final String UNKNOWN = "unknown";
+
+    private static final Set<String> METHODS = Set.of(
+            "initialize", "tools/list", "tools/call", "ping", "notifications/initialized");
+
+    private final MeterRegistry registry;
+
+    private final Map<String, Timer> requestsOk = new ConcurrentHashMap<>();
+    private final Map<String, Timer> requestsFailed = new ConcurrentHashMap<>();
+    private final Map<Integer, Counter> requestErrors = new ConcurrentHashMap<>();
+    private final Map<String, Timer> toolsOk = new ConcurrentHashMap<>();
+    private final Map<String, Timer> toolsFailed = new ConcurrentHashMap<>();
+    private final Map<String, Timer> jdbc = new ConcurrentHashMap<>();
+    private final Map<String, Timer> serialization = new ConcurrentHashMap<>();
+    private final Map<String, Timer> tokenization = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> responseBytes = new ConcurrentHashMap<>();
+    private final Map<String, Counter> cacheHits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> cacheMisses = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, Counter> clientCalls = new ConcurrentHashMap<>();
+    private final Map<String, Counter> clientThrottles = new ConcurrentHashMap<>();
+    private final Map<String, Counter> coalesced = new ConcurrentHashMap<>();
+    private final Map<String, Counter> cacheRefreshes = new ConcurrentHashMap<>();
+    private final Map<String, Timer[]> phases = new ConcurrentHashMap<>();
+    private final DistributionSummary rowsFetched;
+
+    public McpMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.rowsFetched = DistributionSummary.builder("mcp.query.rows")
+                .description("Rows fetched from the database per query")
+                .baseUnit("rows")
+                .register(registry);
+    }
+
+    /**
+     * One JSON-RPC request, any transport
+     */
+    public void recordRequest(String method, boolean success, long nanos) {
+        String tag = method != null && METHODS.contains(method) ? method : UNKNOWN;
+        meter(success ? requestsOk : requestsFailed, tag, m -> histogramTimer("mcp.requests",
+                "JSON-RPC requests by method", "method", m, success)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A request answered with a JSON-RPC error
+     */
+    public void recordRequestError(int code) {
+        meter(requestErrors, code, c -> Counter.builder("mcp.request.errors")
+                .description("JSON-RPC error responses by error code")
+                .tag("code", String.valueOf(c))
+                .register(registry)).increment();
+    }
+
+    /**
+     * One tool execution (JDBC, shaping) before serialization
+     *
+     * @param tool A registered tool name, or {@link #UNKNOWN}
+     */
+    public void recordTool(String tool, boolean success, long nanos) {
+        meter(success ? toolsOk : toolsFailed, tool, t -> histogramTimer("mcp.tool.execution",
+                "Tool execution time, serialization excluded", "tool", t, success)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Time spent in JDBC: query, explain or metadata introspection
+     */
+    public void recordJdbc(String operation, long nanos) {
+        meter(jdbc, operation, o -> Timer.builder("mcp.jdbc")
+                .description("Time spent executing statements and reading results")
+                .tag("operation", o)
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Rows a query read from the database (scanned rows when a budget truncated it)
+     */
+    public void recordRowsFetched(int rows) {
+        rowsFetched.record(rows);
+    }
+
+    /**
+     * Serializing a tool result to the text sent to the client
+     */
+    public void recordSerialization(String tool, long nanos) {
+        meter(serialization, tool, t -> Timer.builder("mcp.response.serialization")
+                .description("Serializing tool results to JSON text")
+                .tag("tool", t)
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counting the tokens of a serialized tool result
+     */
+    public void recordTokenization(String tool, long nanos) {
+        meter(tokenization, tool, t -> Timer.builder("mcp.response.tokenization")
+                .description("Counting response tokens")
+                .tag("tool", t)
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * UTF-8 size of a tool result written to the client
+     */
+    public void recordResponseBytes(String tool, long bytes) {
+        meter(responseBytes, tool, t -> DistributionSummary.builder("mcp.response.size")
+                .description("Tool result size")
+                .baseUnit("bytes")
+                .tag("tool", t)
+                .register(registry)).record(bytes);
+    }
+
+    /**
+     * Time a tool call spent in each phase it went through
+     */
+    public void recordPhases(String tool, PhaseTimings timings) {
+        Timer[] timers = meter(phases, tool, t -> {
+            PhaseTimings.Phase[] all = PhaseTimings.Phase.values();
+            Timer[] byPhase = new Timer[all.length];
+            for (PhaseTimings.Phase phase : all) {
+                byPhase[phase.ordinal()] = Timer.builder("mcp.call.phase")
+                        .description("Time per call phase: pool wait, JDBC, serialization")
+                        .tag("tool", t)
+                        .tag("phase", phase.label())
+                        .register(registry);
+            }
+            return byPhase;
+        });
+        for (PhaseTimings.Phase phase : PhaseTimings.Phase.values()) {
+            long nanos = timings.get(phase);
+            if (nanos > 0) {
+                timers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Lookup in a named cache
+     */
+    public void recordCacheGet(String cache, boolean hit) {
+        meter(hit ? cacheHits : cacheMisses, cache, c -> Counter.builder("mcp.cache.gets")
+                .description("Cache lookups by outcome")
+                .tag("cache", c)
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry)).increment();
+    }
+
+    /**
+     * A background reload of a stale cache entry
+     *
+     * @param outcome success, failure or rejected (refresh queue full)
+     */
+    public void recordCacheRefresh(String cache, String outcome) {
+        meter(cacheRefreshes, cache + '\u0000' + outcome, key -> Counter.builder("mcp.cache.refreshes")
+                .description("Background reloads of stale cache entries by outcome")
+                .tag("cache", cache)
+                .tag("outcome", outcome)
+                .register(registry)).increment();
+    }
+
+    /**
+     * A call refused before reaching the database
+     *
+     * @param reason non_select, forbidden_keyword, invalid_params, cost_gate or busy
+     */
+    public void recordRejection(String reason) {
+        meter(rejections, reason, r -> Counter.builder("mcp.validation.rejections")
+                .description("Calls rejected by validation or the cost gate")
+                .tag("reason", r)
+                .register(registry)).increment();
+    }
+
+    /**
+     * A tools/call answered with the result of an identical call instead of its own execution
+     */
+    public void recordCoalesced(String tool) {
+        meter(coalesced, tool, t -> Counter.builder("mcp.tool.coalesced")
+                .description("Tool calls that shared an identical call's execution")
+                .tag("tool", t)
+                .register(registry)).increment();
+    }
+
+    /**
+     * A tools/call admitted or throttled by the client's rate limit
+     *
+     * @param client a client named in mcp.fair-queue.client-weights, or "other"
+     */
+    public void recordClientCall(String client, boolean admitted) {
+        meter(admitted ? clientCalls : clientThrottles, client, c -> Counter.builder("mcp.client.calls")
+                .description("Tool calls per client by rate-limit outcome")
+                .tag("client", c)
+                .tag("outcome", admitted ? "admitted" : "throttled")
+                .register(registry)).increment();
+    }
+
+    /**
+     * UTF-8 length of text, without encoding it
+     */
+    public static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private Timer histogramTimer(String name, String description, String tagName, String tagValue, boolean success) {
+        return Timer.builder(name)
+                .description(description)
+                .tag(tagName, tagValue)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(5))
+                .register(registry);
+    }
+
+    private static <K, M> M meter(Map<K, M> meters, K key, Function<K, M> factory) {
+        M meter = meters.get(key);
+        return meter != null ? meter : meters.computeIfAbsent(key, factory);
+    }
+}
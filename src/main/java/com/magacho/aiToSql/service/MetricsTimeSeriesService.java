@@ -0,0 +1,114 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.TokenizationMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Windowed (1m/5m/1h) call rates, token throughput, latency percentiles and
+ * cost burn per tool, kept in fixed-size {@link ToolTimeSeries} rings.
+ *
+ * Each tool's series, and the "all" series across tools, is published as
+ * Micrometer gauges tagged tool and window:
+ * mcp.tool.calls.rate, mcp.tool.tokens.rate, mcp.tool.latency (with a quantile
+ * tag) and mcp.tool.cost.burn (USD per hour).
+ */
+@Service
+public class MetricsTimeSeriesService {
+
+    public static final String ALL_TOOLS = "all";
+
+    private final MeterRegistry registry;
+    private final Map<String, ToolTimeSeries> series = new ConcurrentHashMap<>();
+    private final ToolTimeSeries all;
+
+    public MetricsTimeSeriesService(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.registry = meterRegistry.getIfAvailable();
+        this.all = register(ALL_TOOLS, new ToolTimeSeries());
+    }
+
+    /**
+     * Record one tool call
+     */
+    public void recordMetrics(String toolName, TokenizationMetrics metrics) {
+        ToolTimeSeries toolSeries = series.get(toolName);
+        if (toolSeries == null) {
+            toolSeries = series.computeIfAbsent(toolName, name -> register(name, new ToolTimeSeries()));
+        }
+        toolSeries.record(metrics.executionTimeMs(), metrics.estimatedTokenCount(), metrics.estimatedCostUSD());
+        all.record(metrics.executionTimeMs(), metrics.estimatedTokenCount(), metrics.estimatedCostUSD());
+    }
+
+    /**
+     * Stats for every window of one tool ("all" for every tool together)
+     */
+    public Map<String, ToolTimeSeries.WindowStats> getWindowStats(String toolName) {
+        ToolTimeSeries toolSeries = ALL_TOOLS.equals(toolName) ? all : series.get(toolName);
+        Map<String, ToolTimeSeries.WindowStats> stats = new LinkedHashMap<>();
+        for (ToolTimeSeries.Window window : ToolTimeSeries.Window.values()) {
+            stats.put(window.label(), toolSeries != null
+                    ? toolSeries.stats(window)
+                    : new ToolTimeSeries.WindowStats(window.label(), 0, 0, 0, 0, 0, 0, 0, 0, 0));
+        }
+        return stats;
+    }
+
+    /**
+     * Stats for every window of every tool that has been called
+     */
+    public Map<String, Map<String, ToolTimeSeries.WindowStats>> getAllWindowStats() {
+        Map<String, Map<String, ToolTimeSeries.WindowStats>> stats = new LinkedHashMap<>();
+        series.keySet().stream().sorted().forEach(toolName -> stats.put(toolName, getWindowStats(toolName)));
+        return stats;
+    }
+
+    /**
+     * Empty every series (gauges stay registered and read zero)
+     */
+    public void reset() {
+        series.values().forEach(ToolTimeSeries::reset);
+        all.reset();
+    }
+
+    private ToolTimeSeries register(String toolName, ToolTimeSeries toolSeries) {
+        if (registry == null) {
+            return toolSeries;
+        }
+        for (ToolTimeSeries.Window window : ToolTimeSeries.Window.values()) {
+            gauge("mcp.tool.calls.rate", "Calls per second", "calls/s", toolName, window, null, toolSeries,
+                    ToolTimeSeries.WindowStats::callsPerSecond);
+            gauge("mcp.tool.tokens.rate", "Response tokens per second", "tokens/s", toolName, window, null, toolSeries,
+                    ToolTimeSeries.WindowStats::tokensPerSecond);
+            gauge("mcp.tool.cost.burn", "Cost per hour at the window's rate", "USD/h", toolName, window, null,
+                    toolSeries, ToolTimeSeries.WindowStats::costPerHourUSD);
+            gauge("mcp.tool.latency", "Call latency percentile", "milliseconds", toolName, window, "0.5", toolSeries,
+                    ToolTimeSeries.WindowStats::p50LatencyMs);
+            gauge("mcp.tool.latency", "Call latency percentile", "milliseconds", toolName, window, "0.95", toolSeries,
+                    ToolTimeSeries.WindowStats::p95LatencyMs);
+            gauge("mcp.tool.latency", "Call latency percentile", "milliseconds", toolName, window, "0.99", toolSeries,
+                    ToolTimeSeries.WindowStats::p99LatencyMs);
+        }
+        return toolSeries;
+    }
+
+    private void gauge(String name, String description, String unit, String toolName, ToolTimeSeries.Window window,
+                       String quantile, ToolTimeSeries toolSeries,
+                       ToDoubleFunction<ToolTimeSeries.WindowStats> value) {
+        Gauge.Builder<ToolTimeSeries> builder = Gauge.builder(name, toolSeries, s -> value.applyAsDouble(s.stats(window)))
+                .description(description)
+                .baseUnit(unit)
+                .tag("tool", toolName)
+                .tag("window", window.label());
+        if (quantile != null) {
+            builder.tag("quantile", quantile);
+        }
+        builder.register(registry);
+    }
+}
@@ -0,0 +1,251 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.DataSourceRouter;
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Query Admission
+ *
+ * Bounds the agent queries running on the query route to the connections its
+ * pools hold, so excess load waits here, briefly and observably, instead of
+ * in the pool until its connection timeout. A query that finds every slot
+ * taken waits up to mcp.admission.max-wait-ms; once mcp.admission.max-queued
+ * are already waiting, or the wait runs out, it fails fast with
+ * {@link ServerBusyException} and a retry hint derived from how long queries
+ * have recently been holding their slots.
+ *
+ * The limit follows the pool sizes ({@link com.magacho.aiToSql.config.PoolAutoSizer}).
+ * Calls of a session bound to a tenant are not counted: tenant pools are
+ * capped by mcp.tenants.
+ *
+ * Publishes mcp.query.admission.wait (p50/p95/p99 and a histogram) and the
+ * gauges mcp.query.admission.limit/active/queued; refused queries count
+ * as mcp.validation.rejections{reason=busy}.
+ */
+@Component
+public class QueryAdmission {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryAdmission.class);
+
+    private static final long MIN_RETRY_AFTER_MS = 100;
+    private static final long MAX_RETRY_AFTER_MS = 30_000;
+
+    private final McpServerConfig.Admission settings;
+    private final McpMetrics meters;
+    private final Timer waitTimer;
+    private final Slots slots;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+
+    // Guarded by this for writes
+    private volatile int limit;
+    // Moving average of how long a query holds its slot
+    private volatile double meanHoldNanos;
+
+    public QueryAdmission(McpServerConfig config, DataSourceRouter router, McpMetrics meters,
+                          ObjectProvider<MeterRegistry> meterRegistry) {
+        this.settings = config.getAdmission();
+        this.meters = meters;
+        this.limit = Math.max(1, router.queryPools().isEmpty()
+                ? config.getRouting().getQueryPoolSize()
+                : router.queryPools().stream().mapToInt(HikariDataSource::getMaximumPoolSize).sum());
+        this.slots = new Slots(limit);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.waitTimer = Timer.builder("mcp.query.admission.wait")
+                .description("Time queries waited for an admission slot")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofMinutes(1))
+                .register(registry);
+        Gauge.builder("mcp.query.admission.limit", this, QueryAdmission::limit)
+                .description("Queries allowed to run at once on the query route")
+                .register(registry);
+        Gauge.builder("mcp.query.admission.active", inFlight, AtomicInteger::get)
+                .description("Queries running on the query route")
+                .register(registry);
+        Gauge.builder("mcp.query.admission.queued", queued, AtomicInteger::get)
+                .description("Queries waiting for an admission slot")
+                .register(registry);
+    }
+
+    /**
+     * Take a slot for one query, waiting if all are in use
+     *
+     * @return the slot, to be closed once the query's connection is returned
+     * @throws ServerBusyException if too many queries are waiting already, or no slot freed up in time
+     */
+    public Permit acquire() {
+        if (McpCallContext.current().session().tenant() != null) {
+            return Permit.NONE;
+        }
+        long start = System.nanoTime();
+        boolean gated = settings.isEnabled();
+        if (gated && !slots.tryAcquire()) {
+            if (queued.incrementAndGet() > settings.getMaxQueued()) {
+                queued.decrementAndGet();
+                throw refuse(settings.getMaxQueued() + " queries already waiting for a database connection");
+            }
+            boolean admitted;
+            try {
+                admitted = slots.tryAcquire(settings.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                admitted = false;
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!admitted) {
+                throw refuse("no database connection freed up within " + settings.getMaxWaitMs() + " ms");
+            }
+            delayed.increment();
+        }
+
+        long now = System.nanoTime();
+        waitTimer.record(now - start, TimeUnit.NANOSECONDS);
+        McpCallContext.current().phases().add(PhaseTimings.Phase.ADMISSION_WAIT, now - start);
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return new Permit(this, gated, now);
+    }
+
+    /**
+     * Change how many queries may run at once. Queries already running keep
+     * their slots; after a decrease new ones wait until enough have finished.
+     */
+    public synchronized void setLimit(int newLimit) {
+        int target = Math.max(1, newLimit);
+        int delta = target - limit;
+        if (delta > 0) {
+            slots.release(delta);
+        } else if (delta < 0) {
+            slots.shrink(-delta);
+        }
+        if (delta != 0) {
+            log.info("Query admission limit {} -> {}", limit, target);
+        }
+        limit = target;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Load since the previous call: what the pool sizer works from
+     */
+    public Load drainLoad() {
+        return new Load(busyNanos.sumThenReset(), completed.sumThenReset(),
+                peakInFlight.getAndSet(inFlight.get()), delayed.sumThenReset(), refused.sumThenReset());
+    }
+
+    /**
+     * Milliseconds until a slot is likely free for a query queued now
+     */
+    long retryAfterMs() {
+        double waitNanos = meanHoldNanos * (queued.get() + 1) / limit;
+        long ms = (long) Math.ceil(waitNanos / 1_000_000);
+        return Math.max(MIN_RETRY_AFTER_MS, Math.min(ms, MAX_RETRY_AFTER_MS));
+    }
+
+    private ServerBusyException refuse(String reason) {
+        refused.increment();
+        meters.recordRejection("busy");
+        long retryAfterMs = retryAfterMs();
+        log.warn("Query refused, {}; retry after {} ms", reason, retryAfterMs);
+        return new ServerBusyException("Server busy: " + reason + ". Retry after " + retryAfterMs + " ms.",
+                retryAfterMs);
+    }
+
+    private void release(Permit permit) {
+        long held = System.nanoTime() - permit.startNanos;
+        inFlight.decrementAndGet();
+        busyNanos.add(held);
+        completed.increment();
+        double mean = meanHoldNanos;
+        meanHoldNanos = mean == 0 ? held : mean + (held - mean) / 16;
+        if (permit.gated) {
+            slots.release();
+        }
+    }
+
+    /**
+     * Load over one interval
+     *
+     * @param busyNanos summed time queries held a slot (divided by the interval: mean queries in flight)
+     * @param completed queries that finished
+     * @param peakInFlight most queries in flight at once
+     * @param delayed queries that had to wait for a slot
+     * @param refused queries refused as busy
+     */
+    public record Load(long busyNanos, long completed, int peakInFlight, long delayed, long refused) {
+    }
+
+    /**
+     * One admitted query; closing it frees the slot
+     */
+    public static final class Permit implements AutoCloseable {
+
+        static final Permit NONE = new Permit(null, false, 0);
+
+        private final QueryAdmission owner;
+        private final boolean gated;
+        private final long startNanos;
+        private boolean closed;
+
+        private Permit(QueryAdmission owner, boolean gated, long startNanos) {
+            this.owner = owner;
+            this.gated = gated;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (owner != null && !closed) {
+                closed = true;
+                owner.release(this);
+            }
+        }
+    }
+
+    private static final class Slots extends Semaphore {
+
+        Slots(int permits) {
+            super(permits);
+        }
+
+        void shrink(int permits) {
+            reducePermits(permits);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.magacho.aiToSql.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.config.DataSourceRouter;
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.QueryCostEstimate;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query Cost Estimator
+ * Runs a dialect-specific EXPLAIN before agent queries are executed and extracts
+ * the planner's estimated rows and cost. Estimates are cached per tenant and normalized
+ * query shape so repeated shapes do not pay the EXPLAIN round-trip again.
+ *
+ * Supported: PostgreSQL, MySQL/MariaDB, SQL Server (SHOWPLAN_XML) and H2.
+ * Other databases return no estimate and the gate lets the query through.
+ */
+@Service
+public class QueryCostEstimator {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCostEstimator.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Pattern H2_TABLE_SCAN = Pattern.compile(
+            "/\\*\\s*([^\\s.]+)\\.([^\\s.]+)\\.tableScan\\s*\\*/");
+    private static final Pattern SHOWPLAN_EST_ROWS = Pattern.compile(
+            "StatementEstRows=\"([0-9.Ee+-]+)\"");
+    private static final Pattern SHOWPLAN_COST = Pattern.compile(
+            "StatementSubTreeCost=\"([0-9.Ee+-]+)\"");
+
+    private final DataSource dataSource;
+    private final Map<String, QueryCostEstimate> planCache;
+    private final McpMetrics meters;
+
+    public QueryCostEstimator(DataSourceRouter dataSourceRouter, McpServerConfig config, McpMetrics meters) {
+        this.dataSource = dataSourceRouter.queryDataSource();
+        this.meters = meters;
+        int cacheSize = Math.max(1, config.getCostGate().getCacheSize());
+        this.planCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryCostEstimate> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Estimate rows and cost of a query
+     *
+     * @param query SELECT statement as it will be submitted by the agent
+     * @return the planner estimate, or empty if the dialect is unsupported or EXPLAIN failed
+     */
+    public Optional<QueryCostEstimate> estimate(String query) {
+        // Tenants may share table names but not plans
+        String tenant = McpCallContext.current().session().tenant();
+        String shape = tenant != null
+                ? tenant + '\u0000' + SqlNormalizer.normalize(query) : SqlNormalizer.normalize(query);
+
+        QueryCostEstimate cached;
+        synchronized (planCache) {
+            cached = planCache.get(shape);
+        }
+        meters.recordCacheGet("query-cost", cached != null);
+        if (cached != null) {
+            return Optional.of(cached.asCached());
+        }
+
+        long start = System.nanoTime();
+        try {
+            QueryCostEstimate estimate = explain(query);
+            meters.recordJdbc("explain", System.nanoTime() - start);
+            if (estimate != null) {
+                synchronized (planCache) {
+                    planCache.put(shape, estimate);
+                }
+            }
+            return Optional.ofNullable(estimate);
+        } catch (Exception e) {
+            log.warn("Could not estimate query cost, skipping cost gate: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drop all cached plan estimates
+     */
+    public void clearCache() {
+        synchronized (planCache) {
+            planCache.clear();
+        }
+    }
+
+    private QueryCostEstimate explain(String query) throws Exception {
+        PhaseTimings phases = McpCallContext.current().phases();
+        long mark = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            mark = phases.since(PhaseTimings.Phase.CONNECTION_ACQUIRE, mark);
+            String databaseType = connection.getMetaData().getDatabaseProductName().toUpperCase();
+
+            if (databaseType.contains("POSTGRESQL")) {
+                return explainPostgreSQL(connection, query);
+            } else if (databaseType.contains("MYSQL") || databaseType.contains("MARIADB")) {
+                return explainMySQL(connection, query);
+            } else if (databaseType.contains("SQL SERVER")) {
+                return explainMSSQL(connection, query);
+            } else if (databaseType.contains("H2")) {
+                return explainH2(connection, query);
+            }
+
+            log.debug("Cost estimation not implemented for database type: {}", databaseType);
+            return null;
+        } finally {
+            phases.since(PhaseTimings.Phase.EXPLAIN, mark);
+        }
+    }
+
+    private QueryCostEstimate explainPostgreSQL(Connection connection, String query) throws Exception {
+        String plan = singleStringResult(connection, "EXPLAIN (FORMAT JSON) " + query);
+        JsonNode root = MAPPER.readTree(plan).path(0).path("Plan");
+
+        return new QueryCostEstimate(
+                root.path("Plan Rows").asDouble(),
+                root.path("Total Cost").asDouble(),
+                "postgresql_explain",
+                false,
+                null
+        );
+    }
+
+    private QueryCostEstimate explainMySQL(Connection connection, String query) throws Exception {
+        String plan = singleStringResult(connection, "EXPLAIN FORMAT=JSON " + query);
+        JsonNode root = MAPPER.readTree(plan).path("query_block");
+
+        double rows = 0;
+        for (JsonNode node : root.findValues("rows_produced_per_join")) {
+            rows = Math.max(rows, node.asDouble());
+        }
+
+        return new QueryCostEstimate(
+                rows,
+                root.path("cost_info").path("query_cost").asDouble(),
+                "mysql_explain",
+                false,
+                null
+        );
+    }
+
+    private QueryCostEstimate explainMSSQL(Connection connection, String query) throws SQLException {
+        String plan;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET SHOWPLAN_XML ON");
+            try {
+                plan = singleStringResult(connection, query);
+            } finally {
+                statement.execute("SET SHOWPLAN_XML OFF");
+            }
+        }
+
+        Matcher rows = SHOWPLAN_EST_ROWS.matcher(plan);
+        Matcher cost = SHOWPLAN_COST.matcher(plan);
+
+        return new QueryCostEstimate(
+                rows.find() ? Double.parseDouble(rows.group(1)) : null,
+                cost.find() ? Double.parseDouble(cost.group(1)) : null,
+                "sqlserver_showplan",
+                false,
+                null
+        );
+    }
+
+    /**
+     * H2 does not expose planner estimates in EXPLAIN, but it does mark full table
+     * scans. Rows are estimated as the product of the row count estimates of all
+     * scanned tables (index lookups count as one row).
+     */
+    private QueryCostEstimate explainH2(Connection connection, String query) throws SQLException {
+        String plan = singleStringResult(connection, "EXPLAIN " + query);
+
+        double rows = 1;
+        Matcher scan = H2_TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            rows *= Math.max(1, h2RowCountEstimate(connection, scan.group(1), scan.group(2)));
+        }
+
+        return new QueryCostEstimate(rows, rows, "h2_table_scan_estimate", false, null);
+    }
+
+    private long h2RowCountEstimate(Connection connection, String schema, String table) throws SQLException {
+        String query = """
+                SELECT ROW_COUNT_ESTIMATE
+                FROM INFORMATION_SCHEMA.TABLES
+                WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?
+                """;
+
+        try (PreparedStatement ps = connection.prepareStatement(query)) {
+            ps.setString(1, schema.replace("\"", ""));
+            ps.setString(2, table.replace("\"", ""));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 1;
+            }
+        }
+    }
+
+    private String singleStringResult(Connection connection, String sql) throws SQLException {
+        StringBuilder result = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                result.append(rs.getString(1)).append('\n');
+            }
+        }
+        return result.toString();
+    }
+}
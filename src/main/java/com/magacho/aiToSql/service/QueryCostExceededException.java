@@ -0,0 +1,21 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.QueryCostEstimate;
+
+/**
+ * Thrown when the cost gate rejects a query whose planner estimate is above
+ * the configured thresholds. Carries the estimate so the agent can self-correct.
+ */
+public class QueryCostExceededException extends RuntimeException {
+
+    private final QueryCostEstimate estimate;
+
+    public QueryCostExceededException(String message, QueryCostEstimate estimate) {
+        super(message);
+        this.estimate = estimate;
+    }
+
+    public QueryCostEstimate getEstimate() {
+        return estimate;
+    }
+}
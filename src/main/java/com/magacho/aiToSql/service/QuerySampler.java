@@ -0,0 +1,227 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.DataSourceRouter;
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.QueryApproximation;
+import com.magacho.aiToSql.dto.QueryCostEstimate;
+import com.magacho.aiToSql.transport.McpCallContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Query Sampler
+ * Rewrites eligible single-table SELECTs to read a random sample of the table
+ * so exploratory aggregates on very large tables return in a fraction of the time.
+ *
+ * - PostgreSQL: FROM t TABLESAMPLE SYSTEM (pct)
+ * - SQL Server: FROM t TABLESAMPLE SYSTEM (pct PERCENT)
+ * - Oracle: FROM t SAMPLE (pct)
+ * - MySQL, H2 and others: FROM (SELECT * FROM t WHERE RAND() < p) t
+ *
+ * COUNT(...) and SUM(...) are multiplied by 1/p so they estimate the full-table value.
+ */
+@Service
+public class QuerySampler {
+
+    private static final Logger log = LoggerFactory.getLogger(QuerySampler.class);
+
+    private static final Pattern SELECT_KEYWORD = Pattern.compile("\\bSELECT\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern MULTI_SOURCE = Pattern.compile(
+            "\\b(JOIN|UNION|INTERSECT|EXCEPT|MINUS|TABLESAMPLE|SAMPLE)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern SINGLE_TABLE_FROM = Pattern.compile(
+            "\\bFROM\\s+((?:[\\w\"`\\[\\]]+\\.)?[\\w\"`\\[\\]]+)"
+                    + "(?:\\s+(?:AS\\s+)?(?!(?:WHERE|GROUP|ORDER|HAVING|LIMIT|FETCH|OFFSET)\\b)(\\w+))?"
+                    + "(?=\\s+(?:WHERE|GROUP|ORDER|HAVING|LIMIT|FETCH|OFFSET)\\b|\\s*;?\\s*$)",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern SCALABLE_AGGREGATE = Pattern.compile(
+            "\\b(COUNT|SUM)\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern DISTINCT_ARGUMENT = Pattern.compile(
+            "^\\s*DISTINCT\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final String NOTE = "Sampled answer: COUNT/SUM are scaled by 1/samplingRate; AVG is unbiased; "
+            + "MIN/MAX and COUNT(DISTINCT) are computed on the sample only. Per-group relative error at 95% "
+            + "is about 1.96*sqrt((1-samplingRate)/n) for a group with n sampled rows.";
+
+    private final DataSource dataSource;
+    private final QueryCostEstimator costEstimator;
+    private final McpServerConfig config;
+    // Product name per tenant ("" for the primary database)
+    private final Map<String, String> databaseTypes = new ConcurrentHashMap<>();
+
+    public QuerySampler(DataSourceRouter dataSourceRouter, QueryCostEstimator costEstimator,
+                        McpServerConfig config) {
+        this.dataSource = dataSourceRouter.queryDataSource();
+        this.costEstimator = costEstimator;
+        this.config = config;
+    }
+
+    /**
+     * Rewrite a query to run on a sample of its table
+     *
+     * @param query Validated SELECT statement
+     * @return the (possibly unchanged) query and how it was approximated
+     */
+    public SampledQuery sample(String query) {
+        if (count(SELECT_KEYWORD.matcher(query)) != 1 || MULTI_SOURCE.matcher(query).find()) {
+            return exact(query, "Only single-table queries without subqueries or joins are sampled");
+        }
+
+        Matcher from = SINGLE_TABLE_FROM.matcher(query);
+        if (!from.find() || from.find()) {
+            return exact(query, "Only single-table queries without subqueries or joins are sampled");
+        }
+        from.reset();
+        from.find();
+
+        String table = from.group(1);
+        String alias = from.group(2);
+
+        Double tableRows = costEstimator.estimate("SELECT * FROM " + table)
+                .map(QueryCostEstimate::estimatedRows)
+                .orElse(null);
+        McpServerConfig.Approximate settings = config.getApproximate();
+        if (tableRows == null) {
+            return exact(query, "No row estimate available for table " + table);
+        }
+        if (tableRows < settings.getMinTableRows() || tableRows <= settings.getTargetSampleRows()) {
+            return exact(query, String.format(Locale.ROOT,
+                    "Table %s has about %.0f rows; sampling applies above %d rows",
+                    table, tableRows, Math.max(settings.getMinTableRows(), settings.getTargetSampleRows())));
+        }
+
+        double rate = settings.getTargetSampleRows() / tableRows;
+        String dialect = databaseType();
+        String method;
+        String sampledSource;
+        String percent = String.format(Locale.ROOT, "%.6f", rate * 100);
+
+        if (dialect.contains("POSTGRESQL")) {
+            method = "postgresql_tablesample_system";
+            sampledSource = table + (alias != null ? " " + alias : "") + " TABLESAMPLE SYSTEM (" + percent + ")";
+        } else if (dialect.contains("SQL SERVER")) {
+            method = "sqlserver_tablesample_system";
+            sampledSource = table + (alias != null ? " " + alias : "")
+                    + " TABLESAMPLE SYSTEM (" + percent + " PERCENT)";
+        } else if (dialect.contains("ORACLE")) {
+            method = "oracle_sample";
+            sampledSource = table + " SAMPLE (" + percent + ")" + (alias != null ? " " + alias : "");
+        } else {
+            method = "random_subquery";
+            String derivedAlias = alias != null ? alias : unqualified(table);
+            sampledSource = String.format(Locale.ROOT, "(SELECT * FROM %s WHERE RAND() < %.8f) %s",
+                    table, rate, derivedAlias);
+        }
+
+        String rewritten = query.substring(0, from.start(1)) + sampledSource + query.substring(from.end());
+        List<String> scaled = new ArrayList<>();
+        rewritten = scaleAggregates(rewritten, 1 / rate, scaled);
+
+        long expectedSampleRows = Math.round(tableRows * rate);
+        double errorBound = 1.96 * Math.sqrt((1 - rate) / Math.max(1, expectedSampleRows));
+
+        log.debug("Approximate query ({} at {}): {}", method, rate, rewritten);
+
+        return new SampledQuery(rewritten, new QueryApproximation(
+                true,
+                method,
+                rate,
+                Math.round(tableRows),
+                expectedSampleRows,
+                errorBound,
+                scaled.isEmpty() ? null : Collections.unmodifiableList(scaled),
+                NOTE
+        ));
+    }
+
+    /**
+     * Multiply COUNT(...) and SUM(...) by the inverse sampling rate (COUNT(DISTINCT ...) is left alone)
+     */
+    private String scaleAggregates(String query, double scale, List<String> scaled) {
+        List<int[]> spans = new ArrayList<>();
+        Matcher aggregate = SCALABLE_AGGREGATE.matcher(query);
+        while (aggregate.find()) {
+            int close = matchingParenthesis(query, aggregate.end() - 1);
+            if (close < 0 || DISTINCT_ARGUMENT.matcher(query.substring(aggregate.end(), close)).find()) {
+                continue;
+            }
+            spans.add(new int[]{aggregate.start(), close + 1});
+        }
+
+        StringBuilder result = new StringBuilder(query);
+        String factor = String.format(Locale.ROOT, "%.6f", scale);
+        for (int i = spans.size() - 1; i >= 0; i--) {
+            int[] span = spans.get(i);
+            String expression = query.substring(span[0], span[1]);
+            result.replace(span[0], span[1], "(" + expression + " * " + factor + ")");
+            scaled.add(0, expression);
+        }
+        return result.toString();
+    }
+
+    private int matchingParenthesis(String text, int open) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = open; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == '(') {
+                depth++;
+            } else if (!quoted && c == ')' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String databaseType() {
+        String tenant = McpCallContext.current().session().tenant();
+        String key = tenant != null ? tenant : "";
+        String type = databaseTypes.get(key);
+        if (type == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                type = connection.getMetaData().getDatabaseProductName().toUpperCase();
+                databaseTypes.put(key, type);
+            } catch (SQLException e) {
+                log.warn("Could not detect database type for sampling: {}", e.getMessage());
+                return "";
+            }
+        }
+        return type;
+    }
+
+    private static SampledQuery exact(String query, String reason) {
+        return new SampledQuery(query, QueryApproximation.notApplied(reason));
+    }
+
+    private static String unqualified(String table) {
+        return table.substring(table.lastIndexOf('.') + 1);
+    }
+
+    private static int count(Matcher matcher) {
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Query to execute and how it approximates the original
+     */
+    public record SampledQuery(String query, QueryApproximation approximation) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.magacho.aiToSql.service;
+
+/**
+ * Thrown when a client has used up its call rate for a tool. Carries how long
+ * until the client's bucket admits the next call.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public RateLimitExceededException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
@@ -0,0 +1,213 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.tokenizer.CharacterRatioTokenCounter;
+import com.magacho.aiToSql.tokenizer.TokenCounter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.support.JdbcUtils;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Materializes a ResultSet as column metadata (read once from ResultSetMetaData)
+ * plus one Object[] per row, instead of a case-insensitive map per row.
+ * Column metadata is available even when the result is empty.
+ *
+ * With a token budget, rows are kept only while their tokens fit, counted on an
+ * approximation of their pretty-printed text with the target model's counter;
+ * the remaining scanned rows are folded into per-column statistics instead. A
+ * budget too small to also hold the statistics stops reading at the first row
+ * that does not fit.
+ * One row beyond maxRows is read (when present) to tell whether the row limit cut
+ * the result.
+ *
+ * An optional batch listener receives kept rows in batches as they are read, so
+ * streaming transports can forward them before the whole result is built.
+ */
+class RowSetExtractor implements ResultSetExtractor<RowSetExtractor.RowSet> {
+
+    private static final int INITIAL_CAPACITY_LIMIT = 1024;
+
+    /** Tokens reserved per column for its summary when the token budget is hit */
+    private static final int SUMMARY_TOKENS_PER_COLUMN = 60;
+
+    private final int maxRows;
+    private final int maxTokens;
+    private final QueryResult.Format format;
+    private final TokenCounter tokenCounter;
+    private final StringBuilder rowText = new StringBuilder();
+    private final int batchSize;
+    private final RowBatchListener batchListener;
+
+    RowSetExtractor(int maxRows) {
+        this(maxRows, 0, QueryResult.Format.VERBOSE);
+    }
+
+    RowSetExtractor(int maxRows, int maxTokens, QueryResult.Format format) {
+        this(maxRows, maxTokens, format, CharacterRatioTokenCounter.INSTANCE, 0, null);
+    }
+
+    /**
+     * @param maxRows Maximum rows to scan
+     * @param maxTokens Token budget for returned rows (0 = unlimited)
+     * @param format Output format the row text is approximated in
+     * @param tokenCounter Counts row tokens against the budget
+     * @param batchSize Rows per batch handed to the listener
+     * @param batchListener Receives kept rows as they are read (null = none)
+     */
+    RowSetExtractor(int maxRows, int maxTokens, QueryResult.Format format, TokenCounter tokenCounter,
+                    int batchSize, RowBatchListener batchListener) {
+        this.maxRows = maxRows;
+        this.maxTokens = maxTokens;
+        this.format = format;
+        this.tokenCounter = tokenCounter;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchListener = batchListener;
+    }
+
+    @Override
+    public RowSet extractData(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        List<QueryResult.Column> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(new QueryResult.Column(
+                    JdbcUtils.lookupColumnName(metaData, i),
+                    metaData.getColumnTypeName(i),
+                    metaData.getColumnType(i)));
+        }
+
+        long budgetTokens = maxTokens > 0 ? (long) maxTokens - headerTokens(columns) : Long.MAX_VALUE;
+        long summaryTokens = (long) SUMMARY_TOKENS_PER_COLUMN * columnCount;
+        boolean summarize = budgetTokens >= summaryTokens;
+        if (summarize && maxTokens > 0) {
+            budgetTokens -= summaryTokens;
+        }
+        long usedTokens = 0;
+        boolean budgetHit = false;
+
+        List<Object[]> rows = new ArrayList<>(Math.min(Math.max(maxRows, 0), INITIAL_CAPACITY_LIMIT));
+        ColumnStatisticsCollector statistics = null;
+        int scannedRows = 0;
+        int emittedRows = 0;
+        boolean moreRows = false;
+
+        while (rs.next()) {
+            if (scannedRows >= maxRows) {
+                moreRows = true;
+                break;
+            }
+
+            Object[] row = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = JdbcUtils.getResultSetValue(rs, i + 1);
+            }
+            scannedRows++;
+
+            if (statistics == null) {
+                long rowTokens = budgetTokens == Long.MAX_VALUE ? 0 : countRowTokens(row, columns);
+                if (usedTokens + rowTokens <= budgetTokens) {
+                    rows.add(row);
+                    usedTokens += rowTokens;
+                    if (batchListener != null && rows.size() - emittedRows >= batchSize) {
+                        emittedRows = emitBatch(columns, rows, emittedRows);
+                    }
+                    continue;
+                }
+
+                if (!summarize) {
+                    budgetHit = true;
+                    break;
+                }
+
+                // Budget hit: summarize everything scanned so far and from here on
+                statistics = new ColumnStatisticsCollector(columns);
+                for (Object[] kept : rows) {
+                    statistics.accept(kept);
+                }
+            }
+            statistics.accept(row);
+        }
+
+        if (batchListener != null && rows.size() > emittedRows) {
+            emitBatch(columns, rows, emittedRows);
+        }
+
+        QueryResult.Truncation truncation = null;
+        if (statistics != null || budgetHit) {
+            truncation = new QueryResult.Truncation(QueryResult.Truncation.TOKEN_BUDGET, scannedRows, maxTokens,
+                    statistics != null ? statistics.summaries() : null);
+        } else if (moreRows) {
+            truncation = new QueryResult.Truncation(
+                    QueryResult.Truncation.MAX_ROWS, scannedRows, maxTokens > 0 ? maxTokens : null, null);
+        }
+
+        return new RowSet(columns, rows, truncation);
+    }
+
+    private int emitBatch(List<QueryResult.Column> columns, List<Object[]> rows, int from) {
+        batchListener.onBatch(columns, from, List.copyOf(rows.subList(from, rows.size())));
+        return rows.size();
+    }
+
+    /**
+     * Tokens of the column list written once before the rows
+     */
+    private long headerTokens(List<QueryResult.Column> columns) {
+        rowText.setLength(0);
+        for (QueryResult.Column column : columns) {
+            rowText.append("  \"").append(column.name()).append("\", ");
+        }
+        return tokenCounter.count(rowText);
+    }
+
+    /**
+     * Tokens of a row pretty-printed in the requested format (string escaping aside)
+     */
+    private long countRowTokens(Object[] row, List<QueryResult.Column> columns) {
+        StringBuilder text = rowText;
+        text.setLength(0);
+        boolean compact = format == QueryResult.Format.COMPACT;
+        text.append(compact ? "[ " : "{\n");
+        for (int i = 0; i < row.length; i++) {
+            if (!compact) {
+                text.append("      \"").append(columns.get(i).name()).append("\" : ");
+            }
+            appendValue(text, row[i]);
+            text.append(compact ? ", " : ",\n");
+        }
+        text.append(compact ? "], " : "    }, ");
+        return tokenCounter.count(text);
+    }
+
+    private static void appendValue(StringBuilder text, Object value) {
+        if (value == null || value instanceof Number || value instanceof Boolean) {
+            text.append(value);
+        } else if (value instanceof java.util.Date date) {
+            // Serialized as epoch milliseconds
+            text.append(date.getTime());
+        } else {
+            text.append('"').append(value).append('"');
+        }
+    }
+
+    /**
+     * Receives consecutive batches of kept rows while the result set is read
+     */
+    @FunctionalInterface
+    interface RowBatchListener {
+        void onBatch(List<QueryResult.Column> columns, int offset, List<Object[]> batch);
+    }
+
+    record RowSet(
+            List<QueryResult.Column> columns,
+            List<Object[]> rows,
+            QueryResult.Truncation truncation
+    ) {
+    }
+}
@@ -1,6 +1,11 @@
 package com.magacho.aiToSql.service;
 
+import com.magacho.aiToSql.config.DataSourceRouter;
+import com.magacho.aiToSql.config.McpServerConfig;
 import com.magacho.aiToSql.dto.SchemaStructure;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
+import com.magacho.aiToSql.transport.ProgressChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
@@ -19,29 +24,41 @@ public class SchemaIntrospectionService {
 
     private static final Logger log = LoggerFactory.getLogger(SchemaIntrospectionService.class);
     private final DataSource dataSource;
+    private final McpServerConfig config;
+    private final McpMetrics meters;
 
-    public SchemaIntrospectionService(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public SchemaIntrospectionService(DataSourceRouter dataSourceRouter, McpServerConfig config, McpMetrics meters) {
+        this.dataSource = dataSourceRouter.metadataDataSource();
+        this.config = config;
+        this.meters = meters;
     }
 
     /**
      * Get complete schema structure with all tables and columns
      * This is the main tool for LLM to understand the database model
+     * On streaming transports, tables are also sent in batches as they are read
      */
-    @Cacheable("schema-structure")
+    @Cacheable(value = "schema-structure", sync = true)
     public SchemaStructure getSchemaStructure(String databaseName) throws SQLException {
-        log.info("Retrieving schema structure for database: {}", databaseName);
+        log.debug("Retrieving schema structure for database: {}", databaseName);
 
+        PhaseTimings phases = McpCallContext.current().phases();
+        long start = System.nanoTime();
+        long mark = start;
         try (Connection connection = dataSource.getConnection()) {
+            mark = phases.since(PhaseTimings.Phase.CONNECTION_ACQUIRE, start);
             DatabaseMetaData metaData = connection.getMetaData();
             
             String databaseType = metaData.getDatabaseProductName();
             String catalog = connection.getCatalog();
             String schemaPattern = connection.getSchema();
 
-            log.info("Database type detected: {}", databaseType);
+            log.debug("Database type detected: {}", databaseType);
 
             List<SchemaStructure.TableInfo> tables = new ArrayList<>();
+            ProgressChannel progress = McpCallContext.current().progress();
+            int batchSize = Math.max(1, config.getStreaming().getTableBatchSize());
+            int emitted = 0;
 
             ResultSet tablesRs = metaData.getTables(catalog, schemaPattern, "%", new String[]{"TABLE", "VIEW"});
 
@@ -53,19 +70,38 @@ public class SchemaIntrospectionService {
                         metaData, catalog, schemaPattern, tableName);
 
                 tables.add(new SchemaStructure.TableInfo(tableName, tableType, columns));
+
+                if (progress.isStreaming() && tables.size() - emitted >= batchSize) {
+                    emitted = emitTables(progress, tables, emitted);
+                }
             }
             tablesRs.close();
 
-            log.info("Schema structure retrieved: {} tables found", tables.size());
+            if (progress.isStreaming() && tables.size() > emitted) {
+                emitTables(progress, tables, emitted);
+            }
+
+            log.debug("Schema structure retrieved: {} tables found", tables.size());
 
             return new SchemaStructure(
                     catalog != null ? catalog : schemaPattern,
                     databaseType,
                     tables
             );
+        } finally {
+            phases.since(PhaseTimings.Phase.METADATA, mark);
+            meters.recordJdbc("schema", System.nanoTime() - start);
         }
     }
 
+    private int emitTables(ProgressChannel progress, List<SchemaStructure.TableInfo> tables, int from) {
+        progress.partialResult("tables", Map.of(
+                "offset", from,
+                "tables", List.copyOf(tables.subList(from, tables.size()))));
+        progress.progress(tables.size(), null, tables.size() + " tables read");
+        return tables.size();
+    }
+
     private List<SchemaStructure.ColumnInfo> getColumnsForTable(
             DatabaseMetaData metaData, String catalog, String schema, String tableName) throws SQLException {
 
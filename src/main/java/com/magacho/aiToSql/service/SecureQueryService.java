@@ -1,13 +1,22 @@
 package com.magacho.aiToSql.service;
 
+import com.magacho.aiToSql.config.DataSourceRouter;
 import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.QueryApproximation;
+import com.magacho.aiToSql.dto.QueryCostEstimate;
 import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.tokenizer.TokenCounter;
+import com.magacho.aiToSql.tokenizer.TokenCounterRegistry;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
+import com.magacho.aiToSql.transport.ProgressChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.sql.PreparedStatement;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -24,6 +33,17 @@ public class SecureQueryService {
     
     private final JdbcTemplate jdbcTemplate;
     private final McpServerConfig config;
+    private final QueryCostEstimator costEstimator;
+    private final QuerySampler querySampler;
+    private final TokenCounterRegistry tokenCounters;
+    private final McpMetrics meters;
+    private final QueryAdmission admission;
+
+    /**
+     * Tokens reserved for the fixed fields of a query response (counts, limits,
+     * truncation, cost estimate and approximation) under maxResponseTokens
+     */
+    private static final int RESPONSE_ENVELOPE_TOKENS = 160;
 
     private static final Pattern SELECT_PATTERN = Pattern.compile(
             "^\\s*SELECT\\s+",
@@ -35,9 +55,16 @@ public class SecureQueryService {
             Pattern.CASE_INSENSITIVE
     );
 
-    public SecureQueryService(JdbcTemplate jdbcTemplate, McpServerConfig config) {
-        this.jdbcTemplate = jdbcTemplate;
+    public SecureQueryService(DataSourceRouter dataSourceRouter, McpServerConfig config,
+                              QueryCostEstimator costEstimator, QuerySampler querySampler,
+                              TokenCounterRegistry tokenCounters, McpMetrics meters, QueryAdmission admission) {
+        this.jdbcTemplate = dataSourceRouter.queryJdbcTemplate();
         this.config = config;
+        this.costEstimator = costEstimator;
+        this.querySampler = querySampler;
+        this.tokenCounters = tokenCounters;
+        this.meters = meters;
+        this.admission = admission;
     }
 
     /**
@@ -48,8 +75,22 @@ public class SecureQueryService {
      * @return Query results with metadata
      * @throws SecurityException if query contains dangerous operations
      * @throws IllegalArgumentException if query is invalid
+     * @throws QueryCostExceededException if the cost gate rejects the query
+     * @throws ServerBusyException if too many queries are waiting for a connection
      */
     public QueryResult secureDatabaseQuery(String queryDescription, Integer maxRows) {
+        return executeSecureQuery(queryDescription, new QueryOptions(maxRows, null, null, null));
+    }
+
+    /**
+     * Execute a secure database query with per-call options
+     *
+     * @param queryDescription Natural language description or SQL query
+     * @param options Row limit, token budget, output format and sampling (null fields fall back to config)
+     * @return Query results with metadata
+     */
+    public QueryResult executeSecureQuery(String queryDescription, QueryOptions options) {
+        Integer maxRows = options.maxRows();
         if (queryDescription == null || queryDescription.isBlank()) {
             throw new IllegalArgumentException("Query description cannot be empty");
         }
@@ -59,6 +100,7 @@ public class SecureQueryService {
         // Security validation: Must be a SELECT statement
         if (!SELECT_PATTERN.matcher(sanitizedQuery).find()) {
             log.error("SECURITY VIOLATION: Non-SELECT query attempted: {}", sanitizedQuery);
+            meters.recordRejection("non_select");
             throw new SecurityException(
                     "Only SELECT queries are allowed. Query must start with SELECT.");
         }
@@ -66,6 +108,7 @@ public class SecureQueryService {
         // Security validation: Check for dangerous keywords
         if (DANGEROUS_KEYWORDS.matcher(sanitizedQuery).find()) {
             log.error("SECURITY VIOLATION: Dangerous keywords detected in query: {}", sanitizedQuery);
+            meters.recordRejection("forbidden_keyword");
             throw new SecurityException(
                     "Query contains forbidden keywords (DROP, DELETE, UPDATE, INSERT, etc.)");
         }
@@ -75,28 +118,130 @@ public class SecureQueryService {
                 ? Math.min(maxRows, config.getMaxQueryRows())
                 : config.getMaxQueryRows();
 
-        // Add LIMIT clause if not present (database-specific)
-        String limitedQuery = addLimitClause(sanitizedQuery, effectiveMaxRows);
+        // Waits here, not in the pool, while every query connection is in use.
+        // Sampling and the cost gate plan on the query route too, so they run
+        // under the same permit.
+        QueryAdmission.Permit permit = admission.acquire();
+        try {
+            return executeAdmitted(sanitizedQuery, effectiveMaxRows, options);
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Sampling, the cost gate and the query itself, once admitted
+     */
+    private QueryResult executeAdmitted(String sanitizedQuery, int effectiveMaxRows, QueryOptions options) {
+        // Approximate mode: run on a random sample of large tables, scaling COUNT/SUM
+        String executedQuery = sanitizedQuery;
+        QueryApproximation approximation = null;
+        if (Boolean.TRUE.equals(options.approximate())) {
+            QuerySampler.SampledQuery sampled = querySampler.sample(sanitizedQuery);
+            executedQuery = sampled.query();
+            approximation = sampled.approximation();
+        }
+
+        // Cost gate: reject or downgrade queries the planner considers too expensive
+        QueryCostEstimate costEstimate = null;
+        McpServerConfig.CostGate costGate = config.getCostGate();
+        if (costGate.isEnabled()) {
+            costEstimate = costEstimator.estimate(executedQuery).orElse(null);
+            if (costEstimate != null && exceedsCostGate(costEstimate, costGate)) {
+                if (costGate.getAction() == McpServerConfig.CostGate.Action.REJECT) {
+                    log.warn("Query rejected by cost gate (rows≈{}, cost≈{}): {}",
+                            costEstimate.estimatedRows(), costEstimate.estimatedCost(), sanitizedQuery);
+                    meters.recordRejection("cost_gate");
+                    throw new QueryCostExceededException(
+                            "Query rejected by cost gate: estimated " + describe(costEstimate)
+                                    + ". Add filters, aggregate, or narrow the selected tables.",
+                            costEstimate.withGateAction(QueryCostEstimate.REJECTED));
+                }
+                effectiveMaxRows = Math.min(effectiveMaxRows, costGate.getDowngradeMaxRows());
+                costEstimate = costEstimate.withGateAction(QueryCostEstimate.DOWNGRADED);
+            } else if (costEstimate != null) {
+                costEstimate = costEstimate.withGateAction(QueryCostEstimate.ALLOWED);
+            }
+        }
+
+        // Add LIMIT clause if not present (database-specific).
+        // One extra row tells whether the row limit truncated the result.
+        String limitedQuery = addLimitClause(executedQuery, effectiveMaxRows + 1);
+        QueryResult.Format format = options.format() != null
+                ? options.format()
+                : config.getQueryResultFormat();
+        int maxTokens = options.maxTokens() != null && options.maxTokens() > 0 ? options.maxTokens() : 0;
+        TokenCounter tokenCounter = tokenCounters.forCurrentCall();
+        if (options.maxResponseTokens() != null && options.maxResponseTokens() > 0) {
+            // Rows get what the query text and the fixed fields leave of the response budget
+            int rowBudget = Math.max(1, options.maxResponseTokens()
+                    - tokenCounter.count(sanitizedQuery) - RESPONSE_ENVELOPE_TOKENS);
+            maxTokens = maxTokens > 0 ? Math.min(maxTokens, rowBudget) : rowBudget;
+        }
 
         if (config.isEnableQueryLogging()) {
-            log.info("Executing secure query (max {} rows): {}", effectiveMaxRows, limitedQuery);
+            log.debug("Executing secure query (max {} rows): {}", effectiveMaxRows, limitedQuery);
         }
 
+        // Streaming transports get row batches as they are read
+        ProgressChannel progress = McpCallContext.current().progress();
+        RowSetExtractor.RowBatchListener batchListener = progress.isStreaming()
+                ? (columns, offset, batch) -> {
+                    progress.partialResult("rows", rowChunk(columns, offset, batch));
+                    progress.progress(offset + batch.size(), null, (offset + batch.size()) + " rows read");
+                }
+                : null;
+
         try {
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(limitedQuery);
-            
-            List<String> columnNames = results.isEmpty() 
-                    ? new ArrayList<>() 
-                    : new ArrayList<>(results.get(0).keySet());
+            int rowLimit = effectiveMaxRows;
+            PhaseTimings phases = McpCallContext.current().phases();
+            RowSetExtractor extractor = new RowSetExtractor(rowLimit, maxTokens, format, tokenCounter,
+                    config.getStreaming().getRowBatchSize(), batchListener);
+            long jdbcStart = System.nanoTime();
+            long[] mark = {jdbcStart};
+            // The statement is created once the pool hands out a connection, and
+            // rows are extracted once it has executed
+            RowSetExtractor.RowSet rowSet = jdbcTemplate.query(connection -> {
+                mark[0] = phases.since(PhaseTimings.Phase.CONNECTION_ACQUIRE, mark[0]);
+                PreparedStatement statement = connection.prepareStatement(limitedQuery);
+                statement.setMaxRows(rowLimit + 1);
+                return statement;
+            }, resultSet -> {
+                mark[0] = phases.since(PhaseTimings.Phase.QUERY_EXECUTION, mark[0]);
+                try {
+                    return extractor.extractData(resultSet);
+                } finally {
+                    phases.since(PhaseTimings.Phase.ROW_FETCH, mark[0]);
+                }
+            });
+            meters.recordJdbc("query", System.nanoTime() - jdbcStart);
+            meters.recordRowsFetched(rowSet.truncation() != null
+                    ? rowSet.truncation().scannedRows()
+                    : rowSet.rows().size());
 
-            log.info("Query executed successfully. Rows returned: {}", results.size());
+            log.debug("Query executed successfully. Rows returned: {}{}", rowSet.rows().size(),
+                    rowSet.truncation() != null ? " (truncated: " + rowSet.truncation().reason() + ")" : "");
+
+            // Report the budget the caller asked for, not the share left for rows
+            QueryResult.Truncation truncation = rowSet.truncation();
+            if (truncation != null && options.maxResponseTokens() != null && options.maxResponseTokens() > 0) {
+                truncation = new QueryResult.Truncation(truncation.reason(), truncation.scannedRows(),
+                        options.maxTokens() != null && options.maxTokens() > 0
+                                ? options.maxTokens()
+                                : options.maxResponseTokens(),
+                        truncation.columnSummaries());
+            }
 
             return new QueryResult(
                     sanitizedQuery,
-                    results.size(),
+                    rowSet.rows().size(),
                     effectiveMaxRows,
-                    columnNames,
-                    results
+                    rowSet.columns(),
+                    rowSet.rows(),
+                    format,
+                    truncation,
+                    costEstimate,
+                    approximation
             );
 
         } catch (Exception e) {
@@ -105,6 +250,36 @@ public class SecureQueryService {
         }
     }
 
+    /**
+     * Partial result payload: column names with the first batch, then rows only
+     */
+    private Map<String, Object> rowChunk(List<QueryResult.Column> columns, int offset, List<Object[]> batch) {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("offset", offset);
+        if (offset == 0) {
+            chunk.put("columns", columns.stream().map(QueryResult.Column::name).toList());
+        }
+        chunk.put("rows", batch);
+        return chunk;
+    }
+
+    private boolean exceedsCostGate(QueryCostEstimate estimate, McpServerConfig.CostGate costGate) {
+        boolean rowsExceeded = costGate.getMaxEstimatedRows() > 0
+                && estimate.estimatedRows() != null
+                && estimate.estimatedRows() > costGate.getMaxEstimatedRows();
+        boolean costExceeded = costGate.getMaxEstimatedCost() > 0
+                && estimate.estimatedCost() != null
+                && estimate.estimatedCost() > costGate.getMaxEstimatedCost();
+        return rowsExceeded || costExceeded;
+    }
+
+    private String describe(QueryCostEstimate estimate) {
+        return String.format("%.0f rows, cost %.2f (%s)",
+                estimate.estimatedRows() != null ? estimate.estimatedRows() : 0.0,
+                estimate.estimatedCost() != null ? estimate.estimatedCost() : 0.0,
+                estimate.method());
+    }
+
     /**
      * Add database-specific LIMIT clause
      * Note: This is a simplified implementation. In production, use proper query parsing.
@@ -124,6 +299,27 @@ public class SecureQueryService {
         return query + " LIMIT " + maxRows;
     }
 
+    /**
+     * Per-call query options
+     *
+     * @param maxRows Maximum rows to return (null uses the server limit)
+     * @param maxTokens Token budget for returned rows; rows beyond it are summarized (null = unlimited)
+     * @param format Row output format (null uses mcp.query-result-format)
+     * @param approximate Answer from a sample of large tables (null/false = exact)
+     * @param maxResponseTokens Token budget for the whole response, query text and fixed fields included (null = unlimited)
+     */
+    public record QueryOptions(
+            Integer maxRows,
+            Integer maxTokens,
+            QueryResult.Format format,
+            Boolean approximate,
+            Integer maxResponseTokens
+    ) {
+        public QueryOptions(Integer maxRows, Integer maxTokens, QueryResult.Format format, Boolean approximate) {
+            this(maxRows, maxTokens, format, approximate, null);
+        }
+    }
+
     /**
      * Validate query syntax without executing
      */
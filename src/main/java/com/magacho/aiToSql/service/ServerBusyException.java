@@ -0,0 +1,19 @@
+package com.magacho.aiToSql.service;
+
+/**
+ * Thrown when a query is refused because too many are already waiting for a
+ * database connection. Carries how long the caller should wait before retrying.
+ */
+public class ServerBusyException extends RuntimeException {
+
+    private final long retryAfterMs;
+
+    public ServerBusyException(String message, long retryAfterMs) {
+        super(message);
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    public long getRetryAfterMs() {
+        return retryAfterMs;
+    }
+}
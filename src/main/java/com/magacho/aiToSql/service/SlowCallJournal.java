@@ -0,0 +1,130 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The N slowest calls of each tool, with the normalized SQL, phase timings,
+ * rows and bytes of each, for diagnosing latency outliers without DEBUG
+ * JDBC logging.
+ *
+ * Each tool keeps a min-heap of at most N calls. Once it is full, a call
+ * no slower than the fastest kept one is rejected with a single volatile
+ * read, so fast calls never take the lock.
+ */
+@Service
+public class SlowCallJournal {
+
+    private final int topN;
+    private final long minDurationNs;
+    private final Map<String, TopCalls> tools = new ConcurrentHashMap<>();
+
+    public SlowCallJournal(McpServerConfig config) {
+        this.topN = Math.max(1, config.getSlowCalls().getTopN());
+        this.minDurationNs = Math.max(0, config.getSlowCalls().getMinDurationMs()) * 1_000_000;
+    }
+
+    /**
+     * Whether a call this long could enter the journal; lets callers skip
+     * building the entry
+     */
+    public boolean admits(String tool, long durationNs) {
+        if (durationNs < minDurationNs) {
+            return false;
+        }
+        TopCalls top = tools.get(tool);
+        return top == null || durationNs > top.floorNs;
+    }
+
+    /**
+     * Offer a finished call
+     */
+    public void record(SlowCall call) {
+        if (!admits(call.tool(), call.durationNs())) {
+            return;
+        }
+        tools.computeIfAbsent(call.tool(), t -> new TopCalls(topN)).offer(call);
+    }
+
+    /**
+     * Journaled calls per tool, slowest first
+     */
+    public Map<String, List<SlowCall>> snapshot() {
+        Map<String, List<SlowCall>> snapshot = new LinkedHashMap<>();
+        tools.keySet().stream().sorted().forEach(tool -> snapshot.put(tool, tools.get(tool).slowestFirst()));
+        return snapshot;
+    }
+
+    public void reset() {
+        tools.clear();
+    }
+
+    /**
+     * One journaled tool call
+     *
+     * @param tool Tool name
+     * @param timestamp When the call finished
+     * @param durationNs Call duration, serialization included
+     * @param outcome success or error
+     * @param sql Normalized SQL (literals replaced by ?), or null for non-query tools
+     * @param phasesNs Nanoseconds per call phase
+     * @param rows Rows returned, or null
+     * @param bytes UTF-8 size of the response
+     * @param tokens Response tokens
+     * @param error Error message of a failed call, or null
+     */
+    public record SlowCall(
+            String tool,
+            Instant timestamp,
+            long durationNs,
+            String outcome,
+            String sql,
+            Map<String, Long> phasesNs,
+            Integer rows,
+            long bytes,
+            int tokens,
+            String error
+    ) {}
+
+    private static final class TopCalls {
+        private static final Comparator<SlowCall> BY_DURATION = Comparator.comparingLong(SlowCall::durationNs);
+
+        private final int capacity;
+        private final PriorityQueue<SlowCall> heap;
+        // Duration a call must exceed to enter once the heap is full
+        private volatile long floorNs = -1;
+
+        TopCalls(int capacity) {
+            this.capacity = capacity;
+            this.heap = new PriorityQueue<>(capacity + 1, BY_DURATION);
+        }
+
+        synchronized void offer(SlowCall call) {
+            if (heap.size() == capacity) {
+                if (call.durationNs() <= heap.peek().durationNs()) {
+                    return;
+                }
+                heap.poll();
+            }
+            heap.add(call);
+            if (heap.size() == capacity) {
+                floorNs = heap.peek().durationNs();
+            }
+        }
+
+        synchronized List<SlowCall> slowestFirst() {
+            List<SlowCall> calls = new ArrayList<>(heap);
+            calls.sort(BY_DURATION.reversed());
+            return calls;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.magacho.aiToSql.service;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a SQL statement to its "shape": literals are replaced by placeholders
+ * and whitespace is collapsed, so queries that differ only in their constants
+ * share the same key (plan cache, slow-call journal, logs).
+ */
+public final class SqlNormalizer {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.\"])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_SEMICOLON = Pattern.compile(";\\s*$");
+
+    private SqlNormalizer() {
+    }
+
+    /**
+     * Normalize a SQL statement to its shape
+     *
+     * @param sql SQL statement (may be null)
+     * @return normalized shape, or an empty string for null/blank input
+     */
+    public static String normalize(String sql) {
+        if (sql == null || sql.isBlank()) {
+            return "";
+        }
+
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMERIC_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        shape = TRAILING_SEMICOLON.matcher(shape).replaceAll("");
+        return shape;
+    }
+}
@@ -1,6 +1,9 @@
 package com.magacho.aiToSql.service;
 
+import com.magacho.aiToSql.config.DataSourceRouter;
 import com.magacho.aiToSql.dto.TableDetails;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
@@ -19,19 +22,25 @@ public class TableDetailsService {
 
     private static final Logger log = LoggerFactory.getLogger(TableDetailsService.class);
     private final DataSource dataSource;
+    private final McpMetrics meters;
 
-    public TableDetailsService(DataSource dataSource) {
-        this.dataSource = dataSource;
+    public TableDetailsService(DataSourceRouter dataSourceRouter, McpMetrics meters) {
+        this.dataSource = dataSourceRouter.metadataDataSource();
+        this.meters = meters;
     }
 
     /**
      * Get detailed information about a specific table
      */
-    @Cacheable("table-details")
+    @Cacheable(value = "table-details", sync = true)
     public TableDetails getTableDetails(String tableName) throws SQLException {
-        log.info("Retrieving detailed information for table: {}", tableName);
+        log.debug("Retrieving detailed information for table: {}", tableName);
 
+        PhaseTimings phases = McpCallContext.current().phases();
+        long start = System.nanoTime();
+        long mark = start;
         try (Connection connection = dataSource.getConnection()) {
+            mark = phases.since(PhaseTimings.Phase.CONNECTION_ACQUIRE, start);
             DatabaseMetaData metaData = connection.getMetaData();
             String catalog = connection.getCatalog();
             String schema = connection.getSchema();
@@ -49,9 +58,12 @@ public class TableDetailsService {
 
             List<TableDetails.ConstraintInfo> constraints = new ArrayList<>();
 
-            log.info("Table details retrieved for: {}", tableName);
+            log.debug("Table details retrieved for: {}", tableName);
 
             return new TableDetails(tableName, tableType, columns, indexes, foreignKeys, constraints);
+        } finally {
+            phases.since(PhaseTimings.Phase.METADATA, mark);
+            meters.recordJdbc("table_details", System.nanoTime() - start);
         }
     }
 
@@ -5,6 +5,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -20,14 +22,21 @@ public class TokenizationMetricsService {
     // Métricas agregadas por ferramenta
     private final ConcurrentHashMap<String, ToolMetrics> toolMetrics = new ConcurrentHashMap<>();
     
+    // Métricas agregadas por modelo cobrado (chargeback)
+    private final ConcurrentHashMap<String, ModelMetrics> modelMetrics = new ConcurrentHashMap<>();
+    
     /**
      * Registra métricas de uma execução de ferramenta.
      */
     public void recordMetrics(String toolName, TokenizationMetrics metrics) {
         toolMetrics.computeIfAbsent(toolName, k -> new ToolMetrics(k))
                 .record(metrics);
+        if (metrics.model() != null) {
+            modelMetrics.computeIfAbsent(metrics.model(), ModelMetrics::new)
+                    .record(metrics);
+        }
         
-        log.info("Metrics for {}: {}", toolName, metrics);
+        log.debug("Metrics for {}: {}", toolName, metrics);
     }
     
     /**
@@ -36,7 +45,7 @@ public class TokenizationMetricsService {
     public ToolStatistics getStatistics(String toolName) {
         ToolMetrics metrics = toolMetrics.get(toolName);
         if (metrics == null) {
-            return new ToolStatistics(toolName, 0, 0, 0, 0, 0, 0);
+            return new ToolStatistics(toolName, 0, 0, 0, 0, 0, 0, Map.of());
         }
         return metrics.getStatistics();
     }
@@ -52,11 +61,23 @@ public class TokenizationMetricsService {
         return allStats;
     }
     
+    /**
+     * Obtém o custo agregado por modelo.
+     */
+    public ConcurrentHashMap<String, ModelStatistics> getModelStatistics() {
+        ConcurrentHashMap<String, ModelStatistics> allStats = new ConcurrentHashMap<>();
+        modelMetrics.forEach((model, metrics) ->
+            allStats.put(model, metrics.getStatistics())
+        );
+        return allStats;
+    }
+    
     /**
      * Reseta todas as métricas.
      */
     public void resetMetrics() {
         toolMetrics.clear();
+        modelMetrics.clear();
         log.info("All metrics reset");
     }
     
@@ -71,6 +92,8 @@ public class TokenizationMetricsService {
         private final AtomicLong totalTokens = new AtomicLong(0);
         private final AtomicLong cacheHits = new AtomicLong(0);
         private double totalCostUSD = 0.0;
+        // Nanossegundos somados por fase, na ordem em que as fases aparecem
+        private final Map<String, Long> totalPhasesNs = new LinkedHashMap<>();
         
         ToolMetrics(String toolName) {
             this.toolName = toolName;
@@ -82,6 +105,9 @@ public class TokenizationMetricsService {
             totalCharacters.addAndGet(metrics.characterCount());
             totalTokens.addAndGet(metrics.estimatedTokenCount());
             totalCostUSD += metrics.estimatedCostUSD();
+            if (metrics.phasesNs() != null) {
+                metrics.phasesNs().forEach((phase, nanos) -> totalPhasesNs.merge(phase, nanos, Long::sum));
+            }
             if (metrics.cacheHit()) {
                 cacheHits.incrementAndGet();
             }
@@ -90,9 +116,13 @@ public class TokenizationMetricsService {
         synchronized ToolStatistics getStatistics() {
             long calls = callCount.get();
             if (calls == 0) {
-                return new ToolStatistics(toolName, 0, 0, 0, 0, 0, 0);
+                return new ToolStatistics(toolName, 0, 0, 0, 0, 0, 0, Map.of());
             }
             
+            // Média por chamada: fases que uma chamada pulou (ex.: cache hit) contam como zero
+            Map<String, Long> avgPhasesNs = new LinkedHashMap<>();
+            totalPhasesNs.forEach((phase, nanos) -> avgPhasesNs.put(phase, nanos / calls));
+            
             return new ToolStatistics(
                     toolName,
                     calls,
@@ -100,13 +130,53 @@ public class TokenizationMetricsService {
                     totalCharacters.get() / calls,
                     totalTokens.get() / calls,
                     totalCostUSD,
-                    (double) cacheHits.get() / calls * 100
+                    (double) cacheHits.get() / calls * 100,
+                    avgPhasesNs
             );
         }
     }
     
     /**
-     * Estatísticas agregadas de uma ferramenta.
+     * Classe interna para agregar custo de um modelo.
+     */
+    private static class ModelMetrics {
+        private final String model;
+        private long callCount = 0;
+        private long totalTokens = 0;
+        private double totalCostUSD = 0.0;
+        private double cachedInputCostUSD = 0.0;
+        
+        ModelMetrics(String model) {
+            this.model = model;
+        }
+        
+        synchronized void record(TokenizationMetrics metrics) {
+            callCount++;
+            totalTokens += metrics.estimatedTokenCount();
+            totalCostUSD += metrics.estimatedCostUSD();
+            cachedInputCostUSD += metrics.cachedInputCostUSD();
+        }
+        
+        synchronized ModelStatistics getStatistics() {
+            return new ModelStatistics(model, callCount, totalTokens, totalCostUSD, cachedInputCostUSD);
+        }
+    }
+    
+    /**
+     * Custo agregado de um modelo; cachedInputCostUSD é o que as mesmas
+     * respostas custariam lidas do cache de prompt do modelo.
+     */
+    public record ModelStatistics(
+            String model,
+            long totalCalls,
+            long totalTokens,
+            double totalCostUSD,
+            double cachedInputCostUSD
+    ) {}
+    
+    /**
+     * Estatísticas agregadas de uma ferramenta; avgPhasesNs é a média de
+     * nanossegundos por chamada em cada fase (conexão, execução, leitura, ...).
      */
     public record ToolStatistics(
             String toolName,
@@ -115,7 +185,8 @@ public class TokenizationMetricsService {
             long avgCharacters,
             long avgTokens,
             double totalCostUSD,
-            double cacheHitRate
+            double cacheHitRate,
+            Map<String, Long> avgPhasesNs
     ) {
         @Override
         public String toString() {
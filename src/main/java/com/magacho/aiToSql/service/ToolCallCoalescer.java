@@ -0,0 +1,209 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Tool Call Coalescer
+ *
+ * Single flight for tools/call (mcp.coalescing): the first call with a given
+ * tool, arguments, tenant and model (token budgets are counted in the
+ * model's tokens) runs, and identical calls arriving while it
+ * runs wait for it and receive its result (or its exception) instead of
+ * executing again. A session of agents starting together on a cold cache
+ * therefore crawls the catalog once, not once per agent.
+ *
+ * Arguments are compared in canonical form: keys sorted, strings trimmed,
+ * numbers and booleans by their text, which is how the tools read them.
+ * A completed secureDatabaseQuery result is kept in the query-results cache
+ * (when the cache manager has one) and reused for its expire-after-ms; other
+ * tools are served by their own caches once done. A streaming call may lead
+ * a flight but never joins one or reads a kept result, since it would miss
+ * the partial results sent to the leader's stream.
+ *
+ * Calls that shared a result are counted as mcp.tool.coalesced and spend
+ * their time in the coalescedWait phase.
+ */
+@Component
+public class ToolCallCoalescer {
+
+    public static final String RESULT_CACHE = "query-results";
+
+    private static final String QUERY_TOOL = "secureDatabaseQuery";
+
+    private final McpServerConfig.Coalescing settings;
+    private final McpServerConfig.Caches caches;
+    private final McpMetrics meters;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final Map<String, Flight> flights = new ConcurrentHashMap<>();
+
+    public ToolCallCoalescer(McpServerConfig config, McpMetrics meters, ObjectProvider<CacheManager> cacheManager) {
+        this.settings = config.getCoalescing();
+        this.caches = config.getCaches();
+        this.meters = meters;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Run a tool call, or join an identical one in flight
+     *
+     * @param tool tool name (a known tool)
+     * @param arguments the call's arguments
+     * @param call executes the tool
+     * @return the result, and whether it came from another call
+     */
+    public Outcome execute(String tool, Map<String, Object> arguments, Supplier<Object> call) {
+        if (!settings.isEnabled()) {
+            return new Outcome(call.get(), false);
+        }
+        McpCallContext context = McpCallContext.current();
+        String key = key(context.session().tenant(), context.session().model(), tool, arguments);
+        boolean streaming = context.progress().isStreaming();
+        Cache results = QUERY_TOOL.equals(tool) ? resultCache() : null;
+        long start = System.nanoTime();
+
+        if (results != null && !streaming) {
+            CachedResult kept = results.get(key, CachedResult.class);
+            if (kept != null && isFresh(kept, start)) {
+                meters.recordCoalesced(tool);
+                context.phases().since(PhaseTimings.Phase.COALESCED_WAIT, start);
+                return new Outcome(kept.result(), true);
+            }
+        }
+        Flight flight = new Flight();
+        Flight existing = flights.putIfAbsent(key, flight);
+        if (existing == null) {
+            Object result = lead(key, flight, call);
+            if (results != null) {
+                results.put(key, new CachedResult(result, System.nanoTime()));
+            }
+            return new Outcome(result, false);
+        }
+        if (streaming) {
+            return new Outcome(call.get(), false);
+        }
+        return new Outcome(follow(tool, existing, start), true);
+    }
+
+    /**
+     * Identical calls currently running
+     */
+    int flights() {
+        return flights.size();
+    }
+
+    private Cache resultCache() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        return manager != null ? manager.getCache(RESULT_CACHE) : null;
+    }
+
+    /**
+     * Checked here too, for cache providers without expiry
+     */
+    private boolean isFresh(CachedResult kept, long now) {
+        McpServerConfig.CacheSpec spec = caches.getSpecs().get(RESULT_CACHE);
+        long expireAfterMs = spec != null ? spec.getExpireAfterMs() : 0;
+        return expireAfterMs <= 0 || now - kept.storedAt() < TimeUnit.MILLISECONDS.toNanos(expireAfterMs);
+    }
+
+    private Object lead(String key, Flight flight, Supplier<Object> call) {
+        try {
+            Object result = call.get();
+            flights.remove(key, flight);
+            flight.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            // Failures are shared with the calls already waiting, never with later ones
+            flights.remove(key, flight);
+            flight.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Object follow(String tool, Flight flight, long start) {
+        meters.recordCoalesced(tool);
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        } finally {
+            McpCallContext.current().phases().since(PhaseTimings.Phase.COALESCED_WAIT, start);
+        }
+    }
+
+    static String key(String tenant, String model, String tool, Map<String, Object> arguments) {
+        StringBuilder key = new StringBuilder(64);
+        key.append(tenant != null ? tenant : "").append('\u0000')
+                .append(model != null ? model : "").append('\u0000')
+                .append(tool).append('\u0000');
+        appendCanonical(key, arguments);
+        return key.toString();
+    }
+
+    private static void appendCanonical(StringBuilder key, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            key.append('{');
+            new TreeMap<>(map).forEach((name, entry) -> {
+                if (entry != null) {
+                    appendQuoted(key, name.toString());
+                    key.append('=');
+                    appendCanonical(key, entry);
+                    key.append(',');
+                }
+            });
+            key.append('}');
+        } else if (value instanceof Collection<?> list) {
+            key.append('[');
+            list.forEach(entry -> {
+                appendCanonical(key, entry);
+                key.append(',');
+            });
+            key.append(']');
+        } else if (value instanceof String text) {
+            appendQuoted(key, text.strip());
+        } else {
+            appendQuoted(key, String.valueOf(value));
+        }
+    }
+
+    private static void appendQuoted(StringBuilder key, String text) {
+        key.append('"').append(text.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+    }
+
+    /**
+     * @param result the tool's result
+     * @param shared whether the result was computed by an identical call
+     */
+    public record Outcome(Object result, boolean shared) {
+    }
+
+    /**
+     * A query result kept in the query-results cache, and the {@link System#nanoTime()} it was stored at
+     */
+    record CachedResult(Object result, long storedAt) {
+    }
+
+    private static final class Flight {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,247 @@
+package com.magacho.aiToSql.service;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent activity of one tool in fixed memory: a ring of per-second buckets
+ * covering five minutes and a ring of per-minute buckets covering an hour.
+ *
+ * All storage is preallocated primitive arrays; recording a call only
+ * updates counters (clearing a bucket when its slot is reused), so it does
+ * not allocate. Latencies go into log-linear bins (four per power of two),
+ * which bounds percentile error to the bin width, at most 25%.
+ */
+public final class ToolTimeSeries {
+
+    /**
+     * Windows rates and percentiles are reported for
+     */
+    public enum Window {
+        ONE_MINUTE("1m", 60),
+        FIVE_MINUTES("5m", 300),
+        ONE_HOUR("1h", 3600);
+
+        private final String label;
+        private final int seconds;
+
+        Window(String label, int seconds) {
+            this.label = label;
+            this.seconds = seconds;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public int seconds() {
+            return seconds;
+        }
+    }
+
+    static final int SECOND_SLOTS = 300;
+    static final int MINUTE_SLOTS = 60;
+    // 0-3 ms exact, then 4 bins per power of two up to 2^20 ms (~17 minutes)
+    static final int LATENCY_BINS = 80;
+
+    private final LongSupplier clock;
+    private final Ring seconds = new Ring(SECOND_SLOTS, 1_000);
+    private final Ring minutes = new Ring(MINUTE_SLOTS, 60_000);
+
+    public ToolTimeSeries() {
+        this(System::currentTimeMillis);
+    }
+
+    ToolTimeSeries(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Record one call ending now
+     */
+    public synchronized void record(long latencyMs, long tokens, double costUSD) {
+        long now = clock.getAsLong();
+        int bin = bin(latencyMs);
+        seconds.record(now, latencyMs, bin, tokens, costUSD);
+        minutes.record(now, latencyMs, bin, tokens, costUSD);
+    }
+
+    /**
+     * Rates, latency percentiles and cost burn over the window ending now
+     */
+    public synchronized WindowStats stats(Window window) {
+        long now = clock.getAsLong();
+        Ring ring = window.seconds() <= SECOND_SLOTS ? seconds : minutes;
+        int[] histogram = new int[LATENCY_BINS];
+        long[] totals = new long[3];
+        double cost = ring.sum(now, window.seconds(), histogram, totals);
+
+        long calls = totals[0];
+        double windowSeconds = window.seconds();
+        return new WindowStats(
+                window.label(),
+                calls,
+                calls / windowSeconds,
+                totals[1] / windowSeconds,
+                calls > 0 ? (double) totals[2] / calls : 0,
+                percentile(histogram, calls, 0.50),
+                percentile(histogram, calls, 0.95),
+                percentile(histogram, calls, 0.99),
+                cost,
+                cost * 3600 / windowSeconds
+        );
+    }
+
+    public synchronized void reset() {
+        seconds.clear();
+        minutes.clear();
+    }
+
+    /**
+     * Latency bin: exact below 4 ms, then 4 bins per power of two
+     */
+    static int bin(long latencyMs) {
+        if (latencyMs < 4) {
+            return (int) Math.max(latencyMs, 0);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(latencyMs);
+        int sub = (int) (latencyMs >>> (exponent - 2)) & 3;
+        return Math.min(4 + (exponent - 2) * 4 + sub, LATENCY_BINS - 1);
+    }
+
+    /**
+     * Smallest latency falling into a bin
+     */
+    static long lowerBound(int bin) {
+        if (bin < 4) {
+            return bin;
+        }
+        int exponent = (bin - 4) / 4 + 2;
+        return (4L + (bin - 4) % 4) << (exponent - 2);
+    }
+
+    /**
+     * Latency at quantile q, interpolated linearly within its bin
+     */
+    static double percentile(int[] histogram, long count, double q) {
+        if (count == 0) {
+            return 0;
+        }
+        double rank = Math.max(1, Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            int inBin = histogram[i];
+            if (inBin > 0 && seen + inBin >= rank) {
+                long lower = lowerBound(i);
+                long width = (i < 4 ? lower + 1 : lowerBound(i + 1)) - lower;
+                return lower + width * (rank - seen) / inBin;
+            }
+            seen += inBin;
+        }
+        return lowerBound(histogram.length - 1);
+    }
+
+    /**
+     * Activity over a window
+     *
+     * @param window Window label (1m, 5m, 1h)
+     * @param calls Calls finished in the window
+     * @param callsPerSecond Average call rate
+     * @param tokensPerSecond Average response token throughput
+     * @param avgLatencyMs Mean latency
+     * @param p50LatencyMs Median latency
+     * @param p95LatencyMs 95th percentile latency
+     * @param p99LatencyMs 99th percentile latency
+     * @param costUSD Cost of the window's calls
+     * @param costPerHourUSD Cost burn extrapolated to an hour
+     */
+    public record WindowStats(
+            String window,
+            long calls,
+            double callsPerSecond,
+            double tokensPerSecond,
+            double avgLatencyMs,
+            double p50LatencyMs,
+            double p95LatencyMs,
+            double p99LatencyMs,
+            double costUSD,
+            double costPerHourUSD
+    ) {}
+
+    /**
+     * Buckets of a fixed duration in a circular array; a slot belongs to the
+     * bucket whose epoch it is tagged with and is cleared when reused.
+     */
+    private static final class Ring {
+        private final int slots;
+        private final long bucketMs;
+        private final long[] epochs;
+        private final long[] calls;
+        private final long[] tokens;
+        private final long[] latencySumMs;
+        private final double[] costUSD;
+        private final int[] latencyBins;
+
+        Ring(int slots, long bucketMs) {
+            this.slots = slots;
+            this.bucketMs = bucketMs;
+            this.epochs = new long[slots];
+            this.calls = new long[slots];
+            this.tokens = new long[slots];
+            this.latencySumMs = new long[slots];
+            this.costUSD = new double[slots];
+            this.latencyBins = new int[slots * LATENCY_BINS];
+            Arrays.fill(epochs, -1);
+        }
+
+        void record(long nowMs, long latencyMs, int bin, long tokenCount, double cost) {
+            long epoch = nowMs / bucketMs;
+            int slot = (int) (epoch % slots);
+            if (epochs[slot] != epoch) {
+                epochs[slot] = epoch;
+                calls[slot] = 0;
+                tokens[slot] = 0;
+                latencySumMs[slot] = 0;
+                costUSD[slot] = 0;
+                Arrays.fill(latencyBins, slot * LATENCY_BINS, (slot + 1) * LATENCY_BINS, 0);
+            }
+            calls[slot]++;
+            tokens[slot] += tokenCount;
+            latencySumMs[slot] += latencyMs;
+            costUSD[slot] += cost;
+            latencyBins[slot * LATENCY_BINS + bin]++;
+        }
+
+        /**
+         * Add up the buckets within windowSeconds of now
+         *
+         * @param histogram Receives the merged latency bins
+         * @param totals Receives calls, tokens and latency sum
+         * @return Cost of the buckets
+         */
+        double sum(long nowMs, int windowSeconds, int[] histogram, long[] totals) {
+            long current = nowMs / bucketMs;
+            long oldest = current - Math.min(slots, windowSeconds * 1_000L / bucketMs) + 1;
+            double cost = 0;
+            for (int slot = 0; slot < slots; slot++) {
+                long epoch = epochs[slot];
+                if (epoch < oldest || epoch > current) {
+                    continue;
+                }
+                totals[0] += calls[slot];
+                totals[1] += tokens[slot];
+                totals[2] += latencySumMs[slot];
+                cost += costUSD[slot];
+                int offset = slot * LATENCY_BINS;
+                for (int bin = 0; bin < LATENCY_BINS; bin++) {
+                    histogram[bin] += latencyBins[offset + bin];
+                }
+            }
+            return cost;
+        }
+
+        void clear() {
+            Arrays.fill(epochs, -1);
+        }
+    }
+}
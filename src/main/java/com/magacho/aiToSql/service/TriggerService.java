@@ -1,6 +1,9 @@
 package com.magacho.aiToSql.service;
 
+import com.magacho.aiToSql.config.DataSourceRouter;
 import com.magacho.aiToSql.dto.TriggerList;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.annotation.Cacheable;
@@ -24,21 +27,27 @@ public class TriggerService {
     private static final Logger log = LoggerFactory.getLogger(TriggerService.class);
     private final DataSource dataSource;
     private final JdbcTemplate jdbcTemplate;
+    private final McpMetrics meters;
 
-    public TriggerService(DataSource dataSource, JdbcTemplate jdbcTemplate) {
-        this.dataSource = dataSource;
-        this.jdbcTemplate = jdbcTemplate;
+    public TriggerService(DataSourceRouter dataSourceRouter, McpMetrics meters) {
+        this.dataSource = dataSourceRouter.metadataDataSource();
+        this.jdbcTemplate = dataSourceRouter.metadataJdbcTemplate();
+        this.meters = meters;
     }
 
     /**
      * List all triggers for a specific table
      * Implementation varies by database type (Oracle, MySQL, PostgreSQL, MSSQL)
      */
-    @Cacheable("triggers")
+    @Cacheable(value = "triggers", sync = true)
     public TriggerList listTriggers(String tableName) throws SQLException {
-        log.info("Retrieving triggers for table: {}", tableName);
+        log.debug("Retrieving triggers for table: {}", tableName);
 
+        PhaseTimings phases = McpCallContext.current().phases();
+        long start = System.nanoTime();
+        long mark = start;
         try (Connection connection = dataSource.getConnection()) {
+            mark = phases.since(PhaseTimings.Phase.CONNECTION_ACQUIRE, start);
             DatabaseMetaData metaData = connection.getMetaData();
             String databaseType = metaData.getDatabaseProductName().toUpperCase();
 
@@ -56,8 +65,11 @@ public class TriggerService {
                 triggers = new ArrayList<>();
             }
 
-            log.info("Found {} triggers for table: {}", triggers.size(), tableName);
+            log.debug("Found {} triggers for table: {}", triggers.size(), tableName);
             return new TriggerList(tableName, triggers);
+        } finally {
+            phases.since(PhaseTimings.Phase.METADATA, mark);
+            meters.recordJdbc("triggers", System.nanoTime() - start);
         }
     }
 
@@ -0,0 +1,258 @@
+package com.magacho.aiToSql.tokenizer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Exact token counter for a tiktoken-style byte-level BPE encoding.
+ *
+ * Text is split with the encoding's pre-tokenizer; each piece is UTF-8
+ * encoded into a per-thread scratch buffer and counted as one token when it
+ * is in the vocabulary, otherwise by running the rank-ordered merge loop on
+ * reused int arrays. Merge results for short pieces are kept in a small
+ * per-thread cache, since query results repeat the same column names and
+ * values. Counting allocates nothing once the scratch buffers have grown to
+ * the largest piece seen.
+ */
+public final class BpeTokenCounter implements TokenCounter {
+
+    /**
+     * Pieces longer than this (a run of thousands of punctuation characters)
+     * are merged in chunks to bound the quadratic merge loop; the count may
+     * then be off by a token per chunk.
+     */
+    static final int MAX_PIECE_BYTES = 4096;
+
+    private static final int NO_RANK = Integer.MAX_VALUE;
+
+    /** Direct-mapped merge cache: entries per thread and longest cached piece */
+    private static final int CACHE_ENTRIES = 1024;
+    private static final int CACHE_KEY_BYTES = 32;
+
+    /**
+     * Longest text whose char copy is kept for the next call; larger texts get
+     * a one-off buffer so pooled threads do not each pin their largest response
+     */
+    private static final int RETAINED_CHARS = 256 * 1024;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final String encoding;
+    private final BpeVocabulary vocabulary;
+    private final PreTokenizer preTokenizer;
+
+    BpeTokenCounter(String encoding, BpeVocabulary vocabulary, PreTokenizer preTokenizer) {
+        this.encoding = encoding;
+        this.vocabulary = vocabulary;
+        this.preTokenizer = preTokenizer;
+    }
+
+    /**
+     * Load an encoding from the tokenizer/&lt;encoding&gt;.tiktoken classpath resource
+     */
+    public static BpeTokenCounter load(String encoding, PreTokenizer preTokenizer) throws IOException {
+        return new BpeTokenCounter(encoding, BpeVocabulary.load("tokenizer/" + encoding + ".tiktoken"), preTokenizer);
+    }
+
+    @Override
+    public int count(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        Scratch scratch = this.scratch.get();
+        int length = text.length();
+        char[] chars = scratch.chars(text, length);
+        int tokens = 0;
+        int start = 0;
+        while (start < length) {
+            int end = preTokenizer.next(chars, start, length);
+            tokens += countPiece(chars, start, end, scratch);
+            start = end;
+        }
+        return tokens;
+    }
+
+    @Override
+    public String method() {
+        return "bpe_" + encoding;
+    }
+
+    @Override
+    public boolean exact() {
+        return true;
+    }
+
+    public String encoding() {
+        return encoding;
+    }
+
+    private int countPiece(char[] text, int start, int end, Scratch scratch) {
+        int length = scratch.encode(text, start, end);
+        if (length == 1) {
+            return 1;
+        }
+        byte[] bytes = scratch.bytes;
+        int hash = BpeVocabulary.hash(bytes, 0, length);
+        if (vocabulary.contains(bytes, 0, length, hash)) {
+            return 1;
+        }
+
+        boolean cacheable = length <= CACHE_KEY_BYTES;
+        int entry = hash & (CACHE_ENTRIES - 1);
+        if (cacheable && scratch.cachedLengths[entry] == length
+                && Arrays.equals(scratch.cachedKeys, entry * CACHE_KEY_BYTES, entry * CACHE_KEY_BYTES + length,
+                bytes, 0, length)) {
+            return scratch.cachedCounts[entry];
+        }
+
+        int tokens = 0;
+        for (int offset = 0; offset < length; offset += MAX_PIECE_BYTES) {
+            tokens += merge(scratch, offset, Math.min(MAX_PIECE_BYTES, length - offset));
+        }
+
+        if (cacheable) {
+            System.arraycopy(bytes, 0, scratch.cachedKeys, entry * CACHE_KEY_BYTES, length);
+            scratch.cachedLengths[entry] = (byte) length;
+            scratch.cachedCounts[entry] = tokens;
+        }
+        return tokens;
+    }
+
+    /**
+     * Byte-pair merge: repeatedly join the adjacent pair with the lowest rank
+     * (leftmost on ties) until no pair is in the vocabulary; returns the
+     * number of parts left
+     */
+    private int merge(Scratch scratch, int offset, int length) {
+        if (length == 1) {
+            return 1;
+        }
+        byte[] bytes = scratch.bytes;
+        int[] starts = scratch.starts(length + 1);
+        int[] ranks = scratch.ranks(length + 1);
+
+        int parts = length + 1;
+        for (int i = 0; i < parts; i++) {
+            starts[i] = offset + i;
+        }
+        for (int i = 0; i < length - 1; i++) {
+            ranks[i] = rank(bytes, offset + i, 2);
+        }
+        ranks[length - 1] = NO_RANK;
+        ranks[length] = NO_RANK;
+
+        while (parts > 2) {
+            int min = NO_RANK;
+            int index = -1;
+            for (int i = 0; i < parts - 1; i++) {
+                if (ranks[i] < min) {
+                    min = ranks[i];
+                    index = i;
+                }
+            }
+            if (index < 0) {
+                break;
+            }
+
+            ranks[index] = index + 3 < parts
+                    ? rank(bytes, starts[index], starts[index + 3] - starts[index])
+                    : NO_RANK;
+            if (index > 0) {
+                ranks[index - 1] = rank(bytes, starts[index - 1], starts[index + 2] - starts[index - 1]);
+            }
+            System.arraycopy(starts, index + 2, starts, index + 1, parts - index - 2);
+            System.arraycopy(ranks, index + 2, ranks, index + 1, parts - index - 2);
+            parts--;
+        }
+        return parts - 1;
+    }
+
+    private int rank(byte[] bytes, int offset, int length) {
+        int rank = vocabulary.rank(bytes, offset, length);
+        return rank == BpeVocabulary.NOT_FOUND ? NO_RANK : rank;
+    }
+
+    /**
+     * Per-thread buffers reused across calls
+     */
+    private static final class Scratch {
+        private char[] chars = new char[1024];
+        private byte[] bytes = new byte[256];
+        private int[] starts = new int[64];
+        private int[] ranks = new int[64];
+        private final byte[] cachedKeys = new byte[CACHE_ENTRIES * CACHE_KEY_BYTES];
+        private final byte[] cachedLengths = new byte[CACHE_ENTRIES];
+        private final int[] cachedCounts = new int[CACHE_ENTRIES];
+
+        /**
+         * text copied into the reusable char buffer
+         */
+        char[] chars(CharSequence text, int length) {
+            char[] buffer = chars;
+            if (buffer.length < length) {
+                buffer = new char[Math.max(length, buffer.length * 2)];
+                if (buffer.length <= RETAINED_CHARS) {
+                    chars = buffer;
+                }
+            }
+            if (text instanceof String string) {
+                string.getChars(0, length, buffer, 0);
+            } else {
+                for (int i = 0; i < length; i++) {
+                    buffer[i] = text.charAt(i);
+                }
+            }
+            return buffer;
+        }
+
+        int[] starts(int size) {
+            if (starts.length < size) {
+                starts = new int[Math.max(size, starts.length * 2)];
+            }
+            return starts;
+        }
+
+        int[] ranks(int size) {
+            if (ranks.length < size) {
+                ranks = new int[Math.max(size, ranks.length * 2)];
+            }
+            return ranks;
+        }
+
+        /**
+         * UTF-8 encode text[start, end) into bytes; returns the byte length
+         */
+        int encode(char[] text, int start, int end) {
+            int needed = (end - start) * 3;
+            if (bytes.length < needed) {
+                bytes = new byte[Math.max(needed, bytes.length * 2)];
+            }
+            byte[] out = bytes;
+            int position = 0;
+            for (int i = start; i < end; i++) {
+                char c = text[i];
+                if (c < 0x80) {
+                    out[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    out[position++] = (byte) (0xC0 | (c >> 6));
+                    out[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text[i + 1])) {
+                        int codePoint = Character.toCodePoint(c, text[++i]);
+                        out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                        out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                        out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                        out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                    } else {
+                        // Unpaired surrogate: same replacement as String.getBytes(UTF_8)
+                        out[position++] = '?';
+                    }
+                } else {
+                    out[position++] = (byte) (0xE0 | (c >> 12));
+                    out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    out[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            return position;
+        }
+    }
+}
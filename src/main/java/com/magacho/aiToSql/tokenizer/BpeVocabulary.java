@@ -0,0 +1,251 @@
+package com.magacho.aiToSql.tokenizer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Byte-sequence to merge-rank table of a BPE encoding, read from a
+ * tiktoken-format file ("base64(token) rank" per line).
+ *
+ * The file is memory-mapped and decoded once into a single byte array of all
+ * tokens plus an open-addressing hash index, so {@link #rank} looks up any
+ * byte range without allocating. Index slots carry the key's hash next to the
+ * token number, so most probes are settled without touching token bytes, and
+ * two-byte tokens (the first step of every merge) have a direct table. A
+ * resource packaged inside a jar is first copied to a temporary file, since
+ * only files can be mapped.
+ */
+final class BpeVocabulary {
+
+    static final int NOT_FOUND = -1;
+
+    private static final byte[] BASE64 = new byte[128];
+
+    static {
+        Arrays.fill(BASE64, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            BASE64[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final byte[] tokenBytes;
+    private final int[] tokenOffsets;
+    private final int[] tokenRanks;
+    private final long[] slots;
+    private final int mask;
+    private final int maxTokenLength;
+    private final int[] pairRanks = new int[1 << 16];
+
+    private BpeVocabulary(byte[] tokenBytes, int[] tokenOffsets, int[] tokenRanks, int size) {
+        this.tokenBytes = tokenBytes;
+        this.tokenOffsets = tokenOffsets;
+        this.tokenRanks = tokenRanks;
+        this.slots = new long[Integer.highestOneBit(Math.max(size, 1) * 2) * 2];
+        this.mask = slots.length - 1;
+        Arrays.fill(pairRanks, NOT_FOUND);
+
+        int longest = 0;
+        for (int token = 0; token < size; token++) {
+            int offset = tokenOffsets[token];
+            int length = tokenOffsets[token + 1] - offset;
+            longest = Math.max(longest, length);
+            if (length == 2) {
+                pairRanks[pairIndex(tokenBytes, offset)] = tokenRanks[token];
+            }
+            int hash = hash(tokenBytes, offset, length);
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = slot(hash, token);
+        }
+        this.maxTokenLength = longest;
+    }
+
+    /**
+     * Load a vocabulary from a classpath resource
+     */
+    static BpeVocabulary load(String resource) throws IOException {
+        URL url = BpeVocabulary.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            throw new IOException("Vocabulary not found on classpath: " + resource);
+        }
+
+        Path file = null;
+        boolean temporary = false;
+        if ("file".equals(url.getProtocol())) {
+            try {
+                file = Path.of(url.toURI());
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                file = null;
+            }
+        }
+        if (file == null) {
+            file = Files.createTempFile("mcp-vocabulary-", ".tiktoken");
+            temporary = true;
+            try (InputStream in = url.openStream()) {
+                Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            if (temporary) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Merge rank of bytes[offset, offset + length), or {@link #NOT_FOUND}
+     */
+    int rank(byte[] bytes, int offset, int length) {
+        if (length == 2) {
+            return pairRanks[pairIndex(bytes, offset)];
+        }
+        int token = find(bytes, offset, length, hash(bytes, offset, length));
+        return token < 0 ? NOT_FOUND : tokenRanks[token];
+    }
+
+    /**
+     * Whether bytes[offset, offset + length) is a single token; hash is {@link #hash} of the same range
+     */
+    boolean contains(byte[] bytes, int offset, int length, int hash) {
+        return length <= maxTokenLength && find(bytes, offset, length, hash) >= 0;
+    }
+
+    private int find(byte[] bytes, int offset, int length, int hash) {
+        if (length > maxTokenLength) {
+            return NOT_FOUND;
+        }
+        int slot = hash & mask;
+        long entry;
+        while ((entry = slots[slot]) != 0) {
+            if ((int) (entry >>> 32) == hash) {
+                int token = (int) entry - 1;
+                int tokenOffset = tokenOffsets[token];
+                if (tokenOffsets[token + 1] - tokenOffset == length
+                        && Arrays.equals(tokenBytes, tokenOffset, tokenOffset + length,
+                        bytes, offset, offset + length)) {
+                    return token;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    int size() {
+        return tokenRanks.length;
+    }
+
+    private static BpeVocabulary parse(MappedByteBuffer buffer) throws IOException {
+        int limit = buffer.limit();
+        int lines = 0;
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                lines++;
+            }
+        }
+        if (limit > 0 && buffer.get(limit - 1) != '\n') {
+            lines++;
+        }
+
+        // Base64 decodes to at most 3/4 of its length
+        byte[] bytes = new byte[limit * 3 / 4 + 4];
+        int[] offsets = new int[lines + 1];
+        int[] ranks = new int[lines];
+        int count = 0;
+        int written = 0;
+        int position = 0;
+
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int separator = position;
+            while (separator < lineEnd && buffer.get(separator) != ' ') {
+                separator++;
+            }
+            if (separator < lineEnd) {
+                offsets[count] = written;
+                written = decodeBase64(buffer, position, separator, bytes, written);
+                ranks[count] = parseRank(buffer, separator + 1, lineEnd);
+                count++;
+            }
+            position = lineEnd + 1;
+        }
+        offsets[count] = written;
+
+        return new BpeVocabulary(bytes,
+                Arrays.copyOf(offsets, count + 1),
+                Arrays.copyOf(ranks, count),
+                count);
+    }
+
+    private static int decodeBase64(MappedByteBuffer in, int from, int to, byte[] out, int position)
+            throws IOException {
+        int accumulator = 0;
+        int bits = 0;
+        for (int i = from; i < to; i++) {
+            byte b = in.get(i);
+            if (b == '=') {
+                break;
+            }
+            int value = b >= 0 ? BASE64[b] : -1;
+            if (value < 0) {
+                throw new IOException("Invalid base64 in vocabulary at byte " + i);
+            }
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                out[position++] = (byte) (accumulator >> bits);
+            }
+        }
+        return position;
+    }
+
+    private static int parseRank(MappedByteBuffer in, int from, int to) throws IOException {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = in.get(i);
+            if (b == '\r') {
+                break;
+            }
+            if (b < '0' || b > '9') {
+                throw new IOException("Invalid rank in vocabulary at byte " + i);
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static long slot(int hash, int token) {
+        return ((long) hash << 32) | ((token + 1) & 0xFFFFFFFFL);
+    }
+
+    private static int pairIndex(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    static int hash(byte[] bytes, int offset, int length) {
+        int h = 0x811C9DC5 ^ length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h = (h ^ bytes[i]) * 0x01000193;
+        }
+        return h ^ (h >>> 15);
+    }
+}
@@ -0,0 +1,35 @@
+package com.magacho.aiToSql.tokenizer;
+
+/**
+ * Heuristic counter: 1 token ≈ 4 characters, rounded up.
+ * Used when no vocabulary is configured or one fails to load.
+ */
+public final class CharacterRatioTokenCounter implements TokenCounter {
+
+    public static final CharacterRatioTokenCounter INSTANCE = new CharacterRatioTokenCounter();
+
+    public static final String METHOD = "character_count_div_4";
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    private CharacterRatioTokenCounter() {
+    }
+
+    @Override
+    public int count(CharSequence text) {
+        if (text == null) {
+            return 0;
+        }
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    @Override
+    public String method() {
+        return METHOD;
+    }
+
+    @Override
+    public boolean exact() {
+        return false;
+    }
+}
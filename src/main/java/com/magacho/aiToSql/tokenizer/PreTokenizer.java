@@ -0,0 +1,344 @@
+package com.magacho.aiToSql.tokenizer;
+
+/**
+ * Splits text into the pieces BPE is applied to, reproducing the split
+ * regexes of the tiktoken encodings without a regex engine: each call scans
+ * one piece from a start index and returns where it ends.
+ *
+ * Character classes follow the regexes' Unicode semantics (\p{L}, \p{N},
+ * \p{M}, and \s as the White_Space property), so non-English text splits
+ * the way the reference tokenizer splits it.
+ */
+enum PreTokenizer {
+
+    /**
+     * (?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\r\n\p{L}\p{N}]?\p{L}+|\p{N}{1,3}
+     * | ?[^\s\p{L}\p{N}]+[\r\n]*|\s*[\r\n]+|\s+(?!\S)|\s+
+     */
+    CL100K {
+        @Override
+        int next(char[] text, int start, int end) {
+            char first = text[start];
+            if (first == '\'') {
+                int contraction = contraction(text, start + 1, end);
+                if (contraction > 0) {
+                    return start + 1 + contraction;
+                }
+            }
+
+            int type = typeAt(text, start, end);
+            if (isLetter(type)) {
+                return skipLetters(text, start, end);
+            }
+            if (isPrefix(type)) {
+                int next = start + width(text, start, end);
+                if (next < end && isLetter(typeAt(text, next, end))) {
+                    return skipLetters(text, next, end);
+                }
+            }
+            if (type == NUMBER) {
+                return skipNumbers(text, start, end);
+            }
+            int punctuation = punctuation(text, start, end, false);
+            if (punctuation > 0) {
+                return punctuation;
+            }
+            return whitespace(text, start, end);
+        }
+    },
+
+    /**
+     * [^\r\n\p{L}\p{N}]?[\p{Lu}\p{Lt}\p{Lm}\p{Lo}\p{M}]*[\p{Ll}\p{Lm}\p{Lo}\p{M}]+(?i:'s|'t|'re|'ve|'m|'ll|'d)?
+     * |[^\r\n\p{L}\p{N}]?[\p{Lu}\p{Lt}\p{Lm}\p{Lo}\p{M}]+[\p{Ll}\p{Lm}\p{Lo}\p{M}]*(?i:'s|'t|'re|'ve|'m|'ll|'d)?
+     * |\p{N}{1,3}| ?[^\s\p{L}\p{N}]+[\r\n/]*|\s*[\r\n]+|\s+(?!\S)|\s+
+     */
+    O200K {
+        @Override
+        int next(char[] text, int start, int end) {
+            int type = typeAt(text, start, end);
+            if (isLetter(type)) {
+                int word = lowerWord(text, start, end);
+                return word > 0 ? word : upperWord(text, start, end);
+            }
+            if (isPrefix(type)) {
+                int next = start + width(text, start, end);
+                int word = next < end ? lowerWord(text, next, end) : -1;
+                if (word < 0 && type == MARK) {
+                    word = lowerWord(text, start, end);
+                }
+                if (word < 0 && next < end) {
+                    word = upperWord(text, next, end);
+                }
+                if (word > 0) {
+                    return word;
+                }
+            }
+            if (type == NUMBER) {
+                return skipNumbers(text, start, end);
+            }
+            int punctuation = punctuation(text, start, end, true);
+            if (punctuation > 0) {
+                return punctuation;
+            }
+            return whitespace(text, start, end);
+        }
+
+        /**
+         * [\p{Lu}\p{Lt}\p{Lm}\p{Lo}\p{M}]*[\p{Ll}\p{Lm}\p{Lo}\p{M}]+ plus an optional contraction,
+         * resolving the greedy/backtracking choice directly; -1 when it does not match
+         */
+        private int lowerWord(char[] text, int start, int end) {
+            int position = start;
+            int lastShared = -1;
+            while (position < end) {
+                int type = typeAt(text, position, end);
+                if (type != UPPER && type != OTHER_LETTER && type != MARK) {
+                    break;
+                }
+                if (type != UPPER) {
+                    lastShared = position;
+                }
+                position += width(text, position, end);
+            }
+            if (position < end && typeAt(text, position, end) == LOWER) {
+                while (position < end && isLowerClass(typeAt(text, position, end))) {
+                    position += width(text, position, end);
+                }
+                return withContraction(text, position, end);
+            }
+            if (lastShared >= 0) {
+                return withContraction(text, lastShared + width(text, lastShared, end), end);
+            }
+            return -1;
+        }
+
+        /**
+         * [\p{Lu}\p{Lt}\p{Lm}\p{Lo}\p{M}]+[\p{Ll}\p{Lm}\p{Lo}\p{M}]* plus an optional contraction; -1 when it does not match
+         */
+        private int upperWord(char[] text, int start, int end) {
+            int position = start;
+            while (position < end) {
+                int type = typeAt(text, position, end);
+                if (type != UPPER && type != OTHER_LETTER && type != MARK) {
+                    break;
+                }
+                position += width(text, position, end);
+            }
+            if (position == start) {
+                return -1;
+            }
+            while (position < end && isLowerClass(typeAt(text, position, end))) {
+                position += width(text, position, end);
+            }
+            return withContraction(text, position, end);
+        }
+    };
+
+    /** Lu, Lt */
+    static final int UPPER = 1;
+    /** Ll */
+    static final int LOWER = 2;
+    /** Lm, Lo */
+    static final int OTHER_LETTER = 3;
+    /** Mn, Mc, Me */
+    static final int MARK = 4;
+    /** Nd, Nl, No */
+    static final int NUMBER = 5;
+    /** \r, \n */
+    static final int NEWLINE = 6;
+    /** Any other White_Space character */
+    static final int SPACE = 7;
+    static final int OTHER = 8;
+
+    private static final byte[] ASCII_TYPES = new byte[128];
+
+    static {
+        for (int c = 0; c < 128; c++) {
+            int type;
+            if (c >= 'a' && c <= 'z') {
+                type = LOWER;
+            } else if (c >= 'A' && c <= 'Z') {
+                type = UPPER;
+            } else if (c >= '0' && c <= '9') {
+                type = NUMBER;
+            } else if (c == '\r' || c == '\n') {
+                type = NEWLINE;
+            } else if (c == ' ' || c == '\t' || c == 0x0B || c == '\f') {
+                type = SPACE;
+            } else {
+                type = OTHER;
+            }
+            ASCII_TYPES[c] = (byte) type;
+        }
+    }
+
+    /**
+     * End index (exclusive) of the piece starting at start; start &lt; end
+     */
+    abstract int next(char[] text, int start, int end);
+
+    static int typeAt(char[] text, int index, int end) {
+        char c = text[index];
+        if (c < 128) {
+            return ASCII_TYPES[c];
+        }
+        return typeOf(Character.isHighSurrogate(c) ? Character.codePointAt(text, index, end) : c);
+    }
+
+    static int typeOf(int codePoint) {
+        switch (Character.getType(codePoint)) {
+            case Character.UPPERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+                return UPPER;
+            case Character.LOWERCASE_LETTER:
+                return LOWER;
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+                return OTHER_LETTER;
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+                return MARK;
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.LETTER_NUMBER:
+            case Character.OTHER_NUMBER:
+                return NUMBER;
+            default:
+                return isWhiteSpace(codePoint) ? SPACE : OTHER;
+        }
+    }
+
+    /**
+     * Unicode White_Space property (what \s matches in the reference regexes)
+     */
+    private static boolean isWhiteSpace(int codePoint) {
+        return codePoint == 0x85 || codePoint == 0xA0 || codePoint == 0x1680
+                || (codePoint >= 0x2000 && codePoint <= 0x200A)
+                || codePoint == 0x2028 || codePoint == 0x2029 || codePoint == 0x202F
+                || codePoint == 0x205F || codePoint == 0x3000;
+    }
+
+    private static int width(char[] text, int index, int end) {
+        char c = text[index];
+        return Character.isHighSurrogate(c) && index + 1 < end
+                && Character.isLowSurrogate(text[index + 1]) ? 2 : 1;
+    }
+
+    private static boolean isLetter(int type) {
+        return type == UPPER || type == LOWER || type == OTHER_LETTER;
+    }
+
+    private static boolean isLowerClass(int type) {
+        return type == LOWER || type == OTHER_LETTER || type == MARK;
+    }
+
+    /** [^\r\n\p{L}\p{N}] */
+    private static boolean isPrefix(int type) {
+        return type == SPACE || type == OTHER || type == MARK;
+    }
+
+    /** [^\s\p{L}\p{N}] */
+    private static boolean isPunctuation(int type) {
+        return type == OTHER || type == MARK;
+    }
+
+    private static boolean isWhitespace(int type) {
+        return type == SPACE || type == NEWLINE;
+    }
+
+    private static int skipLetters(char[] text, int position, int end) {
+        while (position < end && isLetter(typeAt(text, position, end))) {
+            position += width(text, position, end);
+        }
+        return position;
+    }
+
+    /** \p{N}{1,3} */
+    private static int skipNumbers(char[] text, int position, int end) {
+        for (int digits = 0; digits < 3 && position < end && typeAt(text, position, end) == NUMBER; digits++) {
+            position += width(text, position, end);
+        }
+        return position;
+    }
+
+    /**
+     * " ?[^\s\p{L}\p{N}]+[\r\n]*" (with '/' in the trailing class for o200k); -1 when it does not match
+     */
+    private static int punctuation(char[] text, int start, int end, boolean slashTrails) {
+        int position = start;
+        if (text[position] == ' ' && position + 1 < end && isPunctuation(typeAt(text, position + 1, end))) {
+            position++;
+        }
+        if (!isPunctuation(typeAt(text, position, end))) {
+            return -1;
+        }
+        while (position < end && isPunctuation(typeAt(text, position, end))) {
+            position += width(text, position, end);
+        }
+        while (position < end) {
+            char c = text[position];
+            if (c != '\r' && c != '\n' && !(slashTrails && c == '/')) {
+                break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * \s*[\r\n]+ | \s+(?!\S) | \s+ for a piece starting with whitespace
+     */
+    private static int whitespace(char[] text, int start, int end) {
+        int position = start;
+        int lastNewline = -1;
+        while (position < end) {
+            int type = typeAt(text, position, end);
+            if (!isWhitespace(type)) {
+                break;
+            }
+            if (type == NEWLINE) {
+                lastNewline = position;
+            }
+            position++;
+        }
+        if (lastNewline >= 0) {
+            return lastNewline + 1;
+        }
+        if (position == end || position - start < 2) {
+            return Math.max(position, start + 1);
+        }
+        // Leave the last space to prefix the word that follows
+        return position - 1;
+    }
+
+    private static int withContraction(char[] text, int position, int end) {
+        if (position < end && text[position] == '\'') {
+            int contraction = contraction(text, position + 1, end);
+            if (contraction > 0) {
+                return position + 1 + contraction;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Length of (?i:s|t|re|ve|m|ll|d) at position, else 0
+     */
+    private static int contraction(char[] text, int position, int end) {
+        if (position >= end) {
+            return 0;
+        }
+        char c = Character.toLowerCase(text[position]);
+        if (c == 's' || c == 't' || c == 'm' || c == 'd' || c == 'ſ') {
+            return 1;
+        }
+        if (position + 1 >= end) {
+            return 0;
+        }
+        char d = Character.toLowerCase(text[position + 1]);
+        if ((c == 'r' && d == 'e') || (c == 'v' && d == 'e') || (c == 'l' && d == 'l')) {
+            return 2;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.magacho.aiToSql.tokenizer;
+
+/**
+ * Counts the tokens a text costs under one tokenizer.
+ * Implementations are thread-safe and may be shared.
+ */
+public interface TokenCounter {
+
+    /**
+     * Number of tokens in text (0 for null or empty)
+     */
+    int count(CharSequence text);
+
+    /**
+     * Method reported in response metadata, e.g. "bpe_cl100k_base"
+     */
+    String method();
+
+    /**
+     * Whether counts are exact for the encoding (false for heuristics)
+     */
+    boolean exact();
+}
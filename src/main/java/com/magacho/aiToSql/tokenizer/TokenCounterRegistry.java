@@ -0,0 +1,107 @@
+package com.magacho.aiToSql.tokenizer;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.pricing.PricingRegistry;
+import com.magacho.aiToSql.transport.McpCallContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the token counter for a model (mcp.tokenizer.*, mcp.default-model).
+ *
+ * Vocabularies are loaded on first use and shared; the configured model's
+ * encoding is loaded in the background once the application is ready so the
+ * first tool call does not pay for it. An encoding that cannot be loaded
+ * falls back to the character heuristic rather than failing tool calls.
+ *
+ * Within a tool call, budgets and the reported count use the counter of the
+ * model the call is billed against ({@link #forCurrentCall()}), so a budget
+ * is enforced in the same tokens meta.tokens reports.
+ */
+@Component
+public class TokenCounterRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenCounterRegistry.class);
+
+    public static final String CL100K_BASE = "cl100k_base";
+    public static final String O200K_BASE = "o200k_base";
+    public static final String CHARS = "chars";
+
+    private final McpServerConfig.Tokenizer settings;
+    private final String defaultModel;
+    private final PricingRegistry pricing;
+    private final Map<String, TokenCounter> counters = new ConcurrentHashMap<>();
+
+    public TokenCounterRegistry(McpServerConfig config, PricingRegistry pricing) {
+        this.settings = config.getTokenizer();
+        this.defaultModel = config.getDefaultModel();
+        this.pricing = pricing;
+    }
+
+    /**
+     * Counter for the default model
+     */
+    public TokenCounter defaultCounter() {
+        return forModel(defaultModel);
+    }
+
+    /**
+     * Counter for the model the current call's session is billed against
+     * (the default model outside a call or when the session's is not priced)
+     */
+    public TokenCounter forCurrentCall() {
+        return forModel(pricing.resolveModel(McpCallContext.current().session().model()));
+    }
+
+    /**
+     * Counter for a model, using the default encoding when the model has no mapping
+     */
+    public TokenCounter forModel(String model) {
+        String encoding = model != null ? settings.getModelEncodings().get(model) : null;
+        return forEncoding(encoding != null ? encoding : settings.getDefaultEncoding());
+    }
+
+    /**
+     * Counter for an encoding name (cl100k_base, o200k_base or chars)
+     */
+    public TokenCounter forEncoding(String encoding) {
+        return counters.computeIfAbsent(encoding, this::create);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread loader = new Thread(this::defaultCounter, "mcp-tokenizer-warmup");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private TokenCounter create(String encoding) {
+        PreTokenizer preTokenizer = switch (encoding) {
+            case CL100K_BASE -> PreTokenizer.CL100K;
+            case O200K_BASE -> PreTokenizer.O200K;
+            case CHARS -> null;
+            default -> throw new IllegalArgumentException("Unknown token encoding: " + encoding
+                    + " (supported: " + CL100K_BASE + ", " + O200K_BASE + ", " + CHARS + ")");
+        };
+        if (preTokenizer == null) {
+            return CharacterRatioTokenCounter.INSTANCE;
+        }
+
+        long start = System.nanoTime();
+        try {
+            BpeTokenCounter counter = BpeTokenCounter.load(encoding, preTokenizer);
+            log.info("Loaded {} vocabulary in {} ms", encoding, (System.nanoTime() - start) / 1_000_000);
+            return counter;
+        } catch (IOException e) {
+            log.warn("Could not load {} vocabulary, counting tokens by characters: {}", encoding, e.getMessage());
+            return CharacterRatioTokenCounter.INSTANCE;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.magacho.aiToSql.tools;
 
+import com.magacho.aiToSql.config.McpServerConfig;
 import com.magacho.aiToSql.dto.QueryResult;
 import com.magacho.aiToSql.dto.SchemaStructure;
 import com.magacho.aiToSql.dto.TableDetails;
 import com.magacho.aiToSql.dto.TriggerList;
+import com.magacho.aiToSql.service.McpMetrics;
+import com.magacho.aiToSql.service.QueryCostExceededException;
 import com.magacho.aiToSql.service.SchemaIntrospectionService;
 import com.magacho.aiToSql.service.SecureQueryService;
+import com.magacho.aiToSql.service.ServerBusyException;
 import com.magacho.aiToSql.service.TableDetailsService;
 import com.magacho.aiToSql.service.TriggerService;
 import org.slf4j.Logger;
@@ -13,37 +17,59 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * MCP Tools Registry
- * Implements the MCP protocol tools for database introspection and querying
+ * Implements the MCP protocol tools for database introspection and querying.
+ * Every tool honours a maxResponseTokens budget (argument, else mcp.max-response-tokens):
+ * query rows are budgeted while they are read, and every response is fitted by {@link ResponseShaper}.
  */
 @Component
 public class McpToolsRegistry {
 
     private static final Logger log = LoggerFactory.getLogger(McpToolsRegistry.class);
 
+    private static final Set<String> TOOL_NAMES = Set.of(
+            "getSchemaStructure", "getTableDetails", "listTriggers", "secureDatabaseQuery");
+
     private final SchemaIntrospectionService schemaService;
     private final TableDetailsService tableDetailsService;
     private final TriggerService triggerService;
     private final SecureQueryService queryService;
+    private final ResponseShaper responseShaper;
+    private final McpServerConfig config;
+    private final McpMetrics meters;
 
     public McpToolsRegistry(
             SchemaIntrospectionService schemaService,
             TableDetailsService tableDetailsService,
             TriggerService triggerService,
-            SecureQueryService queryService) {
+            SecureQueryService queryService,
+            ResponseShaper responseShaper,
+            McpServerConfig config,
+            McpMetrics meters) {
         this.schemaService = schemaService;
         this.tableDetailsService = tableDetailsService;
         this.triggerService = triggerService;
         this.queryService = queryService;
+        this.responseShaper = responseShaper;
+        this.config = config;
+        this.meters = meters;
+    }
+
+    /**
+     * Whether a tool with this name exists
+     */
+    public boolean hasTool(String toolName) {
+        return toolName != null && TOOL_NAMES.contains(toolName);
     }
 
     /**
      * Execute MCP tool by name
      */
     public Object executeTool(String toolName, Map<String, Object> params) {
-        log.info("Executing MCP tool: {} with params: {}", toolName, params);
+        log.debug("Executing MCP tool: {} with params: {}", toolName, params);
 
         try {
             return switch (toolName) {
@@ -53,7 +79,12 @@ public class McpToolsRegistry {
                 case "secureDatabaseQuery" -> executeSecureDatabaseQuery(params);
                 default -> throw new IllegalArgumentException("Unknown tool: " + toolName);
             };
+        } catch (QueryCostExceededException | ServerBusyException e) {
+            throw e;
         } catch (Exception e) {
+            if (e instanceof IllegalArgumentException) {
+                meters.recordRejection("invalid_params");
+            }
             log.error("Error executing tool {}: {}", toolName, e.getMessage(), e);
             throw new RuntimeException("Tool execution failed: " + e.getMessage(), e);
         }
@@ -61,7 +92,9 @@ public class McpToolsRegistry {
 
     private SchemaStructure executeGetSchemaStructure(Map<String, Object> params) throws Exception {
         String databaseName = (String) params.getOrDefault("databaseName", "default");
-        return schemaService.getSchemaStructure(databaseName);
+        Integer offset = integerParam(params, "offset");
+        return responseShaper.shape(schemaService.getSchemaStructure(databaseName),
+                offset != null ? offset : 0, maxResponseTokens(params));
     }
 
     private TableDetails executeGetTableDetails(Map<String, Object> params) throws Exception {
@@ -69,7 +102,7 @@ public class McpToolsRegistry {
         if (tableName == null || tableName.isBlank()) {
             throw new IllegalArgumentException("tableName parameter is required");
         }
-        return tableDetailsService.getTableDetails(tableName);
+        return responseShaper.shape(tableDetailsService.getTableDetails(tableName), maxResponseTokens(params));
     }
 
     private TriggerList executeListTriggers(Map<String, Object> params) throws Exception {
@@ -77,7 +110,7 @@ public class McpToolsRegistry {
         if (tableName == null || tableName.isBlank()) {
             throw new IllegalArgumentException("tableName parameter is required");
         }
-        return triggerService.listTriggers(tableName);
+        return responseShaper.shape(triggerService.listTriggers(tableName), maxResponseTokens(params));
     }
 
     private QueryResult executeSecureDatabaseQuery(Map<String, Object> params) {
@@ -86,43 +119,92 @@ public class McpToolsRegistry {
             throw new IllegalArgumentException("queryDescription parameter is required");
         }
 
-        Integer maxRows = null;
-        Object maxRowsParam = params.get("maxRows");
-        if (maxRowsParam != null) {
-            maxRows = maxRowsParam instanceof Integer 
-                    ? (Integer) maxRowsParam 
-                    : Integer.parseInt(maxRowsParam.toString());
+        Integer maxRows = integerParam(params, "maxRows");
+        Integer maxTokens = integerParam(params, "maxTokens");
+        QueryResult.Format format = QueryResult.Format.from((String) params.get("format"));
+        Boolean approximate = booleanParam(params, "approximate");
+
+        int maxResponseTokens = maxResponseTokens(params);
+
+        QueryResult result = queryService.executeSecureQuery(queryDescription,
+                new SecureQueryService.QueryOptions(maxRows, maxTokens, format, approximate,
+                        maxResponseTokens > 0 ? maxResponseTokens : null));
+        return responseShaper.shape(result, maxResponseTokens);
+    }
+
+    /**
+     * Response token budget of a call: the maxResponseTokens argument, else the server default (0 = unlimited)
+     */
+    private int maxResponseTokens(Map<String, Object> params) {
+        Integer maxResponseTokens = integerParam(params, "maxResponseTokens");
+        if (maxResponseTokens != null && maxResponseTokens < 0) {
+            throw new IllegalArgumentException("maxResponseTokens must not be negative");
+        }
+        return maxResponseTokens != null ? maxResponseTokens : config.getMaxResponseTokens();
+    }
+
+    private Boolean booleanParam(Map<String, Object> params, String name) {
+        Object value = params.get(name);
+        if (value == null) {
+            return null;
         }
+        return value instanceof Boolean
+                ? (Boolean) value
+                : Boolean.parseBoolean(value.toString());
+    }
 
-        return queryService.secureDatabaseQuery(queryDescription, maxRows);
+    private Integer integerParam(Map<String, Object> params, String name) {
+        Object value = params.get(name);
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Integer
+                ? (Integer) value
+                : Integer.parseInt(value.toString());
     }
 
     /**
      * Get tool definitions for MCP protocol
      */
     public Map<String, ToolDefinition> getToolDefinitions() {
+        ParameterDefinition maxResponseTokens = new ParameterDefinition("integer",
+                "Token budget for the whole response; detail is dropped (and the elision reported in meta) to fit", false);
         return Map.of(
                 "getSchemaStructure", new ToolDefinition(
                         "getSchemaStructure",
                         "Get complete database schema structure with all tables and columns",
-                        Map.of("databaseName", new ParameterDefinition("string", "Database name", false))
+                        Map.of(
+                                "databaseName", new ParameterDefinition("string", "Database name", false),
+                                "offset", new ParameterDefinition("integer", "Index of the first table to return; pass the previous response's elision.nextOffset to page through a large schema", false),
+                                "maxResponseTokens", maxResponseTokens
+                        )
                 ),
                 "getTableDetails", new ToolDefinition(
                         "getTableDetails",
                         "Get detailed information about a specific table including indexes, foreign keys, and constraints",
-                        Map.of("tableName", new ParameterDefinition("string", "Table name", true))
+                        Map.of(
+                                "tableName", new ParameterDefinition("string", "Table name", true),
+                                "maxResponseTokens", maxResponseTokens
+                        )
                 ),
                 "listTriggers", new ToolDefinition(
                         "listTriggers",
                         "List all triggers defined for a specific table",
-                        Map.of("tableName", new ParameterDefinition("string", "Table name", true))
+                        Map.of(
+                                "tableName", new ParameterDefinition("string", "Table name", true),
+                                "maxResponseTokens", maxResponseTokens
+                        )
                 ),
                 "secureDatabaseQuery", new ToolDefinition(
                         "secureDatabaseQuery",
                         "Execute a secure SELECT query on the database. Only SELECT statements are allowed.",
                         Map.of(
                                 "queryDescription", new ParameterDefinition("string", "SQL SELECT query or natural language description", true),
-                                "maxRows", new ParameterDefinition("integer", "Maximum number of rows to return", false)
+                                "maxRows", new ParameterDefinition("integer", "Maximum number of rows to return", false),
+                                "maxTokens", new ParameterDefinition("integer", "Token budget for returned rows; when exceeded, remaining rows are summarized as per-column statistics", false),
+                                "format", new ParameterDefinition("string", "Row format: 'verbose' (object per row) or 'compact' (column list once, array per row)", false),
+                                "approximate", new ParameterDefinition("boolean", "Answer exploratory aggregates from a random sample of large tables; COUNT/SUM are scaled and an error bound is returned", false),
+                                "maxResponseTokens", maxResponseTokens
                         )
                 )
         );
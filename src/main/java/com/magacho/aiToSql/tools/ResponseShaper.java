@@ -0,0 +1,341 @@
+package com.magacho.aiToSql.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.magacho.aiToSql.dto.Elision;
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.dto.SchemaStructure;
+import com.magacho.aiToSql.dto.TableDetails;
+import com.magacho.aiToSql.dto.TriggerList;
+import com.magacho.aiToSql.tokenizer.TokenCounter;
+import com.magacho.aiToSql.tokenizer.TokenCounterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fits tool responses into a token budget (maxResponseTokens).
+ *
+ * Each candidate shape is serialized the way the response text is (pretty
+ * printed JSON) into a writer that counts tokens line by line and gives up as
+ * soon as the budget is exceeded, so an oversized shape costs at most about
+ * one budget of serialization before the next, smaller shape is tried.
+ * Shapes go from full detail down to one item at a time; the returned DTO
+ * carries an {@link Elision} describing what was left out.
+ *
+ * Query rows are already budgeted while they are read (RowSetExtractor);
+ * here they only get a final check, since column summaries are sized after
+ * the fact.
+ */
+@Component
+public class ResponseShaper {
+
+    private static final ObjectWriter WRITER = new ObjectMapper().writerWithDefaultPrettyPrinter();
+
+    /** Tokens charged per list item for its separator when items are measured one by one */
+    private static final int SEPARATOR_TOKENS = 1;
+
+    private final TokenCounterRegistry tokenCounters;
+
+    public ResponseShaper(TokenCounterRegistry tokenCounters) {
+        this.tokenCounters = tokenCounters;
+    }
+
+    /**
+     * Tables from offset on: full detail if it fits, else column names only,
+     * else as many name-only tables as fit (at least one) with a nextOffset
+     *
+     * @param maxTokens Token budget (0 = unlimited)
+     */
+    public SchemaStructure shape(SchemaStructure schema, int offset, int maxTokens) {
+        List<SchemaStructure.TableInfo> tables = schema.tables();
+        int from = Math.min(Math.max(offset, 0), tables.size());
+        List<SchemaStructure.TableInfo> page = tables.subList(from, tables.size());
+        SchemaStructure full = from == 0 ? schema : withTables(schema, page, null);
+        if (maxTokens <= 0 || fits(full, maxTokens)) {
+            return full;
+        }
+
+        List<SchemaStructure.TableInfo> namesOnly = page.stream().map(SchemaStructure.TableInfo::namesOnly).toList();
+        SchemaStructure allNames = withTables(schema, namesOnly,
+                new Elision(maxTokens, Elision.NAMES_ONLY, List.of("tables.columns"), page.size(), page.size(), null));
+        if (fits(allNames, maxTokens)) {
+            return allNames;
+        }
+
+        // Reserve the envelope with the widest elision it can carry, then add tables while they fit
+        Elision widest = new Elision(maxTokens, Elision.NAMES_ONLY, List.of("tables.columns"),
+                page.size(), tables.size(), tables.size());
+        int remaining = remainingAfter(withTables(schema, List.of(), widest), maxTokens);
+        List<SchemaStructure.TableInfo> kept = new ArrayList<>();
+        for (SchemaStructure.TableInfo table : namesOnly) {
+            int cost = measure(table, remaining - SEPARATOR_TOKENS);
+            if (cost < 0 && !kept.isEmpty()) {
+                break;
+            }
+            kept.add(table);
+            remaining -= Math.max(cost, 0) + SEPARATOR_TOKENS;
+        }
+        int next = from + kept.size();
+        return withTables(schema, kept, new Elision(maxTokens, Elision.NAMES_ONLY, List.of("tables.columns"),
+                kept.size(), tables.size(), next < tables.size() ? next : null));
+    }
+
+    /**
+     * Drops column defaults, then indexes and constraints, then foreign keys,
+     * then trailing columns until the details fit
+     *
+     * @param maxTokens Token budget (0 = unlimited)
+     */
+    public TableDetails shape(TableDetails details, int maxTokens) {
+        if (maxTokens <= 0 || fits(details, maxTokens)) {
+            return details;
+        }
+        List<TableDetails.ColumnDetail> columns = details.columns().stream()
+                .map(TableDetails.ColumnDetail::withoutDefault)
+                .toList();
+        int columnCount = columns.size();
+
+        List<String> omitted = new ArrayList<>(List.of("columns.defaultValue"));
+        TableDetails candidate = new TableDetails(details.tableName(), details.tableType(), columns,
+                details.indexes(), details.foreignKeys(), details.constraints(),
+                new Elision(maxTokens, Elision.NO_DEFAULTS, List.copyOf(omitted), columnCount, columnCount, null));
+        if (fits(candidate, maxTokens)) {
+            return candidate;
+        }
+
+        omitted.add("indexes");
+        omitted.add("constraints");
+        candidate = new TableDetails(details.tableName(), details.tableType(), columns,
+                null, details.foreignKeys(), null,
+                new Elision(maxTokens, Elision.NO_INDEXES, List.copyOf(omitted), columnCount, columnCount, null));
+        if (fits(candidate, maxTokens)) {
+            return candidate;
+        }
+
+        omitted.add("foreignKeys");
+        candidate = new TableDetails(details.tableName(), details.tableType(), columns, null, null, null,
+                new Elision(maxTokens, Elision.COLUMNS_ONLY, List.copyOf(omitted), columnCount, columnCount, null));
+        if (fits(candidate, maxTokens)) {
+            return candidate;
+        }
+
+        omitted.add("columns");
+        Elision elision = new Elision(maxTokens, Elision.COLUMNS_ONLY, List.copyOf(omitted),
+                columnCount, columnCount, null);
+        List<TableDetails.ColumnDetail> kept = fitItems(columns, remainingAfter(
+                new TableDetails(details.tableName(), details.tableType(), List.of(), null, null, null, elision),
+                maxTokens));
+        return new TableDetails(details.tableName(), details.tableType(), kept, null, null, null,
+                new Elision(maxTokens, Elision.COLUMNS_ONLY, List.copyOf(omitted), kept.size(), columnCount, null));
+    }
+
+    /**
+     * Drops trigger bodies, then trailing triggers until the list fits
+     *
+     * @param maxTokens Token budget (0 = unlimited)
+     */
+    public TriggerList shape(TriggerList triggerList, int maxTokens) {
+        if (maxTokens <= 0 || fits(triggerList, maxTokens)) {
+            return triggerList;
+        }
+        List<TriggerList.TriggerInfo> triggers = triggerList.triggers().stream()
+                .map(TriggerList.TriggerInfo::withoutStatement)
+                .toList();
+        int total = triggers.size();
+
+        TriggerList candidate = new TriggerList(triggerList.tableName(), triggers,
+                new Elision(maxTokens, Elision.NO_STATEMENTS, List.of("triggers.statement"), total, total, null));
+        if (fits(candidate, maxTokens)) {
+            return candidate;
+        }
+
+        List<String> omitted = List.of("triggers.statement", "triggers");
+        Elision elision = new Elision(maxTokens, Elision.NO_STATEMENTS, omitted, total, total, null);
+        List<TriggerList.TriggerInfo> kept = fitItems(triggers, remainingAfter(
+                new TriggerList(triggerList.tableName(), List.of(), elision), maxTokens));
+        return new TriggerList(triggerList.tableName(), kept,
+                new Elision(maxTokens, Elision.NO_STATEMENTS, omitted, kept.size(), total, null));
+    }
+
+    /**
+     * Checks a query result against the budget, dropping column summaries and
+     * then trailing rows when the read-time estimate was short
+     *
+     * @param maxTokens Token budget (0 = unlimited)
+     */
+    public QueryResult shape(QueryResult result, int maxTokens) {
+        if (maxTokens <= 0 || fits(result, maxTokens)) {
+            return result;
+        }
+        QueryResult.Truncation truncation = result.truncation();
+        int scannedRows = truncation != null ? truncation.scannedRows() : result.rowCount();
+        QueryResult.Truncation budgetTruncation = new QueryResult.Truncation(
+                QueryResult.Truncation.TOKEN_BUDGET, scannedRows, maxTokens, null);
+        if (truncation != null && truncation.columnSummaries() != null) {
+            QueryResult withoutSummaries = withRows(result, result.rows(), budgetTruncation);
+            if (fits(withoutSummaries, maxTokens)) {
+                return withoutSummaries;
+            }
+        }
+
+        // Largest row prefix that fits; every probe stops at the budget
+        List<Object[]> rows = result.rows();
+        int low = 0;
+        int high = rows.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (fits(withRows(result, rows.subList(0, middle), budgetTruncation), maxTokens)) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return withRows(result, List.copyOf(rows.subList(0, low)), budgetTruncation);
+    }
+
+    private static QueryResult withRows(QueryResult result, List<Object[]> rows, QueryResult.Truncation truncation) {
+        return new QueryResult(result.query(), rows.size(), result.maxRowsReached(), result.columns(), rows,
+                result.format(), truncation, result.costEstimate(), result.approximation());
+    }
+
+    /**
+     * Leading items that fit the remaining budget, each measured on its own
+     */
+    private <T> List<T> fitItems(List<T> items, int remaining) {
+        List<T> kept = new ArrayList<>();
+        for (T item : items) {
+            int cost = measure(item, remaining - SEPARATOR_TOKENS);
+            if (cost < 0) {
+                break;
+            }
+            kept.add(item);
+            remaining -= cost + SEPARATOR_TOKENS;
+        }
+        return kept;
+    }
+
+    private static SchemaStructure withTables(SchemaStructure schema, List<SchemaStructure.TableInfo> tables,
+                                              Elision elision) {
+        return new SchemaStructure(schema.databaseName(), schema.databaseType(), tables, elision);
+    }
+
+    /**
+     * Budget left once the item-less envelope is paid for
+     */
+    private int remainingAfter(Object envelope, int maxTokens) {
+        int cost = measure(envelope, maxTokens);
+        return cost < 0 ? 0 : maxTokens - cost;
+    }
+
+    private boolean fits(Object value, int maxTokens) {
+        return measure(value, maxTokens) >= 0;
+    }
+
+    /**
+     * Tokens of value's response text, or -1 as soon as it exceeds limit
+     */
+    int measure(Object value, int limit) {
+        if (limit < 0) {
+            return -1;
+        }
+        TokenCountingWriter writer = new TokenCountingWriter(tokenCounters.forCurrentCall(), limit);
+        try {
+            WRITER.writeValue(writer, value);
+            return writer.finish();
+        } catch (IOException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof BudgetExceededException) {
+                    return -1;
+                }
+            }
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Counts tokens of complete lines as they are written. Chunks are cut
+     * right after a line break whose next character is already written and
+     * cannot extend it: the split regexes of both BPE encodings end a piece
+     * at the last line break of a run (\s*[\r\n]+, and punctuation's
+     * trailing [\r\n]* or, in o200k, [\r\n/]*), so the sum over chunks
+     * equals the count of the whole text. The indentation that follows stays
+     * with the next line, where it pairs with the first character.
+     */
+    private static final class TokenCountingWriter extends Writer {
+
+        private static final int MIN_CHUNK_CHARS = 1024;
+
+        private final TokenCounter counter;
+        private final int limit;
+        private final StringBuilder pending = new StringBuilder(2 * MIN_CHUNK_CHARS);
+        private int tokens;
+
+        TokenCountingWriter(TokenCounter counter, int limit) {
+            this.counter = counter;
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(char[] buffer, int offset, int length) throws IOException {
+            pending.append(buffer, offset, length);
+            chargeLines();
+        }
+
+        @Override
+        public void write(String text, int offset, int length) throws IOException {
+            pending.append(text, offset, offset + length);
+            chargeLines();
+        }
+
+        private void chargeLines() throws IOException {
+            if (pending.length() < MIN_CHUNK_CHARS) {
+                return;
+            }
+            // The character after the line break must be known, and not continue its piece
+            for (int lineEnd = pending.lastIndexOf("\n", pending.length() - 2); lineEnd >= 0;
+                 lineEnd = pending.lastIndexOf("\n", lineEnd - 1)) {
+                char next = pending.charAt(lineEnd + 1);
+                if (next != '\n' && next != '\r' && next != '/') {
+                    charge(lineEnd + 1);
+                    return;
+                }
+            }
+        }
+
+        int finish() throws IOException {
+            charge(pending.length());
+            return tokens;
+        }
+
+        private void charge(int chars) throws IOException {
+            tokens += counter.count(pending.substring(0, chars));
+            pending.delete(0, chars);
+            if (tokens > limit) {
+                throw new BudgetExceededException();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class BudgetExceededException extends IOException {
+        BudgetExceededException() {
+            super("Token budget exceeded");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
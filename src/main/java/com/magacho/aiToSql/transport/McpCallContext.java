@@ -0,0 +1,71 @@
+package com.magacho.aiToSql.transport;
+
+/**
+ * Per-call state shared between a transport and the services it invokes.
+ * Bound to the thread executing the call; services read it through {@link #current()}.
+ */
+public final class McpCallContext {
+
+    private static final ThreadLocal<McpCallContext> CURRENT = new ThreadLocal<>();
+
+    private final ProgressChannel progress;
+    private final McpSession session;
+    private final PhaseTimings phases = new PhaseTimings();
+
+    public McpCallContext(ProgressChannel progress) {
+        this(progress, new McpSession());
+    }
+
+    public McpCallContext(ProgressChannel progress, McpSession session) {
+        this.progress = progress;
+        this.session = session;
+    }
+
+    /**
+     * Context of the call running on this thread (a non-streaming, sessionless
+     * default outside calls)
+     */
+    public static McpCallContext current() {
+        McpCallContext context = CURRENT.get();
+        return context != null ? context : new McpCallContext(ProgressChannel.NONE);
+    }
+
+    /**
+     * Bind a context to this thread until the returned scope is closed
+     */
+    public static Scope open(McpCallContext context) {
+        McpCallContext previous = CURRENT.get();
+        CURRENT.set(context);
+        return () -> {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    public ProgressChannel progress() {
+        return progress;
+    }
+
+    public McpSession session() {
+        return session;
+    }
+
+    /**
+     * Time this call spent per phase (discarded outside calls)
+     */
+    public PhaseTimings phases() {
+        return phases;
+    }
+
+    /**
+     * Restores the previous context when closed
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,420 @@
+package com.magacho.aiToSql.transport;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.config.TenantDataSources;
+import com.magacho.aiToSql.dto.ResponseMetadata;
+import com.magacho.aiToSql.dto.TokenizationMetrics;
+import com.magacho.aiToSql.jfr.ToolExecutionEvent;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import com.magacho.aiToSql.pricing.PricingRegistry;
+import com.magacho.aiToSql.service.ClientRateLimiter;
+import com.magacho.aiToSql.service.FairCallScheduler;
+import com.magacho.aiToSql.service.McpCallLog;
+import com.magacho.aiToSql.service.McpMetrics;
+import com.magacho.aiToSql.service.MetricsTimeSeriesService;
+import com.magacho.aiToSql.service.QueryCostExceededException;
+import com.magacho.aiToSql.service.RateLimitExceededException;
+import com.magacho.aiToSql.service.ServerBusyException;
+import com.magacho.aiToSql.service.SlowCallJournal;
+import com.magacho.aiToSql.service.SqlNormalizer;
+import com.magacho.aiToSql.service.TokenizationMetricsService;
+import com.magacho.aiToSql.service.ToolCallCoalescer;
+import com.magacho.aiToSql.tokenizer.TokenCounterRegistry;
+import com.magacho.aiToSql.tools.McpToolsRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MCP Request Dispatcher
+ * Transport-independent JSON-RPC 2.0 handling: routes MCP methods to their
+ * handlers and maps failures to JSON-RPC errors. Used by every transport
+ * (plain HTTP, SSE streaming, stdio, WebSocket).
+ *
+ * Client notifications (no id, e.g. notifications/initialized) are accepted
+ * without a reply; transports do not write the empty response returned for them.
+ */
+@Component
+public class McpRequestDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(McpRequestDispatcher.class);
+
+    private final McpToolsRegistry toolsRegistry;
+    private final McpServerConfig config;
+    private final TokenizationMetricsService metricsService;
+    private final MetricsTimeSeriesService timeSeries;
+    private final TokenCounterRegistry tokenCounters;
+    private final PricingRegistry pricing;
+    private final McpMetrics meters;
+    private final SlowCallJournal slowCalls;
+    private final McpCallLog callLog;
+    private final TenantDataSources tenants;
+    private final ClientRateLimiter rateLimiter;
+    private final FairCallScheduler scheduler;
+    private final ToolCallCoalescer coalescer;
+
+    public McpRequestDispatcher(McpToolsRegistry toolsRegistry, McpServerConfig config,
+                                TokenizationMetricsService metricsService, MetricsTimeSeriesService timeSeries,
+                                TokenCounterRegistry tokenCounters, PricingRegistry pricing, McpMetrics meters,
+                                SlowCallJournal slowCalls, McpCallLog callLog, TenantDataSources tenants,
+                                ClientRateLimiter rateLimiter, FairCallScheduler scheduler,
+                                ToolCallCoalescer coalescer) {
+        this.toolsRegistry = toolsRegistry;
+        this.config = config;
+        this.metricsService = metricsService;
+        this.timeSeries = timeSeries;
+        this.tokenCounters = tokenCounters;
+        this.pricing = pricing;
+        this.meters = meters;
+        this.slowCalls = slowCalls;
+        this.callLog = callLog;
+        this.tenants = tenants;
+        this.rateLimiter = rateLimiter;
+        this.scheduler = scheduler;
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * Handle one JSON-RPC request
+     *
+     * @param request Parsed request
+     * @return Response carrying either a result or an error (never null)
+     */
+    public JsonRpcResponse dispatch(JsonRpcRequest request) {
+        long start = System.nanoTime();
+        JsonRpcResponse response = handle(request);
+        meters.recordRequest(request.getMethod(), response.getError() == null, System.nanoTime() - start);
+        if (response.getError() != null) {
+            meters.recordRequestError(response.getError().getCode());
+        }
+        return response;
+    }
+
+    private JsonRpcResponse handle(JsonRpcRequest request) {
+        log.debug("Received JSON-RPC request: method={}, id={}", request.getMethod(), request.getId());
+
+        try {
+            // Validate JSON-RPC version
+            if (!"2.0".equals(request.getJsonrpc())) {
+                return new JsonRpcResponse(
+                        new JsonRpcError(JsonRpcError.INVALID_REQUEST, "Invalid JSON-RPC version"),
+                        request.getId()
+                );
+            }
+
+            if (isNotification(request)) {
+                log.debug("Received notification: {}", request.getMethod());
+                return new JsonRpcResponse((Object) null, null);
+            }
+
+            // Route to appropriate handler
+            Object result = switch (request.getMethod() != null ? request.getMethod() : "") {
+                case "initialize" -> handleInitialize(request.getParams());
+                case "tools/list" -> handleToolsList();
+                case "tools/call" -> handleToolsCall(request.getParams());
+                case "ping" -> handlePing();
+                default -> throw new MethodNotFoundException(request.getMethod());
+            };
+
+            return new JsonRpcResponse(result, request.getId());
+
+        } catch (MethodNotFoundException e) {
+            // The client's mistake, not the server's
+            log.warn("Invalid request: {}", e.getMessage());
+            return new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.METHOD_NOT_FOUND, e.getMessage()),
+                    request.getId()
+            );
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request: {}", e.getMessage());
+            return new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.METHOD_NOT_FOUND, e.getMessage()),
+                    request.getId()
+            );
+        } catch (QueryCostExceededException e) {
+            log.warn("Query rejected by cost gate: {}", e.getMessage());
+            return new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.QUERY_COST_EXCEEDED, e.getMessage(), e.getEstimate()),
+                    request.getId()
+            );
+        } catch (RateLimitExceededException e) {
+            return new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.RATE_LIMITED, e.getMessage(),
+                            Map.of("retryAfterMs", e.getRetryAfterMs())),
+                    request.getId()
+            );
+        } catch (ServerBusyException e) {
+            return new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.SERVER_BUSY, e.getMessage(),
+                            Map.of("retryAfterMs", e.getRetryAfterMs())),
+                    request.getId()
+            );
+        } catch (SecurityException e) {
+            log.error("Security violation: {}", e.getMessage());
+            return new JsonRpcResponse(
+                    new JsonRpcError(-32001, "Security violation: " + e.getMessage()),
+                    request.getId()
+            );
+        } catch (Exception e) {
+            log.error("Internal error processing request", e);
+            return new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.INTERNAL_ERROR, "Internal server error: " + e.getMessage()),
+                    request.getId()
+            );
+        }
+    }
+
+    /**
+     * Initialize MCP session
+     * params.model selects the model later calls on the session are counted and billed for,
+     * params.tenant the tenant database they run against, params.client the
+     * client they are rate limited as
+     */
+    private Map<String, Object> handleInitialize(Object params) {
+        McpSession session = McpCallContext.current().session();
+        if (params instanceof Map<?, ?> paramsMap && paramsMap.get("model") instanceof String model) {
+            session.selectModel(model);
+        }
+        if (params instanceof Map<?, ?> paramsMap && paramsMap.get("tenant") instanceof String tenant) {
+            session.selectTenant(tenant);
+        }
+        if (params instanceof Map<?, ?> paramsMap && paramsMap.get("client") instanceof String client) {
+            session.identifyClient(client);
+        }
+        requireKnownTenant(session);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("protocolVersion", "2024-11-05");
+        response.put("serverInfo", Map.of(
+                "name", config.getServer().getName(),
+                "version", config.getServer().getVersion()
+        ));
+        response.put("capabilities", Map.of(
+                "tools", Map.of("listChanged", false),
+                "resources", Map.of(),
+                "prompts", Map.of()
+        ));
+        return response;
+    }
+
+    /**
+     * List available MCP tools
+     */
+    private Map<String, Object> handleToolsList() {
+        var toolDefinitions = toolsRegistry.getToolDefinitions();
+
+        return Map.of("tools", toolDefinitions.values().stream()
+                .map(tool -> Map.of(
+                        "name", tool.name(),
+                        "description", tool.description(),
+                        "inputSchema", Map.of(
+                                "type", "object",
+                                "properties", convertParameters(tool.parameters()),
+                                "required", tool.parameters().entrySet().stream()
+                                        .filter(e -> e.getValue().required())
+                                        .map(Map.Entry::getKey)
+                                        .toList()
+                        )
+                ))
+                .toList()
+        );
+    }
+
+    private Map<String, Map<String, String>> convertParameters(
+            Map<String, McpToolsRegistry.ParameterDefinition> parameters) {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        parameters.forEach((name, param) -> {
+            result.put(name, Map.of(
+                    "type", param.type(),
+                    "description", param.description()
+            ));
+        });
+        return result;
+    }
+
+    /**
+     * Execute MCP tool
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> handleToolsCall(Object params) {
+        long startTime = System.nanoTime();
+
+        if (!(params instanceof Map)) {
+            throw new IllegalArgumentException("Invalid params format");
+        }
+
+        Map<String, Object> paramsMap = (Map<String, Object>) params;
+        String toolName = (String) paramsMap.get("name");
+        Map<String, Object> arguments = (Map<String, Object>) paramsMap.getOrDefault("arguments", Map.of());
+
+        if (toolName == null || toolName.isBlank()) {
+            throw new IllegalArgumentException("Tool name is required");
+        }
+        McpSession session = McpCallContext.current().session();
+        requireKnownTenant(session);
+
+        String toolTag = toolsRegistry.hasTool(toolName) ? toolName : McpMetrics.UNKNOWN;
+        rateLimiter.acquire(session.client(), toolTag);
+        ToolExecutionEvent event = new ToolExecutionEvent();
+        event.begin();
+        long toolStart = System.nanoTime();
+        Object result;
+        boolean shared;
+        try {
+            // Unknown tools fail right away and are not worth a flight
+            ToolCallCoalescer.Outcome outcome = toolsRegistry.hasTool(toolName)
+                    ? coalescer.execute(toolName, arguments, () -> execute(session, toolName, arguments))
+                    : new ToolCallCoalescer.Outcome(execute(session, toolName, arguments), false);
+            result = outcome.result();
+            shared = outcome.shared();
+        } catch (RuntimeException e) {
+            long failedAfter = System.nanoTime() - startTime;
+            meters.recordTool(toolTag, false, System.nanoTime() - toolStart);
+            Map<String, Long> failedPhases = McpCallContext.current().phases().toMap();
+            if (slowCalls.admits(toolTag, failedAfter)) {
+                slowCalls.record(new SlowCallJournal.SlowCall(toolTag, Instant.now(), failedAfter, "error",
+                        normalizedSql(arguments), failedPhases, null, 0, 0, e.getMessage()));
+            }
+            callLog.failure(toolTag, failedAfter, failedPhases, normalizedSql(arguments), e);
+            commit(event, toolTag, "error", arguments, 0, 0, 0);
+            throw e;
+        }
+        long serializationStart = System.nanoTime();
+        meters.recordTool(toolTag, true, serializationStart - toolStart);
+
+        long executionTime = (serializationStart - startTime) / 1_000_000;
+        PhaseTimings phases = McpCallContext.current().phases();
+
+        String textResult = convertResultToText(result);
+        long tokenizationStart = phases.since(PhaseTimings.Phase.SERIALIZATION, serializationStart);
+        meters.recordSerialization(toolTag, tokenizationStart - serializationStart);
+        long responseBytes = McpMetrics.utf8Length(textResult);
+        meters.recordResponseBytes(toolTag, responseBytes);
+
+        // Count tokens once with the client's model tokenizer and price them once;
+        // metadata and metrics share the count and the cost
+        String requestedModel = McpCallContext.current().session().model();
+        ResponseMetadata.TokenInfo tokenInfo = ResponseMetadata.estimateTokens(
+                textResult, tokenCounters.forCurrentCall());
+        ResponseMetadata.CostInfo costInfo = pricing.cost(requestedModel, tokenInfo);
+        meters.recordTokenization(toolTag,
+                phases.since(PhaseTimings.Phase.TOKENIZATION, tokenizationStart) - tokenizationStart);
+        meters.recordPhases(toolTag, phases);
+
+        // Create metadata with token count, performance info and where the time went
+        Map<String, Long> phasesNs = phases.toMap();
+        ResponseMetadata metadata = ResponseMetadata.create(result, tokenInfo, costInfo, executionTime, shared,
+                phasesNs);
+
+        long callNanos = System.nanoTime() - startTime;
+        Integer rows = metadata.data() != null ? metadata.data().rowCount() : null;
+        if (slowCalls.admits(toolTag, callNanos)) {
+            slowCalls.record(new SlowCallJournal.SlowCall(toolTag, Instant.now(), callNanos, "success",
+                    normalizedSql(arguments), phasesNs, rows, responseBytes, tokenInfo.estimated(), null));
+        }
+        commit(event, toolTag, "success", arguments, rows != null ? rows : 0, responseBytes, tokenInfo.estimated());
+
+        // Record tokenization metrics
+        TokenizationMetrics tokenMetrics = TokenizationMetrics.fromContent(
+                textResult, tokenInfo.estimated(), costInfo, executionTime, shared).withPhases(phasesNs);
+        metricsService.recordMetrics(toolName, tokenMetrics);
+        timeSeries.recordMetrics(toolName, tokenMetrics);
+
+        if (callLog.shouldLog(callNanos)) {
+            callLog.success(toolTag, costInfo.model(), callNanos, phasesNs, rows, responseBytes, tokenInfo.estimated(),
+                    costInfo.estimatedUSD(), normalizedSql(arguments));
+        }
+
+        return Map.of(
+                "content", List.of(Map.of(
+                        "type", "text",
+                        "text", textResult
+                )),
+                "isError", false,
+                "meta", metadata
+        );
+    }
+
+    /**
+     * Run a tool once the client's turn in the fair queue comes
+     */
+    private Object execute(McpSession session, String toolName, Map<String, Object> arguments) {
+        try (FairCallScheduler.Slot ignored = scheduler.acquire(session.client())) {
+            return toolsRegistry.executeTool(toolName, arguments);
+        }
+    }
+
+    /**
+     * Reject a session pointing at a tenant that is not configured, before it reaches a cache or pool
+     */
+    private void requireKnownTenant(McpSession session) {
+        String tenant = session.tenant();
+        if (tenant != null && !tenants.isKnown(tenant)) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenant);
+        }
+    }
+
+    /**
+     * Shape of the query a call ran, literals stripped (null for non-query tools)
+     */
+    private static String normalizedSql(Map<String, Object> arguments) {
+        return arguments.get("queryDescription") instanceof String query
+                ? SqlNormalizer.normalize(query)
+                : null;
+    }
+
+    private static void commit(ToolExecutionEvent event, String tool, String outcome, Map<String, Object> arguments,
+                               int rows, long bytes, int tokens) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.tool = tool;
+            event.outcome = outcome;
+            event.sql = normalizedSql(arguments);
+            event.rows = rows;
+            event.bytes = bytes;
+            event.tokens = tokens;
+            event.commit();
+        }
+    }
+
+    /**
+     * Health check endpoint
+     */
+    private Map<String, String> handlePing() {
+        return Map.of("status", "ok", "server", config.getServer().getName());
+    }
+
+    /**
+     * Convert result object to text representation for LLM
+     */
+    private String convertResultToText(Object result) {
+        try {
+            return new com.fasterxml.jackson.databind.ObjectMapper()
+                    .writerWithDefaultPrettyPrinter()
+                    .writeValueAsString(result);
+        } catch (Exception e) {
+            return result.toString();
+        }
+    }
+
+    /**
+     * Whether a message is a client notification, answered with nothing
+     */
+    public static boolean isNotification(JsonRpcRequest request) {
+        return request.getId() == null && request.getMethod() != null
+                && request.getMethod().startsWith("notifications/");
+    }
+
+    private static final class MethodNotFoundException extends RuntimeException {
+        MethodNotFoundException(String method) {
+            super("Method not found: " + method);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.magacho.aiToSql.transport;
+
+/**
+ * Client state that outlives a single call: one per WebSocket connection or
+ * stdio stream, one per request on plain HTTP. Holds the model the client
+ * selected with the X-MCP-Model header or initialize params.model, the
+ * tenant database selected with X-MCP-Tenant or initialize params.tenant, and
+ * the client identity rate limits and fair scheduling are applied to
+ * (X-MCP-Client or initialize params.client, else the remote address).
+ */
+public final class McpSession {
+
+    /**
+     * HTTP/WebSocket handshake header selecting the model to count and bill for
+     */
+    public static final String MODEL_HEADER = "X-MCP-Model";
+
+    /**
+     * HTTP/WebSocket handshake header selecting the tenant database (mcp.tenants.databases)
+     */
+    public static final String TENANT_HEADER = "X-MCP-Tenant";
+
+    /**
+     * HTTP/WebSocket handshake header identifying the client (API key or agent id)
+     */
+    public static final String CLIENT_HEADER = "X-MCP-Client";
+
+    /**
+     * Client of sessions that did not identify themselves
+     */
+    public static final String ANONYMOUS_CLIENT = "anonymous";
+
+    private volatile String model;
+    private volatile String tenant;
+    private volatile String client = ANONYMOUS_CLIENT;
+
+    public McpSession() {
+    }
+
+    public McpSession(String model) {
+        selectModel(model);
+    }
+
+    public McpSession(String model, String tenant) {
+        selectModel(model);
+        selectTenant(tenant);
+    }
+
+    public McpSession(String model, String tenant, String client) {
+        this(model, tenant);
+        identifyClient(client);
+    }
+
+    /**
+     * Model selected by the client, or null for the server default
+     */
+    public String model() {
+        return model;
+    }
+
+    public void selectModel(String model) {
+        this.model = model != null && !model.isBlank() ? model.trim() : null;
+    }
+
+    /**
+     * Tenant database selected by the client, or null for the primary database
+     */
+    public String tenant() {
+        return tenant;
+    }
+
+    public void selectTenant(String tenant) {
+        this.tenant = tenant != null && !tenant.isBlank() ? tenant.trim() : null;
+    }
+
+    /**
+     * Client the session's calls are rate limited and scheduled as
+     */
+    public String client() {
+        return client;
+    }
+
+    public void identifyClient(String client) {
+        this.client = client != null && !client.isBlank() ? client.trim() : ANONYMOUS_CLIENT;
+    }
+}
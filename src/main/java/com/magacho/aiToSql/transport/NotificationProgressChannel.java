@@ -0,0 +1,50 @@
+package com.magacho.aiToSql.transport;
+
+import com.magacho.aiToSql.jsonrpc.JsonRpcNotification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Progress channel that turns progress and partial results into JSON-RPC
+ * notifications tagged with the call's progress token
+ */
+abstract class NotificationProgressChannel implements ProgressChannel {
+
+    static final String PROGRESS_METHOD = "notifications/progress";
+    static final String PARTIAL_RESULT_METHOD = "notifications/tools/partial_result";
+
+    private final Object progressToken;
+
+    NotificationProgressChannel(Object progressToken) {
+        this.progressToken = progressToken;
+    }
+
+    /**
+     * Deliver one notification to the client
+     */
+    protected abstract void send(JsonRpcNotification notification);
+
+    @Override
+    public void progress(long progress, Long total, String message) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("progress", progress);
+        if (total != null) {
+            params.put("total", total);
+        }
+        if (message != null) {
+            params.put("message", message);
+        }
+        send(new JsonRpcNotification(PROGRESS_METHOD, params));
+    }
+
+    @Override
+    public void partialResult(String kind, Object chunk) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("progressToken", progressToken);
+        params.put("kind", kind);
+        params.put("chunk", chunk);
+        send(new JsonRpcNotification(PARTIAL_RESULT_METHOD, params));
+    }
+}
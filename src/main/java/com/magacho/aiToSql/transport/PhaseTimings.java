@@ -0,0 +1,94 @@
+package com.magacho.aiToSql.transport;
+
+import com.magacho.aiToSql.jfr.JdbcPhaseEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Nanoseconds one call spent in each phase, filled in along the call path
+ * (coalescing, admission, connection pool, JDBC, serialization) and reported
+ * in the response metadata. Belongs to a single call; phases run one after another.
+ * Database phases are also emitted as {@link JdbcPhaseEvent}s while a flight
+ * recording is running.
+ */
+public final class PhaseTimings {
+
+    /**
+     * Where a call spends its time
+     */
+    public enum Phase {
+        COALESCED_WAIT("coalescedWait", false),
+        ADMISSION_WAIT("admissionWait", false),
+        CONNECTION_ACQUIRE("connectionAcquire", true),
+        METADATA("metadata", true),
+        EXPLAIN("explain", true),
+        QUERY_EXECUTION("queryExecution", true),
+        ROW_FETCH("rowFetch", true),
+        SERIALIZATION("serialization", false),
+        TOKENIZATION("tokenization", false);
+
+        private final String label;
+        private final boolean jdbc;
+
+        Phase(String label, boolean jdbc) {
+            this.label = label;
+            this.jdbc = jdbc;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        public boolean isJdbc() {
+            return jdbc;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final long[] nanos = new long[PHASES.length];
+
+    /**
+     * Add time spent in a phase
+     */
+    public void add(Phase phase, long elapsedNanos) {
+        nanos[phase.ordinal()] += elapsedNanos;
+    }
+
+    /**
+     * Add the time since start to a phase
+     *
+     * @return now, to start timing the next phase
+     */
+    public long since(Phase phase, long startNanos) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - startNanos;
+        if (phase.isJdbc()) {
+            JdbcPhaseEvent event = new JdbcPhaseEvent();
+            if (event.shouldCommit()) {
+                event.phase = phase.label();
+                event.elapsed = now - startNanos;
+                event.commit();
+            }
+        }
+        return now;
+    }
+
+    public long get(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Phases the call went through, in call-path order, keyed by label
+     */
+    public Map<String, Long> toMap() {
+        Map<String, Long> phases = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            if (nanos[phase.ordinal()] > 0) {
+                phases.put(phase.label(), nanos[phase.ordinal()]);
+            }
+        }
+        return phases;
+    }
+}
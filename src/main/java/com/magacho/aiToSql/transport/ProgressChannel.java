@@ -0,0 +1,45 @@
+package com.magacho.aiToSql.transport;
+
+/**
+ * Side channel for long tool calls to report progress and partial results
+ * before the final JSON-RPC response. Request/response transports use {@link #NONE}.
+ */
+public interface ProgressChannel {
+
+    ProgressChannel NONE = new ProgressChannel() {
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+
+        @Override
+        public void progress(long progress, Long total, String message) {
+        }
+
+        @Override
+        public void partialResult(String kind, Object chunk) {
+        }
+    };
+
+    /**
+     * Whether anything sent here reaches the client (callers may skip building chunks otherwise)
+     */
+    boolean isStreaming();
+
+    /**
+     * Send a notifications/progress message
+     *
+     * @param progress Units of work done so far
+     * @param total Total units when known, else null
+     * @param message Human readable status
+     */
+    void progress(long progress, Long total, String message);
+
+    /**
+     * Send a piece of the result ahead of the final response
+     *
+     * @param kind What the chunk holds, e.g. rows or tables
+     * @param chunk JSON-serializable payload
+     */
+    void partialResult(String kind, Object chunk);
+}
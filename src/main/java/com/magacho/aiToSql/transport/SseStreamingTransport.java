@@ -0,0 +1,165 @@
+package com.magacho.aiToSql.transport;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcNotification;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streamable HTTP transport (MCP 2025-03-26): a POST to /mcp that accepts
+ * text/event-stream is answered with an SSE stream. While the call runs, the
+ * stream carries notifications/progress and notifications/tools/partial_result
+ * messages (row or table batches); the final event is the JSON-RPC response.
+ *
+ * Calls run on a bounded pool (mcp.streaming.max-concurrent-streams) so open
+ * streams do not hold servlet threads; beyond the queue limit a stream is
+ * answered immediately with a SERVER_BUSY error.
+ */
+@Component
+public class SseStreamingTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(SseStreamingTransport.class);
+
+    private final McpRequestDispatcher dispatcher;
+    private final McpServerConfig.Streaming settings;
+    private final ExecutorService executor;
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    public SseStreamingTransport(McpRequestDispatcher dispatcher, McpServerConfig config) {
+        this.dispatcher = dispatcher;
+        this.settings = config.getStreaming();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                settings.getMaxConcurrentStreams(), settings.getMaxConcurrentStreams(),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(settings.getMaxQueuedStreams()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mcp-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Start a call and return the stream its messages are written to
+     */
+    public SseEmitter stream(JsonRpcRequest request) {
+        return stream(request, new McpSession());
+    }
+
+    /**
+     * Start a call for a client session and return the stream its messages are written to
+     */
+    public SseEmitter stream(JsonRpcRequest request, McpSession session) {
+        SseEmitter emitter = new SseEmitter(settings.getTimeoutMs());
+        openStreams.incrementAndGet();
+        emitter.onCompletion(openStreams::decrementAndGet);
+
+        try {
+            executor.execute(() -> run(request, session, emitter));
+        } catch (RejectedExecutionException e) {
+            log.warn("Streaming pool saturated, rejecting call id={}", request.getId());
+            send(emitter, new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.SERVER_BUSY, "Too many concurrent streams, retry later"),
+                    request.getId()));
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Streams currently open (running or queued)
+     */
+    public int openStreams() {
+        return openStreams.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(JsonRpcRequest request, McpSession session, SseEmitter emitter) {
+        SseProgressChannel channel = new SseProgressChannel(emitter, progressToken(request));
+        try (McpCallContext.Scope ignored = McpCallContext.open(new McpCallContext(channel, session))) {
+            JsonRpcResponse response = dispatcher.dispatch(request);
+            if (channel.isStreaming()) {
+                send(emitter, response);
+            }
+            emitter.complete();
+        } catch (RuntimeException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void send(SseEmitter emitter, Object message) {
+        try {
+            emitter.send(SseEmitter.event().name("message").data(message, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            log.debug("Client closed the stream: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * params._meta.progressToken when the client supplied one, else the request id
+     */
+    private static Object progressToken(JsonRpcRequest request) {
+        if (request.getParams() instanceof Map<?, ?> params
+                && params.get("_meta") instanceof Map<?, ?> meta
+                && meta.get("progressToken") != null) {
+            return meta.get("progressToken");
+        }
+        return request.getId();
+    }
+
+    /**
+     * Writes notifications to an SSE stream; a failed write (client gone)
+     * aborts the running call so it stops scanning rows nobody will read.
+     */
+    static final class SseProgressChannel extends NotificationProgressChannel {
+
+        private final SseEmitter emitter;
+        private volatile boolean open = true;
+
+        SseProgressChannel(SseEmitter emitter, Object progressToken) {
+            super(progressToken);
+            this.emitter = emitter;
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return open;
+        }
+
+        @Override
+        protected void send(JsonRpcNotification notification) {
+            if (!open) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("message").data(notification, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                open = false;
+                throw new UncheckedIOException(new IOException("Client closed the stream", e));
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcNotification;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stdio transport: newline-delimited JSON-RPC over the process stdin/stdout,
+ * for MCP clients that launch the server as a subprocess.
+ *
+ * Enabled with mcp.transport=stdio (the "stdio" profile, started without the
+ * embedded web server). Input is read through a buffered channel and each
+ * request is dispatched on a worker pool, so slow tool calls do not block
+ * the ones behind them; responses are written as they complete and matched
+ * by id. Notifications (no id) get no response. When a tools/call carries
+ * params._meta.progressToken, progress notifications are written too.
+ */
+@Component
+@ConditionalOnProperty(prefix = "mcp", name = "transport", havingValue = "stdio")
+public class StdioTransport implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(StdioTransport.class);
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final byte NEWLINE = '\n';
+
+    private final McpRequestDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+
+    public StdioTransport(McpRequestDispatcher dispatcher, ObjectMapper objectMapper, McpServerConfig config) {
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(config.getStreaming().getMaxConcurrentStreams(), runnable -> {
+            Thread thread = new Thread(runnable, "mcp-stdio-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        log.info("MCP stdio transport ready");
+        serve(new FileInputStream(FileDescriptor.in).getChannel(),
+                new FileOutputStream(FileDescriptor.out).getChannel());
+        log.info("stdin closed, stdio transport stopped");
+    }
+
+    /**
+     * Serve requests from in until end of stream, then wait for in-flight calls
+     *
+     * @param in Newline-delimited JSON-RPC requests
+     * @param out Newline-delimited JSON-RPC responses and notifications
+     */
+    public void serve(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        MessageWriter writer = new MessageWriter(out);
+        McpSession session = new McpSession();
+        Phaser inFlight = new Phaser(1);
+
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        byte[] line = new byte[1024];
+        int lineLength = 0;
+
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == NEWLINE) {
+                    submit(Arrays.copyOf(line, lineLength), writer, session, inFlight);
+                    lineLength = 0;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[lineLength++] = b;
+                }
+            }
+            buffer.clear();
+        }
+        if (lineLength > 0) {
+            submit(Arrays.copyOf(line, lineLength), writer, session, inFlight);
+        }
+
+        inFlight.arriveAndAwaitAdvance();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void submit(byte[] message, MessageWriter writer, McpSession session, Phaser inFlight) {
+        if (isBlank(message)) {
+            return;
+        }
+
+        JsonRpcRequest request;
+        try {
+            request = objectMapper.readValue(message, JsonRpcRequest.class);
+        } catch (IOException e) {
+            log.warn("Unparseable stdio message: {}", e.getMessage());
+            writer.write(new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.PARSE_ERROR, "Parse error"), null));
+            return;
+        }
+
+        inFlight.register();
+        workers.execute(() -> {
+            ProgressChannel progress = progressToken(request) != null
+                    ? new StdioProgressChannel(writer, progressToken(request))
+                    : ProgressChannel.NONE;
+            try (McpCallContext.Scope ignored = McpCallContext.open(new McpCallContext(progress, session))) {
+                JsonRpcResponse response = dispatcher.dispatch(request);
+                if (request.getId() != null) {
+                    writer.write(response);
+                }
+            } catch (RuntimeException e) {
+                log.error("stdio call failed", e);
+            } finally {
+                inFlight.arriveAndDeregister();
+            }
+        });
+    }
+
+    private static Object progressToken(JsonRpcRequest request) {
+        if (request.getParams() instanceof Map<?, ?> params
+                && params.get("_meta") instanceof Map<?, ?> meta) {
+            return meta.get("progressToken");
+        }
+        return null;
+    }
+
+    private static boolean isBlank(byte[] message) {
+        for (byte b : message) {
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Serializes messages and writes each as one line; writes from concurrent
+     * calls are serialized so lines never interleave.
+     */
+    private final class MessageWriter {
+        private final WritableByteChannel out;
+
+        MessageWriter(WritableByteChannel out) {
+            this.out = out;
+        }
+
+        void write(Object message) {
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(message);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put(NEWLINE).flip();
+            synchronized (this) {
+                try {
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static final class StdioProgressChannel extends NotificationProgressChannel {
+        private final MessageWriter writer;
+
+        StdioProgressChannel(MessageWriter writer, Object progressToken) {
+            super(progressToken);
+            this.writer = writer;
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return true;
+        }
+
+        @Override
+        protected void send(JsonRpcNotification notification) {
+            writer.write(notification);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcNotification;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket transport: one long-lived connection per agent session, each text
+ * frame a JSON-RPC request. Requests on a connection run concurrently on a
+ * shared worker pool and responses are sent as they complete, so they may
+ * arrive out of order; clients match them by id.
+ *
+ * Backpressure is per connection: once mcp.websocket.max-in-flight-per-connection
+ * calls are running, the handler stops taking frames from that socket (and so
+ * stops reading it) until one finishes; a frame that waits longer than the
+ * admission timeout is answered with SERVER_BUSY. Outbound messages go through
+ * a bounded send buffer, and a reader too slow to drain it is disconnected.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "mcp.websocket", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class WebSocketTransport extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketTransport.class);
+
+    private final McpRequestDispatcher dispatcher;
+    private final ObjectMapper objectMapper;
+    private final McpServerConfig.WebSocket settings;
+    private final ExecutorService workers;
+    private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+
+    public WebSocketTransport(McpRequestDispatcher dispatcher, ObjectMapper objectMapper, McpServerConfig config) {
+        this.dispatcher = dispatcher;
+        this.objectMapper = objectMapper;
+        this.settings = config.getWebsocket();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(settings.getWorkerThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "mcp-ws-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        session.setTextMessageSizeLimit(settings.getMaxMessageSize());
+        WebSocketSession outbound = new ConcurrentWebSocketSessionDecorator(
+                session, settings.getSendTimeLimitMs(), settings.getSendBufferSizeLimit());
+        String client = session.getHandshakeHeaders().getFirst(McpSession.CLIENT_HEADER);
+        if (client == null && session.getRemoteAddress() != null) {
+            client = session.getRemoteAddress().getHostString();
+        }
+        McpSession mcpSession = new McpSession(session.getHandshakeHeaders().getFirst(McpSession.MODEL_HEADER),
+                session.getHandshakeHeaders().getFirst(McpSession.TENANT_HEADER), client);
+        connections.put(session.getId(), new Connection(outbound, mcpSession,
+                new Semaphore(settings.getMaxInFlightPerConnection())));
+        log.debug("WebSocket connection {} opened", session.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws InterruptedException {
+        Connection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+
+        JsonRpcRequest request;
+        try {
+            request = objectMapper.readValue(message.getPayload(), JsonRpcRequest.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Unparseable WebSocket message: {}", e.getOriginalMessage());
+            connection.send(new JsonRpcResponse(new JsonRpcError(JsonRpcError.PARSE_ERROR, "Parse error"), null));
+            return;
+        }
+
+        // Blocking here holds back the next frame on this socket only
+        if (!connection.inFlight.tryAcquire(settings.getAdmissionTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            log.warn("WebSocket connection {} saturated, rejecting call id={}", session.getId(), request.getId());
+            connection.send(new JsonRpcResponse(
+                    new JsonRpcError(JsonRpcError.SERVER_BUSY, "Too many in-flight requests on this connection"),
+                    request.getId()));
+            return;
+        }
+        workers.execute(() -> run(connection, request));
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket transport error on {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        connections.remove(session.getId());
+        log.debug("WebSocket connection {} closed: {}", session.getId(), status);
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return false;
+    }
+
+    /**
+     * Connections currently open
+     */
+    public int openConnections() {
+        return connections.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void run(Connection connection, JsonRpcRequest request) {
+        Object progressToken = progressToken(request);
+        ProgressChannel progress = progressToken != null
+                ? new WebSocketProgressChannel(connection, progressToken)
+                : ProgressChannel.NONE;
+        try (McpCallContext.Scope ignored = McpCallContext.open(new McpCallContext(progress, connection.mcpSession))) {
+            JsonRpcResponse response = dispatcher.dispatch(request);
+            if (request.getId() != null) {
+                connection.send(response);
+            }
+        } catch (RuntimeException e) {
+            log.debug("WebSocket call id={} aborted: {}", request.getId(), e.getMessage());
+        } finally {
+            connection.inFlight.release();
+        }
+    }
+
+    private static Object progressToken(JsonRpcRequest request) {
+        if (request.getParams() instanceof Map<?, ?> params
+                && params.get("_meta") instanceof Map<?, ?> meta) {
+            return meta.get("progressToken");
+        }
+        return null;
+    }
+
+    /**
+     * An open socket: its thread-safe, buffered outbound session, the MCP
+     * session shared by its calls and the permits bounding its in-flight calls
+     */
+    private final class Connection {
+        private final WebSocketSession session;
+        private final McpSession mcpSession;
+        private final Semaphore inFlight;
+
+        Connection(WebSocketSession session, McpSession mcpSession, Semaphore inFlight) {
+            this.session = session;
+            this.mcpSession = mcpSession;
+            this.inFlight = inFlight;
+        }
+
+        boolean isOpen() {
+            return session.isOpen();
+        }
+
+        /**
+         * Send one message; false when the connection is gone or its send buffer overflowed
+         */
+        boolean send(Object message) {
+            if (!session.isOpen()) {
+                return false;
+            }
+            try {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+                return true;
+            } catch (IOException | RuntimeException e) {
+                log.debug("WebSocket send to {} failed: {}", session.getId(), e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Writes notifications to the call's connection; a failed write (client
+     * gone or not reading) aborts the running call.
+     */
+    private static final class WebSocketProgressChannel extends NotificationProgressChannel {
+        private final Connection connection;
+
+        WebSocketProgressChannel(Connection connection, Object progressToken) {
+            super(progressToken);
+            this.connection = connection;
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return connection.isOpen();
+        }
+
+        @Override
+        protected void send(JsonRpcNotification notification) {
+            if (!connection.send(notification)) {
+                throw new UncheckedIOException(new IOException("WebSocket connection closed"));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.magacho.aiToSql.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.magacho.aiToSql.dto.SchemaStructure;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Tests for the weight-bounded Caffeine caches
+ */
+@DisplayName("Caching Config Tests")
+class CachingConfigTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Should weigh a large schema above a small one")
+    void testRetainedSize() {
+        // Given
+        SchemaStructure small = schema(1, 2);
+        SchemaStructure large = schema(100, 20);
+
+        // When / Then
+        assertThat(RetainedSizeEstimator.estimate(small)).isPositive();
+        assertThat(RetainedSizeEstimator.estimate(large))
+                .isGreaterThan(100 * RetainedSizeEstimator.estimate(small));
+        assertThat(RetainedSizeEstimator.weigh("key", large))
+                .isGreaterThan((int) RetainedSizeEstimator.estimate(large));
+    }
+
+    @Test
+    @DisplayName("Should evict by estimated bytes within each cache's share of the budget")
+    void testMemoryBudget() {
+        // Given - 1 MB, of which schema-structure gets 40%, heap only
+        McpServerConfig.Caches settings = new McpServerConfig().getCaches();
+        settings.setMemoryBudgetMb(1);
+        settings.getOffHeap().setEnabled(false);
+        CacheManager manager = CachingConfig.caffeineCacheManager(settings, registry);
+        org.springframework.cache.Cache cache = manager.getCache("schema-structure");
+        @SuppressWarnings("unchecked")
+        Cache<Object, Object> nativeCache = (Cache<Object, Object>) cache.getNativeCache();
+
+        // When - far more than fits
+        for (int i = 0; i < 100; i++) {
+            cache.put("tenant-" + i, schema(100, 20));
+        }
+        nativeCache.cleanUp();
+
+        // Then
+        long weighted = nativeCache.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertThat(weighted).isPositive().isLessThanOrEqualTo(settings.budgetBytes("schema-structure"));
+        assertThat(nativeCache.estimatedSize()).isLessThan(100);
+        assertThat(nativeCache.stats().evictionCount()).isPositive();
+        assertThat(registry.find("cache.evictions").tag("cache", "schema-structure").functionCounter())
+                .isNotNull();
+        assertThat(manager.getCacheNames())
+                .containsExactlyInAnyOrder("schema-structure", "table-details", "triggers", "query-results");
+    }
+
+    @Test
+    @DisplayName("Should back every cache with an off-heap tier when enabled")
+    void testOffHeapTier() {
+        // Given
+        McpServerConfig.Caches settings = new McpServerConfig().getCaches();
+        CacheManager manager = CachingConfig.caffeineCacheManager(settings, registry);
+        org.springframework.cache.Cache cache = manager.getCache("schema-structure");
+
+        // When - larger than max-on-heap-entry-kb
+        SchemaStructure large = schema(200, 20);
+        cache.put("sales", large);
+
+        // Then
+        assertThat(cache).isInstanceOf(TieredCache.class);
+        assertThat(cache.get("sales", SchemaStructure.class)).isEqualTo(large);
+        assertThat(registry.find("mcp.cache.offheap.entries").tag("cache", "schema-structure").gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.find("mcp.cache.offheap.hits").tag("cache", "schema-structure").functionCounter()
+                .count()).isEqualTo(1);
+        assertThat(settings.offHeapBytes("schema-structure")).isEqualTo((long) (256 * 1024 * 1024 * 0.40));
+    }
+
+    private static SchemaStructure schema(int tables, int columns) {
+        List<SchemaStructure.TableInfo> infos = new ArrayList<>();
+        for (int t = 0; t < tables; t++) {
+            List<SchemaStructure.ColumnInfo> columnInfos = new ArrayList<>();
+            for (int c = 0; c < columns; c++) {
+                columnInfos.add(new SchemaStructure.ColumnInfo("column_" + c, "VARCHAR", 255, true, c == 0));
+            }
+            infos.add(new SchemaStructure.TableInfo("table_" + t, "TABLE", columnInfos));
+        }
+        return new SchemaStructure("sales", "PostgreSQL", infos);
+    }
+}
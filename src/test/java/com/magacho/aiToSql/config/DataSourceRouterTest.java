@@ -0,0 +1,173 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.dto.SchemaStructure;
+import com.magacho.aiToSql.service.SchemaIntrospectionService;
+import com.magacho.aiToSql.service.SecureQueryService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for query/metadata connection routing
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.routing.replica-urls=jdbc:h2:tcp://127.0.0.1:1/unreachable,"
+                + "jdbc:h2:mem:testdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "mcp.routing.replica-username=sa",
+        "mcp.routing.replica-password=",
+        "mcp.routing.connection-timeout-ms=250",
+        "mcp.routing.retry-unhealthy-after-ms=60000"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("DataSourceRouter Tests")
+class DataSourceRouterTest {
+
+    @Autowired
+    private DataSourceRouter router;
+
+    @Autowired
+    private DataSource primary;
+
+    @Autowired
+    private SecureQueryService secureQueryService;
+
+    @Autowired
+    private SchemaIntrospectionService schemaIntrospectionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should fail over from an unreachable replica to a healthy one")
+    void testReplicaFailover() {
+        // When
+        QueryResult first = secureQueryService.secureDatabaseQuery("SELECT COUNT(*) FROM customers", null);
+        QueryResult second = secureQueryService.secureDatabaseQuery("SELECT COUNT(*) FROM customers", null);
+
+        // Then
+        assertThat(((Number) first.rows().get(0)[0]).intValue()).isEqualTo(5);
+        assertThat(((Number) second.rows().get(0)[0]).intValue()).isEqualTo(5);
+        assertThat(router.healthyReplicas()).containsExactly("mcp-replica-2");
+        assertThat(meterRegistry.get("mcp.datasource.replica.healthy")
+                .tag("replica", "mcp-replica-1").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should introspect through a dedicated metadata pool")
+    void testMetadataPool() throws Exception {
+        // When
+        SchemaStructure schema = schemaIntrospectionService.getSchemaStructure("testdb");
+
+        // Then
+        assertThat(schema.tables()).isNotEmpty();
+        assertThat(router.metadataDataSource()).isNotSameAs(primary);
+        assertThat(((HikariDataSource) router.metadataDataSource()).getPoolName()).isEqualTo("mcp-metadata");
+        assertThat(router.metadataJdbcTemplate().getDataSource()).isSameAs(router.metadataDataSource());
+        assertThat(router.queryDataSource()).isNotSameAs(primary);
+    }
+
+    @Test
+    @DisplayName("Should publish pool saturation per route")
+    void testPoolMetrics() throws Exception {
+        // Given
+        try (Connection ignored = router.metadataDataSource().getConnection()) {
+            // When / Then
+            assertThat(meterRegistry.get("hikaricp.connections.active")
+                    .tag("pool", "mcp-metadata").gauge().value()).isEqualTo(1.0);
+            assertThat(meterRegistry.get("hikaricp.connections.pending")
+                    .tag("pool", "mcp-metadata").gauge()).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary when every replica is down")
+    void testFallbackToPrimary() throws Exception {
+        // Given
+        DataSourceRouter.Replica broken = new DataSourceRouter.Replica("broken", unreachable());
+        DataSourceRouter.ReplicaRoutingDataSource routing =
+                new DataSourceRouter.ReplicaRoutingDataSource(List.of(broken), primary, 60_000);
+
+        // When
+        try (Connection connection = routing.getConnection()) {
+            // Then
+            assertThat(connection.isValid(1)).isTrue();
+        }
+        assertThat(broken.isHealthy()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should fail when every replica is down and fallback is disabled")
+    void testNoFallback() {
+        // Given
+        DataSourceRouter.ReplicaRoutingDataSource routing = new DataSourceRouter.ReplicaRoutingDataSource(
+                List.of(new DataSourceRouter.Replica("broken", unreachable())), null, 60_000);
+
+        // When / Then
+        assertThatThrownBy(routing::getConnection).isInstanceOf(java.sql.SQLException.class);
+    }
+
+    @Test
+    @DisplayName("Should refuse per-call credentials without marking replicas unhealthy")
+    void testExplicitCredentials() {
+        // Given
+        DataSourceRouter.Replica replica = new DataSourceRouter.Replica("replica", primary);
+        DataSourceRouter.ReplicaRoutingDataSource routing =
+                new DataSourceRouter.ReplicaRoutingDataSource(List.of(replica), primary, 60_000);
+
+        // When / Then
+        assertThatThrownBy(() -> routing.getConnection("sa", ""))
+                .isInstanceOf(java.sql.SQLFeatureNotSupportedException.class);
+        assertThat(replica.isHealthy()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep a saturated replica healthy and push back instead of using the primary")
+    void testSaturatedReplica() throws Exception {
+        // Given - a one-connection replica pool with its connection in use
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:testdb;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE");
+            pool.setUsername("sa");
+            pool.setPassword("");
+            pool.setMaximumPoolSize(1);
+            pool.setConnectionTimeout(250);
+            DataSourceRouter.Replica replica = new DataSourceRouter.Replica("busy", pool);
+            DataSourceRouter.ReplicaRoutingDataSource routing =
+                    new DataSourceRouter.ReplicaRoutingDataSource(List.of(replica), primary, 60_000);
+
+            try (Connection held = routing.getConnection()) {
+                // When / Then
+                assertThatThrownBy(routing::getConnection)
+                        .isInstanceOf(java.sql.SQLTransientConnectionException.class);
+                assertThat(replica.isHealthy()).isTrue();
+            }
+            try (Connection connection = routing.getConnection()) {
+                assertThat(connection.isValid(1)).isTrue();
+            }
+        }
+    }
+
+    private static DataSource unreachable() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:tcp://127.0.0.1:1/unreachable");
+        return dataSource;
+    }
+}
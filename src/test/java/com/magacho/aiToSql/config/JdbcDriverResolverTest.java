@@ -1,8 +1,12 @@
 package com.magacho.aiToSql.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.Optional;
 
@@ -269,4 +273,36 @@ class JdbcDriverResolverTest {
         
         assertThat(supported).isUnmodifiable();
     }
+
+    @Test
+    void shouldBindPoolToResolvedDriver() throws SQLException {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:h2:mem:bind_driver");
+            pool.setUsername("sa");
+            pool.setPassword("");
+            pool.setConnectionTimeout(5000);
+
+            resolver.bindDriver(pool);
+
+            assertThat(pool.getDataSource()).isInstanceOf(SimpleDriverDataSource.class);
+            assertThat(((SimpleDriverDataSource) pool.getDataSource()).getDriver())
+                .isInstanceOf(org.h2.Driver.class);
+            try (Connection connection = pool.getConnection()) {
+                assertThat(connection.isValid(1)).isTrue();
+            }
+            // Hikari applies its connection timeout (plus 500 ms) as the login timeout
+            assertThat(pool.getDataSource().getLoginTimeout()).isEqualTo(5);
+        }
+    }
+
+    @Test
+    void shouldLeavePoolWithUnknownDriverUnbound() {
+        try (HikariDataSource pool = new HikariDataSource()) {
+            pool.setJdbcUrl("jdbc:unknown://localhost/db");
+
+            resolver.bindDriver(pool);
+
+            assertThat(pool.getDataSource()).isNull();
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package com.magacho.aiToSql.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for NativeHints
+ */
+@DisplayName("Native Hints Tests")
+class NativeHintsTest {
+
+    @Test
+    @DisplayName("Should register tokenizer vocabularies and JDBC driver constructors")
+    void testRegistrar() throws NoSuchMethodException {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new NativeHints.Registrar().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertThat(RuntimeHintsPredicates.resource().forResource("tokenizer/cl100k_base.tiktoken")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("tokenizer/o200k_base.tiktoken")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onConstructor(org.h2.Driver.class.getConstructor()))
+                .accepts(hints);
+    }
+}
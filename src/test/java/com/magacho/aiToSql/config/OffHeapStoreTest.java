@@ -0,0 +1,72 @@
+package com.magacho.aiToSql.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Tests for OffHeapStore
+ */
+@DisplayName("Off-Heap Store Tests")
+class OffHeapStoreTest {
+
+    @Test
+    @DisplayName("Should evict the least recently read entries beyond capacity")
+    void testCapacity() {
+        // Given
+        OffHeapStore store = new OffHeapStore(100);
+        store.put("a", new byte[40], OffHeapStore.NEVER);
+        store.put("b", new byte[40], OffHeapStore.NEVER);
+        store.get("a", 0);
+
+        // When
+        store.put("c", new byte[40], OffHeapStore.NEVER);
+
+        // Then
+        assertThat(store.get("b", 0)).isNull();
+        assertThat(store.get("a", 0)).isNotNull();
+        assertThat(store.bytes()).isEqualTo(80);
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.put("huge", new byte[101], OffHeapStore.NEVER)).isFalse();
+        assertThat(store.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep an entry intact for a reader while it is replaced")
+    void testReadOnlyViews() {
+        // Given
+        OffHeapStore store = new OffHeapStore(1024);
+        store.put("orders", "first".getBytes(StandardCharsets.UTF_8), OffHeapStore.NEVER);
+        ByteBuffer reading = store.get("orders", 0).bytes();
+
+        // When
+        store.put("orders", "second!".getBytes(StandardCharsets.UTF_8), OffHeapStore.NEVER);
+
+        // Then
+        assertThat(reading.isReadOnly()).isTrue();
+        assertThat(reading.isDirect()).isTrue();
+        assertThat(StandardCharsets.UTF_8.decode(reading).toString()).isEqualTo("first");
+        assertThat(StandardCharsets.UTF_8.decode(store.get("orders", 0).bytes()).toString()).isEqualTo("second!");
+        assertThat(store.bytes()).isEqualTo(7);
+        assertThat(store.remove("orders")).isTrue();
+        assertThat(store.bytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop an entry read at or after its deadline")
+    void testExpiry() {
+        // Given
+        OffHeapStore store = new OffHeapStore(1024);
+        store.put("orders", new byte[40], 1_000);
+
+        // When / Then
+        assertThat(store.get("orders", 999).expiresAt()).isEqualTo(1_000);
+        assertThat(store.get("orders", 1_000)).isNull();
+        assertThat(store.size()).isZero();
+        assertThat(store.bytes()).isZero();
+    }
+}
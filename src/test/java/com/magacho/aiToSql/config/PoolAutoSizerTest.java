@@ -0,0 +1,131 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.service.QueryAdmission;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests for query pool auto-sizing
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.pool-sizing.enabled=true",
+        "mcp.pool-sizing.min-size=2",
+        "mcp.pool-sizing.max-size=20",
+        // Resized by the tests only
+        "mcp.pool-sizing.interval-ms=3600000"
+})
+@DisplayName("Pool Auto-Sizer Tests")
+class PoolAutoSizerTest {
+
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    @Autowired
+    private PoolAutoSizer sizer;
+
+    @Autowired
+    private DataSourceRouter router;
+
+    @Autowired
+    private QueryAdmission admission;
+
+    @AfterEach
+    void tearDown() {
+        pool().getHikariConfigMXBean().setMaximumPoolSize(10);
+        admission.setLimit(10);
+    }
+
+    @Test
+    @DisplayName("Should size for mean concurrency times headroom, never below the peak")
+    void testTargetFromLittlesLaw() {
+        // Given - 4 queries in flight on average over the interval, 5 at most
+        QueryAdmission.Load load = new QueryAdmission.Load(4 * INTERVAL, 4_000, 5, 0, 0);
+
+        // When
+        int target = PoolAutoSizer.targetSize(load, INTERVAL, 4, 1.5);
+
+        // Then
+        assertThat(target).isEqualTo(6);
+        assertThat(PoolAutoSizer.targetSize(new QueryAdmission.Load(INTERVAL, 100, 9, 0, 0), INTERVAL, 4, 1.5))
+                .isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Should grow by half when queries had to wait")
+    void testGrowOnQueueing() {
+        // Given - low mean, but queries queued behind a full pool
+        QueryAdmission.Load load = new QueryAdmission.Load(2 * INTERVAL, 50, 10, 12, 3);
+
+        // When / Then
+        assertThat(PoolAutoSizer.targetSize(load, INTERVAL, 10, 1.5)).isEqualTo(15);
+    }
+
+    @Test
+    @DisplayName("Should close half the gap per interval when shrinking")
+    void testGradualShrink() {
+        // Given - idle interval
+        QueryAdmission.Load idle = new QueryAdmission.Load(0, 0, 0, 0, 0);
+
+        // When / Then
+        assertThat(PoolAutoSizer.targetSize(idle, INTERVAL, 20, 1.5)).isEqualTo(10);
+        assertThat(PoolAutoSizer.targetSize(idle, INTERVAL, 10, 1.5)).isEqualTo(5);
+        assertThat(PoolAutoSizer.targetSize(idle, INTERVAL, 1, 1.5)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stay within max-size and the database's share of its connection limit")
+    void testCeiling() {
+        // Then
+        assertThat(PoolAutoSizer.ceiling(40, 0.5, 100)).isEqualTo(40);
+        assertThat(PoolAutoSizer.ceiling(40, 0.5, 50)).isEqualTo(25);
+        assertThat(PoolAutoSizer.ceiling(40, 0.5, -1)).isEqualTo(40);
+        assertThat(PoolAutoSizer.ceiling(40, 0.5, 1)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should resize the query pool and move the admission limit with it")
+    void testResize() {
+        // Given
+        assertThat(router.queryPools()).containsExactly(pool());
+
+        // When - saturated
+        sizer.resize(new QueryAdmission.Load(10 * INTERVAL, 10_000, 10, 40, 0), INTERVAL);
+
+        // Then
+        assertThat(pool().getMaximumPoolSize()).isEqualTo(15);
+        assertThat(admission.limit()).isEqualTo(15);
+
+        // When - far beyond max-size
+        sizer.resize(new QueryAdmission.Load(50 * INTERVAL, 10_000, 50, 0, 0), INTERVAL);
+
+        // Then
+        assertThat(pool().getMaximumPoolSize()).isEqualTo(20);
+
+        // When - idle
+        sizer.resize(new QueryAdmission.Load(0, 0, 0, 0, 0), INTERVAL);
+        sizer.resize(new QueryAdmission.Load(0, 0, 0, 0, 0), INTERVAL);
+        sizer.resize(new QueryAdmission.Load(0, 0, 0, 0, 0), INTERVAL);
+        sizer.resize(new QueryAdmission.Load(0, 0, 0, 0, 0), INTERVAL);
+        sizer.resize(new QueryAdmission.Load(0, 0, 0, 0, 0), INTERVAL);
+
+        // Then - down to min-size, minimum idle lowered with it
+        assertThat(pool().getMaximumPoolSize()).isEqualTo(2);
+        assertThat(pool().getMinimumIdle()).isLessThanOrEqualTo(2);
+        assertThat(admission.limit()).isEqualTo(2);
+    }
+
+    private HikariDataSource pool() {
+        return router.queryPools().get(0);
+    }
+}
@@ -0,0 +1,164 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.service.McpMetrics;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.McpSession;
+import com.magacho.aiToSql.transport.ProgressChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for RefreshAheadCacheManager
+ */
+@DisplayName("Refresh-Ahead Cache Manager Tests")
+class RefreshAheadCacheManagerTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should serve a stale entry at once and reload it in the background")
+    void testStaleWhileRevalidate() {
+        // Given - refresh after 30 min, reload in the caller after 2 h
+        Cache cache = cache(refreshes::add);
+        assertThat(cache.get("orders", this::load)).isEqualTo("v1");
+
+        // Then - fresh
+        clock.set(29 * MINUTE);
+        assertThat(cache.get("orders", this::load)).isEqualTo("v1");
+        assertThat(refreshes).isEmpty();
+
+        // When - stale: the old value, one refresh however many callers
+        clock.set(31 * MINUTE);
+        assertThat(cache.get("orders", this::load)).isEqualTo("v1");
+        assertThat(cache.get("orders", this::load)).isEqualTo("v1");
+        assertThat(refreshes).hasSize(1);
+        assertThat(loads).hasValue(1);
+
+        // Then - the refresh replaces the entry
+        refreshes.remove(0).run();
+        assertThat(cache.get("orders", this::load)).isEqualTo("v2");
+        assertThat(refreshes).isEmpty();
+        assertThat(refreshCount("success")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reload in the caller past expire-after")
+    void testMaxStaleness() {
+        // Given
+        Cache cache = cache(refreshes::add);
+        cache.get("orders", this::load);
+
+        // When
+        clock.set(121 * MINUTE);
+
+        // Then
+        assertThat(cache.get("orders")).isNull();
+        assertThat(cache.get("orders", this::load)).isEqualTo("v2");
+        assertThat(refreshes).isEmpty();
+        assertThat(cache.get("orders").get()).isEqualTo("v2");
+    }
+
+    @Test
+    @DisplayName("Should reload under the session of the caller that found the entry stale")
+    void testRefreshKeepsSession() {
+        // Given
+        Cache cache = cache(refreshes::add);
+        List<String> tenants = new ArrayList<>();
+        McpCallContext alpha = new McpCallContext(ProgressChannel.NONE, new McpSession(null, "alpha"));
+        try (McpCallContext.Scope ignored = McpCallContext.open(alpha)) {
+            cache.get("orders", () -> tenants.add(McpCallContext.current().session().tenant()));
+            clock.set(31 * MINUTE);
+            cache.get("orders", () -> tenants.add(McpCallContext.current().session().tenant()));
+        }
+
+        // When - the refresh runs on another thread, outside the call
+        refreshes.remove(0).run();
+
+        // Then
+        assertThat(tenants).containsExactly("alpha", "alpha");
+    }
+
+    @Test
+    @DisplayName("Should keep serving the stale entry when a refresh fails or is rejected")
+    void testRefreshFailures() {
+        // Given
+        Cache cache = cache(task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+        cache.get("orders", this::load);
+        clock.set(31 * MINUTE);
+
+        // When / Then - rejected
+        assertThat(cache.get("orders", this::load)).isEqualTo("v1");
+        assertThat(refreshCount("rejected")).isEqualTo(1);
+
+        // When / Then - failed
+        Cache failing = cache(Runnable::run);
+        clock.set(0);
+        failing.get("orders", this::load);
+        clock.set(31 * MINUTE);
+        String served = failing.get("orders", () -> {
+            throw new IllegalStateException("database down");
+        });
+        assertThat(served).isEqualTo("v2");
+        assertThat(refreshCount("failure")).isEqualTo(1);
+        // Then - the next stale call tries again
+        assertThat(failing.get("orders", this::load)).isEqualTo("v2");
+        assertThat(failing.get("orders", this::load)).isEqualTo("v3");
+    }
+
+    @Test
+    @DisplayName("Should leave caches without a refresh-after-ms untouched")
+    void testOtherCaches() {
+        // Given
+        ConcurrentMapCacheManager target = new ConcurrentMapCacheManager("table-details", "query-plans",
+                "query-results");
+        RefreshAheadCacheManager manager = manager(target, refreshes::add);
+
+        // Then
+        assertThat(manager.getCache("query-plans")).isSameAs(target.getCache("query-plans"));
+        assertThat(manager.getCache("query-results")).isSameAs(target.getCache("query-results"));
+        assertThat(manager.getCache("table-details")).isNotSameAs(target.getCache("table-details"));
+    }
+
+    private String load() {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private Cache cache(Executor executor) {
+        return manager(new ConcurrentMapCacheManager("table-details"), executor).getCache("table-details");
+    }
+
+    private RefreshAheadCacheManager manager(ConcurrentMapCacheManager target, Executor executor) {
+        McpServerConfig.Caches settings = new McpServerConfig().getCaches();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        return new RefreshAheadCacheManager(target, settings, executor, clock::get,
+                new McpMetrics(beans.getBeanProvider(MeterRegistry.class)));
+    }
+
+    private double refreshCount(String outcome) {
+        var counter = registry.find("mcp.cache.refreshes").tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
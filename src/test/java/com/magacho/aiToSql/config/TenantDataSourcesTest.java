@@ -0,0 +1,155 @@
+package com.magacho.aiToSql.config;
+
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.McpSession;
+import com.magacho.aiToSql.transport.ProgressChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for TenantDataSources
+ */
+@DisplayName("Tenant DataSources Tests")
+class TenantDataSourcesTest {
+
+    private TenantDataSources tenants;
+
+    @AfterEach
+    void tearDown() {
+        if (tenants != null) {
+            tenants.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should open pools on first use only")
+    void testLazyPools() throws SQLException {
+        // Given
+        tenants = tenantDataSources(10, "a", "b");
+
+        // Then
+        assertThat(tenants.openTenants()).isEmpty();
+
+        // When
+        try (Connection connection = tenants.getConnection("a")) {
+            assertThat(connection.isValid(1)).isTrue();
+        }
+
+        // Then
+        assertThat(tenants.openTenants()).containsExactly("a");
+        assertThat(tenants.allocated()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should close the least recently used idle pool to stay under the cap")
+    void testConnectionCap() throws SQLException {
+        // Given - room for two pools of two connections
+        tenants = tenantDataSources(4, "a", "b", "c", "d");
+        tenants.getConnection("a").close();
+        try (Connection b = tenants.getConnection("b")) {
+
+            // When
+            Connection c = tenants.getConnection("c");
+
+            // Then - "a" was idle, "b" is busy
+            assertThat(tenants.openTenants()).containsExactlyInAnyOrder("b", "c");
+            assertThat(tenants.allocated()).isEqualTo(4);
+
+            // When / Then - every open pool is busy
+            assertThatThrownBy(() -> tenants.getConnection("d"))
+                    .isInstanceOf(SQLTransientConnectionException.class)
+                    .hasMessageContaining("cap of 4");
+            c.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should close pools idle for longer than the eviction delay")
+    void testIdleEviction() throws SQLException {
+        // Given
+        tenants = tenantDataSources(10, "a", "b");
+        tenants.getConnection("a").close();
+        Connection held = tenants.getConnection("b");
+
+        // When
+        tenants.evictIdle(System.currentTimeMillis() + 60_000);
+
+        // Then - a pool with a borrowed connection is kept
+        assertThat(tenants.openTenants()).containsExactly("b");
+        assertThat(tenants.allocated()).isEqualTo(2);
+
+        // When - reopened on demand
+        held.close();
+        tenants.getConnection("a").close();
+
+        // Then
+        assertThat(tenants.openTenants()).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    @DisplayName("Should refuse unknown tenants")
+    void testUnknownTenant() {
+        // Given
+        tenants = tenantDataSources(10, "a");
+
+        // Then
+        assertThat(tenants.isKnown("a")).isTrue();
+        assertThat(tenants.isKnown("z")).isFalse();
+        assertThatThrownBy(() -> tenants.getConnection("z"))
+                .isInstanceOf(SQLException.class)
+                .hasMessageContaining("Unknown tenant");
+    }
+
+    @Test
+    @DisplayName("Should route calls with explicit credentials like any other call")
+    void testRoutingWithCredentials() throws SQLException {
+        // Given
+        tenants = tenantDataSources(10, "a");
+        JdbcDataSource primary = new JdbcDataSource();
+        primary.setURL("jdbc:h2:mem:tenant_default;DB_CLOSE_DELAY=-1");
+        DataSourceRouter.TenantRoutingDataSource routing =
+                new DataSourceRouter.TenantRoutingDataSource(tenants, primary);
+
+        // When / Then - no tenant: the default route, with the given credentials
+        try (Connection connection = routing.getConnection("sa", "")) {
+            assertThat(connection.getMetaData().getURL()).contains("tenant_default");
+        }
+
+        // When / Then - a tenant session: the tenant's pool
+        McpCallContext context = new McpCallContext(ProgressChannel.NONE, new McpSession(null, "a"));
+        try (McpCallContext.Scope ignored = McpCallContext.open(context);
+             Connection connection = routing.getConnection("sa", "")) {
+            assertThat(connection.getMetaData().getURL()).contains("tenant_a");
+        }
+        assertThat(tenants.openTenants()).containsExactly("a");
+    }
+
+    private static TenantDataSources tenantDataSources(int maxTotalConnections, String... ids) {
+        McpServerConfig config = new McpServerConfig();
+        McpServerConfig.Tenants settings = config.getTenants();
+        settings.setDefaultPoolSize(2);
+        settings.setMaxTotalConnections(maxTotalConnections);
+        settings.setIdleEvictAfterMs(30_000);
+        settings.setConnectionTimeoutMs(2_000);
+        for (String id : ids) {
+            McpServerConfig.TenantDatabase database = new McpServerConfig.TenantDatabase();
+            database.setUrl("jdbc:h2:mem:tenant_" + id + ";DB_CLOSE_DELAY=-1");
+            database.setUsername("sa");
+            database.setPassword("");
+            settings.getDatabases().put(id, database);
+        }
+        return new TenantDataSources(config, new DataSourceProperties(), new JdbcDriverResolver(),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
@@ -0,0 +1,233 @@
+package com.magacho.aiToSql.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.dto.TriggerList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit Tests for TieredCache
+ */
+@DisplayName("Tiered Cache Tests")
+class TieredCacheTest {
+
+    private static final long MB = 1024 * 1024;
+
+    @Test
+    @DisplayName("Should spill entries evicted from the heap and still answer them")
+    void testSpillOnEviction() {
+        // Given - room on the heap for a few trigger lists only
+        TieredCache cache = cache(4 * 1024, 64 * 1024);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            cache.put("table-" + i, triggers("table-" + i));
+        }
+        cache.getNativeCache().cleanUp();
+
+        // Then
+        assertThat(cache.spills()).isPositive();
+        assertThat(cache.offHeapEntries()).isPositive();
+        for (int i = 0; i < 50; i++) {
+            assertThat(cache.get("table-" + i, TriggerList.class)).isEqualTo(triggers("table-" + i));
+        }
+        assertThat(cache.offHeapHits()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep large entries off the heap and move small ones back on a hit")
+    void testEntrySize() {
+        // Given - entries above 1 KB stay off the heap
+        TieredCache cache = cache(MB, 1024);
+        TriggerList small = triggers("orders");
+        TriggerList large = largeTriggers();
+
+        // When
+        cache.put("large", large);
+        cache.put("small", small);
+
+        // Then
+        assertThat(cache.getNativeCache().asMap()).containsOnlyKeys("small");
+        assertThat(cache.offHeapEntries()).isEqualTo(1);
+        assertThat(cache.get("large", TriggerList.class)).isEqualTo(large);
+        assertThat(cache.get("large", TriggerList.class)).isEqualTo(large);
+        assertThat(cache.offHeapHits()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should move a small entry found off the heap back onto it")
+    void testPromotion() {
+        // Given - spilled while the heap tier was full
+        TieredCache cache = cache(4 * 1024, 64 * 1024);
+        for (int i = 0; i < 50; i++) {
+            cache.put("table-" + i, triggers("table-" + i));
+        }
+        cache.getNativeCache().cleanUp();
+        String spilled = "table-0";
+        assertThat(cache.getNativeCache().asMap()).doesNotContainKey(spilled);
+
+        // When - room again
+        cache.getNativeCache().policy().eviction().orElseThrow().setMaximum(MB);
+        long offHeap = cache.offHeapEntries();
+
+        // Then
+        assertThat(cache.get(spilled, TriggerList.class)).isEqualTo(triggers(spilled));
+        assertThat(cache.getNativeCache().asMap()).containsKey(spilled);
+        assertThat(cache.offHeapEntries()).isEqualTo(offHeap - 1);
+    }
+
+    @Test
+    @DisplayName("Should load a large value once and serve it from the off-heap tier")
+    void testLoadLargeValue() {
+        // Given
+        TieredCache cache = cache(MB, 1024);
+        AtomicInteger loads = new AtomicInteger();
+        TriggerList large = largeTriggers();
+
+        // When
+        TriggerList first = cache.get("orders", () -> {
+            loads.incrementAndGet();
+            return large;
+        });
+        TriggerList second = cache.get("orders", () -> {
+            loads.incrementAndGet();
+            return large;
+        });
+
+        // Then
+        assertThat(first).isSameAs(large);
+        assertThat(second).isEqualTo(large).isNotSameAs(large);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getNativeCache().asMap()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expire an entry kept off the heap")
+    void testOffHeapExpiry() {
+        // Given - entries above 1 KB stay off the heap and live one second
+        AtomicLong now = new AtomicLong();
+        TieredCache cache = cache(MB, 1024, Duration.ofSeconds(1), now::get);
+        TriggerList large = largeTriggers();
+        cache.put("large", large);
+
+        // When / Then
+        now.addAndGet(Duration.ofMillis(999).toNanos());
+        assertThat(cache.get("large", TriggerList.class)).isEqualTo(large);
+        now.addAndGet(Duration.ofMillis(1).toNanos());
+        assertThat(cache.get("large")).isNull();
+        assertThat(cache.offHeapEntries()).isZero();
+        assertThat(cache.offHeapBytes()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep only the remaining time of an entry moved back onto the heap")
+    void testPromotedExpiry() {
+        // Given - spilled while the heap tier was full, entries live one second
+        AtomicLong now = new AtomicLong();
+        TieredCache cache = cache(4 * 1024, 64 * 1024, Duration.ofSeconds(1), now::get);
+        for (int i = 0; i < 50; i++) {
+            cache.put("table-" + i, triggers("table-" + i));
+        }
+        cache.getNativeCache().cleanUp();
+        String spilled = "table-0";
+        assertThat(cache.getNativeCache().asMap()).doesNotContainKey(spilled);
+        cache.getNativeCache().policy().eviction().orElseThrow().setMaximum(MB);
+
+        // When - promoted halfway through its lifetime
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertThat(cache.get(spilled, TriggerList.class)).isEqualTo(triggers(spilled));
+        assertThat(cache.getNativeCache().asMap()).containsKey(spilled);
+
+        // Then - gone at the original deadline
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertThat(cache.get(spilled)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should restore query rows and cache wrappers with their types")
+    void testRoundTrip() {
+        // Given
+        TieredCache cache = cache(MB, 0);
+        Timestamp created = Timestamp.valueOf("2024-03-01 10:15:30");
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{42L, new BigDecimal("1234.50"), created, "Alice", null});
+        QueryResult result = new QueryResult("SELECT * FROM orders", 1, 100,
+                List.of(new QueryResult.Column("ID", "BIGINT", Types.BIGINT),
+                        new QueryResult.Column("TOTAL", "DECIMAL", Types.DECIMAL),
+                        new QueryResult.Column("CREATED", "TIMESTAMP", Types.TIMESTAMP),
+                        new QueryResult.Column("NAME", "VARCHAR", Types.VARCHAR),
+                        new QueryResult.Column("NOTE", "VARCHAR", Types.VARCHAR)),
+                rows, QueryResult.Format.COMPACT, null);
+
+        // When
+        cache.put("orders", new RefreshAheadCacheManager.Stamped(result, 7L));
+        RefreshAheadCacheManager.Stamped restored = cache.get("orders", RefreshAheadCacheManager.Stamped.class);
+
+        // Then
+        assertThat(restored.loadedAt()).isEqualTo(7L);
+        QueryResult value = (QueryResult) restored.value();
+        assertThat(value.query()).isEqualTo(result.query());
+        assertThat(value.columns()).isEqualTo(result.columns());
+        assertThat(value.format()).isEqualTo(QueryResult.Format.COMPACT);
+        assertThat(value.rows()).hasSize(1);
+        assertThat(value.rows().get(0)).containsExactly(42L, new BigDecimal("1234.50"), created, "Alice", null);
+    }
+
+    @Test
+    @DisplayName("Should evict and clear both tiers")
+    void testEvictAndClear() {
+        // Given
+        TieredCache cache = cache(MB, 1024);
+        cache.put("large", largeTriggers());
+        cache.put("small", triggers("orders"));
+
+        // When / Then
+        assertThat(cache.evictIfPresent("large")).isTrue();
+        assertThat(cache.get("large")).isNull();
+        assertThat(cache.invalidate()).isTrue();
+        assertThat(cache.get("small")).isNull();
+        assertThat(cache.offHeapBytes()).isZero();
+        assertThat(cache.invalidate()).isFalse();
+    }
+
+    private static TieredCache cache(long onHeapBytes, long maxOnHeapEntryBytes) {
+        return cache(onHeapBytes, maxOnHeapEntryBytes, Duration.ZERO, Ticker.systemTicker());
+    }
+
+    private static TieredCache cache(long onHeapBytes, long maxOnHeapEntryBytes, Duration expireAfterWrite,
+                                     Ticker ticker) {
+        Caffeine<Object, Object> onHeap = Caffeine.newBuilder()
+                .maximumWeight(onHeapBytes)
+                .weigher(RetainedSizeEstimator::weigh)
+                .executor(Runnable::run);
+        return new TieredCache("triggers", onHeap, new OffHeapStore(MB), maxOnHeapEntryBytes, expireAfterWrite,
+                ticker);
+    }
+
+    private static TriggerList triggers(String table) {
+        return new TriggerList(table, List.of(new TriggerList.TriggerInfo(table + "_audit", "AFTER", "INSERT",
+                "INSERT INTO audit_log VALUES (NEW.id)")));
+    }
+
+    private static TriggerList largeTriggers() {
+        List<TriggerList.TriggerInfo> triggers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            triggers.add(new TriggerList.TriggerInfo("orders_audit_" + i, "AFTER", "UPDATE",
+                    "INSERT INTO audit_log VALUES (NEW.id, " + i + ")"));
+        }
+        return new TriggerList("orders", triggers);
+    }
+}
@@ -0,0 +1,89 @@
+package com.magacho.aiToSql.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration Tests for stale-while-revalidate metadata caches
+ */
+@SpringBootTest(properties = {
+        // Every cached entry is stale after 1 ms, never too stale to serve
+        "mcp.caches.specs.table-details.share=0.30",
+        "mcp.caches.specs.table-details.refresh-after-ms=1",
+        "mcp.caches.specs.table-details.expire-after-ms=3600000"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Cache Refresh Integration Tests")
+class McpCacheRefreshTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @DisplayName("Should answer from the stale entry and reload it in the background")
+    void testStaleWhileRevalidate() throws Exception {
+        // Given - loaded by the first call
+        callTableDetails();
+        Thread.sleep(5);
+
+        // When - served stale, refreshed behind the response
+        callTableDetails()
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.metadata").doesNotExist());
+
+        // Then
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (refreshes("success") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(refreshes("success")).isPositive();
+        assertThat(refreshes("failure")).isZero();
+        callTableDetails().andExpect(jsonPath("$.result.content[0].text", containsString("customers")));
+    }
+
+    private ResultActions callTableDetails() throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest("tools/call", Map.of(
+                "name", "getTableDetails",
+                "arguments", Map.of("tableName", "customers")), 1);
+        return mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.isError").value(false));
+    }
+
+    private double refreshes(String outcome) {
+        Counter counter = registry.find("mcp.cache.refreshes")
+                .tag("cache", "table-details").tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
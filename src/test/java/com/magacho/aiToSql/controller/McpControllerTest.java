@@ -2,6 +2,8 @@ package com.magacho.aiToSql.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,7 @@ import java.util.Map;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * Integration Tests for MCP Controller
@@ -38,6 +41,9 @@ class McpControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     @DisplayName("GET /mcp should return server info")
     void testGetServerInfo() throws Exception {
@@ -146,6 +152,24 @@ class McpControllerTest {
                 .andExpect(jsonPath("$.error.code").value(-32601));
     }
 
+    @Test
+    @DisplayName("POST /mcp with notifications/initialized should be accepted without a response or error")
+    void testInitializedNotification() throws Exception {
+        // Given
+        Counter methodNotFound = meterRegistry.find("mcp.request.errors").tag("code", "-32601").counter();
+        double errorsBefore = methodNotFound != null ? methodNotFound.count() : 0;
+
+        // When / Then
+        mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(content().string(""));
+        methodNotFound = meterRegistry.find("mcp.request.errors").tag("code", "-32601").counter();
+        assertThat(methodNotFound != null ? methodNotFound.count() : 0)
+                .isEqualTo(errorsBefore);
+    }
+
     @Test
     @DisplayName("POST /mcp with tools/call and invalid params should return error")
     void testToolsCallWithInvalidParams() throws Exception {
@@ -191,7 +215,7 @@ class McpControllerTest {
                 .andExpect(jsonPath("$.result.meta.tokens").exists())
                 .andExpect(jsonPath("$.result.meta.tokens.estimated").isNumber())
                 .andExpect(jsonPath("$.result.meta.tokens.estimated").value(greaterThan(0)))
-                .andExpect(jsonPath("$.result.meta.tokens.approximationMethod").value("character_count_div_4"))
+                .andExpect(jsonPath("$.result.meta.tokens.approximationMethod").value("bpe_cl100k_base"))
                 .andExpect(jsonPath("$.result.meta.tokens.warning").exists())
                 // Check performance info
                 .andExpect(jsonPath("$.result.meta.performance").exists())
@@ -227,6 +251,6 @@ class McpControllerTest {
                 .andExpect(jsonPath("$.result.meta.data.rowCount").isNumber())
                 .andExpect(jsonPath("$.result.meta.data.columnCount").isNumber())
                 .andExpect(jsonPath("$.result.meta.data.truncated").isBoolean())
-                .andExpect(jsonPath("$.result.meta.data.maxRowsLimit").value(1000));
+                .andExpect(jsonPath("$.result.meta.data.maxRowsLimit").value(5));
     }
 }
@@ -11,6 +11,13 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -190,6 +197,139 @@ class McpMetricsIntegrationTest {
                 .andExpect(jsonPath("$.summary.averageCostPerCall").value(greaterThan(0.0)));
     }
 
+    @Test
+    void testCostPerModel_FromHeader() throws Exception {
+        // Given - Reset metrics
+        mockMvc.perform(post("/mcp/metrics/reset"))
+                .andExpect(status().isOk());
+
+        JsonRpcRequest request = new JsonRpcRequest(
+                "tools/call",
+                Map.of(
+                        "name", "getTableDetails",
+                        "arguments", Map.of("tableName", "customers")
+                ),
+                1
+        );
+
+        // When - One client bills against gpt-4o, another uses the default model
+        mockMvc.perform(post("/mcp")
+                        .header("X-MCP-Model", "gpt-4o")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.meta.cost.model").value("gpt-4o"))
+                .andExpect(jsonPath("$.result.meta.cost.cachedInputUSD").isNumber())
+                .andExpect(jsonPath("$.result.meta.tokens.approximationMethod").value("bpe_o200k_base"));
+        executeSchemaStructureTool();
+
+        // Then - Cost is aggregated per model
+        mockMvc.perform(get("/mcp/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.models['gpt-4o'].totalCalls").value(1))
+                .andExpect(jsonPath("$.models['gpt-4o'].totalCostUSD").value(greaterThan(0.0)))
+                .andExpect(jsonPath("$.models['claude-3.5-sonnet'].totalCalls").value(1))
+                .andExpect(jsonPath("$.summary.totalCalls").value(2));
+    }
+
+    @Test
+    void testTimeSeriesEndpoint() throws Exception {
+        // Given - Reset metrics
+        mockMvc.perform(post("/mcp/metrics/reset"))
+                .andExpect(status().isOk());
+
+        // When
+        executeSchemaStructureTool();
+        executeQueryTool();
+
+        // Then - Recent activity per window, per tool and across tools
+        mockMvc.perform(get("/mcp/metrics/timeseries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tools.getSchemaStructure['1m'].calls").value(1))
+                .andExpect(jsonPath("$.tools.getSchemaStructure['1m'].p95LatencyMs").isNumber())
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery['5m'].tokensPerSecond").isNumber())
+                .andExpect(jsonPath("$.all['1h'].calls").value(2))
+                .andExpect(jsonPath("$.all['1h'].costPerHourUSD").isNumber());
+    }
+
+    @Test
+    void testPhaseTimings() throws Exception {
+        // Given
+        mockMvc.perform(post("/mcp/metrics/reset"))
+                .andExpect(status().isOk());
+        executeSchemaStructureTool();
+
+        // When/Then - a query reports pool wait, execution, fetch and serialization separately
+        mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new JsonRpcRequest("tools/call", Map.of(
+                                "name", "secureDatabaseQuery",
+                                "arguments", Map.of("queryDescription", "SELECT name FROM customers")), 1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.connectionAcquire").isNumber())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.queryExecution").isNumber())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.rowFetch").isNumber())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.serialization").isNumber())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.tokenization").isNumber())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.metadata").doesNotExist());
+
+        // When/Then - a cached schema lookup never reaches the database
+        mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new JsonRpcRequest("tools/call", Map.of(
+                                "name", "getSchemaStructure", "arguments", Map.of()), 1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.serialization").isNumber())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.connectionAcquire").doesNotExist())
+                .andExpect(jsonPath("$.result.meta.performance.phasesNs.metadata").doesNotExist());
+
+        mockMvc.perform(get("/mcp/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery.avgPhasesNs.queryExecution").isNumber())
+                .andExpect(jsonPath("$.tools.getSchemaStructure.avgPhasesNs.serialization").isNumber());
+    }
+
+    @Test
+    void testSlowCallJournalAndFlightRecorder() throws Exception {
+        // Given
+        mockMvc.perform(post("/mcp/metrics/reset"))
+                .andExpect(status().isOk());
+        Path dump = Files.createTempFile("mcp", ".jfr");
+
+        // When - a query runs while a flight recording is on
+        try (Recording recording = new Recording()) {
+            recording.enable("com.magacho.aiToSql.ToolExecution");
+            recording.enable("com.magacho.aiToSql.JdbcPhase");
+            recording.start();
+            mockMvc.perform(post("/mcp")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new JsonRpcRequest("tools/call", Map.of(
+                                    "name", "secureDatabaseQuery",
+                                    "arguments", Map.of("queryDescription",
+                                            "SELECT name FROM customers WHERE age > 30")), 1))))
+                    .andExpect(status().isOk());
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then - the journal keeps the call with its query shape, never its literals
+        mockMvc.perform(get("/mcp/metrics/slow-calls"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery[0].sql")
+                        .value("SELECT name FROM customers WHERE age > ?"))
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery[0].outcome").value("success"))
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery[0].rows").isNumber())
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery[0].bytes").isNumber())
+                .andExpect(jsonPath("$.tools.secureDatabaseQuery[0].phasesNs.rowFetch").isNumber());
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.delete(dump);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.magacho.aiToSql.ToolExecution")
+                && "SELECT name FROM customers WHERE age > ?".equals(e.getString("sql"))));
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("com.magacho.aiToSql.JdbcPhase")
+                && "queryExecution".equals(e.getString("phase"))));
+    }
+
     @Test
     void testPerformanceTracking() throws Exception {
         // Given - Reset metrics
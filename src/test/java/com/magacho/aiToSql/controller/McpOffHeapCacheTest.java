@@ -0,0 +1,100 @@
+package com.magacho.aiToSql.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration Tests for the off-heap cache tier
+ */
+@SpringBootTest(properties = {
+        "spring.cache.type=caffeine",
+        // Every entry is kept off the heap
+        "mcp.caches.off-heap.max-on-heap-entry-kb=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Off-Heap Cache Integration Tests")
+class McpOffHeapCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @DisplayName("Should answer metadata from the off-heap tier as it was loaded")
+    void testMetadata() throws Exception {
+        // Given
+        Map<String, Object> arguments = Map.of("tableName", "customers");
+        String loaded = text(call("getTableDetails", arguments));
+
+        // When
+        String cached = text(call("getTableDetails", arguments));
+
+        // Then
+        assertThat(cached).isEqualTo(loaded).contains("customers");
+        assertThat(hits("table-details")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated query from the off-heap tier")
+    void testQueryResult() throws Exception {
+        // Given
+        Map<String, Object> arguments = Map.of("queryDescription", "SELECT * FROM customers ORDER BY id");
+        JsonNode first = call("secureDatabaseQuery", arguments);
+
+        // When
+        JsonNode second = call("secureDatabaseQuery", arguments);
+
+        // Then
+        assertThat(text(second)).isEqualTo(text(first));
+        assertThat(second.at("/result/meta/performance/cachedResult").asBoolean()).isTrue();
+        assertThat(hits("query-results")).isPositive();
+    }
+
+    private JsonNode call(String tool, Map<String, Object> arguments) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest("tools/call", Map.of("name", tool, "arguments", arguments), 1);
+        String body = mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.isError").value(false))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static String text(JsonNode response) {
+        return response.at("/result/content/0/text").asText();
+    }
+
+    private double hits(String cache) {
+        FunctionCounter counter = registry.find("mcp.cache.offheap.hits").tag("cache", cache).functionCounter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,144 @@
+package com.magacho.aiToSql.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Micrometer instrumentation of the MCP hot paths, checked against a
+ * scripted session and the Prometheus scrape
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@Sql(scripts = {"/cleanup.sql", "/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Prometheus Instrumentation Tests")
+class McpPrometheusInstrumentationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @DisplayName("Should record every stage of a scripted session")
+    void testScriptedSession() throws Exception {
+        // Given
+        long initializes = timerCount(registry.find("mcp.requests").tag("method", "initialize"));
+        long toolCalls = timerCount(registry.find("mcp.requests").tag("method", "tools/call"));
+        long schemaCalls = timerCount(registry.find("mcp.tool.execution").tag("tool", "getSchemaStructure"));
+        long queries = timerCount(registry.find("mcp.jdbc").tag("operation", "query"));
+        long introspections = timerCount(registry.find("mcp.jdbc").tag("operation", "table_details"));
+        long rows = registry.find("mcp.query.rows").summaries().stream().mapToLong(s -> s.count()).sum();
+        long schemaGets = counterSum(registry.find("mcp.cache.gets").tag("cache", "schema-structure"));
+        long schemaHits = counterSum(registry.find("mcp.cache.gets").tag("cache", "schema-structure")
+                .tag("result", "hit"));
+        long rejections = counterSum(registry.find("mcp.validation.rejections").tag("reason", "forbidden_keyword"));
+        long unknownMethods = timerCount(registry.find("mcp.requests").tag("method", "unknown"));
+        long acquires = timerCount(registry.find("hikaricp.connections.acquire"));
+
+        // When
+        call("initialize", Map.of());
+        call("tools/list", Map.of());
+        callTool("getSchemaStructure", Map.of());
+        callTool("getSchemaStructure", Map.of());
+        callTool("getTableDetails", Map.of("tableName", "orders"));
+        callTool("secureDatabaseQuery", Map.of("queryDescription", "SELECT name FROM customers"));
+        callTool("secureDatabaseQuery", Map.of("queryDescription", "SELECT 1; DROP TABLE customers"));
+        call("no/such/method", Map.of());
+
+        // Then
+        assertThat(timerCount(registry.find("mcp.requests").tag("method", "initialize"))).isEqualTo(initializes + 1);
+        assertThat(timerCount(registry.find("mcp.requests").tag("method", "tools/call"))).isEqualTo(toolCalls + 5);
+        assertThat(timerCount(registry.find("mcp.requests").tag("method", "unknown"))).isEqualTo(unknownMethods + 1);
+        assertThat(timerCount(registry.find("mcp.tool.execution").tag("tool", "getSchemaStructure")))
+                .isEqualTo(schemaCalls + 2);
+        assertThat(timerCount(registry.find("mcp.jdbc").tag("operation", "query"))).isEqualTo(queries + 1);
+        assertThat(timerCount(registry.find("mcp.jdbc").tag("operation", "table_details")))
+                .isEqualTo(introspections + 1);
+        assertThat(registry.find("mcp.query.rows").summaries().stream().mapToLong(s -> s.count()).sum())
+                .isEqualTo(rows + 1);
+        assertThat(registry.get("mcp.query.rows").summary().max()).isGreaterThanOrEqualTo(5);
+        // The second schema lookup is always served from the cache
+        assertThat(counterSum(registry.find("mcp.cache.gets").tag("cache", "schema-structure")))
+                .isEqualTo(schemaGets + 2);
+        assertThat(counterSum(registry.find("mcp.cache.gets").tag("cache", "schema-structure").tag("result", "hit")))
+                .isGreaterThanOrEqualTo(schemaHits + 1);
+        assertThat(counterSum(registry.find("mcp.validation.rejections").tag("reason", "forbidden_keyword")))
+                .isEqualTo(rejections + 1);
+        assertThat(registry.get("mcp.response.size").tag("tool", "secureDatabaseQuery").summary().totalAmount())
+                .isPositive();
+        assertThat(registry.get("mcp.response.tokenization").tag("tool", "getTableDetails").timer().count())
+                .isPositive();
+        assertThat(registry.get("mcp.response.serialization").tag("tool", "getTableDetails").timer().count())
+                .isPositive();
+        assertThat(registry.find("mcp.request.errors").tag("code", "-32601").counter()).isNotNull();
+        assertThat(timerCount(registry.find("hikaricp.connections.acquire"))).isGreaterThan(acquires);
+    }
+
+    @Test
+    @DisplayName("Should expose MCP meters on the Prometheus scrape endpoint")
+    void testPrometheusScrape() throws Exception {
+        // Given
+        callTool("getSchemaStructure", Map.of());
+
+        // When/Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("mcp_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("mcp_tool_execution_seconds_count{outcome=\"success\",tool=\"getSchemaStructure\"")))
+                .andExpect(content().string(containsString("mcp_jdbc_seconds_count{operation=")))
+                .andExpect(content().string(containsString("mcp_cache_gets_total{cache=\"schema-structure\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")));
+    }
+
+    // Helper methods
+
+    private void callTool(String name, Map<String, Object> arguments) throws Exception {
+        call("tools/call", Map.of("name", name, "arguments", arguments));
+    }
+
+    private void call(String method, Map<String, Object> params) throws Exception {
+        mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new JsonRpcRequest(method, params, 1))))
+                .andExpect(status().isOk());
+    }
+
+    private static long timerCount(Search search) {
+        return search.timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private static long counterSum(Search search) {
+        return (long) search.counters().stream().mapToDouble(Counter::count).sum();
+    }
+}
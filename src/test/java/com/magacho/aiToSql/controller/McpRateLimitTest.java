@@ -0,0 +1,103 @@
+package com.magacho.aiToSql.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.transport.McpSession;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration Tests for per-client rate limits on tools/call
+ */
+@SpringBootTest(properties = {
+        "mcp.rate-limit.enabled=true",
+        "mcp.rate-limit.tools.secureDatabaseQuery.rate-per-second=0.01",
+        "mcp.rate-limit.tools.secureDatabaseQuery.burst=2",
+        "mcp.fair-queue.client-weights.agent-a=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Rate Limit Integration Tests")
+class McpRateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    @DisplayName("Should throttle a client past its burst, per tool, without affecting other clients")
+    void testPerClientBuckets() throws Exception {
+        // Given - agent-a uses its burst of two queries
+        query("agent-a").andExpect(jsonPath("$.result.isError").value(false));
+        query("agent-a").andExpect(jsonPath("$.result.isError").value(false));
+
+        // When / Then - the third is refused with a retry hint
+        query("agent-a")
+                .andExpect(jsonPath("$.error.code").value(JsonRpcError.RATE_LIMITED))
+                .andExpect(jsonPath("$.error.message", containsString("Rate limit exceeded")))
+                .andExpect(jsonPath("$.error.data.retryAfterMs", greaterThan(1000)));
+
+        // Then - other tools and other clients have their own buckets
+        mockMvc.perform(post("/mcp")
+                        .header(McpSession.CLIENT_HEADER, "agent-a")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new JsonRpcRequest("tools/call",
+                                Map.of("name", "getSchemaStructure", "arguments", Map.of()), 1))))
+                .andExpect(jsonPath("$.error").doesNotExist());
+        query("agent-b").andExpect(jsonPath("$.result.isError").value(false));
+    }
+
+    @Test
+    @DisplayName("Should report calls and throttles per client")
+    void testClientMetrics() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            query("agent-c");
+        }
+
+        // When / Then
+        mockMvc.perform(get("/mcp/metrics/clients"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clients.agent-c.calls").value(2))
+                .andExpect(jsonPath("$.clients.agent-c.throttled").value(1));
+        assertThat(registry.get("mcp.client.calls").tag("client", "other").tag("outcome", "throttled")
+                .counter().count()).isPositive();
+    }
+
+    private ResultActions query(String client) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "SELECT COUNT(*) FROM customers")), 1);
+        return mockMvc.perform(post("/mcp")
+                        .header(McpSession.CLIENT_HEADER, client)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,108 @@
+package com.magacho.aiToSql.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.transport.McpSession;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration Tests for tenant database routing
+ * Each tenant is an H2 database with its own table
+ */
+@SpringBootTest(properties = {
+        "mcp.tenants.databases.alpha.url=jdbc:h2:mem:tenant_alpha;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS ALPHA_ITEMS(ID INT PRIMARY KEY)",
+        "mcp.tenants.databases.beta.url=jdbc:h2:mem:tenant_beta;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS BETA_ORDERS(ID INT PRIMARY KEY)",
+        "mcp.tenants.databases.beta.max-pool-size=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Tenant Routing Integration Tests")
+class McpTenantRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should introspect the database selected by X-MCP-Tenant, cached per tenant")
+    void testSchemaPerTenant() throws Exception {
+        for (int round = 0; round < 2; round++) {
+            schema("alpha")
+                    .andExpect(jsonPath("$.result.content[0].text", containsString("ALPHA_ITEMS")))
+                    .andExpect(jsonPath("$.result.content[0].text", not(containsString("BETA_ORDERS"))));
+            schema("beta")
+                    .andExpect(jsonPath("$.result.content[0].text", containsString("BETA_ORDERS")))
+                    .andExpect(jsonPath("$.result.content[0].text", not(containsString("ALPHA_ITEMS"))));
+            schema(null)
+                    .andExpect(jsonPath("$.result.content[0].text", containsStringIgnoringCase("customers")))
+                    .andExpect(jsonPath("$.result.content[0].text", not(containsString("ALPHA_ITEMS"))));
+        }
+    }
+
+    @Test
+    @DisplayName("Should run queries against the tenant database")
+    void testQueryPerTenant() throws Exception {
+        // Given
+        JsonRpcRequest request = new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "SELECT COUNT(*) AS N FROM ALPHA_ITEMS")), 1);
+
+        // When / Then
+        mockMvc.perform(post("/mcp")
+                        .header(McpSession.TENANT_HEADER, "alpha")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error").doesNotExist())
+                .andExpect(jsonPath("$.result.isError").value(false));
+    }
+
+    @Test
+    @DisplayName("Should reject unknown tenants from the header and from initialize")
+    void testUnknownTenant() throws Exception {
+        schema("gamma")
+                .andExpect(jsonPath("$.error.message").value("Unknown tenant: gamma"));
+
+        JsonRpcRequest initialize = new JsonRpcRequest("initialize", Map.of("tenant", "gamma"), 2);
+        mockMvc.perform(post("/mcp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(initialize)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.error.message").value("Unknown tenant: gamma"));
+    }
+
+    private ResultActions schema(String tenant) throws Exception {
+        JsonRpcRequest request = new JsonRpcRequest("tools/call",
+                Map.of("name", "getSchemaStructure", "arguments", Map.of()), 1);
+        var builder = post("/mcp")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request));
+        if (tenant != null) {
+            builder.header(McpSession.TENANT_HEADER, tenant);
+        }
+        return mockMvc.perform(builder).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,76 @@
+package com.magacho.aiToSql.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultSerializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private QueryResult result(QueryResult.Format format) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "Alice", null});
+        rows.add(new Object[]{2L, "Bob", 42});
+        return new QueryResult(
+                "SELECT id, name, age FROM users",
+                2,
+                100,
+                List.of(
+                        new QueryResult.Column("id", "BIGINT", Types.BIGINT),
+                        new QueryResult.Column("name", "VARCHAR", Types.VARCHAR),
+                        new QueryResult.Column("age", "INTEGER", Types.INTEGER)
+                ),
+                rows,
+                format,
+                null
+        );
+    }
+
+    @Test
+    void testVerboseFormat_MatchesMapPerRowLayout() throws Exception {
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(result(QueryResult.Format.VERBOSE)));
+
+        assertEquals(2, json.get("rowCount").asInt());
+        assertEquals("name", json.get("columnNames").get(1).asText());
+        assertEquals("Alice", json.get("data").get(0).get("name").asText());
+        assertTrue(json.get("data").get(0).get("age").isNull());
+        assertEquals(42, json.get("data").get(1).get("age").asInt());
+        assertNull(json.get("rows"));
+    }
+
+    @Test
+    void testCompactFormat_WritesColumnsOnce() throws Exception {
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(result(QueryResult.Format.COMPACT)));
+
+        assertEquals("compact", json.get("format").asText());
+        assertEquals("VARCHAR", json.get("columns").get(1).get("type").asText());
+        assertEquals("Bob", json.get("rows").get(1).get(1).asText());
+        assertEquals(3, json.get("rows").get(0).size());
+        assertNull(json.get("data"));
+    }
+
+    @Test
+    void testLegacyConstructor_ConvertsMapsToRows() {
+        QueryResult legacy = new QueryResult(
+                "SELECT id FROM users", 1, 100, List.of("id"), List.of(Map.of("id", 7)));
+
+        assertEquals(7, legacy.rows().get(0)[0]);
+        assertEquals(List.of(Map.of("id", 7)), legacy.data());
+        assertEquals(QueryResult.Format.VERBOSE, legacy.format());
+    }
+
+    @Test
+    void testFormatParsing() {
+        assertEquals(QueryResult.Format.COMPACT, QueryResult.Format.from("compact"));
+        assertNull(QueryResult.Format.from(null));
+        assertThrows(IllegalArgumentException.class, () -> QueryResult.Format.from("xml"));
+    }
+}
@@ -225,4 +225,22 @@ class ResponseMetadataTest {
         assertEquals(cost, metadata.cost());
         assertEquals(data, metadata.data());
     }
+
+    @Test
+    void testCreate_PropagatesQueryCostEstimate() {
+        QueryCostEstimate estimate = new QueryCostEstimate(
+                5.0, 5.0, "h2_table_scan_estimate", false, QueryCostEstimate.ALLOWED);
+        QueryResult queryResult = new QueryResult(
+                "SELECT * FROM users",
+                1,
+                1000,
+                List.of("id"),
+                List.of(Map.of("id", 1)),
+                estimate
+        );
+
+        ResponseMetadata metadata = ResponseMetadata.create(queryResult, 10L, false);
+
+        assertEquals(estimate, metadata.queryCost());
+    }
 }
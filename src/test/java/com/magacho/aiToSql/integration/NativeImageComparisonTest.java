@@ -0,0 +1,202 @@
+package com.magacho.aiToSql.integration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark: native image versus JVM build against the same file-based H2
+ * database. Reports time to the first successful tools/call, RSS at that
+ * point and steady-state calls/sec, then expects the native binary to start
+ * faster and smaller.
+ *
+ * Runs only when a native binary is given:
+ *   mvn -Pnative native:compile
+ *   mvn test -Dtest=NativeImageComparisonTest -Dnative.binary=target/aiToSql
+ * The JVM side runs the jar built next to it (-Djvm.jar to override).
+ */
+@EnabledIfSystemProperty(named = "native.binary", matches = ".+")
+@EnabledOnOs(OS.LINUX)
+@DisplayName("Native Image Comparison Tests")
+class NativeImageComparisonTest {
+
+    private static final int THREADS = 4;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(10);
+    private static final String CALL = """
+            {"jsonrpc":"2.0","method":"tools/call","params":{"name":"secureDatabaseQuery",\
+            "arguments":{"queryDescription":"SELECT id, name FROM items WHERE id < 50"}},"id":1}""";
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("Native binary should start faster and use less memory than the JVM build")
+    void testNativeVersusJvm() throws Exception {
+        // Given
+        Path work = Files.createDirectories(Path.of("target", "native-comparison"));
+        String url = "jdbc:h2:file:" + work.toAbsolutePath().resolve("items");
+        createDatabase(url);
+
+        String h2 = new File(org.h2.Driver.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                .getAbsolutePath();
+        List<String> jvm = List.of("java", "-Dloader.path=" + h2, "-cp", jvmJar(),
+                "org.springframework.boot.loader.launch.PropertiesLauncher");
+        List<String> nativeImage = List.of(new File(System.getProperty("native.binary")).getAbsolutePath());
+
+        // When - one after the other: an H2 file is opened by a single process
+        Result jvmResult = run("jvm", jvm, url, work);
+        Result nativeResult = run("native", nativeImage, url, work);
+
+        // Then
+        System.out.println("==================================================================");
+        System.out.printf("%-8s %18s %10s %14s%n", "build", "first call (ms)", "RSS (MB)", "calls/sec");
+        for (Result result : List.of(jvmResult, nativeResult)) {
+            System.out.printf("%-8s %18d %10.1f %14.0f%n",
+                    result.name, result.firstCallMs, result.rssMb, result.callsPerSecond);
+        }
+        System.out.println("==================================================================");
+
+        assertThat(jvmResult.callsPerSecond).isPositive();
+        assertThat(nativeResult.callsPerSecond).isPositive();
+        assertThat(nativeResult.firstCallMs).isLessThan(jvmResult.firstCallMs);
+        assertThat(nativeResult.rssMb).isLessThan(jvmResult.rssMb);
+    }
+
+    private Result run(String name, List<String> launch, String url, Path work) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(launch);
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.cache.type=simple"));
+        URI endpoint = URI.create("http://localhost:" + port + "/mcp");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(work.resolve(name + ".log").toFile())
+                .start();
+        try {
+            while (!succeeds(endpoint)) {
+                assertThat(process.isAlive()).as(name + " server exited, see " + name + ".log").isTrue();
+                assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(STARTUP_TIMEOUT);
+                Thread.sleep(20);
+            }
+            long firstCallMs = (System.nanoTime() - start) / 1_000_000;
+            double rssMb = rssMb(process.pid());
+
+            callFor(endpoint, WARMUP);
+            double callsPerSecond = callFor(endpoint, MEASUREMENT) / (double) MEASUREMENT.toSeconds();
+            return new Result(name, firstCallMs, rssMb, callsPerSecond);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private long callFor(URI endpoint, Duration duration) throws InterruptedException {
+        AtomicLong calls = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            threads.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    if (succeeds(endpoint)) {
+                        calls.incrementAndGet();
+                    }
+                }
+            });
+        }
+        threads.shutdown();
+        threads.awaitTermination(duration.toSeconds() + 30, java.util.concurrent.TimeUnit.SECONDS);
+        return calls.get();
+    }
+
+    private boolean succeeds(URI endpoint) {
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(endpoint)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(CALL))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 && response.body().contains("\"isError\":false");
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void createDatabase(String url) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS items");
+            statement.execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(100))");
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO items VALUES (?, ?)")) {
+                for (int i = 0; i < 1_000; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "item-" + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    private static String jvmJar() throws IOException {
+        String jar = System.getProperty("jvm.jar");
+        if (jar != null) {
+            return jar;
+        }
+        try (var files = Files.list(Path.of("target"))) {
+            return files.map(Path::toString)
+                    .filter(name -> name.matches(".*aiToSql-[^/]*\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in target/, run mvn package first"));
+        }
+    }
+
+    private static double rssMb(long pid) throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+            }
+        }
+        return Double.NaN;
+    }
+
+    private record Result(String name, long firstCallMs, double rssMb, double callsPerSecond) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.magacho.aiToSql.pricing;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.ResponseMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for PricingRegistry
+ */
+@DisplayName("Pricing Registry Tests")
+class PricingRegistryTest {
+
+    private McpServerConfig config;
+
+    @BeforeEach
+    void setUp() {
+        config = new McpServerConfig();
+        config.getPricing().getModels().put("gpt-4o", pricing(2.50, 10.00, 1.25));
+        config.getPricing().getModels().put("gpt-4", pricing(30.00, 60.00, null));
+    }
+
+    @Test
+    @DisplayName("Should price a response as input to the selected model")
+    void testCostForSelectedModel() {
+        // Given
+        PricingRegistry registry = new PricingRegistry(config);
+        ResponseMetadata.TokenInfo tokens = new ResponseMetadata.TokenInfo(
+                1000, 0, 1000, "bpe_o200k_base", null);
+
+        // When
+        ResponseMetadata.CostInfo cost = registry.cost("gpt-4o", tokens);
+
+        // Then
+        assertThat(cost.model()).isEqualTo("gpt-4o");
+        assertThat(cost.estimatedUSD()).isCloseTo(0.0025, within(1e-12));
+        assertThat(cost.cachedInputUSD()).isCloseTo(0.00125, within(1e-12));
+        assertThat(cost.note()).isEqualTo("Based on bpe_o200k_base token count");
+    }
+
+    @Test
+    @DisplayName("Should bill tool arguments at the model's output price")
+    void testArgumentsAtOutputPrice() {
+        // Given
+        ModelPrice price = new PricingRegistry(config).forModel("gpt-4");
+
+        // Then
+        assertThat(price.cost(1000, 100)).isCloseTo(0.03 + 0.006, within(1e-12));
+        // No cached-input price configured: same as input
+        assertThat(price.cachedCost(1000, 0)).isEqualTo(price.cost(1000, 0));
+    }
+
+    @Test
+    @DisplayName("Should bill unpriced models as the default model")
+    void testUnknownModelFallsBackToDefault() {
+        // Given
+        PricingRegistry registry = new PricingRegistry(config);
+        ResponseMetadata.TokenInfo tokens = new ResponseMetadata.TokenInfo(
+                1000, 0, 1000, "character_count_div_4", null);
+
+        // When
+        ResponseMetadata.CostInfo cost = registry.cost("some-new-model", tokens);
+
+        // Then
+        assertThat(registry.resolveModel("some-new-model")).isEqualTo("claude-3.5-sonnet");
+        assertThat(registry.resolveModel(null)).isEqualTo("claude-3.5-sonnet");
+        assertThat(cost.model()).isEqualTo("claude-3.5-sonnet");
+        assertThat(cost.estimatedUSD()).isCloseTo(0.003, within(1e-12));
+        assertThat(cost.note()).contains("No price configured for some-new-model");
+        assertThat(registry.models()).containsExactly("gpt-4o", "gpt-4", "claude-3.5-sonnet");
+    }
+
+    @Test
+    @DisplayName("Should reject negative prices")
+    void testNegativePriceRejected() {
+        // Given
+        config.getPricing().getModels().put("broken", pricing(-1, 0, null));
+
+        // Then
+        assertThatThrownBy(() -> new PricingRegistry(config))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("broken");
+    }
+
+    private static McpServerConfig.ModelPricing pricing(double input, double output, Double cachedInput) {
+        McpServerConfig.ModelPricing pricing = new McpServerConfig.ModelPricing();
+        pricing.setInputPerMillion(input);
+        pricing.setOutputPerMillion(output);
+        pricing.setCachedInputPerMillion(cachedInput);
+        return pricing;
+    }
+}
@@ -0,0 +1,78 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: per-call cost of the rate limiter and the fair scheduler's
+ * uncontended path, eight request threads.
+ *
+ * clients=1     - every thread hits the same client's bucket (CAS contention)
+ * clients=1000  - calls spread over many clients
+ *
+ * Limits are set high enough that every call is admitted, even by a thread
+ * descheduled between reading the clock and its CAS.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *        org.openjdk.jmh.Main ClientRateLimiterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class ClientRateLimiterBenchmark {
+
+    @Param({"1", "1000"})
+    public int clients;
+
+    private ClientRateLimiter limiter;
+    private FairCallScheduler scheduler;
+    private String[] clientIds;
+
+    @Setup
+    public void setUp() {
+        McpServerConfig config = new McpServerConfig();
+        config.getRateLimit().setDefaultLimit(new McpServerConfig.ToolLimit(1e9, Integer.MAX_VALUE));
+        config.getFairQueue().setMaxConcurrentCalls(64);
+        var meterRegistry = new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+        limiter = new ClientRateLimiter(config, new McpMetrics(meterRegistry));
+        scheduler = new FairCallScheduler(config, meterRegistry);
+        clientIds = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            clientIds[i] = "client-" + i;
+        }
+    }
+
+    @Benchmark
+    public void rateLimit() {
+        limiter.acquire(clientIds[ThreadLocalRandom.current().nextInt(clients)], "secureDatabaseQuery");
+    }
+
+    @Benchmark
+    public void rateLimitAndSchedule() {
+        String client = clientIds[ThreadLocalRandom.current().nextInt(clients)];
+        limiter.acquire(client, "secureDatabaseQuery");
+        scheduler.acquire(client).close();
+    }
+}
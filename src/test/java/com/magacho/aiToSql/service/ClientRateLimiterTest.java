@@ -0,0 +1,119 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for ClientRateLimiter
+ */
+@DisplayName("Client Rate Limiter Tests")
+class ClientRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should admit a burst, then one call per interval")
+    void testTokenBucket() {
+        // Given - 10 calls/s, burst of 3
+        ClientRateLimiter.TokenBucket bucket = new ClientRateLimiter.TokenBucket(
+                new McpServerConfig.ToolLimit(10, 3), 0);
+
+        // Then - the burst
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+
+        // Then - empty: the next token is 100 ms away
+        assertThat(bucket.tryAcquire(0)).isEqualTo(SECOND / 10);
+        assertThat(bucket.tryAcquire(SECOND / 20)).isEqualTo(SECOND / 20);
+
+        // Then - refilled one token
+        assertThat(bucket.tryAcquire(SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(SECOND / 10)).isPositive();
+
+        // Then - full again after an idle second
+        assertThat(bucket.isFull(2 * SECOND)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per client and per tool")
+    void testBucketsPerClientAndTool() {
+        // Given
+        ClientRateLimiter limiter = limiter(new McpServerConfig.ToolLimit(0.01, 1));
+
+        // When
+        limiter.acquire("a", "secureDatabaseQuery");
+
+        // Then
+        assertThatThrownBy(() -> limiter.acquire("a", "secureDatabaseQuery"))
+                .isInstanceOf(RateLimitExceededException.class)
+                .hasMessageContaining("secureDatabaseQuery")
+                .satisfies(e -> assertThat(((RateLimitExceededException) e).getRetryAfterMs()).isGreaterThan(1000));
+        assertThatCode(() -> limiter.acquire("b", "secureDatabaseQuery")).doesNotThrowAnyException();
+        assertThatCode(() -> limiter.acquire("a", "getSchemaStructure")).doesNotThrowAnyException();
+
+        assertThat(limiter.snapshot().get("a").calls()).isEqualTo(2);
+        assertThat(limiter.snapshot().get("a").throttled()).isEqualTo(1);
+        assertThat(limiter.snapshot().keySet()).containsExactly("a", "b");
+    }
+
+    @Test
+    @DisplayName("Should only count calls when disabled")
+    void testDisabled() {
+        // Given
+        ClientRateLimiter limiter = limiter(new McpServerConfig.ToolLimit(0.01, 1), config -> {
+            config.getRateLimit().setEnabled(false);
+        });
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("a", "secureDatabaseQuery");
+        }
+
+        // Then
+        assertThat(limiter.snapshot().get("a").calls()).isEqualTo(5);
+        assertThat(limiter.snapshot().get("a").throttled()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should forget rested clients past max-tracked-clients")
+    void testTrackedClientCap() throws InterruptedException {
+        // Given - buckets refill within a millisecond
+        ClientRateLimiter limiter = limiter(new McpServerConfig.ToolLimit(10_000, 1), config -> {
+            config.getRateLimit().setMaxTrackedClients(2);
+        });
+        limiter.acquire("a", "secureDatabaseQuery");
+        limiter.acquire("b", "secureDatabaseQuery");
+        Thread.sleep(2);
+
+        // When
+        limiter.acquire("c", "secureDatabaseQuery");
+
+        // Then
+        assertThat(limiter.trackedClients()).isEqualTo(1);
+        assertThat(limiter.snapshot()).containsOnlyKeys("c");
+    }
+
+    private static ClientRateLimiter limiter(McpServerConfig.ToolLimit queryLimit) {
+        return limiter(queryLimit, config -> {
+        });
+    }
+
+    private static ClientRateLimiter limiter(McpServerConfig.ToolLimit queryLimit,
+                                             Consumer<McpServerConfig> customizer) {
+        McpServerConfig config = new McpServerConfig();
+        config.getRateLimit().setEnabled(true);
+        config.getRateLimit().getTools().put("secureDatabaseQuery", queryLimit);
+        customizer.accept(config);
+        return new ClientRateLimiter(config,
+                new McpMetrics(new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)));
+    }
+}
@@ -0,0 +1,65 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.ColumnSummary;
+import com.magacho.aiToSql.dto.QueryResult;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnStatisticsCollectorTest {
+
+    private static final List<QueryResult.Column> COLUMNS = List.of(
+            new QueryResult.Column("id", "BIGINT", Types.BIGINT),
+            new QueryResult.Column("status", "VARCHAR", Types.VARCHAR)
+    );
+
+    @Test
+    void testCountsNullsAndMinMax() {
+        ColumnStatisticsCollector collector = new ColumnStatisticsCollector(COLUMNS);
+        collector.accept(new Object[]{3L, "OPEN"});
+        collector.accept(new Object[]{1L, null});
+        collector.accept(new Object[]{7L, "CLOSED"});
+
+        ColumnSummary id = collector.summaries().get(0);
+        ColumnSummary status = collector.summaries().get(1);
+
+        assertEquals(3, id.count());
+        assertEquals(1L, id.min());
+        assertEquals(7L, id.max());
+        assertEquals(2, status.count());
+        assertEquals(1, status.nullCount());
+        assertEquals("CLOSED", status.min());
+    }
+
+    @Test
+    void testTopValuesAreMostFrequent() {
+        ColumnStatisticsCollector collector = new ColumnStatisticsCollector(COLUMNS);
+        for (int i = 0; i < 10_000; i++) {
+            String status = i % 10 == 0 ? "RARE_" + i : (i % 3 == 0 ? "CLOSED" : "OPEN");
+            collector.accept(new Object[]{(long) i, status});
+        }
+
+        List<ColumnSummary.ValueCount> top = collector.summaries().get(1).topValues();
+
+        assertEquals("OPEN", top.get(0).value());
+        assertEquals("CLOSED", top.get(1).value());
+    }
+
+    @Test
+    void testDistinctEstimateWithinHyperLogLogError() {
+        ColumnStatisticsCollector collector = new ColumnStatisticsCollector(COLUMNS);
+        int distinct = 100_000;
+        for (int i = 0; i < distinct; i++) {
+            collector.accept(new Object[]{(long) i, "value-" + (i % 5_000)});
+        }
+
+        long idEstimate = collector.summaries().get(0).distinctEstimate();
+        long statusEstimate = collector.summaries().get(1).distinctEstimate();
+
+        assertEquals(distinct, idEstimate, distinct * 0.07);
+        assertEquals(5_000, statusEstimate, 5_000 * 0.07);
+    }
+}
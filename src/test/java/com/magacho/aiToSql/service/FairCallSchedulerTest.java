@@ -0,0 +1,128 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for FairCallScheduler
+ */
+@DisplayName("Fair Call Scheduler Tests")
+class FairCallSchedulerTest {
+
+    @Test
+    @DisplayName("Should interleave a quiet client with a client that queued many calls")
+    void testFairOrder() throws Exception {
+        // Given - one slot, held while calls queue up
+        FairCallScheduler scheduler = scheduler(1, 5_000);
+        FairCallScheduler.Slot held = scheduler.acquire("setup");
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> calls = new ArrayList<>();
+        for (String call : List.of("hog-1", "hog-2", "hog-3", "hog-4", "quiet-1")) {
+            calls.add(queue(scheduler, call, started));
+        }
+
+        // When
+        held.close();
+        for (Thread call : calls) {
+            call.join(5_000);
+        }
+
+        // Then - the quiet client goes second, not last
+        assertThat(started).containsExactly("hog-1", "quiet-1", "hog-2", "hog-3", "hog-4");
+        assertThat(scheduler.running()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should share slots in proportion to client weights")
+    void testWeights() throws Exception {
+        // Given - "a" weighs twice as much as "b"
+        FairCallScheduler scheduler = scheduler(1, 5_000, "a", 2.0);
+        FairCallScheduler.Slot held = scheduler.acquire("setup");
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> calls = new ArrayList<>();
+        for (String call : List.of("a-1", "a-2", "a-3", "a-4", "b-1", "b-2", "b-3", "b-4")) {
+            calls.add(queue(scheduler, call, started));
+        }
+
+        // When
+        held.close();
+        for (Thread call : calls) {
+            call.join(5_000);
+        }
+
+        // Then
+        assertThat(started).containsExactly("a-1", "b-1", "a-2", "a-3", "b-2", "a-4", "b-3", "b-4");
+    }
+
+    @Test
+    @DisplayName("Should refuse a call that does not get a turn in time")
+    void testWaitTimeout() {
+        // Given
+        FairCallScheduler scheduler = scheduler(1, 100);
+        FairCallScheduler.Slot held = scheduler.acquire("a");
+
+        // When / Then
+        assertThatThrownBy(() -> scheduler.acquire("b"))
+                .isInstanceOf(ServerBusyException.class)
+                .hasMessageContaining("Server busy");
+        assertThat(scheduler.waiting()).isZero();
+
+        held.close();
+        scheduler.acquire("b").close();
+        assertThat(scheduler.running()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not queue with max-concurrent-calls 0")
+    void testUnbounded() {
+        // Given
+        FairCallScheduler scheduler = scheduler(0, 100);
+
+        // When
+        FairCallScheduler.Slot first = scheduler.acquire("a");
+        FairCallScheduler.Slot second = scheduler.acquire("a");
+
+        // Then
+        assertThat(scheduler.running()).isZero();
+        first.close();
+        second.close();
+    }
+
+    /**
+     * Start a call that records its name once it runs, after it has joined the queue
+     */
+    private static Thread queue(FairCallScheduler scheduler, String call, List<String> started)
+            throws InterruptedException {
+        int before = scheduler.waiting();
+        Thread thread = new Thread(() -> {
+            try (FairCallScheduler.Slot ignored = scheduler.acquire(call.substring(0, call.indexOf('-')))) {
+                started.add(call);
+            }
+        });
+        thread.start();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.waiting() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        return thread;
+    }
+
+    private static FairCallScheduler scheduler(int maxConcurrentCalls, long maxWaitMs, Object... weights) {
+        McpServerConfig config = new McpServerConfig();
+        config.getFairQueue().setMaxConcurrentCalls(maxConcurrentCalls);
+        config.getFairQueue().setMaxWaitMs(maxWaitMs);
+        for (int i = 0; i < weights.length; i += 2) {
+            config.getFairQueue().getClientWeights().put((String) weights[i], (Double) weights[i + 1]);
+        }
+        return new FairCallScheduler(config, new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+}
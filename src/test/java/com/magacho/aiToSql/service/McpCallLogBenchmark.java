@@ -0,0 +1,130 @@
+package com.magacho.aiToSql.service;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: logging cost of one tool call, four request threads.
+ *
+ * off           - no logging
+ * legacy-sync   - the former INFO lines (request, params, query text, metrics)
+ *                 written synchronously
+ * async-sampled - one McpCallLog event for 1% of calls, async appender
+ * async-all     - one McpCallLog event per call, async appender
+ *
+ * Output goes to a discarding stream, so the figures are formatting and
+ * contention, not terminal speed.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *        org.openjdk.jmh.Main McpCallLogBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class McpCallLogBenchmark {
+
+    private static final Logger legacy = LoggerFactory.getLogger("com.magacho.aiToSql.legacy");
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m %kvp%n";
+
+    @Param({"off", "legacy-sync", "async-sampled", "async-all"})
+    public String mode;
+
+    private McpCallLog callLog;
+    private Appender<ILoggingEvent> appender;
+    private final Map<String, Object> params = Map.of(
+            "name", "secureDatabaseQuery",
+            "arguments", Map.of("queryDescription", "SELECT id, name, email FROM customers WHERE country = 'BR'",
+                    "maxRows", 100));
+    private final Map<String, Long> phases = new LinkedHashMap<>(Map.of(
+            "connectionAcquire", 21_000L, "queryExecution", 840_000L, "rowFetch", 1_250_000L,
+            "serialization", 310_000L, "tokenization", 95_000L));
+
+    @Setup
+    public void setUp() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+
+        OutputStreamAppender<ILoggingEvent> sink = new OutputStreamAppender<>();
+        sink.setContext(context);
+        sink.setOutputStream(OutputStream.nullOutputStream());
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        sink.setEncoder(encoder);
+        sink.start();
+        appender = sink;
+
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(sink);
+            async.start();
+            appender = async;
+        }
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel("off".equals(mode) ? Level.OFF : Level.INFO);
+        root.addAppender(appender);
+
+        McpServerConfig config = new McpServerConfig();
+        config.getCallLog().setSuccessSampleRate("async-all".equals(mode) ? 1 : 0.01);
+        callLog = new McpCallLog(config);
+    }
+
+    @TearDown
+    public void tearDown() {
+        appender.stop();
+    }
+
+    @Benchmark
+    public void toolCall() {
+        long durationNs = 2_600_000L;
+        if ("legacy-sync".equals(mode) || "off".equals(mode)) {
+            legacy.info("Received JSON-RPC request: method={}, id={}", "tools/call", 42);
+            legacy.info("Executing MCP tool: {} with params: {}", "secureDatabaseQuery", params);
+            legacy.info("Executing secure query (max {} rows): {}", 100,
+                    "SELECT id, name, email FROM customers WHERE country = 'BR' LIMIT 101");
+            legacy.info("Tool '{}' executed: time={}ms, chars={}, tokens≈{}, cost≈${}",
+                    "secureDatabaseQuery", 2, 4096, 1024, 0.003072);
+        } else if (callLog.shouldLog(durationNs)) {
+            callLog.success("secureDatabaseQuery", "claude-3.5-sonnet", durationNs, phases, 100, 4096, 1024,
+                    0.003072, null);
+        }
+    }
+}
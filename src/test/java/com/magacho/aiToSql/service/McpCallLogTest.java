@@ -0,0 +1,104 @@
+package com.magacho.aiToSql.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for McpCallLog
+ */
+@DisplayName("Call Log Tests")
+class McpCallLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(McpCallLog.LOGGER_NAME);
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.INFO);
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    @DisplayName("Should skip unsampled fast calls and always log slow ones with their SQL")
+    void testSampling() {
+        // Given
+        McpCallLog callLog = new McpCallLog(config(0, 100));
+
+        // Then
+        assertThat(callLog.shouldLog(99_000_000L)).isFalse();
+        assertThat(callLog.shouldLog(100_000_000L)).isTrue();
+
+        // When
+        callLog.success("secureDatabaseQuery", "gpt-4o", 150_000_000L, Map.of("queryExecution", 140_000_000L),
+                5, 2048, 512, 0.00128, "SELECT * FROM customers WHERE id = ?");
+
+        // Then
+        ILoggingEvent event = appender.list.get(0);
+        assertThat(event.getMessage()).isEqualTo("slow tool call");
+        assertThat(fields(event))
+                .containsEntry("tool", "secureDatabaseQuery")
+                .containsEntry("durationUs", 150_000L)
+                .containsEntry("rows", 5)
+                .containsEntry("sql", "SELECT * FROM customers WHERE id = ?");
+    }
+
+    @Test
+    @DisplayName("Should log sampled calls without SQL and failures with full detail")
+    void testSampledAndFailedCalls() {
+        // Given
+        McpCallLog callLog = new McpCallLog(config(1, 1000));
+
+        // When
+        assertThat(callLog.shouldLog(1_000_000L)).isTrue();
+        callLog.success("getSchemaStructure", "claude-3.5-sonnet", 1_000_000L, Map.of(), null, 900, 200,
+                0.0006, null);
+        callLog.failure("secureDatabaseQuery", 2_000_000L, Map.of(), "DROP TABLE t",
+                new SecurityException("Query contains forbidden keywords"));
+
+        // Then
+        assertThat(appender.list).hasSize(2);
+        assertThat(appender.list.get(0).getMessage()).isEqualTo("tool call");
+        assertThat(fields(appender.list.get(0))).doesNotContainKey("sql");
+        ILoggingEvent failure = appender.list.get(1);
+        assertThat(failure.getLevel()).isEqualTo(Level.WARN);
+        assertThat(fields(failure))
+                .containsEntry("outcome", "error")
+                .containsEntry("error", "SecurityException")
+                .containsEntry("sql", "DROP TABLE t");
+    }
+
+    private static Map<String, Object> fields(ILoggingEvent event) {
+        return event.getKeyValuePairs().stream()
+                .filter(pair -> pair.value != null)
+                .collect(Collectors.toMap(pair -> pair.key, pair -> pair.value));
+    }
+
+    private static McpServerConfig config(double sampleRate, long slowCallMs) {
+        McpServerConfig config = new McpServerConfig();
+        config.getCallLog().setSuccessSampleRate(sampleRate);
+        config.getCallLog().setSlowCallMs(slowCallMs);
+        return config;
+    }
+}
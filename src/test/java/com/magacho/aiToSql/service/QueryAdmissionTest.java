@@ -0,0 +1,185 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.jsonrpc.JsonRpcError;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import com.magacho.aiToSql.jsonrpc.JsonRpcResponse;
+import com.magacho.aiToSql.transport.McpRequestDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for query admission in front of the query pool
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.admission.max-queued=1",
+        "mcp.admission.max-wait-ms=300",
+        "mcp.cost-gate.enabled=true"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Query Admission Tests")
+class QueryAdmissionTest {
+
+    @Autowired
+    private QueryAdmission admission;
+
+    @Autowired
+    private SecureQueryService secureQueryService;
+
+    @Autowired
+    private McpRequestDispatcher dispatcher;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private int configuredLimit;
+    private QueryAdmission.Permit held;
+
+    @BeforeEach
+    void setUp() {
+        configuredLimit = admission.limit();
+        // One slot, taken by the test
+        admission.setLimit(1);
+        held = admission.acquire();
+    }
+
+    @AfterEach
+    void tearDown() {
+        held.close();
+        admission.setLimit(configuredLimit);
+    }
+
+    @Test
+    @DisplayName("Should hold a query until a slot frees up")
+    void testQueuedQuery() throws Exception {
+        // Given
+        long waitsBefore = meterRegistry.get("mcp.query.admission.wait").timer().count();
+        CompletableFuture<QueryResult> query = CompletableFuture.supplyAsync(
+                () -> secureQueryService.secureDatabaseQuery("SELECT COUNT(*) FROM customers", null));
+        awaitQueued(1);
+
+        // When
+        held.close();
+
+        // Then
+        QueryResult result = query.get(5, TimeUnit.SECONDS);
+        assertThat(((Number) result.rows().get(0)[0]).intValue()).isEqualTo(5);
+        assertThat(admission.queued()).isZero();
+        assertThat(meterRegistry.get("mcp.query.admission.wait").timer().count()).isGreaterThan(waitsBefore);
+    }
+
+    @Test
+    @DisplayName("Should refuse at once when the wait queue is full")
+    void testQueueFull() throws Exception {
+        // Given - the one queue place is taken
+        CompletableFuture<QueryResult> waiting = CompletableFuture.supplyAsync(
+                () -> secureQueryService.secureDatabaseQuery("SELECT 1", null));
+        awaitQueued(1);
+
+        // When
+        long start = System.nanoTime();
+        Throwable refused = catchThrowable(() -> secureQueryService.secureDatabaseQuery("SELECT 1", null));
+
+        // Then
+        assertThat(refused).isInstanceOf(ServerBusyException.class)
+                .hasMessageContaining("already waiting");
+        assertThat(((ServerBusyException) refused).getRetryAfterMs()).isBetween(100L, 30_000L);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(200);
+        assertThat(meterRegistry.get("mcp.validation.rejections").tag("reason", "busy").counter().count())
+                .isPositive();
+        waiting.handle((result, error) -> null).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("Should refuse a query no slot frees up for within the wait limit")
+    void testWaitTimeout() {
+        // When / Then
+        assertThatThrownBy(() -> secureQueryService.secureDatabaseQuery("SELECT 1", null))
+                .isInstanceOf(ServerBusyException.class)
+                .hasMessageContaining("within 300 ms");
+        assertThat(admission.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should wait for a slot before planning or sampling a query")
+    void testPlanningAdmitted() {
+        // Given
+        double explainsBefore = explains();
+
+        // When / Then
+        assertThatThrownBy(() -> secureQueryService.executeSecureQuery("SELECT name FROM customers WHERE age > 40",
+                new SecureQueryService.QueryOptions(null, null, null, true)))
+                .isInstanceOf(ServerBusyException.class);
+        assertThat(explains()).isEqualTo(explainsBefore);
+    }
+
+    @Test
+    @DisplayName("Should answer tools/call with SERVER_BUSY and a retry hint")
+    void testServerBusyResponse() {
+        // Given
+        JsonRpcRequest request = new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "SELECT 1")), 7);
+
+        // When
+        JsonRpcResponse response = dispatcher.dispatch(request);
+
+        // Then
+        JsonRpcError error = response.getError();
+        assertThat(error).isNotNull();
+        assertThat(error.getCode()).isEqualTo(JsonRpcError.SERVER_BUSY);
+        assertThat(error.getMessage()).contains("Server busy");
+        assertThat(error.getData()).isInstanceOf(Map.class);
+        assertThat(((Map<?, ?>) error.getData()).get("retryAfterMs")).isInstanceOf(Long.class);
+    }
+
+    @Test
+    @DisplayName("Should follow limit changes")
+    void testSetLimit() {
+        // When
+        admission.setLimit(2);
+
+        // Then - the second slot is free
+        try (QueryAdmission.Permit second = admission.acquire()) {
+            assertThat(admission.inFlight()).isEqualTo(2);
+        }
+
+        // When - back to one, taken by the test
+        admission.setLimit(1);
+
+        // Then
+        assertThatThrownBy(() -> admission.acquire()).isInstanceOf(ServerBusyException.class);
+    }
+
+    private double explains() {
+        var timer = meterRegistry.find("mcp.jdbc").tag("operation", "explain").timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private void awaitQueued(int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (admission.queued() < queued && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(admission.queued()).isEqualTo(queued);
+    }
+}
@@ -0,0 +1,124 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.QueryCostEstimate;
+import com.magacho.aiToSql.dto.QueryResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for the EXPLAIN-based cost gate
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.cost-gate.enabled=true",
+        "mcp.cost-gate.max-estimated-rows=3",
+        "mcp.cost-gate.downgrade-max-rows=2"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("QueryCostEstimator Integration Tests")
+class QueryCostEstimatorTest {
+
+    @Autowired
+    private QueryCostEstimator costEstimator;
+
+    @Autowired
+    private SecureQueryService secureQueryService;
+
+    @Autowired
+    private McpServerConfig config;
+
+    @BeforeEach
+    void setUp() {
+        costEstimator.clearCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        config.getCostGate().setAction(McpServerConfig.CostGate.Action.REJECT);
+    }
+
+    @Test
+    @DisplayName("Should estimate rows of a full table scan on H2")
+    void testEstimateTableScan() {
+        // When
+        QueryCostEstimate estimate = costEstimator.estimate("SELECT * FROM customers").orElseThrow();
+
+        // Then
+        assertThat(estimate.estimatedRows()).isEqualTo(5.0);
+        assertThat(estimate.method()).isEqualTo("h2_table_scan_estimate");
+        assertThat(estimate.cached()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated query shapes from the plan cache")
+    void testPlanCacheByShape() {
+        // Given
+        costEstimator.estimate("SELECT * FROM customers WHERE age > 30");
+
+        // When - same shape, different literal
+        QueryCostEstimate estimate = costEstimator.estimate("SELECT *   FROM customers WHERE age > 50")
+                .orElseThrow();
+
+        // Then
+        assertThat(estimate.cached()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should reject queries above the row threshold")
+    void testRejectExpensiveQuery() {
+        // When / Then
+        assertThatThrownBy(() -> secureQueryService.secureDatabaseQuery("SELECT * FROM customers", null))
+                .isInstanceOf(QueryCostExceededException.class)
+                .hasMessageContaining("cost gate")
+                .satisfies(e -> assertThat(((QueryCostExceededException) e).getEstimate().gateAction())
+                        .isEqualTo(QueryCostEstimate.REJECTED));
+    }
+
+    @Test
+    @DisplayName("Should downgrade the row limit of expensive queries when configured")
+    void testDowngradeExpensiveQuery() {
+        // Given
+        config.getCostGate().setAction(McpServerConfig.CostGate.Action.DOWNGRADE);
+
+        // When
+        QueryResult result = secureQueryService.secureDatabaseQuery("SELECT * FROM customers", null);
+
+        // Then
+        assertThat(result.rowCount()).isEqualTo(2);
+        assertThat(result.maxRowsReached()).isEqualTo(2);
+        assertThat(result.costEstimate().gateAction()).isEqualTo(QueryCostEstimate.DOWNGRADED);
+    }
+
+    @Test
+    @DisplayName("Should allow cheap queries and report the estimate")
+    void testAllowCheapQuery() {
+        // When
+        QueryResult result = secureQueryService.secureDatabaseQuery(
+                "SELECT * FROM customers WHERE id = 1", null);
+
+        // Then
+        assertThat(result.rowCount()).isEqualTo(1);
+        assertThat(result.costEstimate().gateAction()).isEqualTo(QueryCostEstimate.ALLOWED);
+    }
+
+    @Test
+    @DisplayName("Should normalize literals and whitespace into a query shape")
+    void testSqlNormalizer() {
+        assertThat(SqlNormalizer.normalize("SELECT *\n FROM t WHERE a = 'x' AND b IN (1, 2, 3);"))
+                .isEqualTo("SELECT * FROM t WHERE a = ? AND b IN (?)");
+    }
+}
@@ -0,0 +1,136 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.QueryApproximation;
+import com.magacho.aiToSql.dto.QueryResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for approximate (sampled) queries
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.approximate.min-table-rows=10000",
+        "mcp.approximate.target-sample-rows=2000"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("QuerySampler Integration Tests")
+class QuerySamplerTest {
+
+    private static final int EVENT_ROWS = 20_000;
+
+    @Autowired
+    private QuerySampler querySampler;
+
+    @Autowired
+    private SecureQueryService secureQueryService;
+
+    @Autowired
+    private QueryCostEstimator costEstimator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        costEstimator.clearCache();
+        jdbcTemplate.execute("CREATE TABLE events (id BIGINT PRIMARY KEY, amount INT)");
+        jdbcTemplate.execute("INSERT INTO events SELECT X, 10 FROM SYSTEM_RANGE(1, " + EVENT_ROWS + ")");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS events");
+    }
+
+    @Test
+    @DisplayName("Should estimate COUNT and SUM from a sample of a large table")
+    void testApproximateAggregates() {
+        // When
+        QueryResult result = secureQueryService.executeSecureQuery(
+                "SELECT COUNT(*) AS total, SUM(amount) AS amount_sum FROM events",
+                new SecureQueryService.QueryOptions(null, null, null, true));
+
+        // Then
+        QueryApproximation approximation = result.approximation();
+        assertThat(approximation.applied()).isTrue();
+        assertThat(approximation.method()).isEqualTo("random_subquery");
+        assertThat(approximation.samplingRate()).isCloseTo(0.1, within(0.01));
+        assertThat(approximation.scaledAggregates()).containsExactly("COUNT(*)", "SUM(amount)");
+        assertThat(approximation.relativeErrorBound95()).isBetween(0.0, 0.1);
+
+        Object[] row = result.rows().get(0);
+        assertThat(((Number) row[0]).doubleValue()).isCloseTo(EVENT_ROWS, withinPercentage(20));
+        assertThat(((Number) row[1]).doubleValue()).isCloseTo(EVENT_ROWS * 10, withinPercentage(20));
+        assertThat(result.query()).isEqualTo("SELECT COUNT(*) AS total, SUM(amount) AS amount_sum FROM events");
+    }
+
+    @Test
+    @DisplayName("Should keep aliases, filters and COUNT(DISTINCT) intact")
+    void testRewriteKeepsClauses() {
+        // When
+        QuerySampler.SampledQuery sampled = querySampler.sample(
+                "SELECT e.amount, COUNT(DISTINCT e.id) FROM events e WHERE e.amount > 0 GROUP BY e.amount");
+
+        // Then
+        assertThat(sampled.approximation().applied()).isTrue();
+        assertThat(sampled.approximation().scaledAggregates()).isNull();
+        assertThat(sampled.query())
+                .contains("FROM (SELECT * FROM events WHERE RAND() < ")
+                .contains(") e WHERE e.amount > 0 GROUP BY e.amount")
+                .contains("COUNT(DISTINCT e.id)");
+    }
+
+    @Test
+    @DisplayName("Should answer exactly when the table is small")
+    void testSmallTableNotSampled() {
+        // When
+        QueryResult result = secureQueryService.executeSecureQuery(
+                "SELECT COUNT(*) AS total FROM customers",
+                new SecureQueryService.QueryOptions(null, null, null, true));
+
+        // Then
+        assertThat(result.approximation().applied()).isFalse();
+        assertThat(result.approximation().note()).contains("customers");
+        assertThat(((Number) result.rows().get(0)[0]).intValue()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should not sample joins")
+    void testJoinNotSampled() {
+        // Given
+        String query = "SELECT COUNT(*) FROM events e JOIN customers c ON c.id = e.id";
+
+        // When
+        QuerySampler.SampledQuery sampled = querySampler.sample(query);
+
+        // Then
+        assertThat(sampled.approximation().applied()).isFalse();
+        assertThat(sampled.query()).isEqualTo(query);
+    }
+
+    @Test
+    @DisplayName("Should not attach an approximation unless requested")
+    void testExactByDefault() {
+        // When
+        QueryResult result = secureQueryService.secureDatabaseQuery("SELECT COUNT(*) FROM events", null);
+
+        // Then
+        assertThat(result.approximation()).isNull();
+        assertThat(((Number) result.rows().get(0)[0]).intValue()).isEqualTo(EVENT_ROWS);
+    }
+}
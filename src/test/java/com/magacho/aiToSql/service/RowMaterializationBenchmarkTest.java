@@ -0,0 +1,125 @@
+package com.magacho.aiToSql.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.dto.QueryResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Heap/allocation benchmark for 1,000 x 50 query results:
+ * map-per-row (queryForList) versus column metadata once + Object[] rows.
+ * Reports bytes allocated per materialization and per serialization.
+ */
+@DisplayName("Row materialization allocation benchmark (1,000 x 50)")
+class RowMaterializationBenchmarkTest {
+
+    private static final int ROWS = 1_000;
+    private static final int COLUMNS = 50;
+    private static final int ITERATIONS = 20;
+    private static final String QUERY = "SELECT * FROM wide_table";
+
+    private static SingleConnectionDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:row_benchmark;DB_CLOSE_DELAY=-1", "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        StringBuilder ddl = new StringBuilder("CREATE TABLE wide_table (id INT PRIMARY KEY");
+        StringBuilder insert = new StringBuilder("INSERT INTO wide_table SELECT X");
+        for (int c = 1; c < COLUMNS; c++) {
+            if (c % 2 == 0) {
+                ddl.append(", c").append(c).append(" INT");
+                insert.append(", X * ").append(c);
+            } else {
+                ddl.append(", c").append(c).append(" VARCHAR(20)");
+                insert.append(", 'v").append(c).append("_' || X");
+            }
+        }
+        jdbcTemplate.execute(ddl.append(")").toString());
+        jdbcTemplate.execute(insert.append(" FROM SYSTEM_RANGE(1, ").append(ROWS).append(")").toString());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        jdbcTemplate.execute("DROP TABLE wide_table");
+        dataSource.destroy();
+    }
+
+    @Test
+    @DisplayName("Object[] rows should allocate less than a map per row")
+    void testAllocationMapPerRowVersusArrayRows() throws Exception {
+        long legacyBytes = allocatedBytes(() -> jdbcTemplate.query(QUERY, new ColumnMapRowMapper()));
+        long leanBytes = allocatedBytes(() -> jdbcTemplate.query(QUERY, new RowSetExtractor(ROWS)));
+
+        List<Map<String, Object>> legacyRows = jdbcTemplate.query(QUERY, new ColumnMapRowMapper());
+        RowSetExtractor.RowSet rowSet = jdbcTemplate.query(QUERY, new RowSetExtractor(ROWS));
+        QueryResult verbose = result(rowSet, QueryResult.Format.VERBOSE);
+        QueryResult compact = result(rowSet, QueryResult.Format.COMPACT);
+
+        long legacyJsonBytes = allocatedBytes(() -> serialize(Map.of(
+                "columnNames", new ArrayList<>(legacyRows.get(0).keySet()), "data", legacyRows)));
+        long verboseJsonBytes = allocatedBytes(() -> serialize(verbose));
+        long compactJsonBytes = allocatedBytes(() -> serialize(compact));
+
+        System.out.println("\n=== Row materialization (" + ROWS + " x " + COLUMNS + ", avg of "
+                + ITERATIONS + " runs) ===");
+        System.out.printf("queryForList (map per row) : %,12d bytes allocated%n", legacyBytes);
+        System.out.printf("RowSetExtractor (Object[]) : %,12d bytes allocated%n", leanBytes);
+        System.out.printf("serialize legacy maps      : %,12d bytes allocated, %,d chars%n",
+                legacyJsonBytes, serialize(Map.of("data", legacyRows)).length());
+        System.out.printf("serialize verbose          : %,12d bytes allocated, %,d chars%n",
+                verboseJsonBytes, serialize(verbose).length());
+        System.out.printf("serialize compact          : %,12d bytes allocated, %,d chars%n",
+                compactJsonBytes, serialize(compact).length());
+
+        assertThat(rowSet.rows()).hasSize(ROWS);
+        assertThat(rowSet.columns()).hasSize(COLUMNS);
+        assertThat(leanBytes).isLessThan(legacyBytes);
+        assertThat(serialize(compact).length()).isLessThan(serialize(verbose).length());
+    }
+
+    private static QueryResult result(RowSetExtractor.RowSet rowSet, QueryResult.Format format) {
+        return new QueryResult(QUERY, rowSet.rows().size(), ROWS, rowSet.columns(), rowSet.rows(), format, null);
+    }
+
+    private static String serialize(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long allocatedBytes(Supplier<?> task) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < 5; i++) {
+            task.get();
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / ITERATIONS;
+    }
+}
@@ -1,5 +1,6 @@
 package com.magacho.aiToSql.service;
 
+import com.magacho.aiToSql.dto.QueryResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -186,4 +187,77 @@ class SecureQueryServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("cannot be empty");
     }
+
+    @Test
+    @DisplayName("Should report column metadata for empty results")
+    void testColumnMetadataForEmptyResult() {
+        // When
+        QueryResult result = secureQueryService.secureDatabaseQuery(
+                "SELECT id, name FROM customers WHERE 1 = 0", (Integer) null);
+
+        // Then
+        assertThat(result.rowCount()).isZero();
+        assertThat(result.columnNames()).containsExactly("ID", "NAME");
+        assertThat(result.columns()).allSatisfy(column -> assertThat(column.typeName()).isNotBlank());
+    }
+
+    @Test
+    @DisplayName("Should materialize rows as arrays aligned with columns")
+    void testRowsAlignedWithColumns() {
+        // When
+        QueryResult result = secureQueryService.executeSecureQuery(
+                "SELECT name, country FROM customers WHERE id > 2 ORDER BY id",
+                new SecureQueryService.QueryOptions(2, null, QueryResult.Format.COMPACT, null));
+
+        // Then
+        assertThat(result.rows()).hasSize(2);
+        assertThat(result.rows().get(0)).containsExactly("Pedro Costa", "Portugal");
+        assertThat(result.format()).isEqualTo(QueryResult.Format.COMPACT);
+    }
+
+    @Test
+    @DisplayName("Should flag results cut by the row limit")
+    void testTruncatedByMaxRows() {
+        // When
+        QueryResult result = secureQueryService.secureDatabaseQuery("SELECT * FROM customers", 3);
+
+        // Then
+        assertThat(result.rowCount()).isEqualTo(3);
+        assertThat(result.truncated()).isTrue();
+        assertThat(result.truncation().reason()).isEqualTo(QueryResult.Truncation.MAX_ROWS);
+    }
+
+    @Test
+    @DisplayName("Should not flag results that fit the row limit")
+    void testNotTruncatedWithinMaxRows() {
+        // When
+        QueryResult result = secureQueryService.secureDatabaseQuery("SELECT * FROM customers", 5);
+
+        // Then
+        assertThat(result.rowCount()).isEqualTo(5);
+        assertThat(result.truncated()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should summarize rows beyond the token budget as column statistics")
+    void testTruncatedByTokenBudget() {
+        // When
+        QueryResult result = secureQueryService.executeSecureQuery(
+                "SELECT id, country FROM customers",
+                new SecureQueryService.QueryOptions(null, 130, null, null));
+
+        // Then
+        assertThat(result.rowCount()).isLessThan(5);
+        assertThat(result.truncation().reason()).isEqualTo(QueryResult.Truncation.TOKEN_BUDGET);
+        assertThat(result.truncation().scannedRows()).isEqualTo(5);
+        assertThat(result.truncation().columnSummaries()).hasSize(2);
+
+        var country = result.truncation().columnSummaries().get(1);
+        assertThat(country.count()).isEqualTo(5);
+        assertThat(country.distinctEstimate()).isEqualTo(2);
+        assertThat(country.min()).isEqualTo("Brazil");
+        assertThat(country.max()).isEqualTo("Portugal");
+        assertThat(country.topValues().get(0).value()).isEqualTo("Brazil");
+        assertThat(country.topValues().get(0).count()).isEqualTo(4);
+    }
 }
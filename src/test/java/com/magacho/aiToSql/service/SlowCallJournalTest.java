@@ -0,0 +1,75 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for SlowCallJournal
+ */
+@DisplayName("Slow Call Journal Tests")
+class SlowCallJournalTest {
+
+    @Test
+    @DisplayName("Should keep only the N slowest calls per tool, slowest first")
+    void testKeepsTopN() {
+        // Given
+        SlowCallJournal journal = new SlowCallJournal(config(3, 0));
+
+        // When
+        for (long ms : new long[]{5, 40, 10, 30, 1, 20}) {
+            journal.record(call("secureDatabaseQuery", ms));
+        }
+        journal.record(call("getSchemaStructure", 2));
+
+        // Then
+        Map<String, List<SlowCallJournal.SlowCall>> snapshot = journal.snapshot();
+        assertThat(snapshot.get("secureDatabaseQuery"))
+                .extracting(SlowCallJournal.SlowCall::durationNs)
+                .containsExactly(40_000_000L, 30_000_000L, 20_000_000L);
+        assertThat(snapshot.get("getSchemaStructure")).hasSize(1);
+        assertThat(journal.admits("secureDatabaseQuery", 20_000_000L)).isFalse();
+        assertThat(journal.admits("secureDatabaseQuery", 21_000_000L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should ignore calls under the minimum duration")
+    void testMinDuration() {
+        // Given
+        SlowCallJournal journal = new SlowCallJournal(config(10, 50));
+
+        // When
+        journal.record(call("getTableDetails", 49));
+        journal.record(call("getTableDetails", 75));
+
+        // Then
+        assertThat(journal.snapshot().get("getTableDetails"))
+                .singleElement()
+                .extracting(SlowCallJournal.SlowCall::durationNs)
+                .isEqualTo(75_000_000L);
+
+        // When
+        journal.reset();
+
+        // Then
+        assertThat(journal.snapshot()).isEmpty();
+    }
+
+    private static SlowCallJournal.SlowCall call(String tool, long ms) {
+        return new SlowCallJournal.SlowCall(tool, Instant.now(), ms * 1_000_000, "success",
+                "SELECT * FROM t WHERE id = ?", Map.of("queryExecution", ms * 1_000_000), 1, 100, 25, null);
+    }
+
+    private static McpServerConfig config(int topN, long minDurationMs) {
+        McpServerConfig config = new McpServerConfig();
+        config.getSlowCalls().setTopN(topN);
+        config.getSlowCalls().setMinDurationMs(minDurationMs);
+        return config;
+    }
+}
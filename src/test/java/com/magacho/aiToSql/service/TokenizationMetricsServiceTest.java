@@ -1,5 +1,6 @@
 package com.magacho.aiToSql.service;
 
+import com.magacho.aiToSql.dto.ResponseMetadata;
 import com.magacho.aiToSql.dto.TokenizationMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -129,8 +130,8 @@ class TokenizationMetricsServiceTest {
 
         // Then
         assertEquals(content.length(), metrics.characterCount());
-        // 1 token ≈ 4 characters
-        int expectedTokens = content.length() / 4;
+        // 1 token ≈ 4 characters, rounded up
+        int expectedTokens = (content.length() + 3) / 4;
         assertEquals(expectedTokens, metrics.estimatedTokenCount());
         assertTrue(metrics.estimatedCostUSD() > 0);
     }
@@ -145,11 +146,39 @@ class TokenizationMetricsServiceTest {
 
         // Then
         assertEquals(1000, metrics.estimatedTokenCount());
-        // Cost for 1000 tokens input + 200 tokens output (20%)
-        // Input: 1000 * 0.03 / 1000 = 0.03
-        // Output: 200 * 0.06 / 1000 = 0.012
-        // Total ≈ 0.042
-        assertTrue(metrics.estimatedCostUSD() > 0.04 && metrics.estimatedCostUSD() < 0.05);
+        // The response is read by the model: 1000 input tokens at the reference
+        // price of $3.00/M = 0.003, or $0.30/M = 0.0003 from the prompt cache
+        assertEquals("claude-3.5-sonnet", metrics.model());
+        assertEquals(0.003, metrics.estimatedCostUSD(), 1e-9);
+        assertEquals(0.0003, metrics.cachedInputCostUSD(), 1e-9);
+    }
+
+    @Test
+    void testCostAggregatedPerModel() {
+        // Given
+        ResponseMetadata.CostInfo gpt4o = new ResponseMetadata.CostInfo(0.0025, "gpt-4o", "test", 0.00125);
+        ResponseMetadata.CostInfo sonnet = new ResponseMetadata.CostInfo(0.003, "claude-3.5-sonnet", "test", 0.0003);
+
+        // When
+        metricsService.recordMetrics("tool1", TokenizationMetrics.fromContent("content", 1000, gpt4o, 10, false));
+        metricsService.recordMetrics("tool2", TokenizationMetrics.fromContent("content", 1000, gpt4o, 10, false));
+        metricsService.recordMetrics("tool1", TokenizationMetrics.fromContent("content", 1000, sonnet, 10, false));
+
+        // Then
+        var models = metricsService.getModelStatistics();
+        assertEquals(2, models.size());
+        assertEquals(2, models.get("gpt-4o").totalCalls());
+        assertEquals(2000, models.get("gpt-4o").totalTokens());
+        assertEquals(0.005, models.get("gpt-4o").totalCostUSD(), 1e-9);
+        assertEquals(0.0025, models.get("gpt-4o").cachedInputCostUSD(), 1e-9);
+        assertEquals(1, models.get("claude-3.5-sonnet").totalCalls());
+
+        // Tool totals match the per-model totals
+        double toolCost = metricsService.getAllStatistics().values().stream()
+                .mapToDouble(TokenizationMetricsService.ToolStatistics::totalCostUSD).sum();
+        double modelCost = models.values().stream()
+                .mapToDouble(TokenizationMetricsService.ModelStatistics::totalCostUSD).sum();
+        assertEquals(toolCost, modelCost, 1e-12);
     }
 
     @Test
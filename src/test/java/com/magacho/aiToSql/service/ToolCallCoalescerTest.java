@@ -0,0 +1,261 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.PhaseTimings;
+import com.magacho.aiToSql.transport.ProgressChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for ToolCallCoalescer
+ */
+@DisplayName("Tool Call Coalescer Tests")
+class ToolCallCoalescerTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final StaticListableBeanFactory beans = new StaticListableBeanFactory();
+
+    @Test
+    @DisplayName("Should run concurrent identical calls once and give every caller the result")
+    void testConcurrentIdenticalCalls() throws Exception {
+        // Given - the first call blocks until all callers have arrived
+        ToolCallCoalescer coalescer = coalescer(config -> {
+        });
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<ToolCallCoalescer.Outcome>> calls = new ArrayList<>();
+
+        // When
+        try {
+            for (int i = 0; i < 4; i++) {
+                calls.add(pool.submit(() -> coalescer.execute("getSchemaStructure", Map.of(), () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "schema";
+                })));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (coalesced() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            List<ToolCallCoalescer.Outcome> outcomes = new ArrayList<>();
+            for (Future<ToolCallCoalescer.Outcome> call : calls) {
+                outcomes.add(call.get(5, TimeUnit.SECONDS));
+            }
+            assertThat(executions).hasValue(1);
+            assertThat(outcomes).extracting(ToolCallCoalescer.Outcome::result).containsOnly("schema");
+            assertThat(outcomes).filteredOn(ToolCallCoalescer.Outcome::shared).hasSize(3);
+            assertThat(coalesced()).isEqualTo(3);
+            assertThat(coalescer.flights()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should share a failure with waiting callers only")
+    void testSharedFailure() throws Exception {
+        // Given
+        ToolCallCoalescer coalescer = coalescer(config -> {
+        });
+        Map<String, Object> arguments = Map.of("tableName", "orders");
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<?> leader = pool.submit(() -> coalescer.execute("listTriggers", arguments, () -> {
+                await(release);
+                throw new IllegalStateException("catalog unavailable");
+            }));
+            while (coalescer.flights() == 0) {
+                Thread.sleep(1);
+            }
+
+            // When
+            Future<?> follower = pool.submit(() -> coalescer.execute("listTriggers", arguments, () -> "not run"));
+            while (coalesced() == 0) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            // Then
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseMessage("catalog unavailable");
+            // Then - the next call runs again
+            assertThat(coalescer.execute("listTriggers", arguments, () -> "triggers"))
+                    .isEqualTo(new ToolCallCoalescer.Outcome("triggers", false));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reuse a query result within the query-results expiry only")
+    void testQueryFreshness() throws Exception {
+        // Given
+        ToolCallCoalescer coalescer = coalescer(config -> config.getCaches().getSpecs()
+                .get(ToolCallCoalescer.RESULT_CACHE).setExpireAfterMs(50));
+        Map<String, Object> query = Map.of("queryDescription", "SELECT COUNT(*) FROM customers");
+        coalescer.execute("secureDatabaseQuery", query, () -> 1);
+
+        // When / Then - inside the window
+        assertThat(coalescer.execute("secureDatabaseQuery", query, () -> 2))
+                .isEqualTo(new ToolCallCoalescer.Outcome(1, true));
+        // Then - metadata tools are only shared while running
+        coalescer.execute("getTableDetails", Map.of("tableName", "orders"), () -> "a");
+        assertThat(coalescer.execute("getTableDetails", Map.of("tableName", "orders"), () -> "b").shared())
+                .isFalse();
+
+        // Then - past the expiry
+        Thread.sleep(60);
+        assertThat(coalescer.execute("secureDatabaseQuery", query, () -> 3))
+                .isEqualTo(new ToolCallCoalescer.Outcome(3, false));
+    }
+
+    @Test
+    @DisplayName("Should time a shared call as coalescedWait")
+    void testCoalescedWaitPhase() {
+        // Given
+        ToolCallCoalescer coalescer = coalescer(config -> {
+        });
+        Map<String, Object> query = Map.of("queryDescription", "SELECT 1");
+        coalescer.execute("secureDatabaseQuery", query, () -> 1);
+        McpCallContext context = new McpCallContext(ProgressChannel.NONE);
+
+        // When
+        try (McpCallContext.Scope ignored = McpCallContext.open(context)) {
+            coalescer.execute("secureDatabaseQuery", query, () -> 2);
+        }
+
+        // Then
+        assertThat(context.phases().get(PhaseTimings.Phase.COALESCED_WAIT)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should not make a streaming call wait on another call's stream")
+    void testStreamingCallRunsItself() {
+        // Given - a fresh query result
+        ToolCallCoalescer coalescer = coalescer(config -> {
+        });
+        Map<String, Object> query = Map.of("queryDescription", "SELECT 1");
+        coalescer.execute("secureDatabaseQuery", query, () -> 1);
+        ProgressChannel stream = new ProgressChannel() {
+            @Override
+            public boolean isStreaming() {
+                return true;
+            }
+
+            @Override
+            public void progress(long progress, Long total, String message) {
+            }
+
+            @Override
+            public void partialResult(String kind, Object chunk) {
+            }
+        };
+
+        // When / Then
+        try (McpCallContext.Scope ignored = McpCallContext.open(new McpCallContext(stream))) {
+            assertThat(coalescer.execute("secureDatabaseQuery", query, () -> 2))
+                    .isEqualTo(new ToolCallCoalescer.Outcome(2, false));
+        }
+    }
+
+    @Test
+    @DisplayName("Should only share running calls without a query-results cache")
+    void testWithoutResultCache() {
+        // Given
+        beans.addBean("cacheManager", new ConcurrentMapCacheManager("table-details"));
+        ToolCallCoalescer coalescer = coalescer(config -> {
+        });
+        Map<String, Object> query = Map.of("queryDescription", "SELECT 1");
+        coalescer.execute("secureDatabaseQuery", query, () -> 1);
+
+        // When / Then
+        assertThat(coalescer.execute("secureDatabaseQuery", query, () -> 2))
+                .isEqualTo(new ToolCallCoalescer.Outcome(2, false));
+        assertThat(coalescer.flights()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should compare arguments in canonical form, per tenant and model")
+    void testKey() {
+        assertThat(ToolCallCoalescer.key(null, null, "secureDatabaseQuery",
+                Map.of("queryDescription", " SELECT 1 ", "maxRows", 10)))
+                .isEqualTo(ToolCallCoalescer.key(null, null, "secureDatabaseQuery",
+                        Map.of("maxRows", "10", "queryDescription", "SELECT 1")));
+        assertThat(ToolCallCoalescer.key(null, null, "secureDatabaseQuery", Map.of("queryDescription", "SELECT 1")))
+                .isNotEqualTo(ToolCallCoalescer.key(null, null, "secureDatabaseQuery",
+                        Map.of("queryDescription", "SELECT 2")))
+                .isNotEqualTo(ToolCallCoalescer.key("alpha", null, "secureDatabaseQuery",
+                        Map.of("queryDescription", "SELECT 1")))
+                .isNotEqualTo(ToolCallCoalescer.key(null, "gpt-4o", "secureDatabaseQuery",
+                        Map.of("queryDescription", "SELECT 1")));
+        assertThat(ToolCallCoalescer.key(null, null, "getTableDetails", Map.of("tableName", "a\",\"b")))
+                .isNotEqualTo(ToolCallCoalescer.key(null, null, "getTableDetails", Map.of("tableName", "a", "b", "")));
+    }
+
+    @Test
+    @DisplayName("Should run every call when disabled")
+    void testDisabled() {
+        // Given
+        ToolCallCoalescer coalescer = coalescer(config -> config.getCoalescing().setEnabled(false));
+        Map<String, Object> query = Map.of("queryDescription", "SELECT 1");
+
+        // When
+        coalescer.execute("secureDatabaseQuery", query, () -> 1);
+
+        // Then
+        assertThat(coalescer.execute("secureDatabaseQuery", query, () -> 2))
+                .isEqualTo(new ToolCallCoalescer.Outcome(2, false));
+    }
+
+    private ToolCallCoalescer coalescer(Consumer<McpServerConfig> customizer) {
+        McpServerConfig config = new McpServerConfig();
+        customizer.accept(config);
+        beans.addBean("meterRegistry", registry);
+        if (!beans.containsBean("cacheManager")) {
+            beans.addBean("cacheManager", new ConcurrentMapCacheManager(ToolCallCoalescer.RESULT_CACHE));
+        }
+        return new ToolCallCoalescer(config, new McpMetrics(beans.getBeanProvider(MeterRegistry.class)),
+                beans.getBeanProvider(CacheManager.class));
+    }
+
+    private double coalesced() {
+        return registry.find("mcp.tool.coalesced").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.magacho.aiToSql.service;
+
+import com.magacho.aiToSql.dto.TokenizationMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for ToolTimeSeries and MetricsTimeSeriesService
+ */
+@DisplayName("Tool Time Series Tests")
+class ToolTimeSeriesTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private final ToolTimeSeries series = new ToolTimeSeries(now::get);
+
+    @Test
+    @DisplayName("Should report rates, cost burn and latency percentiles per window")
+    void testWindowStats() {
+        // Given - 100 calls over the last 50 seconds, latencies 1..100 ms
+        for (int i = 1; i <= 100; i++) {
+            series.record(i, 500, 0.001);
+            if (i % 2 == 0) {
+                now.addAndGet(1_000);
+            }
+        }
+
+        // When
+        ToolTimeSeries.WindowStats minute = series.stats(ToolTimeSeries.Window.ONE_MINUTE);
+
+        // Then
+        assertThat(minute.calls()).isEqualTo(100);
+        assertThat(minute.callsPerSecond()).isCloseTo(100 / 60.0, within(1e-9));
+        assertThat(minute.tokensPerSecond()).isCloseTo(50_000 / 60.0, within(1e-9));
+        assertThat(minute.avgLatencyMs()).isCloseTo(50.5, within(1e-9));
+        assertThat(minute.p50LatencyMs()).isCloseTo(50, withinPercentage(25));
+        assertThat(minute.p99LatencyMs()).isCloseTo(99, withinPercentage(25));
+        assertThat(minute.costUSD()).isCloseTo(0.1, within(1e-9));
+        assertThat(minute.costPerHourUSD()).isCloseTo(6.0, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Should drop calls older than the window and keep them in longer windows")
+    void testOldBucketsExpire() {
+        // Given
+        series.record(10, 100, 0.01);
+        now.addAndGet(120_000);
+        series.record(20, 100, 0.01);
+
+        // Then
+        assertThat(series.stats(ToolTimeSeries.Window.ONE_MINUTE).calls()).isEqualTo(1);
+        assertThat(series.stats(ToolTimeSeries.Window.FIVE_MINUTES).calls()).isEqualTo(2);
+        assertThat(series.stats(ToolTimeSeries.Window.ONE_HOUR).calls()).isEqualTo(2);
+
+        // When - the ring wraps around: slots are reused, not grown
+        now.addAndGet(3_600_000);
+        series.record(30, 100, 0.01);
+
+        // Then
+        assertThat(series.stats(ToolTimeSeries.Window.ONE_HOUR).calls()).isEqualTo(1);
+        assertThat(series.stats(ToolTimeSeries.Window.FIVE_MINUTES).p50LatencyMs()).isBetween(30.0, 32.0);
+    }
+
+    @Test
+    @DisplayName("Should map latencies to bins whose bounds contain them")
+    void testLatencyBins() {
+        for (long latency : new long[]{0, 1, 3, 4, 7, 8, 15, 100, 1_000, 60_000, 300_000}) {
+            int bin = ToolTimeSeries.bin(latency);
+            assertThat(ToolTimeSeries.lowerBound(bin)).isLessThanOrEqualTo(latency);
+            assertThat(ToolTimeSeries.lowerBound(bin + 1)).isGreaterThan(latency);
+        }
+        assertThat(ToolTimeSeries.bin(Long.MAX_VALUE)).isEqualTo(ToolTimeSeries.LATENCY_BINS - 1);
+    }
+
+    @Test
+    @DisplayName("Should record calls without allocating")
+    void testRecordDoesNotAllocate() {
+        // Given
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < 20_000; i++) {
+            series.record(i % 500, 200, 0.0006);
+        }
+
+        // When
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            series.record(i % 500, 200, 0.0006);
+            if (i % 1_000 == 0) {
+                now.addAndGet(1_000);
+            }
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        // Then - allowance for the measurement itself
+        assertThat(allocated).isLessThan(4_096);
+    }
+
+    @Test
+    @DisplayName("Should publish windowed gauges per tool")
+    void testGauges() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MetricsTimeSeriesService service = new MetricsTimeSeriesService(
+                new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class));
+
+        // When
+        service.recordMetrics("getSchemaStructure",
+                TokenizationMetrics.fromContent("x".repeat(4000), 120, false));
+
+        // Then
+        assertThat(registry.get("mcp.tool.calls.rate").tag("tool", "getSchemaStructure").tag("window", "1m")
+                .gauge().value()).isCloseTo(1 / 60.0, within(1e-9));
+        assertThat(registry.get("mcp.tool.latency").tag("tool", "all").tag("window", "5m").tag("quantile", "0.99")
+                .gauge().value()).isCloseTo(120, withinPercentage(25));
+        assertThat(registry.get("mcp.tool.cost.burn").tag("tool", "getSchemaStructure").tag("window", "1h")
+                .gauge().value()).isCloseTo(0.003, within(1e-9));
+
+        // When
+        service.reset();
+
+        // Then
+        assertThat(service.getWindowStats("getSchemaStructure").get("1m").calls()).isZero();
+    }
+}
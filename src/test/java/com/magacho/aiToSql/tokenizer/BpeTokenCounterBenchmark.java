@@ -0,0 +1,101 @@
+package com.magacho.aiToSql.tokenizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark: exact token counting of a 1 MB pretty-printed query result.
+ *
+ * The target is a few milliseconds per MB, and it is not met yet: on a shared
+ * single-core machine cl100kBase and o200kBase measure about 15 ms/op, and
+ * the fastest single count about 9 ms, a third of it in the pre-tokenizer.
+ *
+ * Run with:
+ *   mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/test-cp.txt) \
+ *        com.magacho.aiToSql.tokenizer.BpeTokenCounterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BpeTokenCounterBenchmark {
+
+    private static final int RESPONSE_BYTES = 1024 * 1024;
+
+    private String response;
+    private TokenCounter cl100k;
+    private TokenCounter o200k;
+
+    @Setup
+    public void setUp() throws IOException {
+        cl100k = BpeTokenCounter.load(TokenCounterRegistry.CL100K_BASE, PreTokenizer.CL100K);
+        o200k = BpeTokenCounter.load(TokenCounterRegistry.O200K_BASE, PreTokenizer.O200K);
+        response = queryResult(RESPONSE_BYTES);
+    }
+
+    @Benchmark
+    public int cl100kBase() {
+        return cl100k.count(response);
+    }
+
+    @Benchmark
+    public int o200kBase() {
+        return o200k.count(response);
+    }
+
+    @Benchmark
+    public int characterHeuristic() {
+        return CharacterRatioTokenCounter.INSTANCE.count(response);
+    }
+
+    /**
+     * A secureDatabaseQuery response in the VERBOSE format, mixing English,
+     * Portuguese and numeric columns, of roughly the given size
+     */
+    static String queryResult(int approximateBytes) {
+        String[] names = {"Ana Souza", "João Silva", "Maria O'Neil", "Zhang Wei", "Łukasz Nowak", "Ingrid Østergaard"};
+        String[] cities = {"São Paulo", "Porto Alegre", "New York", "Kraków", "København", "Belo Horizonte"};
+        StringBuilder json = new StringBuilder(approximateBytes + 1024);
+        json.append("{\n  \"query\" : \"SELECT id, name, email, city, balance, notes FROM customers\",\n")
+                .append("  \"columnNames\" : [ \"ID\", \"NAME\", \"EMAIL\", \"CITY\", \"BALANCE\", \"NOTES\" ],\n")
+                .append("  \"data\" : [ ");
+        for (int row = 0; json.length() < approximateBytes; row++) {
+            String name = names[row % names.length];
+            json.append(row == 0 ? "{\n" : ", {\n")
+                    .append("    \"ID\" : ").append(row + 1).append(",\n")
+                    .append("    \"NAME\" : \"").append(name).append("\",\n")
+                    .append("    \"EMAIL\" : \"").append(name.toLowerCase().replaceAll("[^a-z]", "."))
+                    .append(row).append("@example.com\",\n")
+                    .append("    \"CITY\" : \"").append(cities[row % cities.length]).append("\",\n")
+                    .append("    \"BALANCE\" : ").append(row * 37 % 100_000).append('.').append(row % 100).append(",\n")
+                    .append("    \"NOTES\" : \"Cliente desde ").append(2000 + row % 25)
+                    .append(", último pedido em ").append(1 + row % 28).append("/").append(1 + row % 12)
+                    .append("; prefers e-mail contact\"\n  }");
+        }
+        return json.append(" ]\n}").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BpeTokenCounterBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
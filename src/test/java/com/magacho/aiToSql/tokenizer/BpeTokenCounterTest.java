@@ -0,0 +1,144 @@
+package com.magacho.aiToSql.tokenizer;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for BpeTokenCounter, checked against the jtokkit reference implementation
+ */
+@DisplayName("BPE Token Counter Tests")
+class BpeTokenCounterTest {
+
+    private static final List<String> SAMPLES = List.of(
+            "hello world",
+            "tiktoken is great!",
+            "",
+            " ",
+            "   leading and trailing spaces   ",
+            "line one\nline two\r\n\r\n  indented\n\n\n",
+            "I'm sure they'll say it's what we'd've DONE'S",
+            "Olá, a ação de São João é às 10h — código nº 42 (preço: R$ 1.234,56)",
+            "Привет мир! Как дела?",
+            "日本語のテキストと中文文本。",
+            "emoji 🎉🚀 and 👩‍👩‍👧 family",
+            "naïve café résumé coöperate é à́",
+            "hindi: नमस्ते दुनिया",
+            "numbers 1234567890 ½ Ⅻ ٣٤٥ 3.14159",
+            "camelCaseIdentifier HTTPServerError XMLHttpRequest ǅungla",
+            "tabs\tand nbsp　ideographic space",
+            "path/to/file.json\n/another//path\r\n}\n/",
+            "{\n  \"query\" : \"SELECT * FROM customers\",\n  \"rowCount\" : 5,\n  \"data\" : [ {\n"
+                    + "    \"ID\" : 1,\n    \"NAME\" : \"João Silva\",\n    \"EMAIL\" : \"joao@example.com\"\n  } ]\n}",
+            "=================================================================",
+            "'''''''' \"\"\"\" ''s 'S 'Re 'LL"
+    );
+
+    private static TokenCounter cl100k;
+    private static TokenCounter o200k;
+    private static Encoding referenceCl100k;
+    private static Encoding referenceO200k;
+
+    @BeforeAll
+    static void loadEncodings() throws Exception {
+        cl100k = BpeTokenCounter.load(TokenCounterRegistry.CL100K_BASE, PreTokenizer.CL100K);
+        o200k = BpeTokenCounter.load(TokenCounterRegistry.O200K_BASE, PreTokenizer.O200K);
+        EncodingRegistry registry = Encodings.newDefaultEncodingRegistry();
+        referenceCl100k = registry.getEncoding(EncodingType.CL100K_BASE);
+        referenceO200k = registry.getEncoding(EncodingType.O200K_BASE);
+    }
+
+    @Test
+    @DisplayName("Should count known cl100k examples exactly")
+    void testKnownCounts() {
+        assertThat(cl100k.count("hello world")).isEqualTo(2);
+        assertThat(cl100k.count("tiktoken is great!")).isEqualTo(6);
+        assertThat(cl100k.count("")).isZero();
+        assertThat(cl100k.count(null)).isZero();
+        assertThat(cl100k.method()).isEqualTo("bpe_cl100k_base");
+        assertThat(cl100k.exact()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should match the reference tokenizer on mixed-language and JSON samples")
+    void testMatchesReferenceOnSamples() {
+        for (String sample : SAMPLES) {
+            assertThat(cl100k.count(sample)).as("cl100k: %s", sample)
+                    .isEqualTo(referenceCl100k.countTokensOrdinary(sample));
+            assertThat(o200k.count(sample)).as("o200k: %s", sample)
+                    .isEqualTo(referenceO200k.countTokensOrdinary(sample));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match the reference tokenizer on random text")
+    void testMatchesReferenceOnRandomText() {
+        // Given - a palette covering every character class the split patterns distinguish
+        String[] palette = {
+                "a", "b", "z", "A", "Q", "s", "t", "re", "ll", "'", "\"", " ", " ", "  ", "\t", "\n", "\r\n",
+                "0", "7", "42", ".", ",", "{", "}", "[", "]", ":", "/", "-", "_", "é", "ç", "ã", "Ä", "ß",
+                "́", "̈", "ǅ", "ʰ", "ß", "д", "Ж", "中", "文", "の", "ア", "ँ", "न", "ि", "½", "Ⅻ",
+                "٣", " ", "　", " ", "🎉", "👩", "‍", "€", "©", "\u0085"
+        };
+        Random random = new Random(42);
+
+        for (int sample = 0; sample < 3000; sample++) {
+            StringBuilder text = new StringBuilder();
+            int parts = 1 + random.nextInt(40);
+            for (int i = 0; i < parts; i++) {
+                text.append(palette[random.nextInt(palette.length)]);
+            }
+
+            // Then
+            String value = text.toString();
+            assertThat(cl100k.count(value)).as("cl100k: [%s]", value)
+                    .isEqualTo(referenceCl100k.countTokensOrdinary(value));
+            assertThat(o200k.count(value)).as("o200k: [%s]", value)
+                    .isEqualTo(referenceO200k.countTokensOrdinary(value));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count JSON-heavy and non-English text above the character heuristic")
+    void testHeuristicUnderCounts() {
+        // Given
+        String json = SAMPLES.get(17).repeat(20);
+        String russian = SAMPLES.get(8).repeat(20);
+
+        // Then - the length/4 heuristic under-counts both
+        assertThat(cl100k.count(json)).isGreaterThan(CharacterRatioTokenCounter.INSTANCE.count(json));
+        assertThat(cl100k.count(russian)).isGreaterThan(CharacterRatioTokenCounter.INSTANCE.count(russian));
+    }
+
+    @Test
+    @DisplayName("Should give the same counts from concurrent threads")
+    void testThreadSafety() throws Exception {
+        // Given
+        String text = String.join("\n", SAMPLES).repeat(50);
+        int expected = cl100k.count(text);
+        int[] results = new int[8];
+
+        // When
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int slot = i;
+            threads[i] = new Thread(() -> results[slot] = cl100k.count(text));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertThat(results).containsOnly(expected);
+    }
+}
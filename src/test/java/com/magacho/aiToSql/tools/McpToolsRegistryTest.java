@@ -1,9 +1,13 @@
 package com.magacho.aiToSql.tools;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.dto.Elision;
 import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.dto.ResponseMetadata;
 import com.magacho.aiToSql.dto.SchemaStructure;
 import com.magacho.aiToSql.dto.TableDetails;
 import com.magacho.aiToSql.dto.TriggerList;
+import com.magacho.aiToSql.tokenizer.TokenCounterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +15,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
@@ -30,6 +37,9 @@ class McpToolsRegistryTest {
     @Autowired
     private McpToolsRegistry toolsRegistry;
 
+    @Autowired
+    private TokenCounterRegistry tokenCounters;
+
     @Test
     @DisplayName("Should return 4 tool definitions")
     void testGetToolDefinitions() {
@@ -109,4 +119,91 @@ class McpToolsRegistryTest {
                 .isInstanceOf(Exception.class)
                 .hasMessageContaining("tableName");
     }
+
+    @Test
+    @DisplayName("Should page a schema that does not fit maxResponseTokens as table names")
+    void testSchemaShapedToBudget() throws Exception {
+        // Given
+        SchemaStructure full = (SchemaStructure) toolsRegistry.executeTool("getSchemaStructure", Map.of());
+        List<String> allTables = full.tables().stream().map(SchemaStructure.TableInfo::tableName).toList();
+        int budget = 180;
+
+        // When - follow nextOffset until the schema is exhausted
+        List<String> pagedTables = new ArrayList<>();
+        Integer offset = 0;
+        while (offset != null) {
+            SchemaStructure page = (SchemaStructure) toolsRegistry.executeTool("getSchemaStructure",
+                    Map.of("offset", offset, "maxResponseTokens", budget));
+
+            // Then - every page fits and lists column names only
+            assertThat(responseTokens(page)).isLessThanOrEqualTo(budget);
+            assertThat(page.elision().detail()).isEqualTo(Elision.NAMES_ONLY);
+            assertThat(page.tables()).allSatisfy(table -> {
+                assertThat(table.columns()).isNull();
+                assertThat(table.columnNames()).isNotEmpty();
+            });
+            page.tables().forEach(table -> pagedTables.add(table.tableName()));
+            offset = page.elision().nextOffset();
+        }
+        assertThat(pagedTables).isEqualTo(allTables);
+        assertThat(full.elision()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should elide table details in priority order to fit maxResponseTokens")
+    void testTableDetailsShapedToBudget() throws Exception {
+        // Given
+        TableDetails full = (TableDetails) toolsRegistry.executeTool("getTableDetails",
+                Map.of("tableName", "CUSTOMERS"));
+        int fullTokens = responseTokens(full);
+
+        // When
+        TableDetails shaped = (TableDetails) toolsRegistry.executeTool("getTableDetails",
+                Map.of("tableName", "CUSTOMERS", "maxResponseTokens", fullTokens / 2));
+
+        // Then
+        assertThat(responseTokens(shaped)).isLessThanOrEqualTo(fullTokens / 2);
+        assertThat(shaped.elision().omitted()).startsWith("columns.defaultValue");
+        assertThat(shaped.columns()).allSatisfy(column -> assertThat(column.defaultValue()).isNull());
+        assertThat(shaped.indexes()).isNull();
+        assertThat(ResponseMetadata.extractElision(shaped)).isEqualTo(shaped.elision());
+    }
+
+    @Test
+    @DisplayName("Should fit query rows and envelope into maxResponseTokens")
+    void testQueryShapedToBudget() throws Exception {
+        // Given
+        int budget = 400;
+        Map<String, Object> params = new HashMap<>();
+        params.put("queryDescription", "SELECT * FROM customers");
+        params.put("maxResponseTokens", budget);
+
+        // When
+        QueryResult result = (QueryResult) toolsRegistry.executeTool("secureDatabaseQuery", params);
+
+        // Then
+        assertThat(responseTokens(result)).isLessThanOrEqualTo(budget);
+        assertThat(result.truncation().reason()).isEqualTo(QueryResult.Truncation.TOKEN_BUDGET);
+        assertThat(result.rowCount()).isLessThan(5);
+
+        Elision elision = ResponseMetadata.extractElision(result);
+        assertThat(elision.detail()).isEqualTo(Elision.ROWS_SUMMARIZED);
+        assertThat(elision.returned()).isEqualTo(result.rowCount());
+        assertThat(elision.total()).isEqualTo(result.truncation().scannedRows());
+        assertThat(elision.maxResponseTokens()).isEqualTo(budget);
+    }
+
+    @Test
+    @DisplayName("Should reject a negative maxResponseTokens")
+    void testNegativeMaxResponseTokens() {
+        // When / Then
+        assertThatThrownBy(() ->
+                toolsRegistry.executeTool("getSchemaStructure", Map.of("maxResponseTokens", -1)))
+                .hasMessageContaining("maxResponseTokens");
+    }
+
+    private int responseTokens(Object result) throws Exception {
+        return tokenCounters.defaultCounter().count(
+                new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(result));
+    }
 }
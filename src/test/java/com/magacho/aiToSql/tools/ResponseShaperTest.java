@@ -0,0 +1,210 @@
+package com.magacho.aiToSql.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.config.McpServerConfig;
+import com.magacho.aiToSql.dto.ColumnSummary;
+import com.magacho.aiToSql.dto.QueryResult;
+import com.magacho.aiToSql.dto.ResponseMetadata;
+import com.magacho.aiToSql.dto.SchemaStructure;
+import com.magacho.aiToSql.dto.TableDetails;
+import com.magacho.aiToSql.dto.TriggerList;
+import com.magacho.aiToSql.pricing.PricingRegistry;
+import com.magacho.aiToSql.tokenizer.TokenCounter;
+import com.magacho.aiToSql.tokenizer.TokenCounterRegistry;
+import com.magacho.aiToSql.transport.McpCallContext;
+import com.magacho.aiToSql.transport.McpSession;
+import com.magacho.aiToSql.transport.ProgressChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit Tests for ResponseShaper
+ */
+@DisplayName("Response Shaper Tests")
+class ResponseShaperTest {
+
+    private TokenCounterRegistry registry;
+    private ResponseShaper shaper;
+    private TokenCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        McpServerConfig config = new McpServerConfig();
+        config.getTokenizer().getModelEncodings().put("gpt-4o", TokenCounterRegistry.O200K_BASE);
+        McpServerConfig.ModelPricing gpt4o = new McpServerConfig.ModelPricing();
+        gpt4o.setInputPerMillion(2.50);
+        config.getPricing().getModels().put("gpt-4o", gpt4o);
+        registry = new TokenCounterRegistry(config, new PricingRegistry(config));
+        shaper = new ResponseShaper(registry);
+        counter = registry.defaultCounter();
+    }
+
+    @Test
+    @DisplayName("Should return responses within budget unchanged")
+    void testWithinBudgetUnchanged() throws Exception {
+        // Given
+        TriggerList triggers = triggers(2);
+
+        // Then
+        assertThat(shaper.shape(triggers, tokens(triggers))).isSameAs(triggers);
+        assertThat(shaper.shape(triggers, 0)).isSameAs(triggers);
+    }
+
+    @Test
+    @DisplayName("Should drop trigger bodies before dropping triggers")
+    void testTriggerBodiesElidedFirst() throws Exception {
+        // Given
+        TriggerList triggers = triggers(20);
+        int withoutBodies = tokens(new TriggerList(triggers.tableName(),
+                triggers.triggers().stream().map(TriggerList.TriggerInfo::withoutStatement).toList()));
+
+        // When
+        TriggerList bodiesDropped = shaper.shape(triggers, withoutBodies + 60);
+        TriggerList truncated = shaper.shape(triggers, withoutBodies / 3);
+
+        // Then
+        assertThat(bodiesDropped.triggers()).hasSize(20)
+                .allSatisfy(trigger -> assertThat(trigger.statement()).isNull());
+        assertThat(bodiesDropped.elision().omitted()).containsExactly("triggers.statement");
+
+        assertThat(truncated.triggers()).isNotEmpty().hasSizeLessThan(20);
+        assertThat(truncated.elision().returned()).isEqualTo(truncated.triggers().size());
+        assertThat(truncated.elision().total()).isEqualTo(20);
+        assertThat(tokens(truncated)).isLessThanOrEqualTo(withoutBodies / 3);
+    }
+
+    @Test
+    @DisplayName("Should keep leading columns of a wide table when nothing else is left to drop")
+    void testTableColumnsTruncated() throws Exception {
+        // Given
+        List<TableDetails.ColumnDetail> columns = IntStream.range(0, 200)
+                .mapToObj(i -> new TableDetails.ColumnDetail("column_" + i, "VARCHAR", 255, 0, true,
+                        "'default value " + i + "'", i == 0, false))
+                .toList();
+        TableDetails details = new TableDetails("wide_table", "TABLE", columns,
+                List.of(new TableDetails.IndexInfo("idx_wide", false, "column_1", 1)),
+                List.of(), List.of());
+
+        // When
+        TableDetails shaped = shaper.shape(details, 500);
+
+        // Then
+        assertThat(tokens(shaped)).isLessThanOrEqualTo(500);
+        assertThat(shaped.columns()).isNotEmpty().hasSizeLessThan(200);
+        assertThat(shaped.columns().get(0).columnName()).isEqualTo("column_0");
+        assertThat(shaped.indexes()).isNull();
+        assertThat(shaped.elision().omitted())
+                .containsExactly("columns.defaultValue", "indexes", "constraints", "foreignKeys", "columns");
+    }
+
+    @Test
+    @DisplayName("Should page a large schema from the requested offset")
+    void testSchemaOffset() throws Exception {
+        // Given
+        List<SchemaStructure.TableInfo> tables = IntStream.range(0, 50)
+                .mapToObj(i -> new SchemaStructure.TableInfo("table_" + i, "TABLE", List.of(
+                        new SchemaStructure.ColumnInfo("id", "BIGINT", 19, false, true),
+                        new SchemaStructure.ColumnInfo("name", "VARCHAR", 100, true, false))))
+                .toList();
+        SchemaStructure schema = new SchemaStructure("db", "PostgreSQL", tables);
+
+        // When
+        SchemaStructure page = shaper.shape(schema, 10, 300);
+        SchemaStructure rest = shaper.shape(schema, 45, 0);
+
+        // Then
+        assertThat(tokens(page)).isLessThanOrEqualTo(300);
+        assertThat(page.tables().get(0).tableName()).isEqualTo("table_10");
+        assertThat(page.elision().nextOffset()).isEqualTo(10 + page.tables().size());
+        assertThat(rest.tables()).hasSize(5);
+        assertThat(rest.elision()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should drop column summaries, then rows, when a query result is over budget")
+    void testQueryResultChecked() throws Exception {
+        // Given
+        List<QueryResult.Column> columns = List.of(new QueryResult.Column("NOTE", "VARCHAR", Types.VARCHAR));
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(new Object[]{"row " + i + " with a fairly long note about the customer"});
+        }
+        List<ColumnSummary> summaries = List.of(new ColumnSummary("NOTE", 100, 0, "a".repeat(100), "z".repeat(100), 100,
+                List.of(new ColumnSummary.ValueCount("b".repeat(100), 2))));
+        QueryResult result = new QueryResult("SELECT note FROM notes", rows.size(), 100, columns, rows,
+                QueryResult.Format.VERBOSE,
+                new QueryResult.Truncation(QueryResult.Truncation.TOKEN_BUDGET, 100, 500, summaries), null);
+
+        // When
+        QueryResult shaped = shaper.shape(result, 300);
+
+        // Then
+        assertThat(tokens(shaped)).isLessThanOrEqualTo(300);
+        assertThat(shaped.rowCount()).isEqualTo(shaped.rows().size()).isLessThan(40);
+        assertThat(shaped.truncation().columnSummaries()).isNull();
+        assertThat(shaped.truncation().scannedRows()).isEqualTo(100);
+        assertThat(ResponseMetadata.extractElision(shaped).omitted())
+                .containsExactly("rows", "truncation.columnSummaries");
+    }
+
+    @Test
+    @DisplayName("Should measure a large response as its whole text counts, in every encoding")
+    void testMeasureMatchesCount() throws Exception {
+        // Given - several KB of nested, indented JSON
+        List<TableDetails.ColumnDetail> columns = IntStream.range(0, 60)
+                .mapToObj(i -> new TableDetails.ColumnDetail("column_" + i, i % 2 == 0 ? "VARCHAR" : "NUMERIC",
+                        255, i % 3, i % 2 == 0, i % 4 == 0 ? null : "'default " + i + "'", i == 0, i % 5 == 0))
+                .toList();
+        TableDetails details = new TableDetails("orders", "TABLE", columns,
+                List.of(new TableDetails.IndexInfo("idx_orders", false, "column_1", 1)), List.of(), List.of());
+        String text = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(details);
+        assertThat(text.length()).isGreaterThan(8 * 1024);
+
+        // When / Then
+        assertThat(shaper.measure(details, Integer.MAX_VALUE)).isEqualTo(counter.count(text));
+        try (McpCallContext.Scope ignored = McpCallContext.open(
+                new McpCallContext(ProgressChannel.NONE, new McpSession("gpt-4o")))) {
+            assertThat(shaper.measure(details, Integer.MAX_VALUE))
+                    .isEqualTo(registry.forEncoding(TokenCounterRegistry.O200K_BASE).count(text));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count a budget in the tokens of the session's model")
+    void testSessionModelCounter() throws Exception {
+        // Given
+        TriggerList triggers = triggers(2);
+        String text = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(triggers);
+        int o200k = registry.forEncoding(TokenCounterRegistry.O200K_BASE).count(text);
+
+        // When
+        int measured;
+        try (McpCallContext.Scope ignored = McpCallContext.open(
+                new McpCallContext(ProgressChannel.NONE, new McpSession("gpt-4o")))) {
+            measured = shaper.measure(triggers, Integer.MAX_VALUE);
+        }
+
+        // Then
+        assertThat(measured).isEqualTo(o200k).isNotEqualTo(tokens(triggers));
+        assertThat(shaper.measure(triggers, Integer.MAX_VALUE)).isEqualTo(tokens(triggers));
+    }
+
+    private static TriggerList triggers(int count) {
+        return new TriggerList("orders", IntStream.range(0, count)
+                .mapToObj(i -> new TriggerList.TriggerInfo("trg_orders_" + i, "UPDATE", "BEFORE",
+                        "BEGIN\n  IF NEW.status <> OLD.status THEN\n    INSERT INTO order_audit VALUES (NEW.id, OLD.status, NEW.status, now());\n  END IF;\nEND"))
+                .toList());
+    }
+
+    private int tokens(Object value) throws Exception {
+        return counter.count(new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(value));
+    }
+}
@@ -0,0 +1,165 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Load test: many concurrent open SSE streams against the streamable HTTP transport.
+ * Reports time-to-first-byte and total latency percentiles.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.streaming.row-batch-size=1",
+        "mcp.streaming.max-concurrent-streams=32",
+        "mcp.streaming.max-queued-streams=512",
+        "logging.level.com.magacho.aiToSql=WARN",
+        "logging.level.org.springframework.jdbc=WARN"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("SSE Streaming Load Test")
+class SseStreamingLoadTest {
+
+    private static final int STREAMS = 200;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SseStreamingTransport transport;
+
+    @Test
+    @DisplayName("Should serve many concurrent streams to completion")
+    void testConcurrentStreams() throws Exception {
+        // Given
+        HttpClient client = HttpClient.newBuilder().build();
+        String body = objectMapper.writeValueAsString(new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "SELECT * FROM customers")
+        ), 1));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + port + "/mcp"))
+                .header("Content-Type", "application/json")
+                .header("Accept", "text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+
+        // When
+        long start = System.nanoTime();
+        List<StreamStats> stats = new ArrayList<>();
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < STREAMS; i++) {
+            StreamStats stream = new StreamStats(System.nanoTime());
+            stats.add(stream);
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(stream)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(stats).allSatisfy(stream -> {
+            assertThat(stream.partials.get()).as("row batches").isEqualTo(5);
+            assertThat(stream.completed.get()).as("final response").isEqualTo(1);
+        });
+
+        long[] firstByteMs = stats.stream().mapToLong(s -> s.firstByteMs()).sorted().toArray();
+        long[] totalMs = stats.stream().mapToLong(s -> s.totalMs()).sorted().toArray();
+        System.out.printf("SSE load: %d streams in %d ms; first byte p50=%d p95=%d max=%d ms; "
+                        + "complete p50=%d p95=%d max=%d ms%n",
+                STREAMS, wallMs,
+                percentile(firstByteMs, 50), percentile(firstByteMs, 95), firstByteMs[firstByteMs.length - 1],
+                percentile(totalMs, 50), percentile(totalMs, 95), totalMs[totalMs.length - 1]);
+
+        // Each stream sees its first row batch before its final response
+        assertThat(stats).allSatisfy(s -> assertThat(s.firstByteMs()).isLessThanOrEqualTo(s.totalMs()));
+        assertThat(transport.openStreams()).isLessThanOrEqualTo(STREAMS);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static final class StreamStats implements Flow.Subscriber<String> {
+        private final long startNanos;
+        private final AtomicLong firstDataNanos = new AtomicLong();
+        private final AtomicLong endNanos = new AtomicLong();
+        private final AtomicInteger partials = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+
+        StreamStats(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        long firstByteMs() {
+            return TimeUnit.NANOSECONDS.toMillis(firstDataNanos.get() - startNanos);
+        }
+
+        long totalMs() {
+            return TimeUnit.NANOSECONDS.toMillis(endNanos.get() - startNanos);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            firstDataNanos.compareAndSet(0, System.nanoTime());
+            if (line.contains("partial_result")) {
+                partials.incrementAndGet();
+            } else if (line.contains("\"result\"") && line.contains("\"id\"")) {
+                completed.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            endNanos.set(System.nanoTime());
+        }
+
+        @Override
+        public void onComplete() {
+            endNanos.set(System.nanoTime());
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(new long[]{firstByteMs(), totalMs(), partials.get(), completed.get()});
+        }
+    }
+}
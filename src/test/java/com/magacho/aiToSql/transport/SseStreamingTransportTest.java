@@ -0,0 +1,129 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for the SSE (streamable HTTP) transport
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.streaming.row-batch-size=2",
+        "mcp.streaming.table-batch-size=1"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("SSE Streaming Transport Tests")
+class SseStreamingTransportTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("Should stream row batches and progress before the final response")
+    void testStreamsRowBatches() throws Exception {
+        // When
+        List<JsonNode> messages = call(new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "SELECT id, name FROM customers ORDER BY id")
+        ), 7));
+
+        // Then
+        List<JsonNode> partials = messages.stream()
+                .filter(m -> "notifications/tools/partial_result".equals(m.path("method").asText()))
+                .toList();
+        assertThat(partials).hasSize(3);
+        assertThat(partials.get(0).at("/params/progressToken").asInt()).isEqualTo(7);
+        assertThat(partials.get(0).at("/params/kind").asText()).isEqualTo("rows");
+        assertThat(partials.get(0).at("/params/chunk/columns").toString()).contains("NAME");
+        assertThat(partials.get(2).at("/params/chunk/offset").asInt()).isEqualTo(4);
+        assertThat(partials.get(2).at("/params/chunk/rows")).hasSize(1);
+
+        assertThat(messages).anyMatch(m -> "notifications/progress".equals(m.path("method").asText()));
+
+        JsonNode last = messages.get(messages.size() - 1);
+        assertThat(last.path("id").asInt()).isEqualTo(7);
+        assertThat(last.at("/result/isError").asBoolean()).isFalse();
+        assertThat(last.at("/result/meta/data/rowCount").asInt()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should stream schema tables in batches")
+    void testStreamsSchemaTables() throws Exception {
+        // When
+        List<JsonNode> messages = call(new JsonRpcRequest("tools/call", Map.of(
+                "name", "getSchemaStructure",
+                "arguments", Map.of("databaseName", "streaming-" + System.nanoTime()),
+                "_meta", Map.of("progressToken", "schema-1")
+        ), 8));
+
+        // Then
+        List<JsonNode> tableChunks = messages.stream()
+                .filter(m -> "tables".equals(m.at("/params/kind").asText()))
+                .toList();
+        assertThat(tableChunks).hasSizeGreaterThanOrEqualTo(3);
+        assertThat(tableChunks.get(0).at("/params/progressToken").asText()).isEqualTo("schema-1");
+        assertThat(messages.get(messages.size() - 1).path("result").isMissingNode()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should end the stream with a JSON-RPC error when the call fails")
+    void testStreamsErrors() throws Exception {
+        // When
+        List<JsonNode> messages = call(new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "DELETE FROM customers")
+        ), 9));
+
+        // Then
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0).at("/error/code").asInt()).isEqualTo(-32603);
+        assertThat(messages.get(0).at("/error/message").asText()).contains("Only SELECT");
+    }
+
+    private List<JsonNode> call(JsonRpcRequest request) throws Exception {
+        HttpResponse<java.util.stream.Stream<String>> response = client.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + "/mcp"))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "text/event-stream")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(request)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofLines());
+
+        assertThat(response.headers().firstValue("Content-Type").orElse("")).startsWith("text/event-stream");
+        List<JsonNode> messages = new ArrayList<>();
+        for (String line : (Iterable<String>) response.body()::iterator) {
+            if (line.startsWith("data:")) {
+                messages.add(objectMapper.readTree(line.substring(5)));
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,138 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.config.McpServerConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for the stdio transport
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Stdio Transport Tests")
+class StdioTransportTest {
+
+    @Autowired
+    private McpRequestDispatcher dispatcher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private McpServerConfig config;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private StdioTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        transport = new StdioTransport(dispatcher, objectMapper, config);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        transport.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should answer pipelined requests, one line per response")
+    void testPipelinedRequests() throws Exception {
+        // Given
+        StringBuilder input = new StringBuilder();
+        input.append("{\"jsonrpc\":\"2.0\",\"method\":\"initialize\",\"params\":{},\"id\":1}\n");
+        input.append("{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}\n");
+        for (int i = 2; i <= 21; i++) {
+            input.append("{\"jsonrpc\":\"2.0\",\"method\":\"tools/call\",\"params\":{\"name\":\"secureDatabaseQuery\","
+                    + "\"arguments\":{\"queryDescription\":\"SELECT COUNT(*) FROM customers\"}},\"id\":" + i + "}\n");
+        }
+
+        // When
+        List<JsonNode> messages = serve(input.toString());
+
+        // Then
+        assertThat(messages).hasSize(21);
+        assertThat(messages).extracting(m -> m.path("id").asInt())
+                .containsExactlyInAnyOrderElementsOf(range(1, 21));
+        assertThat(messages).allSatisfy(m -> assertThat(m.has("error")).isFalse());
+    }
+
+    @Test
+    @DisplayName("Should report parse errors and keep serving")
+    void testParseError() throws Exception {
+        // When
+        List<JsonNode> messages = serve("not json\n{\"jsonrpc\":\"2.0\",\"method\":\"ping\",\"id\":\"p\"}");
+
+        // Then
+        assertThat(messages).hasSize(2);
+        assertThat(messages).anyMatch(m -> m.at("/error/code").asInt() == -32700);
+        assertThat(messages).anyMatch(m -> "p".equals(m.path("id").asText())
+                && "ok".equals(m.at("/result/status").asText()));
+    }
+
+    @Test
+    @DisplayName("Should write progress notifications when a progress token is given")
+    void testProgressNotifications() throws Exception {
+        // When
+        List<JsonNode> messages = serve("{\"jsonrpc\":\"2.0\",\"method\":\"tools/call\",\"params\":{"
+                + "\"name\":\"secureDatabaseQuery\",\"_meta\":{\"progressToken\":\"t1\"},"
+                + "\"arguments\":{\"queryDescription\":\"SELECT * FROM customers\"}},\"id\":5}\n");
+
+        // Then
+        assertThat(messages.get(messages.size() - 1).path("id").asInt()).isEqualTo(5);
+        assertThat(messages).anyMatch(m -> "notifications/tools/partial_result".equals(m.path("method").asText())
+                && "t1".equals(m.at("/params/progressToken").asText()));
+    }
+
+    @Test
+    @DisplayName("Should not start the stdio runner in HTTP mode")
+    void testDisabledByDefault() {
+        assertThat(context.getBeansOfType(StdioTransport.class)).isEmpty();
+    }
+
+    private List<JsonNode> serve(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        transport.serve(
+                Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))),
+                Channels.newChannel(output));
+
+        List<JsonNode> messages = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                messages.add(objectMapper.readTree(line));
+            }
+        }
+        return messages;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,210 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Benchmark: small tool calls over POST /mcp versus one multiplexed WebSocket,
+ * at the same concurrency. Reports calls/sec and latency percentiles.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "logging.level.com.magacho.aiToSql=WARN",
+        "logging.level.org.springframework.jdbc=WARN"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("WebSocket vs HTTP Benchmark")
+class WebSocketBenchmarkTest {
+
+    private static final int CALLS = 2000;
+    private static final int WARMUP_CALLS = 300;
+    private static final int CONCURRENCY = 16;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should compare throughput and p99 latency of HTTP and WebSocket")
+    void testCompareTransports() throws Exception {
+        // Given
+        runHttp(WARMUP_CALLS);
+        runWebSocket(WARMUP_CALLS);
+
+        // When
+        Result http = runHttp(CALLS);
+        Result webSocket = runWebSocket(CALLS);
+
+        // Then
+        System.out.printf("%-10s %8s %10s %8s %8s %8s%n", "transport", "calls", "calls/sec", "p50 ms", "p99 ms", "max ms");
+        for (Result result : List.of(http, webSocket)) {
+            System.out.printf("%-10s %8d %10.0f %8.2f %8.2f %8.2f%n", result.name, result.latenciesNanos.length,
+                    result.callsPerSecond(), result.percentileMs(50), result.percentileMs(99), result.percentileMs(100));
+        }
+
+        assertThat(http.latenciesNanos).hasSize(CALLS);
+        assertThat(webSocket.latenciesNanos).hasSize(CALLS);
+        assertThat(http.errors).isZero();
+        assertThat(webSocket.errors).isZero();
+    }
+
+    /**
+     * CONCURRENCY client threads, each sending one POST at a time over keep-alive connections
+     */
+    private Result runHttp(int calls) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI uri = URI.create("http://localhost:" + port + "/mcp");
+        long[] latencies = new long[calls];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < CONCURRENCY; t++) {
+            futures.add(clients.submit(() -> {
+                for (int i = next.getAndIncrement(); i < calls; i = next.getAndIncrement()) {
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri)
+                                    .header("Content-Type", "application/json")
+                                    .header("Accept", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(body(i)))
+                                    .build(),
+                            HttpResponse.BodyHandlers.ofString());
+                    latencies[i] = System.nanoTime() - sent;
+                    if (objectMapper.readTree(response.body()).has("error")) {
+                        errors.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(120, TimeUnit.SECONDS);
+        }
+        long elapsed = System.nanoTime() - start;
+        clients.shutdown();
+        return new Result("http", latencies, elapsed, errors.get());
+    }
+
+    /**
+     * One socket with up to CONCURRENCY requests in flight
+     */
+    private Result runWebSocket(int calls) throws Exception {
+        long[] sentAt = new long[calls];
+        long[] latencies = new long[calls];
+        Semaphore window = new Semaphore(CONCURRENCY);
+        CountDownLatch done = new CountDownLatch(calls);
+        AtomicInteger errors = new AtomicInteger();
+        Map<Integer, Boolean> seen = new ConcurrentHashMap<>();
+
+        WebSocket.Listener listener = new WebSocket.Listener() {
+            private final StringBuilder partial = new StringBuilder();
+
+            @Override
+            public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                partial.append(data);
+                if (last) {
+                    try {
+                        JsonNode response = objectMapper.readTree(partial.toString());
+                        int id = response.path("id").asInt();
+                        latencies[id] = System.nanoTime() - sentAt[id];
+                        if (response.has("error")) {
+                            errors.incrementAndGet();
+                        }
+                        if (seen.putIfAbsent(id, Boolean.TRUE) == null) {
+                            window.release();
+                            done.countDown();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    partial.setLength(0);
+                }
+                webSocket.request(1);
+                return null;
+            }
+        };
+        WebSocket socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + port + "/mcp/ws"), listener)
+                .join();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            window.acquire();
+            sentAt[i] = System.nanoTime();
+            socket.sendText(body(i), true).join();
+        }
+        assertThat(done.await(120, TimeUnit.SECONDS)).isTrue();
+        long elapsed = System.nanoTime() - start;
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+        return new Result("websocket", latencies, elapsed, errors.get());
+    }
+
+    private String body(int id) throws Exception {
+        return objectMapper.writeValueAsString(new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", "SELECT COUNT(*) FROM customers")
+        ), id));
+    }
+
+    private static final class Result {
+        private final String name;
+        private final long[] latenciesNanos;
+        private final long elapsedNanos;
+        private final int errors;
+
+        Result(String name, long[] latenciesNanos, long elapsedNanos, int errors) {
+            this.name = name;
+            this.latenciesNanos = latenciesNanos.clone();
+            Arrays.sort(this.latenciesNanos);
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+        }
+
+        double callsPerSecond() {
+            return latenciesNanos.length / (elapsedNanos / 1e9);
+        }
+
+        double percentileMs(int percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * latenciesNanos.length) - 1;
+            return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))] / 1e6;
+        }
+    }
+}
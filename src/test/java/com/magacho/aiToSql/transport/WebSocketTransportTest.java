@@ -0,0 +1,249 @@
+package com.magacho.aiToSql.transport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.magacho.aiToSql.jsonrpc.JsonRpcRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.net.http.WebSocketHandshakeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Integration Tests for the WebSocket transport
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "mcp.websocket.max-in-flight-per-connection=2",
+        "mcp.websocket.admission-timeout-ms=1000"
+})
+@Sql(scripts = {"/test-schema.sql", "/test-data.sql"},
+     executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "classpath:cleanup.sql",
+     executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("WebSocket Transport Tests")
+class WebSocketTransportTest {
+
+    private static final String SLOW_QUERY =
+            "SELECT SUM(a.X * b.X) FROM SYSTEM_RANGE(1, 3000) a, SYSTEM_RANGE(1, 3000) b";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WebSocketTransport transport;
+
+    private MessageCollector collector;
+    private WebSocket socket;
+
+    @BeforeEach
+    void connect() {
+        collector = new MessageCollector(objectMapper);
+        socket = HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + port + "/mcp/ws"), collector)
+                .join();
+    }
+
+    @AfterEach
+    void disconnect() {
+        socket.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+    }
+
+    @Test
+    @DisplayName("Should multiplex many requests on one connection")
+    void testMultiplexedRequests() throws Exception {
+        // When
+        for (int i = 1; i <= 20; i++) {
+            send(new JsonRpcRequest("tools/call", Map.of(
+                    "name", "secureDatabaseQuery",
+                    "arguments", Map.of("queryDescription", "SELECT COUNT(*) FROM customers")
+            ), i));
+        }
+
+        // Then
+        List<JsonNode> responses = collector.take(20);
+        assertThat(responses).extracting(m -> m.path("id").asInt())
+                .containsExactlyInAnyOrderElementsOf(range(1, 20));
+        assertThat(responses).allSatisfy(m -> assertThat(m.has("error")).isFalse());
+        assertThat(transport.openConnections()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should answer a fast call before a slow one sent earlier")
+    void testOutOfOrderResponses() throws Exception {
+        // When
+        send(new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "arguments", Map.of("queryDescription", SLOW_QUERY)
+        ), "slow"));
+        send(new JsonRpcRequest("ping", null, "fast"));
+
+        // Then
+        List<JsonNode> responses = collector.take(2);
+        assertThat(responses.get(0).path("id").asText()).isEqualTo("fast");
+        assertThat(responses.get(1).path("id").asText()).isEqualTo("slow");
+    }
+
+    @Test
+    @DisplayName("Should reject calls beyond the per-connection in-flight limit")
+    void testBackpressure() throws Exception {
+        // When
+        for (String id : List.of("slow-1", "slow-2")) {
+            send(new JsonRpcRequest("tools/call", Map.of(
+                    "name", "secureDatabaseQuery",
+                    "arguments", Map.of("queryDescription", SLOW_QUERY)
+            ), id));
+        }
+        send(new JsonRpcRequest("ping", null, "overflow"));
+
+        // Then
+        List<JsonNode> responses = collector.take(3);
+        JsonNode overflow = responses.stream()
+                .filter(m -> "overflow".equals(m.path("id").asText()))
+                .findFirst().orElseThrow();
+        assertThat(overflow.at("/error/code").asInt()).isEqualTo(-32003);
+        assertThat(responses).filteredOn(m -> m.path("id").asText().startsWith("slow"))
+                .allSatisfy(m -> assertThat(m.has("result")).isTrue());
+    }
+
+    @Test
+    @DisplayName("Should send progress notifications for calls with a progress token")
+    void testProgressNotifications() throws Exception {
+        // When
+        send(new JsonRpcRequest("tools/call", Map.of(
+                "name", "secureDatabaseQuery",
+                "_meta", Map.of("progressToken", "p-1"),
+                "arguments", Map.of("queryDescription", "SELECT * FROM customers")
+        ), 42));
+
+        // Then
+        List<JsonNode> messages = new ArrayList<>();
+        JsonNode message;
+        do {
+            message = collector.take(1).get(0);
+            messages.add(message);
+        } while (!message.has("id"));
+        assertThat(message.path("id").asInt()).isEqualTo(42);
+        assertThat(messages).anyMatch(m -> "notifications/tools/partial_result".equals(m.path("method").asText())
+                && "p-1".equals(m.at("/params/progressToken").asText()));
+    }
+
+    @Test
+    @DisplayName("Should answer unparseable frames with a parse error")
+    void testParseError() throws Exception {
+        // When
+        socket.sendText("{not json", true).join();
+
+        // Then
+        assertThat(collector.take(1).get(0).at("/error/code").asInt()).isEqualTo(-32700);
+    }
+
+    @Test
+    @DisplayName("Should bill later calls on the connection for the model selected at initialize")
+    void testModelSelectedAtInitialize() throws Exception {
+        // Given
+        send(new JsonRpcRequest("initialize", Map.of("model", "gpt-4o-mini"), 1));
+        collector.take(1);
+
+        // When
+        send(new JsonRpcRequest("tools/call", Map.of(
+                "name", "getTableDetails",
+                "arguments", Map.of("tableName", "customers")
+        ), 2));
+
+        // Then
+        JsonNode response = collector.take(1).get(0);
+        assertThat(response.at("/result/meta/cost/model").asText()).isEqualTo("gpt-4o-mini");
+        assertThat(response.at("/result/meta/tokens/approximationMethod").asText()).isEqualTo("bpe_o200k_base");
+    }
+
+    @Test
+    @DisplayName("Should refuse handshakes from a foreign browser origin")
+    void testForeignOrigin() {
+        // Given
+        URI endpoint = URI.create("ws://localhost:" + port + "/mcp/ws");
+
+        // When / Then
+        assertThatThrownBy(() -> HttpClient.newHttpClient().newWebSocketBuilder()
+                .header("Origin", "https://attacker.example")
+                .buildAsync(endpoint, new MessageCollector(objectMapper))
+                .join())
+                .hasCauseInstanceOf(WebSocketHandshakeException.class)
+                .satisfies(e -> assertThat(((WebSocketHandshakeException) e.getCause()).getResponse().statusCode())
+                        .isEqualTo(403));
+        WebSocket sameOrigin = HttpClient.newHttpClient().newWebSocketBuilder()
+                .header("Origin", "http://localhost:" + port)
+                .buildAsync(endpoint, new MessageCollector(objectMapper))
+                .join();
+        sameOrigin.sendClose(WebSocket.NORMAL_CLOSURE, "done").join();
+    }
+
+    private void send(JsonRpcRequest request) throws Exception {
+        socket.sendText(objectMapper.writeValueAsString(request), true).join();
+    }
+
+    private static List<Integer> range(int from, int to) {
+        List<Integer> values = new ArrayList<>();
+        for (int i = from; i <= to; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    /**
+     * Collects complete text messages in arrival order
+     */
+    static final class MessageCollector implements WebSocket.Listener {
+        private final ObjectMapper objectMapper;
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final StringBuilder partial = new StringBuilder();
+
+        MessageCollector(ObjectMapper objectMapper) {
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                messages.add(partial.toString());
+                partial.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        List<JsonNode> take(int count) throws Exception {
+            List<JsonNode> taken = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String message = messages.poll(30, TimeUnit.SECONDS);
+                assertThat(message).as("message %d of %d", i + 1, count).isNotNull();
+                taken.add(objectMapper.readTree(message));
+            }
+            return taken;
+        }
+    }
+}